@@ -13,6 +13,10 @@ import com.google.android.gms.ads.MobileAds;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.jjundev.oneclickeng.billing.BillingStartupDiagnostics;
+import com.jjundev.oneclickeng.manager_gemini.CachedContentRegistry;
+import com.jjundev.oneclickeng.manager_gemini.GeminiRequestScheduler;
+import com.jjundev.oneclickeng.settings.AppSettings;
+import com.jjundev.oneclickeng.settings.AppSettingsStore;
 import java.io.File;
 
 @UnstableApi
@@ -35,6 +39,10 @@ public class OneClickEngApplication extends Application {
             user != null,
             user != null ? user.getUid() : null));
     MobileAds.initialize(this, initializationStatus -> {});
+    AppSettings settings = new AppSettingsStore(this).getSettings();
+    GeminiRequestScheduler.getInstance().registerModels(settings);
+    CachedContentRegistry.getInstance(this)
+        .validatePersisted(settings.resolveEffectiveApiKey(BuildConfig.GEMINI_API_KEY));
   }
 
   @NonNull
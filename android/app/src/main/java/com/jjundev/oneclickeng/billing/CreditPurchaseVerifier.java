@@ -9,6 +9,7 @@ import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.jjundev.oneclickeng.manager_gemini.GeminiTransport;
 import java.io.IOException;
 import java.util.Locale;
 import okhttp3.MediaType;
@@ -35,7 +36,11 @@ public final class CreditPurchaseVerifier {
   private final Handler mainHandler;
 
   public CreditPurchaseVerifier(@NonNull String verifyUrl) {
-    this(verifyUrl, FirebaseAuth.getInstance(), new OkHttpClient(), new Handler(Looper.getMainLooper()));
+    this(
+        verifyUrl,
+        FirebaseAuth.getInstance(),
+        GeminiTransport.getInstance().client(),
+        new Handler(Looper.getMainLooper()));
   }
 
   CreditPurchaseVerifier(
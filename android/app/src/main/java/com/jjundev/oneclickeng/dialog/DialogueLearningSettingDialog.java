@@ -21,12 +21,17 @@ import com.jjundev.oneclickeng.settings.AppSettingsStore;
 
 public class DialogueLearningSettingDialog extends DialogFragment {
   private static final String TAG = "JOB_J-20260216-005";
+  private static final long AUTO_STOP_SILENCE_STEP_MS = 500L;
 
   @Nullable private AppSettingsStore appSettingsStore;
 
   private boolean bindingState;
 
   private SwitchMaterial switchMuteAll;
+  private SwitchMaterial switchLiveSpeakingAnalysis;
+  private SwitchMaterial switchFlacAudioUpload;
+  private SeekBar seekAutoStopSilence;
+  private TextView tvAutoStopSilenceValue;
   private SeekBar seekTtsRate;
   private TextView tvTtsRateValue;
   private TextView tvTtsProviderDesc;
@@ -77,6 +82,10 @@ public class DialogueLearningSettingDialog extends DialogFragment {
 
   private void bindViews(@NonNull View view) {
     switchMuteAll = view.findViewById(R.id.switch_mute_all);
+    switchLiveSpeakingAnalysis = view.findViewById(R.id.switch_live_speaking_analysis);
+    switchFlacAudioUpload = view.findViewById(R.id.switch_flac_audio_upload);
+    seekAutoStopSilence = view.findViewById(R.id.seek_auto_stop_silence);
+    tvAutoStopSilenceValue = view.findViewById(R.id.tv_auto_stop_silence_value);
     seekTtsRate = view.findViewById(R.id.seek_tts_rate);
     tvTtsRateValue = view.findViewById(R.id.tv_tts_rate_value);
     tvTtsProviderDesc = view.findViewById(R.id.tv_tts_provider_desc);
@@ -98,6 +107,58 @@ public class DialogueLearningSettingDialog extends DialogFragment {
           logDebug("Saved mute setting: " + isChecked);
         });
 
+    switchLiveSpeakingAnalysis.setOnCheckedChangeListener(
+        (buttonView, isChecked) -> {
+          if (bindingState) {
+            return;
+          }
+          AppSettingsStore store = appSettingsStore;
+          if (store == null) {
+            return;
+          }
+          store.setLiveSpeakingAnalysis(isChecked);
+          logDebug("Saved live speaking analysis setting: " + isChecked);
+        });
+
+    switchFlacAudioUpload.setOnCheckedChangeListener(
+        (buttonView, isChecked) -> {
+          if (bindingState) {
+            return;
+          }
+          AppSettingsStore store = appSettingsStore;
+          if (store == null) {
+            return;
+          }
+          store.setFlacAudioUpload(isChecked);
+          logDebug("Saved FLAC audio upload setting: " + isChecked);
+        });
+
+    seekAutoStopSilence.setMax(
+        (int) (AppSettings.MAX_AUTO_STOP_SILENCE_MS / AUTO_STOP_SILENCE_STEP_MS));
+    seekAutoStopSilence.setOnSeekBarChangeListener(
+        new SeekBar.OnSeekBarChangeListener() {
+          @Override
+          public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+            long silenceMs = progress * AUTO_STOP_SILENCE_STEP_MS;
+            renderAutoStopSilence(silenceMs);
+            if (!fromUser || bindingState) {
+              return;
+            }
+            AppSettingsStore store = appSettingsStore;
+            if (store != null) {
+              store.setAutoStopSilenceMs(silenceMs);
+            }
+          }
+
+          @Override
+          public void onStartTrackingTouch(SeekBar seekBar) {}
+
+          @Override
+          public void onStopTrackingTouch(SeekBar seekBar) {
+            logDebug("Saved auto-stop silence.");
+          }
+        });
+
     seekTtsRate.setMax(100);
     seekTtsRate.setOnSeekBarChangeListener(
         new SeekBar.OnSeekBarChangeListener() {
@@ -174,6 +235,11 @@ public class DialogueLearningSettingDialog extends DialogFragment {
     AppSettings settings = store.getSettings();
     bindingState = true;
     switchMuteAll.setChecked(settings.isMuteAllPlayback());
+    switchLiveSpeakingAnalysis.setChecked(settings.isLiveSpeakingAnalysis());
+    switchFlacAudioUpload.setChecked(settings.isFlacAudioUpload());
+    seekAutoStopSilence.setProgress(
+        Math.round(settings.getAutoStopSilenceMs() / (float) AUTO_STOP_SILENCE_STEP_MS));
+    renderAutoStopSilence(settings.getAutoStopSilenceMs());
 
     int speechRateProgress = speechRateToProgress(settings.getTtsSpeechRate());
     seekTtsRate.setProgress(speechRateProgress);
@@ -211,6 +277,15 @@ public class DialogueLearningSettingDialog extends DialogFragment {
     tvTtsProviderDesc.setText(descriptionTextResId);
   }
 
+  private void renderAutoStopSilence(long silenceMs) {
+    if (silenceMs <= 0L) {
+      tvAutoStopSilenceValue.setText(R.string.settings_auto_stop_silence_off);
+    } else {
+      tvAutoStopSilenceValue.setText(
+          getString(R.string.settings_auto_stop_silence_format, silenceMs / 1000f));
+    }
+  }
+
   private int speechRateToProgress(float speechRate) {
     float clamped = Math.max(0.5f, Math.min(speechRate, 1.5f));
     return Math.round((clamped - 0.5f) * 100f);
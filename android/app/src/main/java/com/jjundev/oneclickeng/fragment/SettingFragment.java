@@ -38,6 +38,7 @@ import com.jjundev.oneclickeng.credit.CreditHistoryEventLogger;
 import com.jjundev.oneclickeng.dialog.LearningDataResetDialog;
 import com.jjundev.oneclickeng.dialog.LearningMetricsResetDialog;
 import com.jjundev.oneclickeng.dialog.LogoutConfirmDialog;
+import com.jjundev.oneclickeng.manager_gemini.GeminiTtsAudioCache;
 import com.jjundev.oneclickeng.settings.AppSettingsStore;
 import com.jjundev.oneclickeng.settings.LearningDataRetentionPolicy;
 import com.jjundev.oneclickeng.settings.LearningPointAwardSpec;
@@ -50,6 +51,8 @@ import com.jjundev.oneclickeng.settings.UserNicknameCloudRepository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class SettingFragment extends Fragment
     implements LearningDataResetDialog.OnLearningDataResetListener,
@@ -65,6 +68,8 @@ public class SettingFragment extends Fragment
   private static final long CREATOR_DEVELOPER_BONUS_STUDY_MILLIS = 600_000L;
   private static final int CREATOR_DEVELOPER_BONUS_POINTS = 40;
   private static final String CREATOR_DEVELOPER_BONUS_MODE_ID = "settings_creator_bonus";
+  // The first stats read lists the TTS cache directory, so it runs off the main thread.
+  private static final ExecutorService cacheStatsExecutor = Executors.newSingleThreadExecutor();
   private static final String CREATOR_DEVELOPER_BONUS_DIFFICULTY = "intermediate";
   private static final String CREATOR_DEVELOPER_BONUS_SESSION_PREFIX = "creator_bonus_";
   private static final long CREATOR_PLANNER_BONUS_STUDY_MILLIS = 1_200_000L;
@@ -106,6 +111,7 @@ public class SettingFragment extends Fragment
 
   private TextView tvAppVersion;
   private TextView tvAppVersionCode;
+  private TextView tvTtsCacheStats;
   private TextView tvLogout;
   private int creatorPlannerTapCount;
   private long creatorPlannerWindowStartElapsedMs = TAP_WINDOW_UNSET;
@@ -190,6 +196,7 @@ public class SettingFragment extends Fragment
     tvProfileEmailValue = view.findViewById(R.id.tv_profile_email_value);
     tvAppVersion = view.findViewById(R.id.tv_app_version);
     tvAppVersionCode = view.findViewById(R.id.tv_app_version_code);
+    tvTtsCacheStats = view.findViewById(R.id.tv_tts_cache_stats);
     tvLogout = view.findViewById(R.id.tv_logout);
 
     layoutCreditRemaining = view.findViewById(R.id.layout_credit_remaining);
@@ -1123,10 +1130,38 @@ public class SettingFragment extends Fragment
     fetchNicknameFromCloud();
     renderProfileEmail();
     fetchUserCredit();
+    renderTtsCacheStats();
 
     bindingState = false;
   }
 
+  private void renderTtsCacheStats() {
+    TextView statsView = tvTtsCacheStats;
+    if (statsView == null) {
+      return;
+    }
+    GeminiTtsAudioCache cache = GeminiTtsAudioCache.getInstance(requireContext());
+    cacheStatsExecutor.execute(
+        () -> {
+          GeminiTtsAudioCache.Stats stats = cache.getStats();
+          statsView.post(
+              () -> {
+                if (!isAdded() || tvTtsCacheStats != statsView) {
+                  return;
+                }
+                long lookups = stats.getHits() + stats.getMisses();
+                statsView.setText(
+                    getString(
+                        R.string.settings_tts_cache_stats,
+                        Math.round(stats.getHitRate() * 100f),
+                        stats.getHits(),
+                        lookups,
+                        stats.getEntryCount(),
+                        stats.getSizeBytes() / (1024f * 1024f)));
+              });
+        });
+  }
+
   private void fetchNicknameFromCloud() {
     UserNicknameCloudRepository nicknameRepository = userNicknameCloudRepository;
     if (nicknameRepository == null) {
@@ -1,5 +1,10 @@
 package com.jjundev.oneclickeng.fragment.history;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.fragment.history.model.SavedCard;
+import java.util.UUID;
+
 public class HistoryItemWrapper {
   public static final int TYPE_WORD = 0;
   public static final int TYPE_EXPRESSION = 1;
@@ -9,11 +14,26 @@ public class HistoryItemWrapper {
   private final int type;
   private final Object data;
   private final long learnedAtEpochMs;
+  @NonNull private final String cardId;
+  private final long stableId;
+  private final boolean saved;
 
   public HistoryItemWrapper(int type, Object data, long learnedAtEpochMs) {
+    this(type, data, learnedAtEpochMs, null, true);
+  }
+
+  /**
+   * @param cardId the saved_cards document ID; derived from {@code data} when null
+   * @param saved false while the card is being removed
+   */
+  public HistoryItemWrapper(
+      int type, Object data, long learnedAtEpochMs, @Nullable String cardId, boolean saved) {
     this.type = type;
     this.data = data;
     this.learnedAtEpochMs = learnedAtEpochMs;
+    this.cardId = cardId != null ? cardId : SavedCard.idFor(data);
+    this.stableId = toStableId(this.cardId);
+    this.saved = saved;
   }
 
   public int getType() {
@@ -27,4 +47,41 @@ public class HistoryItemWrapper {
   public long getLearnedAtEpochMs() {
     return learnedAtEpochMs;
   }
+
+  /** saved_cards document ID, identical to the one the summary screen saves the card under. */
+  @NonNull
+  public String getCardId() {
+    return cardId;
+  }
+
+  /** RecyclerView stable ID derived from {@link #getCardId()}. */
+  public long getStableId() {
+    return stableId;
+  }
+
+  public boolean isSaved() {
+    return saved;
+  }
+
+  @NonNull
+  public HistoryItemWrapper withSaved(boolean saved) {
+    if (this.saved == saved) {
+      return this;
+    }
+    return new HistoryItemWrapper(type, data, learnedAtEpochMs, cardId, saved);
+  }
+
+  private static long toStableId(@NonNull String cardId) {
+    try {
+      UUID uuid = UUID.fromString(cardId);
+      return uuid.getMostSignificantBits() ^ uuid.getLeastSignificantBits();
+    } catch (IllegalArgumentException e) {
+      // Not a UUID-shaped document ID; fold the string into 64 bits instead.
+      long hash = 1125899906842597L;
+      for (int i = 0; i < cardId.length(); i++) {
+        hash = 31 * hash + cardId.charAt(i);
+      }
+      return hash;
+    }
+  }
 }
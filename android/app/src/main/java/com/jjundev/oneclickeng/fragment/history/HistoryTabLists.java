@@ -0,0 +1,200 @@
+package com.jjundev.oneclickeng.fragment.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One saved_cards snapshot, newest first, already split into the history screen's tabs.
+ *
+ * <p>Built once per snapshot off the main thread, so switching tabs only hands a ready list to the
+ * adapter. Each tab keeps every card ({@link #tabItems(int)}) plus its own page limit: {@link
+ * #forTab(int)} holds at most that many of the newest cards, while {@link #getTabTotal(int)} still
+ * counts every card. {@link #all()} is never paged. Instances are immutable.
+ */
+public final class HistoryTabLists {
+  public static final int TAB_EXPRESSION = 0;
+  public static final int TAB_WORD = 1;
+  public static final int TAB_SENTENCE = 2;
+  static final int TAB_COUNT = 3;
+
+  /** Newest first; equal timestamps are ordered by card ID so the order is total. */
+  static final Comparator<HistoryItemWrapper> NEWEST_FIRST =
+      (a, b) -> {
+        int byTime = Long.compare(b.getLearnedAtEpochMs(), a.getLearnedAtEpochMs());
+        return byTime != 0 ? byTime : a.getCardId().compareTo(b.getCardId());
+      };
+
+  public static final HistoryTabLists EMPTY = new HistoryTabLists(new ArrayList<>());
+
+  @NonNull private final List<List<HistoryItemWrapper>> tabs;
+  @NonNull private final List<List<HistoryItemWrapper>> pages;
+  @NonNull private final int[] tabLimits;
+  // Merged from the tabs on first use; only the quiz and tests need it.
+  @Nullable private volatile List<HistoryItemWrapper> all;
+
+  /**
+   * @param items the snapshot's cards; sorted here, newest first, with unpaged tabs. Cards of a
+   *     type no tab shows are dropped.
+   */
+  public HistoryTabLists(@NonNull List<HistoryItemWrapper> items) {
+    List<HistoryItemWrapper> sortedAll = new ArrayList<>(items.size());
+    for (HistoryItemWrapper item : items) {
+      if (tabOf(item.getType()) >= 0) {
+        sortedAll.add(item);
+      }
+    }
+    sortedAll.sort(NEWEST_FIRST);
+    List<List<HistoryItemWrapper>> tabLists = new ArrayList<>(TAB_COUNT);
+    for (int tab = 0; tab < TAB_COUNT; tab++) {
+      tabLists.add(new ArrayList<>());
+    }
+    for (HistoryItemWrapper item : sortedAll) {
+      tabLists.get(tabOf(item.getType())).add(item);
+    }
+    int[] unpaged = new int[TAB_COUNT];
+    Arrays.fill(unpaged, Integer.MAX_VALUE);
+    this.tabs = freeze(tabLists);
+    this.tabLimits = unpaged;
+    this.pages = pagesOf(this.tabs, unpaged);
+    this.all = Collections.unmodifiableList(sortedAll);
+  }
+
+  private HistoryTabLists(@NonNull List<List<HistoryItemWrapper>> tabs, @NonNull int[] tabLimits) {
+    this.tabs = Collections.unmodifiableList(tabs);
+    this.tabLimits = tabLimits;
+    this.pages = pagesOf(this.tabs, tabLimits);
+  }
+
+  /**
+   * Builds from unmodifiable per-tab lists already in {@link #NEWEST_FIRST} order, keeping them
+   * as-is, so a caller can hand over the same list for every tab that did not change.
+   *
+   * @param tabLimits page size of each tab, indexed by tab position
+   */
+  @NonNull
+  static HistoryTabLists fromTabs(
+      @NonNull List<List<HistoryItemWrapper>> sortedTabs, @NonNull int[] tabLimits) {
+    int[] limits = new int[TAB_COUNT];
+    for (int tab = 0; tab < TAB_COUNT; tab++) {
+      limits[tab] = tab < tabLimits.length ? Math.max(0, tabLimits[tab]) : 0;
+    }
+    return new HistoryTabLists(new ArrayList<>(sortedTabs), limits);
+  }
+
+  @NonNull
+  public List<HistoryItemWrapper> all() {
+    List<HistoryItemWrapper> merged = all;
+    if (merged == null) {
+      merged = new ArrayList<>();
+      for (List<HistoryItemWrapper> tab : tabs) {
+        merged.addAll(tab);
+      }
+      merged.sort(NEWEST_FIRST);
+      merged = Collections.unmodifiableList(merged);
+      all = merged;
+    }
+    return merged;
+  }
+
+  /** The tab's current page. */
+  @NonNull
+  public List<HistoryItemWrapper> forTab(int tabPosition) {
+    if (tabPosition < 0 || tabPosition >= pages.size()) {
+      return Collections.emptyList();
+    }
+    return pages.get(tabPosition);
+  }
+
+  /** Every card in the tab, including those beyond the current page. */
+  @NonNull
+  public List<HistoryItemWrapper> tabItems(int tabPosition) {
+    if (tabPosition < 0 || tabPosition >= tabs.size()) {
+      return Collections.emptyList();
+    }
+    return tabs.get(tabPosition);
+  }
+
+  /** Number of cards in the tab, including those beyond the current page. */
+  public int getTabTotal(int tabPosition) {
+    return tabItems(tabPosition).size();
+  }
+
+  public boolean hasMore(int tabPosition) {
+    return getTabTotal(tabPosition) > forTab(tabPosition).size();
+  }
+
+  /** Copy with the given cards' saved flags set, or this instance when none of them change. */
+  @NonNull
+  public HistoryTabLists withSaved(@NonNull Set<String> cardIds, boolean saved) {
+    if (cardIds.isEmpty()) {
+      return this;
+    }
+    boolean changed = false;
+    List<List<HistoryItemWrapper>> updatedTabs = new ArrayList<>(tabs.size());
+    for (List<HistoryItemWrapper> tab : tabs) {
+      List<HistoryItemWrapper> updatedTab = null;
+      for (int i = 0; i < tab.size(); i++) {
+        HistoryItemWrapper item = tab.get(i);
+        if (!cardIds.contains(item.getCardId())) {
+          continue;
+        }
+        HistoryItemWrapper next = item.withSaved(saved);
+        if (next == item) {
+          continue;
+        }
+        if (updatedTab == null) {
+          updatedTab = new ArrayList<>(tab);
+        }
+        updatedTab.set(i, next);
+      }
+      changed |= updatedTab != null;
+      updatedTabs.add(updatedTab == null ? tab : Collections.unmodifiableList(updatedTab));
+    }
+    if (!changed) {
+      return this;
+    }
+    return new HistoryTabLists(updatedTabs, tabLimits);
+  }
+
+  static int tabOf(int itemType) {
+    switch (itemType) {
+      case HistoryItemWrapper.TYPE_EXPRESSION:
+        return TAB_EXPRESSION;
+      case HistoryItemWrapper.TYPE_WORD:
+        return TAB_WORD;
+      case HistoryItemWrapper.TYPE_SENTENCE:
+        return TAB_SENTENCE;
+      default:
+        return -1;
+    }
+  }
+
+  /** Pages are views over the immutable tab lists, so paging copies nothing. */
+  @NonNull
+  private static List<List<HistoryItemWrapper>> pagesOf(
+      @NonNull List<List<HistoryItemWrapper>> tabs, @NonNull int[] tabLimits) {
+    List<List<HistoryItemWrapper>> pages = new ArrayList<>(tabs.size());
+    for (int tab = 0; tab < tabs.size(); tab++) {
+      List<HistoryItemWrapper> items = tabs.get(tab);
+      int limit = Math.min(items.size(), tabLimits[tab]);
+      pages.add(limit == items.size() ? items : items.subList(0, limit));
+    }
+    return Collections.unmodifiableList(pages);
+  }
+
+  @NonNull
+  private static List<List<HistoryItemWrapper>> freeze(
+      @NonNull List<List<HistoryItemWrapper>> tabLists) {
+    List<List<HistoryItemWrapper>> frozen = new ArrayList<>(tabLists.size());
+    for (List<HistoryItemWrapper> tab : tabLists) {
+      frozen.add(Collections.unmodifiableList(tab));
+    }
+    return frozen;
+  }
+}
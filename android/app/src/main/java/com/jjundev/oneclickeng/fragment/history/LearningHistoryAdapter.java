@@ -12,7 +12,10 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.card.MaterialCardView;
 import com.jjundev.oneclickeng.R;
@@ -20,64 +23,48 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 
-public class LearningHistoryAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class LearningHistoryAdapter
+    extends ListAdapter<HistoryItemWrapper, RecyclerView.ViewHolder> {
 
   // Same logic as SessionSummaryBinder for save states and expressions
   // Duplicated some logic here or could refactor Binder later
 
+  /** Payload for a change that only toggled the card's saved state. */
+  static final Object PAYLOAD_SAVED_STATE = new Object();
+
+  private static final float UNSAVED_ALPHA = 0.4f;
+
   public interface OnItemClickListener {
     void onItemClick(HistoryItemWrapper item);
   }
 
-  private List<HistoryItemWrapper> allItems = new ArrayList<>();
-  private List<HistoryItemWrapper> filteredList = new ArrayList<>();
   private OnItemClickListener listener;
 
   public LearningHistoryAdapter(OnItemClickListener listener) {
+    super(DIFF_CALLBACK);
     this.listener = listener;
+    setHasStableIds(true);
   }
 
-  public void submitList(List<HistoryItemWrapper> items, int tabPosition) {
-    this.allItems = items;
-    filter(tabPosition);
-  }
-
+  @Override
   public HistoryItemWrapper getItem(int position) {
-    if (position >= 0 && position < filteredList.size()) {
-      return filteredList.get(position);
+    if (position >= 0 && position < getItemCount()) {
+      return super.getItem(position);
     }
     return null;
   }
 
-  private void filter(int tabPosition) {
-    filteredList.clear();
-    int targetType = -1;
-    switch (tabPosition) {
-      case 0:
-        targetType = HistoryItemWrapper.TYPE_EXPRESSION;
-        break; // 표현
-      case 1:
-        targetType = HistoryItemWrapper.TYPE_WORD;
-        break; // 단어
-      case 2:
-        targetType = HistoryItemWrapper.TYPE_SENTENCE;
-        break; // 문장
-    }
-    if (targetType != -1) {
-      for (HistoryItemWrapper item : allItems) {
-        if (item.getType() == targetType) {
-          filteredList.add(item);
-        }
-      }
-    }
-    notifyDataSetChanged();
+  @Override
+  public long getItemId(int position) {
+    return super.getItem(position).getStableId();
   }
 
   @Override
   public int getItemViewType(int position) {
-    return filteredList.get(position).getType();
+    return super.getItem(position).getType();
   }
 
   @NonNull
@@ -100,7 +87,7 @@ public class LearningHistoryAdapter extends RecyclerView.Adapter<RecyclerView.Vi
 
   @Override
   public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-    HistoryItemWrapper item = filteredList.get(position);
+    HistoryItemWrapper item = super.getItem(position);
     switch (item.getType()) {
       case HistoryItemWrapper.TYPE_WORD:
         ((WordViewHolder) holder).bind((SummaryData.WordItem) item.getData(), listener, item);
@@ -114,11 +101,94 @@ public class LearningHistoryAdapter extends RecyclerView.Adapter<RecyclerView.Vi
             .bind((SummaryData.SentenceItem) item.getData(), listener, item);
         break;
     }
+    bindSavedState(holder, item);
   }
 
   @Override
-  public int getItemCount() {
-    return filteredList.size();
+  public void onBindViewHolder(
+      @NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+    if (payloads.isEmpty() || !onlySavedStateChanged(payloads)) {
+      onBindViewHolder(holder, position);
+      return;
+    }
+    bindSavedState(holder, super.getItem(position));
+  }
+
+  private static boolean onlySavedStateChanged(@NonNull List<Object> payloads) {
+    for (Object payload : payloads) {
+      if (payload != PAYLOAD_SAVED_STATE) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void bindSavedState(
+      @NonNull RecyclerView.ViewHolder holder, @NonNull HistoryItemWrapper item) {
+    holder.itemView.setAlpha(item.isSaved() ? 1f : UNSAVED_ALPHA);
+  }
+
+  static final DiffUtil.ItemCallback<HistoryItemWrapper> DIFF_CALLBACK =
+      new DiffUtil.ItemCallback<HistoryItemWrapper>() {
+        @Override
+        public boolean areItemsTheSame(
+            @NonNull HistoryItemWrapper oldItem, @NonNull HistoryItemWrapper newItem) {
+          return oldItem.getType() == newItem.getType()
+              && oldItem.getCardId().equals(newItem.getCardId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(
+            @NonNull HistoryItemWrapper oldItem, @NonNull HistoryItemWrapper newItem) {
+          // The learned-at time only affects ordering, which the diff already handles as a move.
+          return oldItem.isSaved() == newItem.isSaved() && hasSameCardContent(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(
+            @NonNull HistoryItemWrapper oldItem, @NonNull HistoryItemWrapper newItem) {
+          if (oldItem.isSaved() != newItem.isSaved() && hasSameCardContent(oldItem, newItem)) {
+            return PAYLOAD_SAVED_STATE;
+          }
+          return null;
+        }
+      };
+
+  static boolean hasSameCardContent(
+      @NonNull HistoryItemWrapper oldItem, @NonNull HistoryItemWrapper newItem) {
+    Object oldData = oldItem.getData();
+    Object newData = newItem.getData();
+    if (oldData == newData) {
+      return true;
+    }
+    if (oldData instanceof SummaryData.WordItem && newData instanceof SummaryData.WordItem) {
+      SummaryData.WordItem a = (SummaryData.WordItem) oldData;
+      SummaryData.WordItem b = (SummaryData.WordItem) newData;
+      return Objects.equals(a.getEnglish(), b.getEnglish())
+          && Objects.equals(a.getKorean(), b.getKorean())
+          && Objects.equals(a.getExampleEnglish(), b.getExampleEnglish())
+          && Objects.equals(a.getExampleKorean(), b.getExampleKorean());
+    }
+    if (oldData instanceof SummaryData.ExpressionItem
+        && newData instanceof SummaryData.ExpressionItem) {
+      SummaryData.ExpressionItem a = (SummaryData.ExpressionItem) oldData;
+      SummaryData.ExpressionItem b = (SummaryData.ExpressionItem) newData;
+      return Objects.equals(a.getType(), b.getType())
+          && Objects.equals(a.getKoreanPrompt(), b.getKoreanPrompt())
+          && Objects.equals(a.getBefore(), b.getBefore())
+          && Objects.equals(a.getAfter(), b.getAfter())
+          && Objects.equals(a.getExplanation(), b.getExplanation())
+          && Objects.equals(a.getAfterHighlights(), b.getAfterHighlights());
+    }
+    if (oldData instanceof SummaryData.SentenceItem
+        && newData instanceof SummaryData.SentenceItem) {
+      SummaryData.SentenceItem a = (SummaryData.SentenceItem) oldData;
+      SummaryData.SentenceItem b = (SummaryData.SentenceItem) newData;
+      return Objects.equals(a.getEnglish(), b.getEnglish())
+          && Objects.equals(a.getKorean(), b.getKorean());
+    }
+    return false;
   }
 
   // ViewHolders
@@ -54,6 +54,8 @@ public class LearningHistoryFragment extends Fragment {
   private static final int QUIZ_CREDIT_THRESHOLD_COUNT = 6;
   private static final int QUIZ_CREDIT_DEFAULT = 1;
   private static final int QUIZ_CREDIT_EXTENDED = 2;
+  // Rows from the end of the list at which the next page of cards is materialized.
+  private static final int LOAD_MORE_THRESHOLD = 10;
 
   private LearningHistoryViewModel viewModel;
   private LearningHistoryAdapter adapter;
@@ -128,8 +130,22 @@ public class LearningHistoryFragment extends Fragment {
               // Handle save/unsave click later
               logDebug("Item clicked: " + item.getType());
             });
-    recyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
+    LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+    recyclerView.setLayoutManager(layoutManager);
     recyclerView.setAdapter(adapter);
+    recyclerView.addOnScrollListener(
+        new RecyclerView.OnScrollListener() {
+          @Override
+          public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+            if (dy <= 0 || viewModel == null || tabLayout == null) {
+              return;
+            }
+            int lastVisible = layoutManager.findLastVisibleItemPosition();
+            if (lastVisible >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+              viewModel.loadMore(tabLayout.getSelectedTabPosition());
+            }
+          }
+        });
 
     com.jjundev.oneclickeng.utils.SwipeHelper swipeHelper =
         new com.jjundev.oneclickeng.utils.SwipeHelper(requireContext(), recyclerView) {
@@ -228,34 +244,45 @@ public class LearningHistoryFragment extends Fragment {
 
   private void observeViewModel() {
     viewModel
-        .getHistoryItems()
+        .getHistoryLists()
         .observe(
             getViewLifecycleOwner(),
-            items -> {
-              if (items != null) {
-                filterData(tabLayout.getSelectedTabPosition());
+            lists -> {
+              if (lists != null) {
+                // Snapshot updates are diffed row by row; keep the scroll and item animations.
+                filterData(tabLayout.getSelectedTabPosition(), false);
               }
             });
   }
 
   private void filterData(int tabPosition) {
-    List<HistoryItemWrapper> allItems = viewModel.getHistoryItems().getValue();
-    if (allItems == null) return;
+    filterData(tabPosition, true);
+  }
 
-    adapter.submitList(allItems, tabPosition);
+  private void filterData(int tabPosition, boolean animateLayout) {
+    HistoryTabLists lists = viewModel.getHistoryLists().getValue();
+    if (lists == null) return;
+
+    adapter.submitList(lists.forTab(tabPosition), () -> updateEmptyState(animateLayout));
+  }
 
+  private void updateEmptyState(boolean animateLayout) {
+    if (adapter == null) return;
     boolean isEmpty = adapter.getItemCount() == 0;
     if (isEmpty) {
       if (recyclerView != null) recyclerView.setVisibility(View.GONE);
       if (emptyStateLayout != null) emptyStateLayout.setVisibility(View.VISIBLE);
     } else {
       if (recyclerView != null) {
+        boolean wasHidden = recyclerView.getVisibility() != View.VISIBLE;
         recyclerView.setVisibility(View.VISIBLE);
-        android.view.animation.LayoutAnimationController controller =
-            android.view.animation.AnimationUtils.loadLayoutAnimation(
-                recyclerView.getContext(), R.anim.layout_anim_slide_fade_in);
-        recyclerView.setLayoutAnimation(controller);
-        recyclerView.scheduleLayoutAnimation();
+        if (animateLayout || wasHidden) {
+          android.view.animation.LayoutAnimationController controller =
+              android.view.animation.AnimationUtils.loadLayoutAnimation(
+                  recyclerView.getContext(), R.anim.layout_anim_slide_fade_in);
+          recyclerView.setLayoutAnimation(controller);
+          recyclerView.scheduleLayoutAnimation();
+        }
       }
       if (emptyStateLayout != null) emptyStateLayout.setVisibility(View.GONE);
     }
@@ -1,83 +1,165 @@
 package com.jjundev.oneclickeng.fragment.history;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
-
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.jjundev.oneclickeng.dialog.QuizGenerateDialog;
+import com.jjundev.oneclickeng.fragment.history.model.SavedCard;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class LearningHistoryViewModel extends ViewModel {
 
-  private final MutableLiveData<List<HistoryItemWrapper>> historyItems =
-      new MutableLiveData<>(new ArrayList<>());
+  // Tabs materialize this many more cards each time the list nears its end.
+  static final int TAB_PAGE_SIZE = 50;
+
+  // Snapshot deltas are converted, indexed and split into tabs here instead of on the main thread.
+  private static final ExecutorService snapshotExecutor = Executors.newSingleThreadExecutor();
+
+  private final MutableLiveData<HistoryTabLists> historyLists =
+      new MutableLiveData<>(HistoryTabLists.EMPTY);
+  // Cards whose delete is in flight; shown as unsaved until a snapshot drops them.
+  private final Set<String> pendingRemovalIds = ConcurrentHashMap.newKeySet();
+  @Nullable private ListenerRegistration savedCardsRegistration;
 
-  public LiveData<List<HistoryItemWrapper>> getHistoryItems() {
-    return historyItems;
+  // Confined to snapshotExecutor, like tabLimits.
+  private final SavedCardIndex savedCardIndex = new SavedCardIndex();
+  private long indexedGeneration;
+  // Page size of each tab, grown one tab at a time by loadMore().
+  private final int[] tabLimits = {TAB_PAGE_SIZE, TAB_PAGE_SIZE, TAB_PAGE_SIZE};
+  // Bumped per listener registration so events from a removed listener are ignored.
+  private volatile long listenerGeneration;
+
+  public LiveData<HistoryTabLists> getHistoryLists() {
+    return historyLists;
   }
 
   public void loadSavedCards() {
+    if (savedCardsRegistration != null) {
+      savedCardsRegistration.remove();
+      savedCardsRegistration = null;
+    }
+    long generation = ++listenerGeneration;
     com.google.firebase.auth.FirebaseUser user =
         com.google.firebase.auth.FirebaseAuth.getInstance().getCurrentUser();
     if (user == null) {
-      historyItems.setValue(new ArrayList<>());
+      historyLists.setValue(HistoryTabLists.EMPTY);
       return;
     }
 
-    com.google.firebase.firestore.FirebaseFirestore.getInstance()
-        .collection("users")
-        .document(user.getUid())
-        .collection("saved_cards")
-        .addSnapshotListener(
-            (value, error) -> {
-              if (error != null) {
-                return;
-              }
-              if (value != null) {
-                List<HistoryItemWrapper> items = new ArrayList<>();
-                for (com.google.firebase.firestore.DocumentSnapshot doc : value.getDocuments()) {
-                  com.jjundev.oneclickeng.fragment.history.model.SavedCard card =
-                      doc.toObject(com.jjundev.oneclickeng.fragment.history.model.SavedCard.class);
-                  if (card != null) {
-                    if ("WORD".equals(card.getCardType())) {
-                      SummaryData.WordItem w =
-                          new SummaryData.WordItem(
-                              card.getEnglish(),
-                              card.getKorean(),
-                              card.getExampleEnglish(),
-                              card.getExampleKorean());
-                      items.add(
-                          new HistoryItemWrapper(
-                              HistoryItemWrapper.TYPE_WORD, w, card.getTimestamp()));
-                    } else if ("EXPRESSION".equals(card.getCardType())) {
-                      SummaryData.ExpressionItem e =
-                          new SummaryData.ExpressionItem(
-                              card.getType(),
-                              card.getKoreanPrompt(),
-                              card.getBefore(),
-                              card.getAfter(),
-                              card.getExplanation(),
-                              card.getAfterHighlights());
-                      items.add(
-                          new HistoryItemWrapper(
-                              HistoryItemWrapper.TYPE_EXPRESSION, e, card.getTimestamp()));
-                    } else if ("SENTENCE".equals(card.getCardType())) {
-                      SummaryData.SentenceItem s =
-                          new SummaryData.SentenceItem(card.getEnglish(), card.getKorean());
-                      items.add(
-                          new HistoryItemWrapper(
-                              HistoryItemWrapper.TYPE_SENTENCE, s, card.getTimestamp()));
-                    }
+    savedCardsRegistration =
+        com.google.firebase.firestore.FirebaseFirestore.getInstance()
+            .collection("users")
+            .document(user.getUid())
+            .collection("saved_cards")
+            .addSnapshotListener(
+                snapshotExecutor,
+                (value, error) -> {
+                  if (error != null || value == null || generation != listenerGeneration) {
+                    return;
                   }
-                }
-                items.sort(
-                    (a, b) -> Long.compare(b.getLearnedAtEpochMs(), a.getLearnedAtEpochMs()));
-                historyItems.setValue(items);
-              }
-            });
+                  applyChanges(generation, value.getDocumentChanges());
+                });
+  }
+
+  /**
+   * Applies one snapshot's deltas to the index; the first snapshot of a listener arrives as all
+   * ADDED. Runs on snapshotExecutor.
+   */
+  private void applyChanges(long generation, @NonNull List<DocumentChange> changes) {
+    if (indexedGeneration != generation) {
+      savedCardIndex.clear();
+      indexedGeneration = generation;
+    }
+    for (DocumentChange change : changes) {
+      DocumentSnapshot doc = change.getDocument();
+      if (change.getType() == DocumentChange.Type.REMOVED) {
+        savedCardIndex.remove(doc.getId());
+        continue;
+      }
+      HistoryItemWrapper item = toHistoryItem(doc);
+      if (item == null) {
+        savedCardIndex.remove(doc.getId());
+      } else {
+        savedCardIndex.upsert(item);
+      }
+    }
+    publishIndex();
+  }
+
+  /** Runs on snapshotExecutor. */
+  private void publishIndex() {
+    historyLists.postValue(
+        savedCardIndex.materialize(tabLimits).withSaved(pendingRemovalIds, false));
+  }
+
+  /**
+   * Materializes the next page of {@code tabPosition} when it has cards beyond the current one. The
+   * other tabs keep their page size.
+   */
+  public void loadMore(int tabPosition) {
+    HistoryTabLists current = historyLists.getValue();
+    if (current == null || !current.hasMore(tabPosition)) {
+      return;
+    }
+    int requested = current.forTab(tabPosition).size() + TAB_PAGE_SIZE;
+    long generation = listenerGeneration;
+    snapshotExecutor.execute(
+        () -> {
+          if (requested <= tabLimits[tabPosition]) {
+            return;
+          }
+          tabLimits[tabPosition] = requested;
+          if (generation == indexedGeneration) {
+            publishIndex();
+          }
+        });
+  }
+
+  @Nullable
+  private static HistoryItemWrapper toHistoryItem(@NonNull DocumentSnapshot doc) {
+    SavedCard card = doc.toObject(SavedCard.class);
+    if (card == null) {
+      return null;
+    }
+    if ("WORD".equals(card.getCardType())) {
+      SummaryData.WordItem w =
+          new SummaryData.WordItem(
+              card.getEnglish(),
+              card.getKorean(),
+              card.getExampleEnglish(),
+              card.getExampleKorean());
+      return new HistoryItemWrapper(
+          HistoryItemWrapper.TYPE_WORD, w, card.getTimestamp(), doc.getId(), true);
+    } else if ("EXPRESSION".equals(card.getCardType())) {
+      SummaryData.ExpressionItem e =
+          new SummaryData.ExpressionItem(
+              card.getType(),
+              card.getKoreanPrompt(),
+              card.getBefore(),
+              card.getAfter(),
+              card.getExplanation(),
+              card.getAfterHighlights());
+      return new HistoryItemWrapper(
+          HistoryItemWrapper.TYPE_EXPRESSION, e, card.getTimestamp(), doc.getId(), true);
+    } else if ("SENTENCE".equals(card.getCardType())) {
+      SummaryData.SentenceItem s =
+          new SummaryData.SentenceItem(card.getEnglish(), card.getKorean());
+      return new HistoryItemWrapper(
+          HistoryItemWrapper.TYPE_SENTENCE, s, card.getTimestamp(), doc.getId(), true);
+    }
+    return null;
   }
 
   public void removeCard(HistoryItemWrapper itemWrapper) {
@@ -85,37 +167,47 @@ public class LearningHistoryViewModel extends ViewModel {
         com.google.firebase.auth.FirebaseAuth.getInstance().getCurrentUser();
     if (user == null) return;
 
-    Object itemData = itemWrapper.getData();
-    String cardId = generateDeterministicId(itemData);
+    String cardId = itemWrapper.getCardId();
+    pendingRemovalIds.add(cardId);
+    publishSavedState(cardId, false);
 
     com.google.firebase.firestore.FirebaseFirestore.getInstance()
         .collection("users")
         .document(user.getUid())
         .collection("saved_cards")
         .document(cardId)
-        .delete();
+        .delete()
+        .addOnCompleteListener(
+            task -> {
+              pendingRemovalIds.remove(cardId);
+              if (!task.isSuccessful()) {
+                publishSavedState(cardId, true);
+              }
+            });
   }
 
-  private String generateDeterministicId(Object itemData) {
-    String uniqueString = "";
-    if (itemData instanceof SummaryData.WordItem) {
-      SummaryData.WordItem w = (SummaryData.WordItem) itemData;
-      uniqueString = w.getEnglish() + "_" + w.getKorean();
-    } else if (itemData instanceof SummaryData.SentenceItem) {
-      SummaryData.SentenceItem s = (SummaryData.SentenceItem) itemData;
-      uniqueString = s.getEnglish() + "_" + s.getKorean();
-    } else if (itemData instanceof SummaryData.ExpressionItem) {
-      SummaryData.ExpressionItem e = (SummaryData.ExpressionItem) itemData;
-      uniqueString = e.getBefore() + "_" + e.getAfter();
-    } else {
-      uniqueString = UUID.randomUUID().toString();
+  /** Flips one card's saved flag, which the adapter rebinds as a single-row payload. */
+  private void publishSavedState(@NonNull String cardId, boolean saved) {
+    HistoryTabLists current = historyLists.getValue();
+    if (current == null) {
+      return;
     }
-    return UUID.nameUUIDFromBytes(uniqueString.getBytes()).toString();
+    historyLists.setValue(current.withSaved(Collections.singleton(cardId), saved));
+  }
+
+  @Override
+  protected void onCleared() {
+    listenerGeneration++;
+    if (savedCardsRegistration != null) {
+      savedCardsRegistration.remove();
+      savedCardsRegistration = null;
+    }
+    super.onCleared();
   }
 
   public SummaryData generateQuizSeed(int periodBucket, int currentTab) {
-    List<HistoryItemWrapper> allItems = historyItems.getValue();
-    if (allItems == null || allItems.isEmpty()) {
+    HistoryTabLists lists = historyLists.getValue();
+    if (lists == null) {
       return null;
     }
 
@@ -139,7 +231,11 @@ public class LearningHistoryViewModel extends ViewModel {
     List<SummaryData.WordItem> words = new ArrayList<>();
     List<SummaryData.ExpressionItem> expressions = new ArrayList<>();
 
-    for (HistoryItemWrapper item : allItems) {
+    // Every card of the tab, not just the loaded page.
+    for (HistoryItemWrapper item : lists.tabItems(currentTab)) {
+      if (!item.isSaved()) {
+        continue;
+      }
       long epochMs = item.getLearnedAtEpochMs();
       if (epochMs >= startTime && epochMs <= endTime) {
         if (currentTab == 1 && item.getType() == HistoryItemWrapper.TYPE_WORD) {
@@ -0,0 +1,99 @@
+package com.jjundev.oneclickeng.fragment.history;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * saved_cards split by tab, each tab kept in {@link HistoryTabLists#NEWEST_FIRST} order and
+ * updated by document deltas.
+ *
+ * <p>A change touches only the affected card's tab: it is located by binary search and inserted or
+ * removed in place, and {@link #materialize(int[])} copies only the tabs changed since the last
+ * call, handing the previous list over for the others. Bookmarking one word therefore never
+ * re-sorts or re-copies the expression and sentence tabs. Not thread-safe; the owner confines it to
+ * one executor.
+ */
+final class SavedCardIndex {
+  @NonNull private final Map<String, HistoryItemWrapper> byId = new HashMap<>();
+  @NonNull private final List<List<HistoryItemWrapper>> sortedTabs = new ArrayList<>();
+  // Last published copy of each tab; null once the tab changes.
+  @NonNull private final List<List<HistoryItemWrapper>> publishedTabs = new ArrayList<>();
+
+  SavedCardIndex() {
+    for (int tab = 0; tab < HistoryTabLists.TAB_COUNT; tab++) {
+      sortedTabs.add(new ArrayList<>());
+      publishedTabs.add(null);
+    }
+  }
+
+  /**
+   * Adds the card, or replaces the card with the same ID and moves it to its new position. A card
+   * of a type no tab shows only drops the previous card with that ID.
+   */
+  void upsert(@NonNull HistoryItemWrapper item) {
+    remove(item.getCardId());
+    int tab = HistoryTabLists.tabOf(item.getType());
+    if (tab < 0) {
+      return;
+    }
+    List<HistoryItemWrapper> sorted = sortedTabs.get(tab);
+    int index = Collections.binarySearch(sorted, item, HistoryTabLists.NEWEST_FIRST);
+    sorted.add(index < 0 ? -index - 1 : index, item);
+    publishedTabs.set(tab, null);
+    byId.put(item.getCardId(), item);
+  }
+
+  /** @return whether a card with that ID was present */
+  boolean remove(@NonNull String cardId) {
+    HistoryItemWrapper existing = byId.remove(cardId);
+    if (existing == null) {
+      return false;
+    }
+    int tab = HistoryTabLists.tabOf(existing.getType());
+    List<HistoryItemWrapper> sorted = sortedTabs.get(tab);
+    int index = Collections.binarySearch(sorted, existing, HistoryTabLists.NEWEST_FIRST);
+    if (index >= 0 && sorted.get(index) == existing) {
+      sorted.remove(index);
+    } else {
+      sorted.remove(existing);
+    }
+    publishedTabs.set(tab, null);
+    return true;
+  }
+
+  @Nullable
+  HistoryItemWrapper get(@NonNull String cardId) {
+    return byId.get(cardId);
+  }
+
+  void clear() {
+    byId.clear();
+    for (int tab = 0; tab < HistoryTabLists.TAB_COUNT; tab++) {
+      sortedTabs.get(tab).clear();
+      publishedTabs.set(tab, null);
+    }
+  }
+
+  int size() {
+    return byId.size();
+  }
+
+  /**
+   * Immutable snapshot whose tabs show at most {@code tabLimits[tab]} cards each. Unchanged tabs
+   * reuse the list from the previous snapshot.
+   */
+  @NonNull
+  HistoryTabLists materialize(@NonNull int[] tabLimits) {
+    for (int tab = 0; tab < HistoryTabLists.TAB_COUNT; tab++) {
+      if (publishedTabs.get(tab) == null) {
+        publishedTabs.set(tab, Collections.unmodifiableList(new ArrayList<>(sortedTabs.get(tab))));
+      }
+    }
+    return HistoryTabLists.fromTabs(publishedTabs, tabLimits);
+  }
+}
@@ -1,7 +1,10 @@
 package com.jjundev.oneclickeng.fragment.history.model;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import java.util.List;
+import java.util.UUID;
 
 public class SavedCard {
   private String id;
@@ -28,6 +31,29 @@ public class SavedCard {
     // Required empty public constructor for Firestore
   }
 
+  /**
+   * saved_cards document ID for a summary item, derived from its text so saving the same card twice
+   * overwrites one document. The summary screen saves under it and the history screen matches
+   * cards by it.
+   */
+  @NonNull
+  public static String idFor(@Nullable Object itemData) {
+    String uniqueString;
+    if (itemData instanceof SummaryData.WordItem) {
+      SummaryData.WordItem w = (SummaryData.WordItem) itemData;
+      uniqueString = w.getEnglish() + "_" + w.getKorean();
+    } else if (itemData instanceof SummaryData.SentenceItem) {
+      SummaryData.SentenceItem s = (SummaryData.SentenceItem) itemData;
+      uniqueString = s.getEnglish() + "_" + s.getKorean();
+    } else if (itemData instanceof SummaryData.ExpressionItem) {
+      SummaryData.ExpressionItem e = (SummaryData.ExpressionItem) itemData;
+      uniqueString = e.getBefore() + "_" + e.getAfter();
+    } else {
+      uniqueString = UUID.randomUUID().toString();
+    }
+    return UUID.nameUUIDFromBytes(uniqueString.getBytes()).toString();
+  }
+
   public String getId() {
     return id;
   }
@@ -47,6 +47,7 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.DialogueSpe
 import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.DialogueSummaryCoordinator;
 import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.DialogueTurnCoordinator;
 import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.MicPermissionCoordinator;
+import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.ScriptTtsPrefetcher;
 import com.jjundev.oneclickeng.learning.dialoguelearning.coordinator.SpeakingSceneCoordinator;
 import com.jjundev.oneclickeng.learning.dialoguelearning.di.DialogueLearningCoordinatorFactory;
 import com.jjundev.oneclickeng.learning.dialoguelearning.di.LearningDependencyProvider;
@@ -54,8 +55,10 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.logging.UxGateLogger;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IExtraQuestionManager;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionOrchestrator;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionSnapshot;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.BottomSheetMode;
@@ -80,7 +83,6 @@ import com.jjundev.oneclickeng.settings.AppSettings;
 import com.jjundev.oneclickeng.settings.AppSettingsStore;
 import com.jjundev.oneclickeng.tool.AudioRecorder;
 import com.jjundev.oneclickeng.view.WaveformView;
-import java.io.ByteArrayOutputStream;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -125,7 +127,6 @@ public class DialogueLearningFragment extends Fragment {
   private DialogueLearningViewModel viewModel;
 
   private AudioRecorder audioRecorderManager;
-  private ByteArrayOutputStream audioAccumulator;
   private final Gson gson = new Gson();
 
   // UI components
@@ -152,7 +153,6 @@ public class DialogueLearningFragment extends Fragment {
   // Audio and recording state
   private byte[] lastRecordedAudio;
   private final StringBuilder transcriptBuilder = new StringBuilder();
-  private long lastWaveformUpdateMs = 0L;
 
   // Runtime state
   private ActivityResultLauncher<String> requestPermissionLauncher;
@@ -179,6 +179,8 @@ public class DialogueLearningFragment extends Fragment {
   private long lastRenderedScriptStep = -1;
   private long lastRenderedSpeakingRequestId = -1L;
   private long lastRenderedFeedbackEmissionId = -1L;
+  private int lastPrefetchedScriptStep = -1;
+  private int lastPrefetchedScriptTotal = -1;
   private long lastSpeakingStateTraceMs = 0L;
   private long lastSpeakingStateTraceEmissionId = -1L;
   private long lastSpeakingStateTraceRequestId = -1L;
@@ -220,7 +222,11 @@ public class DialogueLearningFragment extends Fragment {
     String effectiveApiKey = appSettings.resolveEffectiveApiKey(BuildConfig.GEMINI_API_KEY);
     speakingFeedbackManager =
         LearningDependencyProvider.provideSpeakingFeedbackManager(
-            appContext, effectiveApiKey, appSettings.getLlmModelSpeaking());
+            appContext,
+            effectiveApiKey,
+            appSettings.getLlmModelSpeaking(),
+            appSettings.isFlacAudioUpload(),
+            appSettings.isLiveSpeakingAnalysis() ? appSettings.getLlmModelSpeakingLive() : null);
     extraQuestionManager =
         LearningDependencyProvider.provideExtraQuestionManager(
             effectiveApiKey, appSettings.getLlmModelExtra());
@@ -228,7 +234,6 @@ public class DialogueLearningFragment extends Fragment {
         LearningDependencyProvider.provideSentenceFeedbackManager(
             appContext, effectiveApiKey, appSettings.getLlmModelSentence());
     audioRecorderManager = LearningDependencyProvider.provideAudioRecorder();
-    audioAccumulator = new ByteArrayOutputStream();
     DialogueLearningCoordinatorFactory.CoordinatorBundle coordinatorBundle =
         new DialogueLearningCoordinatorFactory().create(mainHandler, buildCoordinatorFactoryHost());
     summaryCoordinator = coordinatorBundle.summaryCoordinator;
@@ -238,7 +243,7 @@ public class DialogueLearningFragment extends Fragment {
     feedbackCoordinator = coordinatorBundle.feedbackCoordinator;
     if (playbackCoordinator != null) {
       playbackCoordinator.setGeminiTtsManager(
-          LearningDependencyProvider.provideGeminiTtsManager(effectiveApiKey));
+          LearningDependencyProvider.provideGeminiTtsManager(appContext, effectiveApiKey));
     }
     micPermissionCoordinator = new MicPermissionCoordinator(buildMicPermissionCoordinatorHost());
     speakingSceneCoordinator = new SpeakingSceneCoordinator(buildSpeakingSceneCoordinatorHost());
@@ -835,6 +840,9 @@ public class DialogueLearningFragment extends Fragment {
         if (speakingCoordinator != null) {
           speakingCoordinator.stopSession(reason);
         }
+        if (viewModel != null) {
+          viewModel.onRecordingAbandoned();
+        }
       }
 
       @Override
@@ -859,21 +867,15 @@ public class DialogueLearningFragment extends Fragment {
         return mainHandler;
       }
 
-      @Nullable
-      @Override
-      public ByteArrayOutputStream getAudioAccumulator() {
-        return audioAccumulator;
-      }
-
       @Override
       public StringBuilder getTranscriptBuilder() {
         return transcriptBuilder;
       }
 
       @Override
-      public void onAudioChunk(@NonNull byte[] audioData) {
+      public void onAudioChunk(@NonNull byte[] buffer, int offset, int length) {
         if (viewModel != null) {
-          viewModel.onAudioChunk(audioData);
+          viewModel.onAudioChunk(buffer, offset, length);
         }
       }
 
@@ -882,6 +884,28 @@ public class DialogueLearningFragment extends Fragment {
         lastRecordedAudio = audioData;
       }
 
+      @Override
+      public long getAutoStopSilenceMs() {
+        AppSettings settings = getCurrentAppSettings();
+        return settings == null
+            ? AppSettings.DEFAULT_AUTO_STOP_SILENCE_MS
+            : settings.getAutoStopSilenceMs();
+      }
+
+      @Override
+      public void onSpeechTrimmed(@NonNull SpeechTrim trim) {
+        if (viewModel != null) {
+          viewModel.onSpeechTrimmed(trim);
+        }
+      }
+
+      @Override
+      public void onTakeStats(@NonNull AudioStats stats) {
+        if (viewModel != null) {
+          viewModel.onTakeStats(stats);
+        }
+      }
+
       @Override
       public void renderBottomSheetScene(
           int layoutResId, @Nullable BottomSheetSceneRenderer.SheetBinder binder) {
@@ -952,16 +976,6 @@ public class DialogueLearningFragment extends Fragment {
         recordingUiController.bindViews(null, null, null, null);
       }
 
-      @Override
-      public long getLastWaveformUpdateMs() {
-        return lastWaveformUpdateMs;
-      }
-
-      @Override
-      public void setLastWaveformUpdateMs(long value) {
-        lastWaveformUpdateMs = value;
-      }
-
       @Override
       public void trace(@NonNull String key) {
         logTrace(key);
@@ -1333,6 +1347,8 @@ public class DialogueLearningFragment extends Fragment {
       playbackCoordinator.release();
       playbackCoordinator = null;
     }
+    lastPrefetchedScriptStep = -1;
+    lastPrefetchedScriptTotal = -1;
     if (speakingCoordinator != null) {
       speakingCoordinator.release();
       speakingCoordinator = null;
@@ -1371,10 +1387,6 @@ public class DialogueLearningFragment extends Fragment {
       safeStopRecording();
       audioRecorderManager = null;
     }
-    if (audioAccumulator != null) {
-      audioAccumulator.reset();
-      audioAccumulator = null;
-    }
     lastRecordedAudio = null;
   }
 
@@ -1758,6 +1770,25 @@ public class DialogueLearningFragment extends Fragment {
     if (chatAdapter != null) {
       chatAdapter.updateOpponentProfile(opponentName, opponentGender);
     }
+    prefetchUpcomingScriptTts(state);
+  }
+
+  /** Starts synthesizing the next opponent lines whenever the script advances or grows. */
+  private void prefetchUpcomingScriptTts(@NonNull ScriptUiState state) {
+    if (playbackCoordinator == null || viewModel == null) {
+      return;
+    }
+    if (state.getCurrentStep() == lastPrefetchedScriptStep
+        && state.getTotalSteps() == lastPrefetchedScriptTotal) {
+      return;
+    }
+    lastPrefetchedScriptStep = state.getCurrentStep();
+    lastPrefetchedScriptTotal = state.getTotalSteps();
+    List<String> upcoming =
+        state.isFinished() || isMuteAllPlaybackEnabled()
+            ? new ArrayList<>()
+            : viewModel.getUpcomingOpponentLines(ScriptTtsPrefetcher.DEFAULT_LOOKAHEAD_TURNS);
+    playbackCoordinator.prefetchScriptTts(upcoming, opponentGender);
   }
 
   private void onSpeakingUiStateChanged(@Nullable SpeakingUiState state) {
@@ -2209,15 +2240,11 @@ public class DialogueLearningFragment extends Fragment {
     if (speakingCoordinator != null) {
       speakingCoordinator.stopSession("stopSpeakingSession");
     }
-    lastWaveformUpdateMs = 0L;
     recordingUiController.stopProgressAnimation();
     recordingUiController.stopRippleAnimation();
     if (waveformView != null) {
       waveformView.reset();
     }
-    if (audioAccumulator != null) {
-      audioAccumulator.reset();
-    }
   }
 
   private void presentFeedbackScene(
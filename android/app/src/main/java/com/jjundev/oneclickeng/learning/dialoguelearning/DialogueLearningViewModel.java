@@ -3,6 +3,7 @@ package com.jjundev.oneclickeng.learning.dialoguelearning;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import android.view.Choreographer;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
@@ -14,10 +15,13 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.controller.FeedbackFlow
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.ScriptFlowController;
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.SpeakingFlowController;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IDialogueGenerateManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.DialogueScript;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ScriptTurn;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeakingAnalysisResult;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.FrameCoalescingPublisher;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionOrchestrator;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionSnapshot;
 import com.jjundev.oneclickeng.learning.dialoguelearning.session.DialogueScriptStreamingSessionStore;
@@ -28,6 +32,7 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.state.ExtraQuestionUiSt
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.FeedbackUiState;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.ScriptUiState;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.SpeakingUiState;
+import com.jjundev.oneclickeng.learning.dialoguelearning.state.StreamingText;
 import com.jjundev.oneclickeng.learning.dialoguelearning.ui.ChatMessage;
 import com.jjundev.oneclickeng.tool.AudioRecorder;
 import java.util.ArrayList;
@@ -60,18 +65,20 @@ public class DialogueLearningViewModel extends ViewModel {
               SpeakingUiState.idle(),
               FeedbackUiState.idle(),
               BottomSheetMode.DEFAULT_INPUT));
+  private final FrameCoalescingPublisher<LearningSessionSnapshot> snapshotPublisher;
   @NonNull private final List<ChatMessage> retainedChatMessages = new ArrayList<>();
 
   private long speakingEmissionId = 0L;
   private long feedbackEmissionId = 0L;
   private long extraEmissionId = 0L;
-  private final StringBuilder extraResponseBuilder = new StringBuilder();
   private final Handler mainHandler = new Handler(Looper.getMainLooper());
   @Nullable private String attachedScriptSessionId;
   @Nullable private DialogueScriptStreamingSessionStore.Listener scriptSessionListener;
   private boolean waitingForStreamTurn = false;
   private boolean abortEventDispatched = false;
   private int requestedScriptLength = 0;
+  @Nullable private SpeechTrim lastSpeechTrim;
+  @Nullable private AudioStats lastTakeStats;
 
   private static final String DEFAULT_TOPIC = "영어 연습";
   private static final String DEFAULT_OPPONENT_NAME = "AI Coach";
@@ -122,6 +129,27 @@ public class DialogueLearningViewModel extends ViewModel {
       @Nullable AudioRecorder audioRecorder,
       @NonNull LearningSessionOrchestrator sessionOrchestrator,
       @Nullable DialogueScriptStreamingSessionStore scriptStreamingSessionStore) {
+    this(
+        scriptFlowController,
+        speakingFlowController,
+        feedbackFlowController,
+        extraQuestionFlowController,
+        audioRecorder,
+        sessionOrchestrator,
+        scriptStreamingSessionStore,
+        new ChoreographerFrameScheduler());
+  }
+
+  /** Publishes snapshots on {@code frameScheduler} frames instead of Choreographer ones. */
+  DialogueLearningViewModel(
+      @NonNull ScriptFlowController scriptFlowController,
+      @NonNull SpeakingFlowController speakingFlowController,
+      @NonNull FeedbackFlowController feedbackFlowController,
+      @NonNull ExtraQuestionFlowController extraQuestionFlowController,
+      @Nullable AudioRecorder audioRecorder,
+      @NonNull LearningSessionOrchestrator sessionOrchestrator,
+      @Nullable DialogueScriptStreamingSessionStore scriptStreamingSessionStore,
+      @NonNull FrameCoalescingPublisher.FrameScheduler frameScheduler) {
     this.scriptFlowController = scriptFlowController;
     this.speakingFlowController = speakingFlowController;
     this.feedbackFlowController = feedbackFlowController;
@@ -129,6 +157,9 @@ public class DialogueLearningViewModel extends ViewModel {
     this.sessionOrchestrator = sessionOrchestrator;
     this.audioRecorder = audioRecorder;
     this.scriptStreamingSessionStore = scriptStreamingSessionStore;
+    this.snapshotPublisher =
+        new FrameCoalescingPublisher<>(
+            frameScheduler, this::buildSessionSnapshot, sessionSnapshot::setValue);
     publishSessionSnapshot();
   }
 
@@ -203,19 +234,20 @@ public class DialogueLearningViewModel extends ViewModel {
   }
 
   /**
-   * Internal state mutation contract: 1) mutate state 2) publish session snapshot exactly once from
-   * same main-thread frame.
+   * Internal state mutation contract: 1) mutate state on the main thread 2) mark the session
+   * snapshot dirty. The snapshot is rebuilt and published at most once per Choreographer frame, so
+   * every mutation made within a frame is rendered together.
    */
   private void applyStateAndPublish(@NonNull Runnable stateMutation) {
     runOnMainThread(
         () -> {
           stateMutation.run();
-          sessionSnapshot.setValue(buildSessionSnapshot());
+          snapshotPublisher.markDirty();
         });
   }
 
   private void publishSessionSnapshot() {
-    runOnMainThread(() -> sessionSnapshot.setValue(buildSessionSnapshot()));
+    runOnMainThread(snapshotPublisher::markDirty);
   }
 
   private void runOnMainThread(@NonNull Runnable action) {
@@ -463,6 +495,12 @@ public class DialogueLearningViewModel extends ViewModel {
     return new ArrayList<>(script.getTurns());
   }
 
+  /** English lines of the next opponent turns, including ones still arriving from the stream. */
+  @NonNull
+  public List<String> getUpcomingOpponentLines(int limit) {
+    return scriptFlowController.getUpcomingOpponentLines(limit);
+  }
+
   @NonNull
   public LearningSessionOrchestrator.TurnDecision moveToNextTurnDecision() {
     LearningSessionOrchestrator.TurnDecision turnDecision =
@@ -570,6 +608,8 @@ public class DialogueLearningViewModel extends ViewModel {
 
   public void onRecordingStarted() {
     sessionOrchestrator.onRecordingStarted();
+    lastSpeechTrim = null;
+    lastTakeStats = null;
     SpeakingUiState previous = speakingUiState.getValue();
     applyStateAndPublish(
         () -> {
@@ -579,7 +619,6 @@ public class DialogueLearningViewModel extends ViewModel {
                   previous == null ? 0L : previous.getRequestId(),
                   true,
                   false,
-                  0f,
                   previous == null ? null : previous.getLastRecordedAudio(),
                   null,
                   previous == null ? null : previous.getOriginalSentence(),
@@ -589,36 +628,35 @@ public class DialogueLearningViewModel extends ViewModel {
         });
   }
 
-  public void onAudioChunk(@NonNull byte[] audioChunk) {
-    sessionOrchestrator.onAudioChunk(audioChunk);
-    SpeakingUiState previous = speakingUiState.getValue();
-    if (previous == null) {
-      return;
-    }
-    applyStateAndPublish(
-        () ->
-            speakingUiState.setValue(
-                new SpeakingUiState(
-                    ++speakingEmissionId,
-                    previous.getRequestId(),
-                    previous.isRecording(),
-                    previous.isAnalyzing(),
-                    SpeakingFlowController.calculateAmplitude(audioChunk),
-                    previous.getLastRecordedAudio(),
-                    previous.getFluencyResult(),
-                    previous.getOriginalSentence(),
-                    previous.getRecognizedText(),
-                    previous.getError())));
+  /**
+   * Forwards a captured chunk to live analysis. Levels go to the waveform through its own ring, so
+   * the speaking state and session snapshot do not change per chunk.
+   */
+  public void onAudioChunk(@NonNull byte[] buffer, int offset, int length) {
+    sessionOrchestrator.onAudioChunk(buffer, offset, length);
+  }
+
+  /** Records how the take about to be analyzed was trimmed, for the speaking UI state. */
+  public void onSpeechTrimmed(@NonNull SpeechTrim trim) {
+    lastSpeechTrim = trim;
+  }
+
+  /** Records the capture stats of the take about to be analyzed, sent along with the request. */
+  public void onTakeStats(@NonNull AudioStats stats) {
+    lastTakeStats = stats;
   }
 
   public long analyzeSpeaking(
       @NonNull String originalSentence,
       @NonNull byte[] audioData,
       @Nullable String fallbackRecognizedText) {
+    SpeechTrim speechTrim = lastSpeechTrim;
     long requestId =
         sessionOrchestrator.analyzeSpeaking(
             originalSentence,
             audioData,
+            speechTrim == null ? 0 : speechTrim.getStartByte(),
+            lastTakeStats,
             fallbackRecognizedText,
             new SpeakingFlowController.Callback() {
               @Override
@@ -631,12 +669,12 @@ public class DialogueLearningViewModel extends ViewModel {
                               result.getRequestId(),
                               false,
                               false,
-                              0f,
                               result.getRecordedAudio(),
                               result.getFluencyResult(),
                               result.getOriginalSentence(),
                               result.getRecognizedText(),
-                              null));
+                              null,
+                              speechTrim));
                       bottomSheetMode.setValue(BottomSheetMode.FEEDBACK);
                     });
 
@@ -653,15 +691,20 @@ public class DialogueLearningViewModel extends ViewModel {
                                 requestId,
                                 false,
                                 false,
-                                0f,
                                 null,
                                 null,
                                 originalSentence,
                                 fallbackRecognizedText,
-                                error)));
+                                error,
+                                speechTrim)));
               }
             });
 
+    SpeakingUiState current = speakingUiState.getValue();
+    if (current != null && current.getRequestId() == requestId) {
+      // Rejected without an upload; the error state is already published.
+      return requestId;
+    }
     applyStateAndPublish(
         () ->
             speakingUiState.setValue(
@@ -670,12 +713,12 @@ public class DialogueLearningViewModel extends ViewModel {
                     requestId,
                     false,
                     true,
-                    0f,
                     null,
                     null,
                     originalSentence,
                     fallbackRecognizedText,
-                    null)));
+                    null,
+                    speechTrim)));
     return requestId;
   }
 
@@ -774,9 +817,10 @@ public class DialogueLearningViewModel extends ViewModel {
 
   public void askExtraQuestion(
       @NonNull String originalSentence, @NonNull String userSentence, @NonNull String question) {
-    extraResponseBuilder.setLength(0);
+    StreamingText responseText = new StreamingText();
 
-    updateExtraQuestionState(new ExtraQuestionUiState(++extraEmissionId, true, question, "", null));
+    updateExtraQuestionState(
+        new ExtraQuestionUiState(++extraEmissionId, true, question, responseText, 0, null));
 
     sessionOrchestrator.askExtraQuestion(
         originalSentence,
@@ -785,24 +829,35 @@ public class DialogueLearningViewModel extends ViewModel {
         new ExtraQuestionFlowController.Callback() {
           @Override
           public void onChunk(@NonNull String chunk) {
-            extraResponseBuilder.append(chunk);
+            // Emissions carry only the new length; renderers append the unseen suffix.
+            int length = responseText.append(chunk);
             updateExtraQuestionState(
                 new ExtraQuestionUiState(
-                    ++extraEmissionId, true, question, extraResponseBuilder.toString(), null));
+                    ++extraEmissionId, true, question, responseText, length, null));
           }
 
           @Override
           public void onComplete() {
             updateExtraQuestionState(
                 new ExtraQuestionUiState(
-                    ++extraEmissionId, false, question, extraResponseBuilder.toString(), null));
+                    ++extraEmissionId,
+                    false,
+                    question,
+                    responseText,
+                    responseText.length(),
+                    null));
           }
 
           @Override
           public void onError(@NonNull String error) {
             updateExtraQuestionState(
                 new ExtraQuestionUiState(
-                    ++extraEmissionId, false, question, extraResponseBuilder.toString(), error));
+                    ++extraEmissionId,
+                    false,
+                    question,
+                    responseText,
+                    responseText.length(),
+                    error));
           }
         });
   }
@@ -819,6 +874,11 @@ public class DialogueLearningViewModel extends ViewModel {
     sessionOrchestrator.invalidateSpeakingRequest();
   }
 
+  /** Called when a recording ends without being analyzed, e.g. nothing was heard. */
+  public void onRecordingAbandoned() {
+    sessionOrchestrator.onRecordingAbandoned();
+  }
+
   public void clearRequests() {
     sessionOrchestrator.clearRequests();
   }
@@ -931,7 +991,12 @@ public class DialogueLearningViewModel extends ViewModel {
     clearRequests();
     detachScriptStreamingSession(true);
     retainedChatMessages.clear();
-    logStream("onCleared");
+    snapshotPublisher.cancel();
+    logStream(
+        "onCleared snapshotMarks="
+            + snapshotPublisher.getMarkCount()
+            + " snapshotPublishes="
+            + snapshotPublisher.getPublishCount());
     super.onCleared();
   }
 
@@ -962,4 +1027,31 @@ public class DialogueLearningViewModel extends ViewModel {
     }
     return text.substring(0, 32) + "...";
   }
+
+  /** Runs the pending snapshot publication on the main thread's next Choreographer frame. */
+  private static final class ChoreographerFrameScheduler
+      implements FrameCoalescingPublisher.FrameScheduler {
+    @Nullable private Choreographer.FrameCallback pendingCallback;
+
+    @Override
+    public void scheduleFrame(@NonNull Runnable onFrame) {
+      cancelFrame();
+      Choreographer.FrameCallback callback =
+          frameTimeNanos -> {
+            pendingCallback = null;
+            onFrame.run();
+          };
+      pendingCallback = callback;
+      Choreographer.getInstance().postFrameCallback(callback);
+    }
+
+    @Override
+    public void cancelFrame() {
+      if (pendingCallback == null) {
+        return;
+      }
+      Choreographer.getInstance().removeFrameCallback(pendingCallback);
+      pendingCallback = null;
+    }
+  }
 }
@@ -51,7 +51,7 @@ public class DialogueLearningViewModelFactory implements ViewModelProvider.Facto
     this.extraQuestionManager = extraQuestionManager;
     this.audioRecorder = audioRecorder;
     this.managerInitializer = managerInitializer;
-    this.requestTracker = new AsyncRequestTracker();
+    this.requestTracker = LearningDependencyProvider.provideAsyncRequestTracker();
   }
 
   @NonNull
@@ -0,0 +1,148 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
+
+import androidx.annotation.NonNull;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
+
+/**
+ * Single-pass analysis stage for 16-bit little-endian mono PCM, fed chunk by chunk from the
+ * recording thread.
+ *
+ * <p>Each chunk is decoded once. The same samples update running RMS, peak and clipping counts for
+ * the chunk and for the whole take, and are scored by a {@link VoiceActivityDetector} for
+ * auto-stop, trimming and the voiced-frame ratio. Consumers read {@link #getLastChunkStats()} and
+ * {@link #getTakeStats()} instead of scanning the audio again. Processing a chunk allocates nothing
+ * once the sample buffer has grown to the chunk size.
+ */
+public final class AudioAnalytics {
+  // Samples at or beyond this magnitude are counted as clipped.
+  private static final int CLIP_LEVEL = 32767;
+
+  private final int sampleRate;
+  @NonNull private final VoiceActivityDetector detector;
+
+  private short[] samples = new short[0];
+  private int pendingLowByte = -1;
+
+  private long takeSamples;
+  private double takeSumSquares;
+  private int takePeak;
+  private long takeClipped;
+  // The last chunk, kept as primitives so processing allocates nothing per chunk.
+  private int chunkSamples;
+  private double chunkSumSquares;
+  private int chunkPeak;
+  private long chunkClipped;
+  private long chunkVoicedFrames;
+  private long chunkFrames;
+
+  /**
+   * @param autoStopSilenceMs trailing silence after speech that ends the take, or 0 to never end it
+   */
+  public AudioAnalytics(int sampleRate, long autoStopSilenceMs) {
+    this.sampleRate = sampleRate;
+    this.detector = new VoiceActivityDetector(sampleRate, autoStopSilenceMs);
+  }
+
+  /**
+   * Analyzes the next chunk of the take.
+   *
+   * @return true exactly once, for the chunk after which the take should end automatically
+   */
+  public synchronized boolean process(@NonNull byte[] buffer, int offset, int length) {
+    int count = decode(buffer, offset, length);
+    double sumSquares = 0d;
+    int peak = 0;
+    long clipped = 0L;
+    for (int i = 0; i < count; i++) {
+      int magnitude = Math.abs((int) samples[i]);
+      sumSquares += (double) magnitude * magnitude;
+      if (magnitude > peak) {
+        peak = magnitude;
+      }
+      if (magnitude >= CLIP_LEVEL) {
+        clipped++;
+      }
+    }
+    sumSquares /= 32768d * 32768d;
+
+    long framesBefore = detector.getFrameCount();
+    long speechFramesBefore = detector.getSpeechFrameCount();
+    boolean endOfSpeech = detector.process(samples, count);
+
+    takeSamples += count;
+    takeSumSquares += sumSquares;
+    takePeak = Math.max(takePeak, peak);
+    takeClipped += clipped;
+    chunkSamples = count;
+    chunkSumSquares = sumSquares;
+    chunkPeak = peak;
+    chunkClipped = clipped;
+    chunkVoicedFrames = detector.getSpeechFrameCount() - speechFramesBefore;
+    chunkFrames = detector.getFrameCount() - framesBefore;
+    return endOfSpeech;
+  }
+
+  /** Stats of the chunk passed to the last {@link #process} call. */
+  @NonNull
+  public synchronized AudioStats getLastChunkStats() {
+    return new AudioStats(
+        chunkSamples,
+        chunkSumSquares,
+        chunkPeak,
+        chunkClipped,
+        chunkVoicedFrames,
+        chunkFrames,
+        sampleRate);
+  }
+
+  /** Waveform level of the last chunk, without building its {@link AudioStats}. */
+  public synchronized float getLastChunkAmplitude() {
+    return AudioStats.toAmplitude(
+        chunkSamples == 0 ? 0f : (float) Math.sqrt(chunkSumSquares / chunkSamples));
+  }
+
+  /** Stats of everything processed since construction. */
+  @NonNull
+  public synchronized AudioStats getTakeStats() {
+    return new AudioStats(
+        takeSamples,
+        takeSumSquares,
+        takePeak,
+        takeClipped,
+        detector.getSpeechFrameCount(),
+        detector.getFrameCount(),
+        sampleRate);
+  }
+
+  public long getTrailingSilenceMs() {
+    return detector.getTrailingSilenceMs();
+  }
+
+  /** See {@link VoiceActivityDetector#trim(int, long, boolean)}. */
+  @NonNull
+  public SpeechTrim trim(int totalBytes, long paddingMs, boolean autoStopped) {
+    return detector.trim(totalBytes, paddingMs, autoStopped);
+  }
+
+  private int decode(@NonNull byte[] buffer, int offset, int length) {
+    int capacity = (length + 1) / 2;
+    if (samples.length < capacity) {
+      samples = new short[capacity];
+    }
+    int count = 0;
+    int index = offset;
+    int end = offset + length;
+    if (pendingLowByte >= 0 && index < end) {
+      samples[count++] = (short) (pendingLowByte | (buffer[index++] << 8));
+      pendingLowByte = -1;
+    }
+    for (; index + 1 < end; index += 2) {
+      samples[count++] = (short) ((buffer[index] & 0xFF) | (buffer[index + 1] << 8));
+    }
+    if (index < end) {
+      pendingLowByte = buffer[index] & 0xFF;
+    }
+    return count;
+  }
+}
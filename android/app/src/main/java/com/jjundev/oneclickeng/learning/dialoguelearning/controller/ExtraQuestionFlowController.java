@@ -2,6 +2,7 @@ package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
 
 import androidx.annotation.NonNull;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IExtraQuestionManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.AsyncRequestTracker;
 
 public class ExtraQuestionFlowController {
@@ -15,7 +16,8 @@ public class ExtraQuestionFlowController {
   }
 
   public interface ExtraQuestionService {
-    void askExtraQuestionStreaming(
+    @NonNull
+    RequestHandle askExtraQuestionStreaming(
         String originalSentence,
         String userSentence,
         String userQuestion,
@@ -29,13 +31,15 @@ public class ExtraQuestionFlowController {
       this.manager = manager;
     }
 
+    @NonNull
     @Override
-    public void askExtraQuestionStreaming(
+    public RequestHandle askExtraQuestionStreaming(
         String originalSentence,
         String userSentence,
         String userQuestion,
         IExtraQuestionManager.StreamingResponseCallback callback) {
-      manager.askExtraQuestionStreaming(originalSentence, userSentence, userQuestion, callback);
+      return manager.askExtraQuestionStreaming(
+          originalSentence, userSentence, userQuestion, callback);
     }
   }
 
@@ -68,35 +72,37 @@ public class ExtraQuestionFlowController {
       @NonNull Callback callback) {
     long requestId = requestTracker.nextRequestId(requestChannel);
 
-    service.askExtraQuestionStreaming(
-        originalSentence,
-        userSentence,
-        userQuestion,
-        new IExtraQuestionManager.StreamingResponseCallback() {
-          @Override
-          public void onTextChunk(String text) {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            callback.onChunk(text == null ? "" : text);
-          }
-
-          @Override
-          public void onComplete() {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            callback.onComplete();
-          }
-
-          @Override
-          public void onError(String error) {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            callback.onError(error == null ? "Extra question failed" : error);
-          }
-        });
+    RequestHandle handle =
+        service.askExtraQuestionStreaming(
+            originalSentence,
+            userSentence,
+            userQuestion,
+            new IExtraQuestionManager.StreamingResponseCallback() {
+              @Override
+              public void onTextChunk(String text) {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                callback.onChunk(text == null ? "" : text);
+              }
+
+              @Override
+              public void onComplete() {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                callback.onComplete();
+              }
+
+              @Override
+              public void onError(String error) {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                callback.onError(error == null ? "Extra question failed" : error);
+              }
+            });
+    requestTracker.track(requestChannel, requestId, handle);
   }
 
   public void invalidate() {
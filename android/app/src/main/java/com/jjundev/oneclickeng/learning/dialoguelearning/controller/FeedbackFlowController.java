@@ -2,6 +2,7 @@ package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
 
 import androidx.annotation.NonNull;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.AsyncRequestTracker;
 
@@ -19,7 +20,8 @@ public class FeedbackFlowController {
   }
 
   public interface SentenceFeedbackService {
-    void analyzeSentenceStreaming(
+    @NonNull
+    RequestHandle analyzeSentenceStreaming(
         String originalSentence,
         String userSentence,
         ISentenceFeedbackManager.StreamingFeedbackCallback callback);
@@ -32,12 +34,13 @@ public class FeedbackFlowController {
       this.manager = manager;
     }
 
+    @NonNull
     @Override
-    public void analyzeSentenceStreaming(
+    public RequestHandle analyzeSentenceStreaming(
         String originalSentence,
         String userSentence,
         ISentenceFeedbackManager.StreamingFeedbackCallback callback) {
-      manager.analyzeSentenceStreaming(originalSentence, userSentence, callback);
+      return manager.analyzeSentenceStreaming(originalSentence, userSentence, callback);
     }
   }
 
@@ -75,48 +78,50 @@ public class FeedbackFlowController {
 
     long requestId = requestTracker.nextRequestId(requestChannel);
 
-    feedbackService.analyzeSentenceStreaming(
-        originalSentence,
-        userTranscript,
-        new ISentenceFeedbackManager.StreamingFeedbackCallback() {
-          @Override
-          public void onSectionReady(String sectionKey, SentenceFeedback partialFeedback) {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            if (partialFeedback != null && partialFeedback.getUserSentence() == null) {
-              partialFeedback.setUserSentence(userTranscript);
-            }
-            if (partialFeedback != null && partialFeedback.getOriginalSentence() == null) {
-              partialFeedback.setOriginalSentence(originalSentence);
-            }
-            if (partialFeedback != null) {
-              callback.onSectionReady(requestId, sectionKey, partialFeedback);
-            }
-          }
-
-          @Override
-          public void onComplete(SentenceFeedback fullFeedback) {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            if (fullFeedback != null && fullFeedback.getUserSentence() == null) {
-              fullFeedback.setUserSentence(userTranscript);
-            }
-            if (fullFeedback != null && fullFeedback.getOriginalSentence() == null) {
-              fullFeedback.setOriginalSentence(originalSentence);
-            }
-            callback.onComplete(requestId, fullFeedback);
-          }
-
-          @Override
-          public void onError(String error) {
-            if (!requestTracker.isLatest(requestChannel, requestId)) {
-              return;
-            }
-            callback.onError(requestId, error == null ? "Streaming analysis error" : error);
-          }
-        });
+    RequestHandle handle =
+        feedbackService.analyzeSentenceStreaming(
+            originalSentence,
+            userTranscript,
+            new ISentenceFeedbackManager.StreamingFeedbackCallback() {
+              @Override
+              public void onSectionReady(String sectionKey, SentenceFeedback partialFeedback) {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                if (partialFeedback != null && partialFeedback.getUserSentence() == null) {
+                  partialFeedback.setUserSentence(userTranscript);
+                }
+                if (partialFeedback != null && partialFeedback.getOriginalSentence() == null) {
+                  partialFeedback.setOriginalSentence(originalSentence);
+                }
+                if (partialFeedback != null) {
+                  callback.onSectionReady(requestId, sectionKey, partialFeedback);
+                }
+              }
+
+              @Override
+              public void onComplete(SentenceFeedback fullFeedback) {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                if (fullFeedback != null && fullFeedback.getUserSentence() == null) {
+                  fullFeedback.setUserSentence(userTranscript);
+                }
+                if (fullFeedback != null && fullFeedback.getOriginalSentence() == null) {
+                  fullFeedback.setOriginalSentence(originalSentence);
+                }
+                callback.onComplete(requestId, fullFeedback);
+              }
+
+              @Override
+              public void onError(String error) {
+                if (!requestTracker.isLatest(requestChannel, requestId)) {
+                  return;
+                }
+                callback.onError(requestId, error == null ? "Streaming analysis error" : error);
+              }
+            });
+    requestTracker.track(requestChannel, requestId, handle);
 
     return requestId;
   }
@@ -1,6 +1,9 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 public final class RecordedAudioSilenceDetector {
 
@@ -13,20 +16,33 @@ public final class RecordedAudioSilenceDetector {
     return calculateNormalizedRms(audioData) < threshold;
   }
 
+  /** Same as {@link #isSilent(byte[], float)} for a (possibly read-only) view of the PCM. */
+  public static boolean isSilent(@NonNull ByteBuffer pcm, float threshold) {
+    if (threshold <= 0f) {
+      return calculateNormalizedRms(pcm) <= 0f;
+    }
+    return calculateNormalizedRms(pcm) < threshold;
+  }
+
   public static float calculateNormalizedRms(@Nullable byte[] audioData) {
-    if (audioData == null || audioData.length < 2) {
+    if (audioData == null) {
       return 0f;
     }
+    return calculateNormalizedRms(ByteBuffer.wrap(audioData));
+  }
 
-    int sampleCount = audioData.length / 2;
+  /** Reads the remaining bytes of {@code pcm} without copying or moving its position. */
+  public static float calculateNormalizedRms(@NonNull ByteBuffer pcm) {
+    int start = pcm.position();
+    int sampleCount = pcm.remaining() / 2;
     if (sampleCount <= 0) {
       return 0f;
     }
 
+    ByteBuffer samples = pcm.duplicate().order(ByteOrder.LITTLE_ENDIAN);
     double sumSquares = 0d;
-    for (int i = 0; i + 1 < audioData.length; i += 2) {
-      short sample = (short) ((audioData[i] & 0xFF) | (audioData[i + 1] << 8));
-      double normalized = sample / 32768.0d;
+    for (int i = 0; i < sampleCount; i++) {
+      double normalized = samples.getShort(start + i * 2) / 32768.0d;
       sumSquares += normalized * normalized;
     }
 
@@ -6,6 +6,7 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.model.DialogueScript;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ScriptTurn;
 import com.jjundev.oneclickeng.learning.dialoguelearning.parser.DialogueScriptParser;
 import java.util.ArrayList;
+import java.util.List;
 
 public class ScriptFlowController {
 
@@ -117,6 +118,26 @@ public class ScriptFlowController {
     return script == null ? 0 : script.size();
   }
 
+  /**
+   * English lines of the next opponent turns after the current one, in play order. Includes turns
+   * that have streamed in but not been reached yet.
+   */
+  @NonNull
+  public List<String> getUpcomingOpponentLines(int limit) {
+    List<String> lines = new ArrayList<>();
+    if (script == null) {
+      return lines;
+    }
+    List<ScriptTurn> turns = script.getTurns();
+    for (int i = currentIndex + 1; i < turns.size() && lines.size() < limit; i++) {
+      ScriptTurn turn = turns.get(i);
+      if (turn.isOpponentTurn()) {
+        lines.add(turn.getEnglish());
+      }
+    }
+    return lines;
+  }
+
   @NonNull
   public NextTurnResult moveToNextTurn() {
     if (script == null || script.size() == 0) {
@@ -3,6 +3,8 @@ package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeakingAnalysisResult;
 import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.AsyncRequestTracker;
@@ -16,7 +18,14 @@ public class SpeakingFlowController {
   }
 
   public interface SpeakingAnalyzer {
-    void analyzeAudio(byte[] audioData, ISpeakingFeedbackManager.AnalysisCallback callback);
+    @NonNull
+    RequestHandle analyzeAudio(
+        byte[] audioData, ISpeakingFeedbackManager.AnalysisCallback callback);
+
+    @Nullable
+    default ISpeakingFeedbackManager.AudioStream openAudioStream() {
+      return null;
+    }
   }
 
   public static class ManagerSpeakingAnalyzer implements SpeakingAnalyzer {
@@ -26,15 +35,25 @@ public class SpeakingFlowController {
       this.manager = manager;
     }
 
+    @NonNull
+    @Override
+    public RequestHandle analyzeAudio(
+        byte[] audioData, ISpeakingFeedbackManager.AnalysisCallback callback) {
+      return manager.analyzeAudio(audioData, callback);
+    }
+
+    @Nullable
     @Override
-    public void analyzeAudio(byte[] audioData, ISpeakingFeedbackManager.AnalysisCallback callback) {
-      manager.analyzeAudio(audioData, callback);
+    public ISpeakingFeedbackManager.AudioStream openAudioStream() {
+      return manager.openAudioStream();
     }
   }
 
   private final SpeakingAnalyzer speakingAnalyzer;
   private final AsyncRequestTracker requestTracker;
   private final String requestChannel;
+  // Live stream of the utterance being recorded; handed to analyzeSpeaking when recording stops.
+  @Nullable private volatile ISpeakingFeedbackManager.AudioStream activeStream;
 
   public SpeakingFlowController(@NonNull SpeakingAnalyzer speakingAnalyzer) {
     this(speakingAnalyzer, new AsyncRequestTracker(), AsyncRequestTracker.CHANNEL_SPEAKING);
@@ -59,10 +78,31 @@ public class SpeakingFlowController {
       @NonNull byte[] audioData,
       @Nullable String fallbackRecognizedText,
       @NonNull Callback callback) {
+    return analyzeSpeaking(originalSentence, audioData, 0, null, fallbackRecognizedText, callback);
+  }
+
+  /**
+   * @param audioStartByte where {@code audioData} starts within the streamed recording, so a live
+   *     stream can line a trimmed take up with the audio it has already received
+   * @param takeStats capture stats of the take, if measured; a take they mark as clearly unusable
+   *     is not uploaded and fails at once through {@code callback}
+   */
+  public long analyzeSpeaking(
+      @NonNull String originalSentence,
+      @NonNull byte[] audioData,
+      int audioStartByte,
+      @Nullable AudioStats takeStats,
+      @Nullable String fallbackRecognizedText,
+      @NonNull Callback callback) {
     long requestId = requestTracker.nextRequestId(requestChannel);
+    if (takeStats != null && takeStats.isClearlyUnusable()) {
+      cancelStreaming();
+      requestTracker.track(requestChannel, requestId, RequestHandle.completed());
+      callback.onError(requestId, "Unusable recording: " + takeStats.getUnusableReason());
+      return requestId;
+    }
 
-    speakingAnalyzer.analyzeAudio(
-        audioData,
+    ISpeakingFeedbackManager.AnalysisCallback analysisCallback =
         new ISpeakingFeedbackManager.AnalysisCallback() {
           @Override
           public void onSuccess(@NonNull FluencyFeedback result) {
@@ -77,7 +117,7 @@ public class SpeakingFlowController {
 
             callback.onSuccess(
                 new SpeakingAnalysisResult(
-                    requestId, originalSentence, recognized, result, audioData.clone()));
+                    requestId, originalSentence, recognized, result, audioData));
           }
 
           @Override
@@ -87,31 +127,46 @@ public class SpeakingFlowController {
             }
             callback.onError(requestId, error == null ? "Unknown analysis error" : error);
           }
-        });
+        };
+    ISpeakingFeedbackManager.AudioStream stream = activeStream;
+    activeStream = null;
+    RequestHandle handle =
+        stream != null
+            ? stream.finish(audioData, audioStartByte, analysisCallback)
+            : speakingAnalyzer.analyzeAudio(audioData, analysisCallback);
+    requestTracker.track(requestChannel, requestId, handle);
 
     return requestId;
   }
 
-  public void invalidate() {
-    requestTracker.invalidate(requestChannel);
+  /**
+   * Opens a live stream for the recording that is starting, so its audio is analyzed while the
+   * user speaks. Does nothing if the analyzer does not support streaming.
+   */
+  public void startStreaming() {
+    cancelStreaming();
+    activeStream = speakingAnalyzer.openAudioStream();
   }
 
-  public static float calculateAmplitude(@NonNull byte[] audioData) {
-    double sum = 0;
-    int readSize = audioData.length;
-    for (int i = 0; i < readSize; i += 2) {
-      if (i + 1 < readSize) {
-        short sample = (short) ((audioData[i] & 0xFF) | (audioData[i + 1] << 8));
-        sum += sample * sample;
-      }
+  /** Forwards a captured chunk to the live stream, if one is open. */
+  public void appendAudio(@NonNull byte[] buffer, int offset, int length) {
+    ISpeakingFeedbackManager.AudioStream stream = activeStream;
+    if (stream != null) {
+      stream.appendAudio(buffer, offset, length);
     }
+  }
 
-    if (readSize <= 0) {
-      return 0f;
+  /** Drops the live stream of a recording that will not be analyzed. */
+  public void cancelStreaming() {
+    ISpeakingFeedbackManager.AudioStream stream = activeStream;
+    activeStream = null;
+    if (stream != null) {
+      stream.cancel();
     }
+  }
 
-    double rms = Math.sqrt(sum / (readSize / 2.0));
-    float amplitude = (float) ((rms / 32768.0) * 3.0);
-    return Math.min(Math.max(amplitude, 0f), 1f);
+  public void invalidate() {
+    cancelStreaming();
+    requestTracker.invalidate(requestChannel);
   }
 }
@@ -0,0 +1,216 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
+
+import androidx.annotation.NonNull;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
+
+/**
+ * Frame-level voice activity detection for 16-bit little-endian mono PCM, fed chunk by chunk from
+ * the recording thread.
+ *
+ * <p>Each 20 ms frame is scored by energy and zero-crossing rate. A frame is a speech candidate
+ * when its RMS clears both a floor and a multiple of the tracked background level, and it either
+ * crosses zero slowly enough to be voiced or is loud enough to be a fricative. Speech starts after
+ * a few candidate frames in a row and ends after a hangover of non-candidate frames, so short
+ * pauses between words do not split an utterance.
+ */
+public final class VoiceActivityDetector {
+  public static final int FRAME_MS = 20;
+
+  private static final float MIN_SPEECH_RMS = 0.015f;
+  private static final float LOUD_SPEECH_RMS = 0.06f;
+  private static final float NOISE_FLOOR_RATIO = 3f;
+  private static final float NOISE_FLOOR_ADAPT = 0.05f;
+  private static final float MAX_VOICED_ZERO_CROSSING_RATE = 0.25f;
+  private static final int ONSET_FRAMES = 3;
+  private static final int HANGOVER_FRAMES = 10;
+
+  private final int bytesPerSecond;
+  private final int frameSamples;
+  private final int frameBytes;
+  private final long autoStopSilenceMs;
+
+  // Current frame, accumulated across chunk boundaries.
+  private double frameSumSquares;
+  private int frameZeroCrossings;
+  private int frameSampleCount;
+  private int previousSample;
+  private int pendingLowByte = -1;
+
+  private long processedFrames;
+  private long speechFrames;
+  private float noiseFloor;
+  private int candidateRun;
+  private int hangoverLeft;
+  private boolean inSpeech;
+  private long speechStartByte = -1L;
+  private long speechEndByte = -1L;
+  private boolean autoStopReported;
+
+  /**
+   * @param autoStopSilenceMs trailing silence after speech that ends the take, or 0 to never end it
+   */
+  public VoiceActivityDetector(int sampleRate, long autoStopSilenceMs) {
+    this.bytesPerSecond = sampleRate * 2;
+    this.frameSamples = sampleRate * FRAME_MS / 1000;
+    this.frameBytes = frameSamples * 2;
+    this.autoStopSilenceMs = Math.max(0L, autoStopSilenceMs);
+    reset();
+  }
+
+  public synchronized void reset() {
+    frameSumSquares = 0d;
+    frameZeroCrossings = 0;
+    frameSampleCount = 0;
+    previousSample = 0;
+    pendingLowByte = -1;
+    processedFrames = 0L;
+    speechFrames = 0L;
+    noiseFloor = MIN_SPEECH_RMS / NOISE_FLOOR_RATIO;
+    candidateRun = 0;
+    hangoverLeft = 0;
+    inSpeech = false;
+    speechStartByte = -1L;
+    speechEndByte = -1L;
+    autoStopReported = false;
+  }
+
+  /**
+   * Scores the next chunk of the take.
+   *
+   * @return true exactly once, for the chunk after which the take should end automatically
+   */
+  public synchronized boolean process(@NonNull byte[] buffer, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    if (pendingLowByte >= 0 && index < end) {
+      addSample((short) (pendingLowByte | (buffer[index++] << 8)));
+      pendingLowByte = -1;
+    }
+    for (; index + 1 < end; index += 2) {
+      addSample((short) ((buffer[index] & 0xFF) | (buffer[index + 1] << 8)));
+    }
+    if (index < end) {
+      pendingLowByte = buffer[index] & 0xFF;
+    }
+    return checkAutoStopLocked();
+  }
+
+  /**
+   * Same as {@link #process(byte[], int, int)} for samples the caller has already decoded, so
+   * {@link AudioAnalytics} can score a chunk in the pass that measures it.
+   */
+  synchronized boolean process(@NonNull short[] samples, int count) {
+    for (int i = 0; i < count; i++) {
+      addSample(samples[i]);
+    }
+    return checkAutoStopLocked();
+  }
+
+  private boolean checkAutoStopLocked() {
+    if (autoStopReported || autoStopSilenceMs <= 0L || !hasSpeechLocked() || inSpeech) {
+      return false;
+    }
+    if (trailingSilenceMsLocked() < autoStopSilenceMs) {
+      return false;
+    }
+    autoStopReported = true;
+    return true;
+  }
+
+  /** Number of 20 ms frames scored so far. */
+  public synchronized long getFrameCount() {
+    return processedFrames;
+  }
+
+  /** Number of scored frames that fell inside speech, including the hangover after it. */
+  public synchronized long getSpeechFrameCount() {
+    return speechFrames;
+  }
+
+  public synchronized boolean hasSpeech() {
+    return hasSpeechLocked();
+  }
+
+  /** Silence since the last speech frame; 0 before any speech was heard. */
+  public synchronized long getTrailingSilenceMs() {
+    return hasSpeechLocked() ? trailingSilenceMsLocked() : 0L;
+  }
+
+  /**
+   * Cuts leading and trailing silence from a take of {@code totalBytes}, keeping {@code paddingMs}
+   * around the detected speech so word edges are not clipped. The take is kept whole when no
+   * speech was detected.
+   */
+  @NonNull
+  public synchronized SpeechTrim trim(int totalBytes, long paddingMs, boolean autoStopped) {
+    if (!hasSpeechLocked()) {
+      return SpeechTrim.untrimmed(totalBytes, bytesPerSecond, autoStopped);
+    }
+    long padding = paddingMs * bytesPerSecond / 1000L;
+    long start = Math.max(0L, speechStartByte - padding);
+    long end = Math.min(totalBytes, speechEndByte + padding);
+    // Keep whole samples.
+    start -= start % 2;
+    end -= end % 2;
+    return new SpeechTrim((int) start, (int) end, totalBytes, bytesPerSecond, autoStopped);
+  }
+
+  private void addSample(short sample) {
+    if (frameSampleCount > 0 && (sample >= 0) != (previousSample >= 0)) {
+      frameZeroCrossings++;
+    }
+    previousSample = sample;
+    double normalized = sample / 32768.0d;
+    frameSumSquares += normalized * normalized;
+    if (++frameSampleCount == frameSamples) {
+      onFrame(
+          (float) Math.sqrt(frameSumSquares / frameSamples),
+          frameZeroCrossings / (float) frameSamples);
+      frameSumSquares = 0d;
+      frameZeroCrossings = 0;
+      frameSampleCount = 0;
+    }
+  }
+
+  private void onFrame(float rms, float zeroCrossingRate) {
+    long frameIndex = processedFrames++;
+    float threshold = Math.max(MIN_SPEECH_RMS, noiseFloor * NOISE_FLOOR_RATIO);
+    boolean candidate =
+        rms >= threshold
+            && (zeroCrossingRate <= MAX_VOICED_ZERO_CROSSING_RATE || rms >= LOUD_SPEECH_RMS);
+
+    if (!candidate) {
+      candidateRun = 0;
+      // Follow the background down at once and up slowly, so speech cannot raise it quickly.
+      noiseFloor = rms < noiseFloor ? rms : noiseFloor + (rms - noiseFloor) * NOISE_FLOOR_ADAPT;
+      if (inSpeech) {
+        speechFrames++;
+        if (--hangoverLeft <= 0) {
+          inSpeech = false;
+        }
+      }
+      return;
+    }
+
+    candidateRun++;
+    if (!inSpeech && candidateRun >= ONSET_FRAMES) {
+      inSpeech = true;
+      if (speechStartByte < 0L) {
+        speechStartByte = (frameIndex - ONSET_FRAMES + 1) * frameBytes;
+      }
+    }
+    if (inSpeech) {
+      speechFrames++;
+      hangoverLeft = HANGOVER_FRAMES;
+      speechEndByte = (frameIndex + 1) * frameBytes;
+    }
+  }
+
+  private boolean hasSpeechLocked() {
+    return speechStartByte >= 0L;
+  }
+
+  private long trailingSilenceMsLocked() {
+    return (processedFrames * frameBytes - speechEndByte) * 1000L / bytesPerSecond;
+  }
+}
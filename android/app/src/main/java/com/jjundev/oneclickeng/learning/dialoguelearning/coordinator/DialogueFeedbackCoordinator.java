@@ -18,6 +18,8 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.ExtraQuestionUiState;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.FeedbackUiState;
 import com.jjundev.oneclickeng.learning.dialoguelearning.summary.BookmarkedParaphrase;
+import com.jjundev.oneclickeng.learning.dialoguelearning.ui.StreamingTextBinder;
+import com.jjundev.oneclickeng.others.PrecomputedSpanRenderer;
 import com.jjundev.oneclickeng.others.SentenceFeedbackBinder;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -60,6 +62,10 @@ public final class DialogueFeedbackCoordinator {
   @Nullable private View currentContent;
   @Nullable private View feedbackContentContainer;
   @Nullable private SentenceFeedbackBinder currentBinder;
+  @NonNull private final StreamingTextBinder extraResponseBinder = new StreamingTextBinder();
+  // Shared by every binder of this screen so re-binding the same sections hits its cache.
+  @NonNull
+  private final PrecomputedSpanRenderer feedbackSpanRenderer = new PrecomputedSpanRenderer();
 
   @NonNull private final List<SentenceFeedback> accumulatedFeedbacks = new ArrayList<>();
 
@@ -87,6 +93,9 @@ public final class DialogueFeedbackCoordinator {
 
   public void bindFeedbackContent(@Nullable View content, @Nullable View contentContainer) {
     cancelPendingFeedbackScrollInternal();
+    if (content != currentContent) {
+      extraResponseBinder.clear();
+    }
     currentContent = content;
     feedbackContentContainer = contentContainer;
   }
@@ -276,6 +285,8 @@ public final class DialogueFeedbackCoordinator {
     currentContent = null;
     feedbackContentContainer = null;
     currentBinder = null;
+    extraResponseBinder.clear();
+    feedbackSpanRenderer.cancelPending();
     latestFeedbackState = null;
     isFeedbackButtonsResyncScheduled = false;
   }
@@ -373,7 +384,7 @@ public final class DialogueFeedbackCoordinator {
     }
 
     if (shimmerResponse != null) {
-      if (state.isLoading() && isBlank(state.getResponse())) {
+      if (state.isLoading() && !state.hasResponse()) {
         shimmerResponse.setVisibility(View.VISIBLE);
         shimmerResponse.startShimmer();
       } else {
@@ -383,13 +394,13 @@ public final class DialogueFeedbackCoordinator {
     }
 
     if (tvResponse != null) {
-      if (isBlank(state.getResponse())) {
-        tvResponse.setVisibility(state.isLoading() ? View.GONE : View.VISIBLE);
-        tvResponse.setText("");
-      } else {
+      if (state.hasResponse()) {
         tvResponse.setVisibility(View.VISIBLE);
-        tvResponse.setText(state.getResponse());
+      } else {
+        tvResponse.setVisibility(state.isLoading() ? View.GONE : View.VISIBLE);
       }
+      extraResponseBinder.bind(
+          tvResponse, state.getResponseText(), state.getResponseLength(), !state.isLoading());
     }
 
     if (btnExtraSend != null) {
@@ -406,8 +417,7 @@ public final class DialogueFeedbackCoordinator {
     }
 
     if (!state.isLoading()) {
-      int responseLen = state.getResponse() == null ? 0 : state.getResponse().length();
-      loggerDelegate.ux("UX_FEEDBACK_EXTRA_DONE", "responseLen=" + responseLen);
+      loggerDelegate.ux("UX_FEEDBACK_EXTRA_DONE", "responseLen=" + state.getResponseLength());
     }
   }
 
@@ -455,7 +465,7 @@ public final class DialogueFeedbackCoordinator {
 
   @NonNull
   private SentenceFeedbackBinder createSentenceFeedbackBinder(@NonNull View content) {
-    SentenceFeedbackBinder binder = new SentenceFeedbackBinder(content);
+    SentenceFeedbackBinder binder = new SentenceFeedbackBinder(content, feedbackSpanRenderer);
     binder.setTtsActionListener((text, btn) -> feedbackActionDelegate.playTts(text, btn));
     binder.setParaphrasingBookmarkDelegate(
         new SentenceFeedbackBinder.ParaphrasingBookmarkDelegate() {
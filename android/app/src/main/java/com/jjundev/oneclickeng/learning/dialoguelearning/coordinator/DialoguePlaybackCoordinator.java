@@ -14,6 +14,9 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.Gemin
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IGeminiTtsManager;
 import com.jjundev.oneclickeng.settings.AppSettings;
 import com.jjundev.oneclickeng.tool.RecordingAudioPlayer;
+import com.jjundev.oneclickeng.tool.StreamingAudioPlayer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 
@@ -45,8 +48,9 @@ public final class DialoguePlaybackCoordinator {
   @Nullable private TextToSpeech tts;
   private boolean isTtsReady;
   @Nullable private RecordingAudioPlayer recordingAudioPlayer;
-  @Nullable private RecordingAudioPlayer geminiPcmPlayer;
+  @Nullable private StreamingAudioPlayer geminiPcmPlayer;
   @Nullable private IGeminiTtsManager geminiTtsManager;
+  @Nullable private ScriptTtsPrefetcher scriptTtsPrefetcher;
   @Nullable private ImageView currentlyPlayingSpeakerBtn;
   @Nullable private Runnable ttsWatchdogRunnable;
   @Nullable private Runnable currentTtsOnDoneCallback;
@@ -65,13 +69,18 @@ public final class DialoguePlaybackCoordinator {
   }
 
   public void setGeminiTtsManager(@Nullable IGeminiTtsManager geminiTtsManager) {
+    if (scriptTtsPrefetcher != null) {
+      scriptTtsPrefetcher.cancelAll();
+    }
     this.geminiTtsManager = geminiTtsManager;
+    this.scriptTtsPrefetcher =
+        geminiTtsManager == null ? null : new ScriptTtsPrefetcher(geminiTtsManager);
   }
 
   public void initialize(@NonNull Context context, @NonNull OnTtsInitializedListener listener) {
     release();
     recordingAudioPlayer = new RecordingAudioPlayer();
-    geminiPcmPlayer = new RecordingAudioPlayer();
+    geminiPcmPlayer = new StreamingAudioPlayer();
     tts =
         new TextToSpeech(
             context,
@@ -113,6 +122,9 @@ public final class DialoguePlaybackCoordinator {
   public void release() {
     isTtsReady = false;
     stopAllPlayback("release");
+    if (scriptTtsPrefetcher != null) {
+      scriptTtsPrefetcher.cancelAll();
+    }
     if (tts != null) {
       tts.shutdown();
       tts = null;
@@ -176,6 +188,29 @@ public final class DialoguePlaybackCoordinator {
     applyTtsSettings(ttsProvider, speechRate, localeTag);
   }
 
+  /**
+   * Synthesizes the next script lines in the background so {@link #playScriptTts} can start them
+   * at once. Pass the upcoming lines in play order each time the script advances or grows; lines
+   * that dropped out are cancelled. Does nothing unless Gemini speech is in use.
+   */
+  public void prefetchScriptTts(@NonNull List<String> upcomingTexts, @Nullable String gender) {
+    ScriptTtsPrefetcher prefetcher = scriptTtsPrefetcher;
+    if (prefetcher == null) {
+      return;
+    }
+    if (!shouldUseGeminiProvider(ttsProvider)) {
+      prefetcher.cancelAll();
+      return;
+    }
+    List<ScriptTtsPrefetcher.Line> lines = new ArrayList<>();
+    for (String text : upcomingTexts) {
+      if (text != null && !text.trim().isEmpty()) {
+        lines.add(buildScriptLine(text, gender));
+      }
+    }
+    prefetcher.update(lines);
+  }
+
   public void playMessageTts(
       @NonNull String text,
       @Nullable ImageView speakerBtn,
@@ -293,112 +328,144 @@ public final class DialoguePlaybackCoordinator {
       long sessionToken,
       @Nullable PlaybackErrorListener errorListener) {
     IGeminiTtsManager manager = geminiTtsManager;
-    if (manager == null) {
+    StreamingAudioPlayer player = geminiPcmPlayer;
+    if (manager == null || player == null) {
       playMessageWithAndroidTts(text, gender, sessionToken, errorListener);
       return;
     }
-    String voiceName = resolveGeminiVoiceName(gender);
-    manager.synthesize(
+    streamGeminiSpeech(
+        manager,
+        player,
         text,
-        ttsLocale.toLanguageTag(),
-        ttsSpeechRate,
-        voiceName,
-        new IGeminiTtsManager.SynthesisCallback() {
+        gender,
+        sessionToken,
+        "message",
+        () -> playMessageWithAndroidTts(text, gender, sessionToken, errorListener));
+  }
+
+  private void playScriptWithGemini(
+      @NonNull String text, @Nullable String gender, long sessionToken, @NonNull Runnable onComplete) {
+    IGeminiTtsManager manager = geminiTtsManager;
+    StreamingAudioPlayer player = geminiPcmPlayer;
+    if (manager == null || player == null) {
+      playScriptWithAndroidTts(text, gender, sessionToken, onComplete);
+      return;
+    }
+    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_start");
+    loggerDelegate.gate("M1_TTS_START");
+    loggerDelegate.ux("UX_TTS_START", "source=script");
+
+    Runnable stream =
+        () ->
+            streamGeminiSpeech(
+                manager,
+                player,
+                text,
+                gender,
+                sessionToken,
+                "script",
+                () -> playScriptWithAndroidTts(text, gender, sessionToken, onComplete));
+    ScriptTtsPrefetcher prefetcher = scriptTtsPrefetcher;
+    RecordingAudioPlayer prefetchedPlayer = recordingAudioPlayer;
+    GeminiTtsAudio prefetched =
+        prefetcher == null ? null : prefetcher.take(buildScriptLine(text, gender));
+    if (prefetched == null || prefetchedPlayer == null) {
+      stream.run();
+      return;
+    }
+    playPrefetchedSpeech(prefetchedPlayer, prefetched, sessionToken, stream);
+  }
+
+  /** Plays audio the prefetcher already synthesized; falls back to streaming if playback fails. */
+  private void playPrefetchedSpeech(
+      @NonNull RecordingAudioPlayer player,
+      @NonNull GeminiTtsAudio audio,
+      long sessionToken,
+      @NonNull Runnable streamFallback) {
+    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_prefetched");
+    player.play(
+        audio.getPcmData(),
+        audio.getSampleRateHz(),
+        new RecordingAudioPlayer.PlaybackCallback() {
           @Override
-          public void onSuccess(@NonNull GeminiTtsAudio audio) {
+          public void onPlaybackCompleted() {
             if (!isSessionCurrent(sessionToken)) {
               return;
             }
-            RecordingAudioPlayer player = geminiPcmPlayer;
-            if (player == null) {
-              playMessageWithAndroidTts(text, gender, sessionToken, errorListener);
-              return;
-            }
-            player.play(
-                audio.getPcmData(),
-                audio.getSampleRateHz(),
-                new RecordingAudioPlayer.PlaybackCallback() {
-                  @Override
-                  public void onPlaybackCompleted() {
-                    if (!isSessionCurrent(sessionToken)) {
-                      return;
-                    }
-                    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_message_playback_completed");
-                    onTtsTerminal(false);
-                  }
-
-                  @Override
-                  public void onPlaybackError(String error) {
-                    if (!isSessionCurrent(sessionToken)) {
-                      return;
-                    }
-                    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_message_playback_error");
-                    playMessageWithAndroidTts(text, gender, sessionToken, errorListener);
-                  }
-                });
+            loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_prefetched_playback_completed");
+            onTtsTerminal(false);
           }
 
           @Override
-          public void onError(@NonNull String errorMessage) {
+          public void onPlaybackError(String error) {
             if (!isSessionCurrent(sessionToken)) {
               return;
             }
-            loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_message_error");
-            playMessageWithAndroidTts(text, gender, sessionToken, errorListener);
+            loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_prefetched_playback_error");
+            streamFallback.run();
           }
         });
   }
 
-  private void playScriptWithGemini(
-      @NonNull String text, @Nullable String gender, long sessionToken, @NonNull Runnable onComplete) {
-    IGeminiTtsManager manager = geminiTtsManager;
-    if (manager == null) {
-      playScriptWithAndroidTts(text, gender, sessionToken, onComplete);
-      return;
-    }
-    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_start");
-    loggerDelegate.gate("M1_TTS_START");
-    loggerDelegate.ux("UX_TTS_START", "source=script");
+  @NonNull
+  private ScriptTtsPrefetcher.Line buildScriptLine(@NonNull String text, @Nullable String gender) {
+    return new ScriptTtsPrefetcher.Line(
+        text, ttsLocale.toLanguageTag(), ttsSpeechRate, resolveGeminiVoiceName(gender));
+  }
+
+  /**
+   * Plays Gemini speech while it is synthesized, starting with the first streamed chunk. Falls back
+   * to {@code androidFallback} only if nothing has been played yet; a stream that breaks off midway
+   * plays out what arrived.
+   */
+  private void streamGeminiSpeech(
+      @NonNull IGeminiTtsManager manager,
+      @NonNull StreamingAudioPlayer player,
+      @NonNull String text,
+      @Nullable String gender,
+      long sessionToken,
+      @NonNull String source,
+      @NonNull Runnable androidFallback) {
+    long playerSession =
+        player.begin(
+            new RecordingAudioPlayer.PlaybackCallback() {
+              @Override
+              public void onPlaybackCompleted() {
+                if (!isSessionCurrent(sessionToken)) {
+                  return;
+                }
+                loggerDelegate.trace(
+                    "TRACE_TTS_FLOW source=gemini_" + source + "_playback_completed");
+                onTtsTerminal(false);
+              }
 
-    String voiceName = resolveGeminiVoiceName(gender);
-    manager.synthesize(
+              @Override
+              public void onPlaybackError(String error) {
+                if (!isSessionCurrent(sessionToken)) {
+                  return;
+                }
+                loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_" + source + "_playback_error");
+                androidFallback.run();
+              }
+            });
+    manager.synthesizeStream(
         text,
         ttsLocale.toLanguageTag(),
         ttsSpeechRate,
-        voiceName,
-        new IGeminiTtsManager.SynthesisCallback() {
+        resolveGeminiVoiceName(gender),
+        new IGeminiTtsManager.StreamCallback() {
+          @Override
+          public void onAudioChunk(@NonNull byte[] pcmData, int sampleRateHz) {
+            // Stream worker thread; blocks while the track buffer is full. Ignores stale sessions.
+            player.write(playerSession, pcmData, sampleRateHz);
+          }
+
           @Override
-          public void onSuccess(@NonNull GeminiTtsAudio audio) {
+          public void onComplete() {
             if (!isSessionCurrent(sessionToken)) {
               return;
             }
-            RecordingAudioPlayer player = geminiPcmPlayer;
-            if (player == null) {
-              playScriptWithAndroidTts(text, gender, sessionToken, onComplete);
-              return;
-            }
-            player.play(
-                audio.getPcmData(),
-                audio.getSampleRateHz(),
-                new RecordingAudioPlayer.PlaybackCallback() {
-                  @Override
-                  public void onPlaybackCompleted() {
-                    if (!isSessionCurrent(sessionToken)) {
-                      return;
-                    }
-                    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_script_playback_completed");
-                    onTtsTerminal(false);
-                  }
-
-                  @Override
-                  public void onPlaybackError(String error) {
-                    if (!isSessionCurrent(sessionToken)) {
-                      return;
-                    }
-                    loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_script_playback_error");
-                    playScriptWithAndroidTts(text, gender, sessionToken, onComplete);
-                  }
-                });
+            player.end(playerSession);
           }
 
           @Override
@@ -406,8 +473,13 @@ public final class DialoguePlaybackCoordinator {
             if (!isSessionCurrent(sessionToken)) {
               return;
             }
-            loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_script_error");
-            playScriptWithAndroidTts(text, gender, sessionToken, onComplete);
+            loggerDelegate.trace("TRACE_TTS_FLOW source=gemini_" + source + "_error");
+            if (player.isPlaying(playerSession)) {
+              player.end(playerSession);
+              return;
+            }
+            player.stop();
+            androidFallback.run();
           }
         });
   }
@@ -498,6 +570,9 @@ public final class DialoguePlaybackCoordinator {
           if (geminiPcmPlayer != null) {
             geminiPcmPlayer.stop();
           }
+          if (recordingAudioPlayer != null) {
+            recordingAudioPlayer.stop();
+          }
           resetSpeakerButton();
           onComplete.run();
         };
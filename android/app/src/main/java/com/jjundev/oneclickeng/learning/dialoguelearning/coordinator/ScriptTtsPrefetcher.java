@@ -0,0 +1,203 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.coordinator;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IGeminiTtsManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Synthesizes upcoming script lines before they are spoken, so an opponent turn can start without
+ * waiting on a Gemini round trip.
+ *
+ * <p>{@link #update} receives the next lines in play order whenever the script advances or a new
+ * turn streams in. Lines are requested nearest first through {@link IGeminiTtsManager#prefetch},
+ * at most {@code maxConcurrent} at a time, and finished audio is held in memory until {@link
+ * #take} claims it or the line leaves the lookahead window. No new request starts while the held
+ * audio is at the byte budget, and a result that would exceed it is dropped. A line is requested
+ * once per stay in the window, even if it fails. Call everything on the main thread, where the
+ * manager delivers results.
+ */
+public final class ScriptTtsPrefetcher {
+  /** How many upcoming opponent lines callers should pass to {@link #update}. */
+  public static final int DEFAULT_LOOKAHEAD_TURNS = 3;
+
+  static final int DEFAULT_MAX_CONCURRENT = 2;
+  static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024; // ~85 s of 24 kHz speech
+
+  @NonNull private final IGeminiTtsManager manager;
+  private final int maxConcurrent;
+  private final long maxBytes;
+
+  @NonNull private List<Line> window = new ArrayList<>();
+  private final Map<String, RequestHandle> inFlight = new LinkedHashMap<>();
+  private final Map<String, GeminiTtsAudio> ready = new LinkedHashMap<>();
+  // Lines that finished, failed or were claimed while in the window; not requested again.
+  private final Set<String> settled = new HashSet<>();
+  private long readyBytes;
+
+  public ScriptTtsPrefetcher(@NonNull IGeminiTtsManager manager) {
+    this(manager, DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_BYTES);
+  }
+
+  ScriptTtsPrefetcher(@NonNull IGeminiTtsManager manager, int maxConcurrent, long maxBytes) {
+    this.manager = manager;
+    this.maxConcurrent = Math.max(1, maxConcurrent);
+    this.maxBytes = Math.max(0L, maxBytes);
+  }
+
+  /**
+   * Replaces the lookahead window. Requests and held audio for lines no longer in it are dropped,
+   * then requests start for the nearest lines that have none.
+   */
+  public void update(@NonNull List<Line> upcoming) {
+    window = new ArrayList<>(upcoming);
+    Set<String> keys = new HashSet<>();
+    for (Line line : window) {
+      keys.add(line.key);
+    }
+    Iterator<Map.Entry<String, RequestHandle>> requests = inFlight.entrySet().iterator();
+    while (requests.hasNext()) {
+      Map.Entry<String, RequestHandle> entry = requests.next();
+      if (!keys.contains(entry.getKey())) {
+        entry.getValue().cancel();
+        requests.remove();
+      }
+    }
+    Iterator<Map.Entry<String, GeminiTtsAudio>> held = ready.entrySet().iterator();
+    while (held.hasNext()) {
+      Map.Entry<String, GeminiTtsAudio> entry = held.next();
+      if (!keys.contains(entry.getKey())) {
+        readyBytes -= entry.getValue().getPcmData().length;
+        held.remove();
+      }
+    }
+    settled.retainAll(keys);
+    pump();
+  }
+
+  /**
+   * Returns the prefetched audio for {@code line} and forgets it, or {@code null} if it is not
+   * ready. A request still running for the line is cancelled, since the caller is about to
+   * synthesize it directly.
+   */
+  @Nullable
+  public GeminiTtsAudio take(@NonNull Line line) {
+    settled.add(line.key);
+    GeminiTtsAudio audio = ready.remove(line.key);
+    if (audio != null) {
+      readyBytes -= audio.getPcmData().length;
+    } else {
+      RequestHandle request = inFlight.remove(line.key);
+      if (request != null) {
+        request.cancel();
+      }
+    }
+    pump();
+    return audio;
+  }
+
+  /** Cancels every request and drops all held audio, e.g. when the session ends. */
+  public void cancelAll() {
+    for (RequestHandle request : inFlight.values()) {
+      request.cancel();
+    }
+    inFlight.clear();
+    ready.clear();
+    settled.clear();
+    window = new ArrayList<>();
+    readyBytes = 0L;
+  }
+
+  int getInFlightCount() {
+    return inFlight.size();
+  }
+
+  long getReadyBytes() {
+    return readyBytes;
+  }
+
+  private void pump() {
+    for (Line line : window) {
+      if (inFlight.size() >= maxConcurrent || readyBytes >= maxBytes) {
+        return;
+      }
+      if (!inFlight.containsKey(line.key)
+          && !ready.containsKey(line.key)
+          && !settled.contains(line.key)) {
+        start(line);
+      }
+    }
+  }
+
+  private void start(@NonNull Line line) {
+    String key = line.key;
+    RequestHandle request =
+        manager.prefetch(
+            line.text,
+            line.localeTag,
+            line.speechRate,
+            line.voiceName,
+            new IGeminiTtsManager.SynthesisCallback() {
+              @Override
+              public void onSuccess(@NonNull GeminiTtsAudio audio) {
+                if (inFlight.remove(key) == null) {
+                  return;
+                }
+                settled.add(key);
+                long size = audio.getPcmData().length;
+                if (readyBytes + size <= maxBytes) {
+                  ready.put(key, audio);
+                  readyBytes += size;
+                }
+                pump();
+              }
+
+              @Override
+              public void onError(@NonNull String errorMessage) {
+                if (inFlight.remove(key) == null) {
+                  return;
+                }
+                settled.add(key);
+                pump();
+              }
+            });
+    inFlight.put(key, request);
+  }
+
+  /** One line to speak, with the settings that shape its audio. */
+  public static final class Line {
+    @NonNull private final String text;
+    @NonNull private final String localeTag;
+    private final float speechRate;
+    @NonNull private final String voiceName;
+    @NonNull private final String key;
+
+    public Line(
+        @NonNull String text,
+        @NonNull String localeTag,
+        float speechRate,
+        @NonNull String voiceName) {
+      this.text = text;
+      this.localeTag = localeTag;
+      this.speechRate = speechRate;
+      this.voiceName = voiceName;
+      this.key =
+          String.join(
+              "\u0000", voiceName, localeTag, String.format(Locale.US, "%.2f", speechRate), text);
+    }
+
+    @NonNull
+    public String getText() {
+      return text;
+    }
+  }
+}
@@ -1,6 +1,5 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.coordinator;
 
-import android.os.SystemClock;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.ProgressBar;
@@ -10,13 +9,16 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import com.jjundev.oneclickeng.R;
+import com.jjundev.oneclickeng.learning.dialoguelearning.controller.AudioAnalytics;
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.RecordedAudioSilenceDetector;
-import com.jjundev.oneclickeng.learning.dialoguelearning.controller.SpeakingFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
 import com.jjundev.oneclickeng.learning.dialoguelearning.ui.BottomSheetSceneRenderer;
 import com.jjundev.oneclickeng.learning.dialoguelearning.ui.LearningScene;
 import com.jjundev.oneclickeng.tool.AudioRecorder;
+import com.jjundev.oneclickeng.view.AmplitudeRing;
 import com.jjundev.oneclickeng.view.WaveformView;
-import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.Locale;
 
 public final class SpeakingSceneCoordinator {
@@ -48,16 +50,22 @@ public final class SpeakingSceneCoordinator {
     @NonNull
     android.os.Handler getMainHandler();
 
-    @Nullable
-    ByteArrayOutputStream getAudioAccumulator();
-
     @Nullable
     StringBuilder getTranscriptBuilder();
 
-    void onAudioChunk(@NonNull byte[] audioData);
+    /** Called on the recording thread with a slice that is only valid during the call. */
+    void onAudioChunk(@NonNull byte[] buffer, int offset, int length);
 
     void setLastRecordedAudio(@NonNull byte[] audioData);
 
+    /** Trailing silence after speech that ends the take without the mic button; 0 disables. */
+    long getAutoStopSilenceMs();
+
+    void onSpeechTrimmed(@NonNull SpeechTrim trim);
+
+    /** Stats of the whole take that is about to be analyzed. */
+    void onTakeStats(@NonNull AudioStats stats);
+
     void renderBottomSheetScene(
         @LayoutRes int layoutResId, @Nullable BottomSheetSceneRenderer.SheetBinder binder);
 
@@ -85,10 +93,6 @@ public final class SpeakingSceneCoordinator {
 
     void onSpeakingViewsCleared();
 
-    long getLastWaveformUpdateMs();
-
-    void setLastWaveformUpdateMs(long value);
-
     void trace(@NonNull String key);
 
     void gate(@NonNull String key);
@@ -98,11 +102,16 @@ public final class SpeakingSceneCoordinator {
     boolean tryPresentBeforeSpeakingSceneAfterNoAudio(@NonNull String sentenceToTranslate);
   }
 
-  private static final long WAVEFORM_UPDATE_INTERVAL_MS = 80L;
+  // About two seconds of 32 ms chunks; the waveform drains it every frame.
+  private static final int AMPLITUDE_RING_CAPACITY = 64;
   private static final float NO_AUDIO_RMS_THRESHOLD = 0.03f;
   private static final long NO_AUDIO_RETURN_DELAY_MS = 1000L;
+  // Kept around detected speech so word onsets and releases are not clipped.
+  private static final long SPEECH_PADDING_MS = 200L;
 
   @NonNull private final Host host;
+  // Written by the recording thread, read by the waveform on the main thread.
+  private final AmplitudeRing amplitudeRing = new AmplitudeRing(AMPLITUDE_RING_CAPACITY);
 
   @Nullable private ImageButton btnMicCircle;
   @Nullable private ProgressBar progressRing;
@@ -113,6 +122,8 @@ public final class SpeakingSceneCoordinator {
   @Nullable private View ripple2;
   @Nullable private View ripple3;
   @Nullable private Runnable pendingNoAudioBeforeSpeakingPresentation;
+  @Nullable private AudioAnalytics audioAnalytics;
+  private boolean autoStopped;
 
   public SpeakingSceneCoordinator(@NonNull Host host) {
     this.host = host;
@@ -162,8 +173,17 @@ public final class SpeakingSceneCoordinator {
             tvOriginalSentence.setText(sentenceToTranslate);
           }
 
+          long autoStopSilenceMs = host.getAutoStopSilenceMs();
+          AudioAnalytics analytics =
+              new AudioAnalytics(AudioRecorder.SAMPLE_RATE, autoStopSilenceMs);
+          audioAnalytics = analytics;
+          autoStopped = false;
+
           if (tvListeningStatus != null) {
-            tvListeningStatus.setText("답변이 끝나면 마이크 버튼을 다시 누르세요");
+            tvListeningStatus.setText(
+                autoStopSilenceMs > 0L
+                    ? "답변이 끝나면 자동으로 채점해요"
+                    : "답변이 끝나면 마이크 버튼을 다시 누르세요");
             tvListeningStatus.setTextColor(
                 ContextCompat.getColor(
                     tvListeningStatus.getContext(), R.color.state_listening_prompt));
@@ -183,12 +203,7 @@ public final class SpeakingSceneCoordinator {
 
           if (waveformView != null) {
             waveformView.reset();
-          }
-          host.setLastWaveformUpdateMs(0L);
-
-          ByteArrayOutputStream audioAccumulator = host.getAudioAccumulator();
-          if (audioAccumulator != null) {
-            audioAccumulator.reset();
+            waveformView.setAmplitudeSource(amplitudeRing);
           }
 
           host.startProgressAnimation();
@@ -210,36 +225,34 @@ public final class SpeakingSceneCoordinator {
           audioRecorderManager.startRecording(
               new AudioRecorder.AudioCallback() {
                 @Override
-                public void onAudioData(byte[] audioData) {
-                  if (!host.isSpeaking() || audioData == null || audioData.length == 0) {
+                public void onAudioData(@NonNull byte[] buffer, int offset, int length) {
+                  if (length <= 0) {
                     return;
                   }
-
-                  host.onAudioChunk(audioData);
-
-                  ByteArrayOutputStream accumulator = host.getAudioAccumulator();
-                  if (accumulator != null) {
-                    try {
-                      accumulator.write(audioData);
-                    } catch (Exception e) {
-                      e.printStackTrace();
-                    }
+                  // Every chunk is part of the take, so the analytics see all of them to keep
+                  // the detector's byte offsets aligned with the recording.
+                  boolean endOfSpeech = analytics.process(buffer, offset, length);
+                  if (!host.isSpeaking()) {
+                    return;
                   }
-
-                  if (waveformView != null) {
-                    long now = SystemClock.elapsedRealtime();
-                    if (now - host.getLastWaveformUpdateMs() >= WAVEFORM_UPDATE_INTERVAL_MS) {
-                      host.setLastWaveformUpdateMs(now);
-                      final float amplitude = SpeakingFlowController.calculateAmplitude(audioData);
-                      host.getMainHandler()
-                          .post(
-                              () -> {
-                                if (waveformView != null) {
-                                  waveformView.addAmplitude(amplitude);
-                                }
-                              });
-                    }
+                  if (endOfSpeech) {
+                    host.getMainHandler()
+                        .post(
+                            () -> {
+                              if (audioAnalytics != analytics || !host.isSpeaking()) {
+                                return;
+                              }
+                              host.trace(
+                                  "TRACE_VAD_AUTO_STOP silenceMs="
+                                      + analytics.getTrailingSilenceMs());
+                              autoStopped = true;
+                              stopRecordingAndAnalyze(sentenceToTranslate, "vad_auto_stop");
+                            });
                   }
+
+                  // The recorder keeps the take itself; subscribers only read the slice.
+                  host.onAudioChunk(buffer, offset, length);
+                  amplitudeRing.push(analytics.getLastChunkAmplitude());
                 }
 
                 @Override
@@ -263,37 +276,54 @@ public final class SpeakingSceneCoordinator {
                   if (!host.isSpeaking()) {
                     return;
                   }
-
-                  host.stopProgressAnimation();
-                  host.stopRippleAnimation();
-
-                  host.safeStopRecording("mic_button_stop");
-                  if (waveformView != null) {
-                    waveformView.reset();
-                    waveformView.setVisibility(View.GONE);
-                  }
-
-                  transitionToAnalyzingState(sentenceToTranslate);
+                  stopRecordingAndAnalyze(sentenceToTranslate, "mic_button_stop");
                 });
           }
         });
   }
 
-  public void transitionToAnalyzingState(@NonNull String sentenceToTranslate) {
-    ByteArrayOutputStream audioAccumulator = host.getAudioAccumulator();
-    byte[] audioData = audioAccumulator == null ? new byte[0] : audioAccumulator.toByteArray();
-    host.setLastRecordedAudio(audioData.clone());
+  private void stopRecordingAndAnalyze(
+      @NonNull String sentenceToTranslate, @NonNull String reason) {
+    host.stopProgressAnimation();
+    host.stopRippleAnimation();
+
+    host.safeStopRecording(reason);
+    if (waveformView != null) {
+      waveformView.setAmplitudeSource(null);
+      waveformView.reset();
+      waveformView.setVisibility(View.GONE);
+    }
 
-    float normalizedRms = RecordedAudioSilenceDetector.calculateNormalizedRms(audioData);
-    if (RecordedAudioSilenceDetector.isSilent(audioData, NO_AUDIO_RMS_THRESHOLD)) {
+    transitionToAnalyzingState(sentenceToTranslate);
+  }
+
+  public void transitionToAnalyzingState(@NonNull String sentenceToTranslate) {
+    AudioRecorder audioRecorder = host.getAudioRecorderManager();
+    ByteBuffer recording =
+        audioRecorder == null ? ByteBuffer.allocate(0) : audioRecorder.getRecording();
+    int audioLen = recording.remaining();
+
+    AudioAnalytics analytics = audioAnalytics;
+    // The analytics measured the take while it was recorded; rescan only without them.
+    AudioStats takeStats = analytics == null ? null : analytics.getTakeStats();
+    float normalizedRms =
+        takeStats == null
+            ? RecordedAudioSilenceDetector.calculateNormalizedRms(recording)
+            : takeStats.getRms();
+    String unusableReason = takeStats == null ? null : takeStats.getUnusableReason();
+    if (normalizedRms < NO_AUDIO_RMS_THRESHOLD || unusableReason != null) {
       String rmsText = String.format(Locale.US, "%.4f", normalizedRms);
+      String reason = unusableReason != null ? unusableReason : "quiet";
       host.trace(
           "TRACE_NO_AUDIO_DETECTED audioLen="
-              + audioData.length
+              + audioLen
               + " rms="
               + rmsText
-              + " threshold=0.03");
-      host.ux("UX_RECORD_EMPTY", "audioLen=" + audioData.length + " rms=" + rmsText);
+              + " threshold=0.03 reason="
+              + reason);
+      host.ux(
+          "UX_RECORD_EMPTY", "audioLen=" + audioLen + " rms=" + rmsText + " reason=" + reason);
+      host.setLastRecordedAudio(new byte[0]);
 
       if (btnMicCircle != null) {
         btnMicCircle.setEnabled(true);
@@ -305,7 +335,8 @@ public final class SpeakingSceneCoordinator {
         loadingSpinner.setVisibility(View.GONE);
       }
       if (tvListeningStatus != null) {
-        tvListeningStatus.setText("녹음된 소리가 없어요");
+        tvListeningStatus.setText(
+            "clipped".equals(unusableReason) ? "소리가 너무 커서 들을 수 없어요" : "녹음된 소리가 없어요");
         tvListeningStatus.setTextColor(
             ContextCompat.getColor(tvListeningStatus.getContext(), R.color.state_error));
       }
@@ -332,6 +363,32 @@ public final class SpeakingSceneCoordinator {
           ContextCompat.getColor(tvListeningStatus.getContext(), R.color.state_analyzing_soft));
     }
 
+    SpeechTrim trim =
+        analytics == null
+            ? SpeechTrim.untrimmed(audioLen, AudioRecorder.BYTES_PER_SECOND, false)
+            : analytics.trim(audioLen, SPEECH_PADDING_MS, autoStopped);
+    host.trace(
+        "TRACE_SPEECH_TRIM audioLen="
+            + audioLen
+            + " keptLen="
+            + trim.getKeptBytes()
+            + " leadingMs="
+            + trim.getLeadingTrimMs()
+            + " trailingMs="
+            + trim.getTrailingTrimMs()
+            + " autoStopped="
+            + trim.isAutoStopped());
+    host.onSpeechTrimmed(trim);
+    if (takeStats != null) {
+      host.trace("TRACE_TAKE_STATS " + takeStats);
+      host.onTakeStats(takeStats);
+    }
+
+    // The only copy of the take: analysis and playback outlive the recorder's buffer.
+    byte[] audioData = new byte[trim.getKeptBytes()];
+    recording.position(trim.getStartByte());
+    recording.get(audioData);
+    host.setLastRecordedAudio(audioData);
     host.onRecordingStopRequestedOrAnalyzeFallback(sentenceToTranslate, audioData);
   }
 
@@ -339,33 +396,31 @@ public final class SpeakingSceneCoordinator {
     cancelPendingNoAudioBeforeSpeakingPresentation();
     host.safeStopRecording("stopSpeakingSession");
     host.stopSpeakingSessionState("stopSpeakingSession");
-    host.setLastWaveformUpdateMs(0L);
 
     host.stopProgressAnimation();
     host.stopRippleAnimation();
 
     if (waveformView != null) {
+      waveformView.setAmplitudeSource(null);
       waveformView.reset();
     }
-
-    ByteArrayOutputStream audioAccumulator = host.getAudioAccumulator();
-    if (audioAccumulator != null) {
-      audioAccumulator.reset();
-    }
   }
 
   public void release() {
     cancelPendingNoAudioBeforeSpeakingPresentation();
+    audioAnalytics = null;
     btnMicCircle = null;
     progressRing = null;
     loadingSpinner = null;
     tvListeningStatus = null;
+    if (waveformView != null) {
+      waveformView.setAmplitudeSource(null);
+    }
     waveformView = null;
     ripple1 = null;
     ripple2 = null;
     ripple3 = null;
     host.onSpeakingViewsCleared();
-    host.setLastWaveformUpdateMs(0L);
   }
 
   private void scheduleBeforeSpeakingAfterNoAudio(@NonNull String sentenceToTranslate) {
@@ -10,6 +10,7 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IQuiz
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISessionSummaryLlmManager;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.AsyncRequestTracker;
 import com.jjundev.oneclickeng.learning.dialoguelearning.session.DialogueScriptStreamingSessionStore;
 import com.jjundev.oneclickeng.learning.dialoguelearning.session.InMemoryDialogueScriptStreamingSessionStore;
 import com.jjundev.oneclickeng.learning.dialoguelearning.summary.SessionSummaryManager;
@@ -38,6 +39,27 @@ public final class LearningDependencyProvider {
     return new SpeakingFeedbackManager(appContext, apiKey, modelName);
   }
 
+  @NonNull
+  public static ISpeakingFeedbackManager provideSpeakingFeedbackManager(
+      @NonNull Context appContext,
+      @NonNull String apiKey,
+      @NonNull String modelName,
+      boolean flacAudioUpload) {
+    return new SpeakingFeedbackManager(appContext, apiKey, modelName, flacAudioUpload);
+  }
+
+  /** @param liveModelName Gemini Live model for analysis while recording, or null to disable it */
+  @NonNull
+  public static ISpeakingFeedbackManager provideSpeakingFeedbackManager(
+      @NonNull Context appContext,
+      @NonNull String apiKey,
+      @NonNull String modelName,
+      boolean flacAudioUpload,
+      @Nullable String liveModelName) {
+    return new SpeakingFeedbackManager(
+        appContext, apiKey, modelName, flacAudioUpload, liveModelName);
+  }
+
   @NonNull
   public static ISentenceFeedbackManager provideSentenceFeedbackManager(
       @NonNull Context appContext, @NonNull String apiKey, @NonNull String modelName) {
@@ -68,6 +90,12 @@ public final class LearningDependencyProvider {
     return new GeminiTtsManager(apiKey);
   }
 
+  @NonNull
+  public static IGeminiTtsManager provideGeminiTtsManager(
+      @NonNull Context appContext, @NonNull String apiKey) {
+    return new GeminiTtsManager(appContext, apiKey);
+  }
+
   @NonNull
   public static ISessionSummaryLlmManager provideSessionSummaryLlmManager(
       @NonNull Context appContext, @NonNull String apiKey, @NonNull String modelName) {
@@ -108,6 +136,11 @@ public final class LearningDependencyProvider {
     }
   }
 
+  @NonNull
+  public static AsyncRequestTracker provideAsyncRequestTracker() {
+    return new AsyncRequestTracker();
+  }
+
   @NonNull
   public static AudioRecorder provideAudioRecorder() {
     return new AudioRecorder();
@@ -4,6 +4,7 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.manager_gemini.GeminiTransport;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class LearningManagerInitializer {
@@ -29,6 +30,9 @@ public final class LearningManagerInitializer {
       return;
     }
 
+    // Open the shared Gemini connection while the cache requests below are being prepared.
+    GeminiTransport.getInstance().warmUp();
+
     speakingFeedbackManager.initializeCache(
         new ISpeakingFeedbackManager.InitCallback() {
           @Override
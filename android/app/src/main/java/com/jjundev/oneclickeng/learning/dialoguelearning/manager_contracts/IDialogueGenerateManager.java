@@ -57,14 +57,16 @@ public interface IDialogueGenerateManager {
 
   void initializeCache(@NonNull InitCallback callback);
 
-  void generateScript(
+  @NonNull
+  RequestHandle generateScript(
       @NonNull String level,
       @NonNull String topic,
       @NonNull String format,
       int length,
       @NonNull ScriptGenerationCallback callback);
 
-  void generateScriptStreamingAsync(
+  @NonNull
+  RequestHandle generateScriptStreamingAsync(
       @NonNull String level,
       @NonNull String topic,
       @NonNull String format,
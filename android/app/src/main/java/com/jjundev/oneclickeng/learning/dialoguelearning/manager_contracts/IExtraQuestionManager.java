@@ -11,7 +11,8 @@ public interface IExtraQuestionManager {
     void onError(@NonNull String error);
   }
 
-  void askExtraQuestionStreaming(
+  @NonNull
+  RequestHandle askExtraQuestionStreaming(
       @NonNull String originalSentence,
       @NonNull String userSentence,
       @NonNull String userQuestion,
@@ -11,7 +11,46 @@ public interface IGeminiTtsManager {
     void onError(@NonNull String errorMessage);
   }
 
-  void synthesize(
+  /**
+   * Receives a streamed synthesis. Audio chunks are delivered in order on a worker thread and may
+   * block to pace themselves to playback; the download keeps going regardless. Completion and
+   * errors are posted to the main thread after the last chunk.
+   */
+  interface StreamCallback {
+    void onAudioChunk(@NonNull byte[] pcmData, int sampleRateHz);
+
+    void onComplete();
+
+    void onError(@NonNull String errorMessage);
+  }
+
+  @NonNull
+  RequestHandle synthesize(
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @Nullable String voiceName,
+      @NonNull SynthesisCallback callback);
+
+  /**
+   * Like {@link #synthesize} but hands over audio as it is generated, so playback can start with
+   * the first chunk. Shares the active request with {@link #synthesize}: starting either or calling
+   * {@link #cancelActiveRequest()} stops delivery of the previous one.
+   */
+  @NonNull
+  RequestHandle synthesizeStream(
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @Nullable String voiceName,
+      @NonNull StreamCallback callback);
+
+  /**
+   * Synthesizes ahead of playback at background priority. Unlike {@link #synthesize} this is not
+   * the active request: it neither cancels nor is cancelled by other calls, only by its handle.
+   */
+  @NonNull
+  RequestHandle prefetch(
       @NonNull String text,
       @Nullable String localeTag,
       float speechRate,
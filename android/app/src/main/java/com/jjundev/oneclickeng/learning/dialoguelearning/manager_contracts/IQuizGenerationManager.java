@@ -29,19 +29,22 @@ public interface IQuizGenerationManager {
 
   void initializeCache(@NonNull InitCallback callback);
 
-  void generateQuizFromSummaryAsync(
+  @NonNull
+  RequestHandle generateQuizFromSummaryAsync(
       @NonNull SummaryData summaryData, int requestedQuestionCount, @NonNull QuizCallback callback);
 
-  default void generateQuizFromSummaryAsync(
+  @NonNull
+  default RequestHandle generateQuizFromSummaryAsync(
       @NonNull SummaryData summaryData, @NonNull QuizCallback callback) {
-    generateQuizFromSummaryAsync(summaryData, 5, callback);
+    return generateQuizFromSummaryAsync(summaryData, 5, callback);
   }
 
-  default void generateQuizFromSummaryStreamingAsync(
+  @NonNull
+  default RequestHandle generateQuizFromSummaryStreamingAsync(
       @NonNull SummaryData summaryData,
       int requestedQuestionCount,
       @NonNull QuizStreamingCallback callback) {
-    generateQuizFromSummaryAsync(
+    return generateQuizFromSummaryAsync(
         summaryData,
         requestedQuestionCount,
         new QuizCallback() {
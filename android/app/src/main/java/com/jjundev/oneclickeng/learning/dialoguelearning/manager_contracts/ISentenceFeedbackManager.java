@@ -20,7 +20,8 @@ public interface ISentenceFeedbackManager {
 
   void initializeCache(@NonNull InitCallback callback);
 
-  void analyzeSentenceStreaming(
+  @NonNull
+  RequestHandle analyzeSentenceStreaming(
       @NonNull String originalSentence,
       @NonNull String userSentence,
       @NonNull StreamingFeedbackCallback callback);
@@ -104,12 +104,14 @@ public interface ISessionSummaryLlmManager {
     }
   }
 
-  void extractWordsFromSentencesAsync(
+  @NonNull
+  RequestHandle extractWordsFromSentencesAsync(
       @NonNull List<String> words,
       @NonNull List<String> sentences,
       @NonNull List<String> userOriginalSentences,
       @NonNull WordExtractionCallback callback);
 
-  void filterExpressionsAsync(
+  @NonNull
+  RequestHandle filterExpressionsAsync(
       @NonNull SummaryFeatureBundle bundle, @NonNull ExpressionFilterCallback callback);
 }
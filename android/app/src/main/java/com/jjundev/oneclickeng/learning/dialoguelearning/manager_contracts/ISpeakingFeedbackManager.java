@@ -1,6 +1,7 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
 
 public interface ISpeakingFeedbackManager {
@@ -16,7 +17,50 @@ public interface ISpeakingFeedbackManager {
     void onError(@NonNull String error);
   }
 
+  /**
+   * An utterance being analyzed while it is still recorded. Captured PCM (16kHz, 16-bit, mono) is
+   * pushed with {@link #appendAudio(byte[], int, int)}; the result arrives about one round trip
+   * after {@link #finish(byte[], int, AnalysisCallback)}.
+   */
+  interface AudioStream {
+    /**
+     * Sends the next captured chunk, read from {@code buffer} before returning. Safe to call from
+     * the recording thread.
+     */
+    void appendAudio(@NonNull byte[] buffer, int offset, int length);
+
+    /**
+     * Ends the utterance and delivers the analysis to {@code callback}. If the live session has
+     * failed, {@code recordedAudio} is analyzed with a regular request instead.
+     *
+     * @param streamOffsetBytes where {@code recordedAudio} starts within the appended audio, when
+     *     leading silence was trimmed from the take
+     */
+    @NonNull
+    RequestHandle finish(
+        @NonNull byte[] recordedAudio, int streamOffsetBytes, @NonNull AnalysisCallback callback);
+
+    @NonNull
+    default RequestHandle finish(
+        @NonNull byte[] recordedAudio, @NonNull AnalysisCallback callback) {
+      return finish(recordedAudio, 0, callback);
+    }
+
+    /** Drops the stream without a result. */
+    void cancel();
+  }
+
   void initializeCache(@NonNull InitCallback callback);
 
-  void analyzeAudio(@NonNull byte[] audioData, @NonNull AnalysisCallback callback);
+  @NonNull
+  RequestHandle analyzeAudio(@NonNull byte[] audioData, @NonNull AnalysisCallback callback);
+
+  /**
+   * Opens a live stream for the utterance that is about to be recorded, or returns null if
+   * streaming is not available, in which case callers use {@link #analyzeAudio}.
+   */
+  @Nullable
+  default AudioStream openAudioStream() {
+    return null;
+  }
 }
@@ -0,0 +1,144 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Cancellable handle returned by every request a manager starts.
+ *
+ * <p>Managers attach the abort hook of whatever stage the request is in (the queued scheduler
+ * entry, then the HTTP call) and report how much output they have consumed. {@link #cancel()}
+ * runs the current hook, makes {@link #isCancelled()} true so parsing loops stop, and records an
+ * estimate of the upload bytes, response bytes and tokens that were never spent.
+ */
+public final class RequestHandle {
+  /** Response bytes per output token; SSE framing is ignored, so savings are a lower bound. */
+  static final int RESPONSE_BYTES_PER_TOKEN = 4;
+
+  private final Object lock = new Object();
+  @Nullable private Runnable abortHook;
+  private boolean started;
+  private boolean finished;
+  private boolean cancelled;
+  private long uploadBytes;
+  private int estimatedTokens;
+  private int expectedOutputTokens;
+  private int receivedOutputTokens;
+  private long savedBytes;
+  private int savedTokens;
+
+  /** Returns a handle for work that already completed synchronously; cancelling it is a no-op. */
+  @NonNull
+  public static RequestHandle completed() {
+    RequestHandle handle = new RequestHandle();
+    handle.finish();
+    return handle;
+  }
+
+  /**
+   * Records what the request is expected to cost, used to estimate savings on cancellation.
+   *
+   * @param uploadBytes request payload size, e.g. the recorded audio
+   * @param estimatedTokens input plus expected output tokens, as charged to the scheduler
+   * @param expectedOutputTokens the output share of {@code estimatedTokens}
+   */
+  public void expect(long uploadBytes, int estimatedTokens, int expectedOutputTokens) {
+    synchronized (lock) {
+      this.uploadBytes = Math.max(0L, uploadBytes);
+      this.estimatedTokens = Math.max(0, estimatedTokens);
+      this.expectedOutputTokens = Math.max(0, expectedOutputTokens);
+    }
+  }
+
+  /**
+   * Sets the hook that drops the request while it is still queued. Runs it immediately and
+   * returns false if the handle was already cancelled.
+   */
+  public boolean onQueued(@NonNull Runnable cancelQueued) {
+    return attach(cancelQueued, false);
+  }
+
+  /**
+   * Sets the hook that aborts the in-flight call, typically {@code call::cancel}. Runs it
+   * immediately and returns false if the handle was already cancelled, in which case the caller
+   * must not start the call.
+   */
+  public boolean onStarted(@NonNull Runnable abortCall) {
+    return attach(abortCall, true);
+  }
+
+  /** Adds output tokens consumed so far; only tokens not yet received count as saved. */
+  public void recordOutputTokens(int tokens) {
+    if (tokens <= 0) {
+      return;
+    }
+    synchronized (lock) {
+      receivedOutputTokens += tokens;
+    }
+  }
+
+  /** Marks the request as done. Later {@link #cancel()} calls have no effect. */
+  public void finish() {
+    synchronized (lock) {
+      finished = true;
+      abortHook = null;
+    }
+  }
+
+  /** Cancels the request. Returns true if it was still queued or in flight. */
+  public boolean cancel() {
+    Runnable hook;
+    synchronized (lock) {
+      if (cancelled || finished) {
+        return false;
+      }
+      cancelled = true;
+      hook = abortHook;
+      abortHook = null;
+      if (started) {
+        int remainingTokens = Math.max(0, expectedOutputTokens - receivedOutputTokens);
+        savedTokens = remainingTokens;
+        savedBytes = (long) remainingTokens * RESPONSE_BYTES_PER_TOKEN;
+      } else {
+        savedTokens = estimatedTokens;
+        savedBytes = uploadBytes + (long) expectedOutputTokens * RESPONSE_BYTES_PER_TOKEN;
+      }
+    }
+    if (hook != null) {
+      hook.run();
+    }
+    return true;
+  }
+
+  public boolean isCancelled() {
+    synchronized (lock) {
+      return cancelled;
+    }
+  }
+
+  /** Estimated bytes not transferred because of {@link #cancel()}; 0 if never cancelled. */
+  public long getSavedBytes() {
+    synchronized (lock) {
+      return savedBytes;
+    }
+  }
+
+  /** Estimated tokens not billed because of {@link #cancel()}; 0 if never cancelled. */
+  public int getSavedTokens() {
+    synchronized (lock) {
+      return savedTokens;
+    }
+  }
+
+  private boolean attach(@NonNull Runnable hook, boolean markStarted) {
+    synchronized (lock) {
+      if (!cancelled) {
+        abortHook = hook;
+        started |= markStarted;
+        return true;
+      }
+    }
+    hook.run();
+    return false;
+  }
+}
@@ -0,0 +1,121 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Locale;
+
+/**
+ * Level statistics of captured PCM, for one chunk or a whole take, gathered in the same pass that
+ * feeds voice activity detection so nothing downstream has to rescan the audio.
+ */
+public final class AudioStats {
+  public static final AudioStats EMPTY = new AudioStats(0L, 0d, 0, 0L, 0L, 0L, 1);
+
+  // A take with this share of full-scale samples is too distorted to score.
+  static final float MAX_USABLE_CLIPPING_RATIO = 0.2f;
+  // Waveform gain, so normal speech fills most of the view.
+  private static final float AMPLITUDE_GAIN = 3f;
+
+  private final long sampleCount;
+  private final double sumSquares;
+  private final int peak;
+  private final long clippedSamples;
+  private final long voicedFrames;
+  private final long frames;
+  private final int sampleRate;
+
+  public AudioStats(
+      long sampleCount,
+      double sumSquares,
+      int peak,
+      long clippedSamples,
+      long voicedFrames,
+      long frames,
+      int sampleRate) {
+    this.sampleCount = Math.max(0L, sampleCount);
+    this.sumSquares = Math.max(0d, sumSquares);
+    this.peak = Math.max(0, Math.min(peak, 32768));
+    this.clippedSamples = Math.max(0L, clippedSamples);
+    this.frames = Math.max(0L, frames);
+    this.voicedFrames = Math.max(0L, Math.min(voicedFrames, this.frames));
+    this.sampleRate = Math.max(1, sampleRate);
+  }
+
+  public long getSampleCount() {
+    return sampleCount;
+  }
+
+  public long getDurationMs() {
+    return sampleCount * 1000L / sampleRate;
+  }
+
+  /** Root mean square level, 0 to 1. */
+  public float getRms() {
+    return sampleCount == 0L ? 0f : (float) Math.sqrt(sumSquares / sampleCount);
+  }
+
+  /** Largest absolute sample, 0 to 1. */
+  public float getPeak() {
+    return peak / 32768f;
+  }
+
+  /** RMS scaled for the recording waveform, clamped to 0 to 1. */
+  public float getAmplitude() {
+    return toAmplitude(getRms());
+  }
+
+  /** Waveform level for an RMS of 0 to 1, as {@link #getAmplitude()} computes it. */
+  public static float toAmplitude(float rms) {
+    return Math.min(Math.max(rms * AMPLITUDE_GAIN, 0f), 1f);
+  }
+
+  public long getClippedSamples() {
+    return clippedSamples;
+  }
+
+  public float getClippingRatio() {
+    return sampleCount == 0L ? 0f : clippedSamples / (float) sampleCount;
+  }
+
+  public long getVoicedFrames() {
+    return voicedFrames;
+  }
+
+  /** Share of detector frames judged to be speech, 0 to 1. */
+  public float getVoicedRatio() {
+    return frames == 0L ? 0f : voicedFrames / (float) frames;
+  }
+
+  /** True when the take cannot produce a meaningful score, so it should not be uploaded. */
+  public boolean isClearlyUnusable() {
+    return getUnusableReason() != null;
+  }
+
+  /** Short reason for {@link #isClearlyUnusable()}, or null when the take is usable. */
+  @Nullable
+  public String getUnusableReason() {
+    if (sampleCount == 0L || peak == 0) {
+      return "silent";
+    }
+    if (frames > 0L && voicedFrames == 0L) {
+      return "no_speech";
+    }
+    if (getClippingRatio() >= MAX_USABLE_CLIPPING_RATIO) {
+      return "clipped";
+    }
+    return null;
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return String.format(
+        Locale.US,
+        "rms=%.4f peak=%.4f clipped=%d voiced=%.2f durationMs=%d",
+        getRms(),
+        getPeak(),
+        clippedSamples,
+        getVoicedRatio(),
+        getDurationMs());
+  }
+}
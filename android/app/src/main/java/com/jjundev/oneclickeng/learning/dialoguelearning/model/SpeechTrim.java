@@ -0,0 +1,71 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.model;
+
+/**
+ * Which part of a take was kept for analysis after leading and trailing silence was cut, and
+ * whether the take was ended by the voice activity detector rather than the mic button.
+ */
+public final class SpeechTrim {
+  private final int startByte;
+  private final int endByte;
+  private final int originalBytes;
+  private final int bytesPerSecond;
+  private final boolean autoStopped;
+
+  public SpeechTrim(
+      int startByte, int endByte, int originalBytes, int bytesPerSecond, boolean autoStopped) {
+    this.originalBytes = Math.max(0, originalBytes);
+    this.startByte = clamp(startByte, 0, this.originalBytes);
+    this.endByte = clamp(endByte, this.startByte, this.originalBytes);
+    this.bytesPerSecond = Math.max(1, bytesPerSecond);
+    this.autoStopped = autoStopped;
+  }
+
+  /** A take kept as recorded, e.g. when no speech frame was detected. */
+  public static SpeechTrim untrimmed(int originalBytes, int bytesPerSecond, boolean autoStopped) {
+    return new SpeechTrim(0, originalBytes, originalBytes, bytesPerSecond, autoStopped);
+  }
+
+  public int getStartByte() {
+    return startByte;
+  }
+
+  public int getEndByte() {
+    return endByte;
+  }
+
+  public int getKeptBytes() {
+    return endByte - startByte;
+  }
+
+  public int getOriginalBytes() {
+    return originalBytes;
+  }
+
+  public boolean isTrimmed() {
+    return startByte > 0 || endByte < originalBytes;
+  }
+
+  public boolean isAutoStopped() {
+    return autoStopped;
+  }
+
+  public long getLeadingTrimMs() {
+    return toMs(startByte);
+  }
+
+  public long getTrailingTrimMs() {
+    return toMs(originalBytes - endByte);
+  }
+
+  public long getKeptMs() {
+    return toMs(getKeptBytes());
+  }
+
+  private long toMs(int bytes) {
+    return bytes * 1000L / bytesPerSecond;
+  }
+
+  private static int clamp(int value, int min, int max) {
+    return Math.max(min, Math.min(value, max));
+  }
+}
@@ -1,11 +1,15 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator;
 
+import android.util.Log;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 public final class AsyncRequestTracker {
+  private static final String TAG = "AsyncRequestTracker";
 
   public static final String CHANNEL_SPEAKING = "speaking";
   public static final String CHANNEL_FEEDBACK = "feedback";
@@ -14,13 +18,38 @@ public final class AsyncRequestTracker {
 
   private final AtomicLong requestSequence = new AtomicLong(0L);
   private final Map<String, Long> latestRequestByChannel = new ConcurrentHashMap<>();
+  private final Map<String, RequestHandle> inFlightByChannel = new ConcurrentHashMap<>();
+  private final AtomicLong cancelledRequestCount = new AtomicLong(0L);
+  private final AtomicLong savedBytes = new AtomicLong(0L);
+  private final AtomicLong savedTokens = new AtomicLong(0L);
 
   public long nextRequestId(@NonNull String channel) {
     long requestId = requestSequence.incrementAndGet();
     latestRequestByChannel.put(channel, requestId);
+    // The previous request's result would be ignored anyway, so stop paying for it.
+    cancel(inFlightByChannel.remove(channel));
     return requestId;
   }
 
+  /**
+   * Ties {@code handle} to {@code requestId} so that invalidating the channel, or starting a newer
+   * request on it, cancels the underlying call instead of only ignoring its result.
+   */
+  public void track(@NonNull String channel, long requestId, @Nullable RequestHandle handle) {
+    if (handle == null) {
+      return;
+    }
+    if (!isLatest(channel, requestId)) {
+      cancel(handle);
+      return;
+    }
+    cancel(inFlightByChannel.put(channel, handle));
+    // Re-check in case the channel was invalidated between isLatest() and put().
+    if (!isLatest(channel, requestId) && inFlightByChannel.remove(channel, handle)) {
+      cancel(handle);
+    }
+  }
+
   public boolean isLatest(@NonNull String channel, long requestId) {
     if (requestId == 0L) {
       return false;
@@ -31,13 +60,14 @@ public final class AsyncRequestTracker {
 
   public void invalidate(@NonNull String channel) {
     latestRequestByChannel.put(channel, 0L);
+    cancel(inFlightByChannel.remove(channel));
   }
 
   public void invalidateAll() {
-    latestRequestByChannel.put(CHANNEL_SPEAKING, 0L);
-    latestRequestByChannel.put(CHANNEL_FEEDBACK, 0L);
-    latestRequestByChannel.put(CHANNEL_EXTRA, 0L);
-    latestRequestByChannel.put(CHANNEL_SCRIPT, 0L);
+    invalidate(CHANNEL_SPEAKING);
+    invalidate(CHANNEL_FEEDBACK);
+    invalidate(CHANNEL_EXTRA);
+    invalidate(CHANNEL_SCRIPT);
   }
 
   public void clearForTurnBoundary() {
@@ -51,4 +81,40 @@ public final class AsyncRequestTracker {
     invalidate(CHANNEL_FEEDBACK);
     invalidate(CHANNEL_EXTRA);
   }
+
+  /** Number of queued or in-flight requests this tracker has cancelled. */
+  public long getCancelledRequestCount() {
+    return cancelledRequestCount.get();
+  }
+
+  /** Estimated upload and response bytes not transferred thanks to cancellation. */
+  public long getSavedBytes() {
+    return savedBytes.get();
+  }
+
+  /** Estimated tokens not billed thanks to cancellation. */
+  public long getSavedTokens() {
+    return savedTokens.get();
+  }
+
+  private void cancel(@Nullable RequestHandle handle) {
+    if (handle == null || !handle.cancel()) {
+      return;
+    }
+    long count = cancelledRequestCount.incrementAndGet();
+    long bytes = savedBytes.addAndGet(handle.getSavedBytes());
+    long tokens = savedTokens.addAndGet(handle.getSavedTokens());
+    Log.d(
+        TAG,
+        "Cancelled request: savedBytes="
+            + handle.getSavedBytes()
+            + ", savedTokens="
+            + handle.getSavedTokens()
+            + ", totalCancelled="
+            + count
+            + ", totalSavedBytes="
+            + bytes
+            + ", totalSavedTokens="
+            + tokens);
+  }
 }
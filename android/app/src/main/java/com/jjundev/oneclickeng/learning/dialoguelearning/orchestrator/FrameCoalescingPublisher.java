@@ -0,0 +1,90 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator;
+
+import androidx.annotation.NonNull;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Publishes a derived value at most once per display frame.
+ *
+ * <p>Callers {@link #markDirty()} after every state mutation; the value is rebuilt and handed to
+ * the sink only when the next frame arrives, so a burst of mutations inside one frame (streamed
+ * turns, feedback sections, extra-question chunks) costs one rebuild and one render. All methods
+ * must be called from the thread the {@link FrameScheduler} delivers frames on.
+ */
+public final class FrameCoalescingPublisher<T> {
+
+  /** Delivers a single pending frame callback, e.g. backed by {@code Choreographer}. */
+  public interface FrameScheduler {
+    void scheduleFrame(@NonNull Runnable onFrame);
+
+    void cancelFrame();
+  }
+
+  @NonNull private final FrameScheduler scheduler;
+  @NonNull private final Supplier<T> builder;
+  @NonNull private final Consumer<T> sink;
+  @NonNull private final Runnable onFrame = this::publishPending;
+
+  private boolean dirty;
+  private long markCount;
+  private long publishCount;
+
+  public FrameCoalescingPublisher(
+      @NonNull FrameScheduler scheduler, @NonNull Supplier<T> builder, @NonNull Consumer<T> sink) {
+    this.scheduler = scheduler;
+    this.builder = builder;
+    this.sink = sink;
+  }
+
+  /** Requests a publication on the next frame; repeated calls before it arrives are merged. */
+  public void markDirty() {
+    markCount++;
+    if (dirty) {
+      return;
+    }
+    dirty = true;
+    scheduler.scheduleFrame(onFrame);
+  }
+
+  /** Publishes a pending value right away instead of waiting for the frame. */
+  public void flush() {
+    if (!dirty) {
+      return;
+    }
+    scheduler.cancelFrame();
+    publishPending();
+  }
+
+  /** Drops a pending publication, e.g. when the owner is being torn down. */
+  public void cancel() {
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+    scheduler.cancelFrame();
+  }
+
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  /** Number of {@link #markDirty()} calls so far. */
+  public long getMarkCount() {
+    return markCount;
+  }
+
+  /** Number of values handed to the sink so far. */
+  public long getPublishCount() {
+    return publishCount;
+  }
+
+  private void publishPending() {
+    if (!dirty) {
+      return;
+    }
+    dirty = false;
+    publishCount++;
+    sink.accept(builder.get());
+  }
+}
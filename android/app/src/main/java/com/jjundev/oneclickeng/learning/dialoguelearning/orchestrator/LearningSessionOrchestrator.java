@@ -6,6 +6,7 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.controller.ExtraQuestio
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.FeedbackFlowController;
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.ScriptFlowController;
 import com.jjundev.oneclickeng.learning.dialoguelearning.controller.SpeakingFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ScriptTurn;
 import com.jjundev.oneclickeng.learning.dialoguelearning.state.BottomSheetMode;
 
@@ -124,8 +125,18 @@ public class LearningSessionOrchestrator {
       @NonNull byte[] audioData,
       String fallbackRecognizedText,
       @NonNull SpeakingFlowController.Callback callback) {
+    return analyzeSpeaking(originalSentence, audioData, 0, null, fallbackRecognizedText, callback);
+  }
+
+  public long analyzeSpeaking(
+      @NonNull String originalSentence,
+      @NonNull byte[] audioData,
+      int audioStartByte,
+      @Nullable AudioStats takeStats,
+      String fallbackRecognizedText,
+      @NonNull SpeakingFlowController.Callback callback) {
     return speakingFlowController.analyzeSpeaking(
-        originalSentence, audioData, fallbackRecognizedText, callback);
+        originalSentence, audioData, audioStartByte, takeStats, fallbackRecognizedText, callback);
   }
 
   public long startSentenceFeedback(
@@ -182,9 +193,14 @@ public class LearningSessionOrchestrator {
 
   public void onRecordingStarted() {
     clearRequestsForTurnBoundary();
+    speakingFlowController.startStreaming();
+  }
+
+  public void onAudioChunk(@NonNull byte[] buffer, int offset, int length) {
+    speakingFlowController.appendAudio(buffer, offset, length);
   }
 
-  public void onAudioChunk(@NonNull byte[] audioData) {
-    // audio streaming remains in ViewModel for now.
+  public void onRecordingAbandoned() {
+    speakingFlowController.cancelStreaming();
   }
 }
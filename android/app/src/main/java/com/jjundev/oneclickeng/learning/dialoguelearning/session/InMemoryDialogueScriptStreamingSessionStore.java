@@ -5,6 +5,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.jjundev.oneclickeng.BuildConfig;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IDialogueGenerateManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -29,6 +30,7 @@ public class InMemoryDialogueScriptStreamingSessionStore
     private boolean completed = false;
     @Nullable private String warningMessage;
     @Nullable private String failureMessage;
+    @Nullable private RequestHandle requestHandle;
     private boolean released = false;
   }
 
@@ -58,36 +60,45 @@ public class InMemoryDialogueScriptStreamingSessionStore
             + ", requestedLength="
             + state.requestedLength);
 
-    manager.generateScriptStreamingAsync(
-        level,
-        topic,
-        format,
-        requestedLength,
-        new IDialogueGenerateManager.ScriptStreamingCallback() {
-          @Override
-          public void onMetadata(
-              @NonNull String metadataTopic,
-              @NonNull String opponentName,
-              @NonNull String opponentGender) {
-            dispatchMetadata(
-                sessionId, new ScriptMetadata(metadataTopic, opponentName, opponentGender));
-          }
+    RequestHandle handle =
+        manager.generateScriptStreamingAsync(
+            level,
+            topic,
+            format,
+            requestedLength,
+            new IDialogueGenerateManager.ScriptStreamingCallback() {
+              @Override
+              public void onMetadata(
+                  @NonNull String metadataTopic,
+                  @NonNull String opponentName,
+                  @NonNull String opponentGender) {
+                dispatchMetadata(
+                    sessionId, new ScriptMetadata(metadataTopic, opponentName, opponentGender));
+              }
 
-          @Override
-          public void onTurn(@NonNull IDialogueGenerateManager.ScriptTurnChunk turn) {
-            dispatchTurn(sessionId, turn);
-          }
+              @Override
+              public void onTurn(@NonNull IDialogueGenerateManager.ScriptTurnChunk turn) {
+                dispatchTurn(sessionId, turn);
+              }
 
-          @Override
-          public void onComplete(@Nullable String warningMessage) {
-            dispatchComplete(sessionId, warningMessage);
-          }
+              @Override
+              public void onComplete(@Nullable String warningMessage) {
+                dispatchComplete(sessionId, warningMessage);
+              }
 
-          @Override
-          public void onFailure(@NonNull String error) {
-            dispatchFailure(sessionId, error);
-          }
-        });
+              @Override
+              public void onFailure(@NonNull String error) {
+                dispatchFailure(sessionId, error);
+              }
+            });
+    boolean released;
+    synchronized (lock) {
+      released = state.released;
+      state.requestHandle = handle;
+    }
+    if (released) {
+      handle.cancel();
+    }
     return sessionId;
   }
 
@@ -146,6 +157,7 @@ public class InMemoryDialogueScriptStreamingSessionStore
     if (sessionId == null) {
       return;
     }
+    RequestHandle handle;
     synchronized (lock) {
       SessionState state = sessions.remove(sessionId);
       if (state == null) {
@@ -153,8 +165,14 @@ public class InMemoryDialogueScriptStreamingSessionStore
       }
       state.released = true;
       state.listeners.clear();
+      handle = state.requestHandle;
+      state.requestHandle = null;
       logStream("release: id=" + shortSession(sessionId));
     }
+    // Nobody can attach to a released session, so stop streaming turns nobody will read.
+    if (handle != null) {
+      handle.cancel();
+    }
   }
 
   private void dispatchMetadata(@NonNull String sessionId, @NonNull ScriptMetadata metadata) {
@@ -1,29 +1,37 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.state;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 public class ExtraQuestionUiState {
   private final long emissionId;
   private final boolean loading;
   @Nullable private final String question;
-  @Nullable private final String response;
+  @Nullable private final StreamingText responseText;
+  private final int responseLength;
   @Nullable private final String error;
 
+  /**
+   * @param responseText the streamed answer, shared with later emissions of the same question
+   * @param responseLength how much of {@code responseText} this emission covers
+   */
   public ExtraQuestionUiState(
       long emissionId,
       boolean loading,
       @Nullable String question,
-      @Nullable String response,
+      @Nullable StreamingText responseText,
+      int responseLength,
       @Nullable String error) {
     this.emissionId = emissionId;
     this.loading = loading;
     this.question = question;
-    this.response = response;
+    this.responseText = responseText;
+    this.responseLength = responseText == null ? 0 : responseLength;
     this.error = error;
   }
 
   public static ExtraQuestionUiState idle() {
-    return new ExtraQuestionUiState(0L, false, null, null, null);
+    return new ExtraQuestionUiState(0L, false, null, null, 0, null);
   }
 
   public long getEmissionId() {
@@ -40,8 +48,22 @@ public class ExtraQuestionUiState {
   }
 
   @Nullable
+  public StreamingText getResponseText() {
+    return responseText;
+  }
+
+  public int getResponseLength() {
+    return responseLength;
+  }
+
+  public boolean hasResponse() {
+    return responseLength > 0;
+  }
+
+  /** Copies the response covered by this emission; prefer {@link #getResponseText()} per chunk. */
+  @NonNull
   public String getResponse() {
-    return response;
+    return responseText == null ? "" : responseText.substring(0, responseLength);
   }
 
   @Nullable
@@ -2,44 +2,68 @@ package com.jjundev.oneclickeng.learning.dialoguelearning.state;
 
 import androidx.annotation.Nullable;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
 
 public class SpeakingUiState {
   private final long emissionId;
   private final long requestId;
   private final boolean recording;
   private final boolean analyzing;
-  private final float amplitude;
   @Nullable private final byte[] lastRecordedAudio;
   @Nullable private final FluencyFeedback fluencyResult;
   @Nullable private final String originalSentence;
   @Nullable private final String recognizedText;
   @Nullable private final String error;
+  @Nullable private final SpeechTrim speechTrim;
 
   public SpeakingUiState(
       long emissionId,
       long requestId,
       boolean recording,
       boolean analyzing,
-      float amplitude,
       @Nullable byte[] lastRecordedAudio,
       @Nullable FluencyFeedback fluencyResult,
       @Nullable String originalSentence,
       @Nullable String recognizedText,
       @Nullable String error) {
+    this(
+        emissionId,
+        requestId,
+        recording,
+        analyzing,
+        lastRecordedAudio,
+        fluencyResult,
+        originalSentence,
+        recognizedText,
+        error,
+        null);
+  }
+
+  public SpeakingUiState(
+      long emissionId,
+      long requestId,
+      boolean recording,
+      boolean analyzing,
+      @Nullable byte[] lastRecordedAudio,
+      @Nullable FluencyFeedback fluencyResult,
+      @Nullable String originalSentence,
+      @Nullable String recognizedText,
+      @Nullable String error,
+      @Nullable SpeechTrim speechTrim) {
     this.emissionId = emissionId;
     this.requestId = requestId;
     this.recording = recording;
     this.analyzing = analyzing;
-    this.amplitude = amplitude;
     this.lastRecordedAudio = lastRecordedAudio;
     this.fluencyResult = fluencyResult;
     this.originalSentence = originalSentence;
     this.recognizedText = recognizedText;
     this.error = error;
+    this.speechTrim = speechTrim;
   }
 
   public static SpeakingUiState idle() {
-    return new SpeakingUiState(0L, 0L, false, false, 0f, null, null, null, null, null);
+    return new SpeakingUiState(0L, 0L, false, false, null, null, null, null, null);
   }
 
   public long getEmissionId() {
@@ -58,10 +82,6 @@ public class SpeakingUiState {
     return analyzing;
   }
 
-  public float getAmplitude() {
-    return amplitude;
-  }
-
   @Nullable
   public byte[] getLastRecordedAudio() {
     return lastRecordedAudio;
@@ -86,4 +106,10 @@ public class SpeakingUiState {
   public String getError() {
     return error;
   }
+
+  /** How the last take was trimmed before upload; null until a take has been analyzed. */
+  @Nullable
+  public SpeechTrim getSpeechTrim() {
+    return speechTrim;
+  }
 }
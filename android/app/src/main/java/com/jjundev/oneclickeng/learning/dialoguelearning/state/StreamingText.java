@@ -0,0 +1,37 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.state;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Append-only text shared by the UI states of one streamed response.
+ *
+ * <p>Each emission records only how long the text was when it was produced; renderers read the
+ * suffix they have not drawn yet instead of receiving a copy of the whole response per chunk.
+ * Because the text never shrinks, a prefix of it stays valid for every older emission. Confined to
+ * the main thread.
+ */
+public final class StreamingText {
+  @NonNull private final StringBuilder buffer = new StringBuilder();
+
+  /** Appends a streamed chunk and returns the new length. */
+  public int append(@NonNull CharSequence chunk) {
+    buffer.append(chunk);
+    return buffer.length();
+  }
+
+  public int length() {
+    return buffer.length();
+  }
+
+  /** Copies only {@code [start, end)}, typically the part a renderer has not drawn yet. */
+  @NonNull
+  public String substring(int start, int end) {
+    return buffer.substring(start, end);
+  }
+
+  @NonNull
+  @Override
+  public String toString() {
+    return buffer.toString();
+  }
+}
@@ -35,7 +35,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 
 /** Binds SummaryData to the Summary Fragment UI. */
 public class SessionSummaryBinder {
@@ -655,23 +654,6 @@ public class SessionSummaryBinder {
     itemView.setOnClickListener(v -> toggleSaveState.run());
   }
 
-  private static String generateDeterministicId(Object itemData) {
-    String uniqueString = "";
-    if (itemData instanceof SummaryData.WordItem) {
-      SummaryData.WordItem w = (SummaryData.WordItem) itemData;
-      uniqueString = w.getEnglish() + "_" + w.getKorean();
-    } else if (itemData instanceof SummaryData.SentenceItem) {
-      SummaryData.SentenceItem s = (SummaryData.SentenceItem) itemData;
-      uniqueString = s.getEnglish() + "_" + s.getKorean();
-    } else if (itemData instanceof SummaryData.ExpressionItem) {
-      SummaryData.ExpressionItem e = (SummaryData.ExpressionItem) itemData;
-      uniqueString = e.getBefore() + "_" + e.getAfter();
-    } else {
-      uniqueString = UUID.randomUUID().toString();
-    }
-    return UUID.nameUUIDFromBytes(uniqueString.getBytes()).toString();
-  }
-
   private static void saveCardToFirebase(View itemView, Object itemData) {
     FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
     if (user == null) {
@@ -680,7 +662,7 @@ public class SessionSummaryBinder {
     }
 
     SavedCard card = new SavedCard();
-    card.setId(generateDeterministicId(itemData));
+    card.setId(SavedCard.idFor(itemData));
     card.setTimestamp(System.currentTimeMillis());
 
     if (itemData instanceof SummaryData.WordItem) {
@@ -728,7 +710,7 @@ public class SessionSummaryBinder {
     FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
     if (user == null) return;
 
-    String cardId = generateDeterministicId(itemData);
+    String cardId = SavedCard.idFor(itemData);
     FirebaseFirestore.getInstance()
         .collection("users")
         .document(user.getUid())
@@ -1,7 +1,6 @@
 package com.jjundev.oneclickeng.learning.dialoguelearning.summary;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
@@ -12,22 +11,25 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISessionSummaryLlmManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.manager_gemini.CachedContentRegistry;
+import com.jjundev.oneclickeng.manager_gemini.GeminiRequestScheduler;
+import com.jjundev.oneclickeng.manager_gemini.GeminiSseReader;
+import com.jjundev.oneclickeng.manager_gemini.GeminiTransport;
+import com.jjundev.oneclickeng.tool.StreamingJsonExtractor;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okio.BufferedSource;
 
 /** One-shot LLM manager for summary section refinement. */
 public class SessionSummaryManager implements ISessionSummaryLlmManager {
@@ -35,19 +37,7 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
   private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
   private static final String DEFAULT_MODEL_NAME = "gemini-3-flash-preview";
   private static final int MAX_WORDS = 12;
-  private static final int CACHE_TTL_SECONDS = 3600; // 1 hour
-  private static final int MIN_REMAINING_TTL_SECONDS = 300; // 5 minutes
-
-  private static final String PREF_NAME = "gemini_session_summary_cache_prefs";
-  private static final String KEY_EXPRESSION_CACHE_NAME =
-      "gemini_session_summary_expression_cache_name_v3";
-  private static final String KEY_EXPRESSION_CACHE_CREATED =
-      "gemini_session_summary_expression_cache_created_at_v3";
-  private static final String KEY_EXPRESSION_CACHE_TTL =
-      "gemini_session_summary_expression_cache_ttl_seconds_v3";
-  private static final String KEY_WORD_CACHE_NAME = "gemini_session_summary_word_cache_name_v2";
-  private static final String KEY_WORD_CACHE_CREATED = "gemini_session_summary_word_cache_created";
-  private static final String KEY_WORD_CACHE_TTL = "gemini_session_summary_word_cache_ttl_seconds";
+  private static final String EXPRESSIONS_PATH = "expressions[]";
 
   private static final String DISPLAY_NAME_EXPRESSION_FILTER =
       "SessionSummaryExpressionFilterPrompt_v3";
@@ -65,11 +55,12 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
   private final String apiKey;
   private final String modelName;
   private final Context context;
-  private final SharedPreferences prefs;
-  private final CacheState expressionFilterCache = new CacheState();
-  private final CacheState wordExtractionCache = new CacheState();
+  private final CachedContentRegistry cacheRegistry;
   private final Object promptCacheLock = new Object();
 
+  @Nullable private volatile String expressionFilterCacheKey;
+  @Nullable private volatile String wordExtractionCacheKey;
+
   @Nullable private volatile String expressionFilterSystemPromptCache;
   @Nullable private volatile String wordExtractionSystemPromptCache;
 
@@ -78,132 +69,112 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
     WORD_EXTRACTION
   }
 
-  private enum CacheValidationStatus {
-    VALID,
-    INVALID,
-    ERROR
-  }
-
-  private static final class CacheState {
-    private final Object lock = new Object();
-    @Nullable private String cachedContentName;
-    private boolean cacheReady = false;
-  }
-
-  private static final class CacheValidationResult {
-    private final CacheValidationStatus status;
-    private final long remainingSeconds;
-
-    private CacheValidationResult(CacheValidationStatus status, long remainingSeconds) {
-      this.status = status;
-      this.remainingSeconds = remainingSeconds;
-    }
-
-    private static CacheValidationResult valid(long remainingSeconds) {
-      return new CacheValidationResult(CacheValidationStatus.VALID, remainingSeconds);
-    }
-
-    private static CacheValidationResult invalid() {
-      return new CacheValidationResult(CacheValidationStatus.INVALID, 0);
-    }
-
-    private static CacheValidationResult error() {
-      return new CacheValidationResult(CacheValidationStatus.ERROR, 0);
-    }
-  }
-
   public SessionSummaryManager(Context context, String apiKey, String modelName) {
     this.context = context.getApplicationContext();
     this.apiKey = normalizeOrDefault(apiKey, "");
     this.modelName = normalizeOrDefault(modelName, DEFAULT_MODEL_NAME);
-    this.client =
-        new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build();
-    this.streamingClient =
-        new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(0, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build();
+    this.client = GeminiTransport.getInstance().client();
+    this.streamingClient = GeminiTransport.getInstance().streamingClient();
     this.gson = new Gson();
     this.mainHandler = new Handler(Looper.getMainLooper());
-    this.prefs = this.context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    this.cacheRegistry = CachedContentRegistry.getInstance(this.context);
   }
 
+  @NonNull
   @Override
-  public void filterExpressionsAsync(
+  public RequestHandle filterExpressionsAsync(
       @NonNull SummaryFeatureBundle bundle,
       @NonNull ISessionSummaryLlmManager.ExpressionFilterCallback callback) {
     if (bundle == null) {
       mainHandler.post(() -> callback.onFailure("Feature bundle is null"));
-      return;
+      return RequestHandle.completed();
     }
     if (apiKey == null || apiKey.trim().isEmpty()) {
       mainHandler.post(() -> callback.onFailure("API key is missing"));
-      return;
+      return RequestHandle.completed();
     }
 
-    new Thread(
-            () -> {
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.BACKGROUND,
+            GeminiRequestScheduler.estimateTextTokens(),
+            0L,
+            handle -> {
               try {
-                String cachedContentName = ensureCacheReady(CacheType.EXPRESSION_FILTER);
+                String cachedContentName = currentCacheName(CacheType.EXPRESSION_FILTER);
                 boolean completed =
-                    executeExpressionFilterRequest(bundle, callback, cachedContentName, true);
+                    executeExpressionFilterRequest(
+                        bundle, callback, handle, cachedContentName, true);
                 if (!completed) {
-                  invalidateCache(CacheType.EXPRESSION_FILTER);
-                  executeExpressionFilterRequest(bundle, callback, null, false);
+                  invalidateCache(CacheType.EXPRESSION_FILTER, cachedContentName);
+                  executeExpressionFilterRequest(bundle, callback, handle, null, false);
                 }
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 mainHandler.post(
                     () -> callback.onFailure("Expression filter error: " + e.getMessage()));
               }
-            })
-        .start();
+            });
   }
 
+  @NonNull
   @Override
-  public void extractWordsFromSentencesAsync(
+  public RequestHandle extractWordsFromSentencesAsync(
       @NonNull List<String> words,
       @NonNull List<String> sentences,
       @NonNull List<String> userOriginalSentences,
       @NonNull ISessionSummaryLlmManager.WordExtractionCallback callback) {
     if (callback == null) {
-      return;
+      return RequestHandle.completed();
     }
     if (words == null || words.isEmpty() || sentences == null || sentences.isEmpty()) {
       mainHandler.post(() -> callback.onFailure("Word extraction input is empty"));
-      return;
+      return RequestHandle.completed();
     }
     if (apiKey == null || apiKey.trim().isEmpty()) {
       mainHandler.post(() -> callback.onFailure("API key is missing"));
-      return;
+      return RequestHandle.completed();
     }
 
-    new Thread(
-            () -> {
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.BACKGROUND,
+            GeminiRequestScheduler.estimateTextTokens(String.join("\n", sentences)),
+            0L,
+            handle -> {
               try {
-                String cachedContentName = ensureCacheReady(CacheType.WORD_EXTRACTION);
+                String cachedContentName = currentCacheName(CacheType.WORD_EXTRACTION);
                 boolean completed =
                     executeWordExtractionRequest(
-                        words, sentences, userOriginalSentences, callback, cachedContentName, true);
+                        words,
+                        sentences,
+                        userOriginalSentences,
+                        callback,
+                        handle,
+                        cachedContentName,
+                        true);
                 if (!completed) {
-                  invalidateCache(CacheType.WORD_EXTRACTION);
+                  invalidateCache(CacheType.WORD_EXTRACTION, cachedContentName);
                   executeWordExtractionRequest(
-                      words, sentences, userOriginalSentences, callback, null, false);
+                      words, sentences, userOriginalSentences, callback, handle, null, false);
                 }
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 mainHandler.post(() -> callback.onFailure("Summary LLM error: " + e.getMessage()));
               }
-            })
-        .start();
+            });
   }
 
   private boolean executeExpressionFilterRequest(
       @NonNull SummaryFeatureBundle bundle,
       @NonNull ISessionSummaryLlmManager.ExpressionFilterCallback callback,
+      @NonNull RequestHandle handle,
       @Nullable String cachedContentName,
       boolean allowRetryWithoutCache)
       throws IOException {
@@ -215,7 +186,10 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
             .post(RequestBody.create(gson.toJson(requestBody), MediaType.parse("application/json")))
             .build();
 
-    try (Response response = streamingClient.newCall(request).execute()) {
+    try (Response response = GeminiTransport.execute(streamingClient, request, handle)) {
+      if (response == null) {
+        return true;
+      }
       if (!response.isSuccessful()) {
         int code = response.code();
         if (cachedContentName != null && allowRetryWithoutCache && (code == 400 || code == 404)) {
@@ -230,40 +204,23 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
         return true;
       }
 
-      StringBuilder accumulated = new StringBuilder();
-      int emittedCount = 0;
+      StreamingJsonExtractor extractor =
+          new StreamingJsonExtractor(EXPRESSIONS_PATH, StreamingJsonExtractor.ROOT_ARRAY);
 
-      BufferedSource source = response.body().source();
-      while (!source.exhausted()) {
-        String line = source.readUtf8Line();
-        if (line == null || !line.startsWith("data: ")) {
-          continue;
-        }
-        String json = line.substring(6).trim();
-        if (json.equals("[DONE]")) {
-          break;
-        }
-
-        String chunkText = extractTextFromSseChunk(json);
-        if (chunkText.isEmpty()) {
-          continue;
-        }
-        accumulated.append(chunkText);
-
-        List<ISessionSummaryLlmManager.FilteredExpression> parsed =
-            tryParseExpressions(accumulated.toString());
-        for (int i = emittedCount; i < parsed.size(); i++) {
-          ISessionSummaryLlmManager.FilteredExpression expr = parsed.get(i);
-          mainHandler.post(() -> callback.onExpressionReceived(expr));
+      GeminiSseReader sseReader = new GeminiSseReader(response.body().source());
+      String chunkText;
+      while (!handle.isCancelled() && (chunkText = sseReader.nextText()) != null) {
+        handle.recordOutputTokens(GeminiRequestScheduler.estimateOutputTokens(chunkText));
+        for (StreamingJsonExtractor.Event event : extractor.addChunk(chunkText)) {
+          ISessionSummaryLlmManager.FilteredExpression expr =
+              tryParseSingleExpression(event.getJson());
+          if (expr != null) {
+            mainHandler.post(() -> callback.onExpressionReceived(expr));
+          }
         }
-        emittedCount = parsed.size();
       }
-
-      List<ISessionSummaryLlmManager.FilteredExpression> finalParsed =
-          tryParseExpressions(accumulated.toString());
-      for (int i = emittedCount; i < finalParsed.size(); i++) {
-        ISessionSummaryLlmManager.FilteredExpression expr = finalParsed.get(i);
-        mainHandler.post(() -> callback.onExpressionReceived(expr));
+      if (handle.isCancelled()) {
+        return true;
       }
 
       mainHandler.post(callback::onComplete);
@@ -276,6 +233,7 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
       @NonNull List<String> sentences,
       @NonNull List<String> userOriginalSentences,
       @NonNull ISessionSummaryLlmManager.WordExtractionCallback callback,
+      @NonNull RequestHandle handle,
       @Nullable String cachedContentName,
       boolean allowRetryWithoutCache)
       throws IOException {
@@ -288,7 +246,10 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
             .post(RequestBody.create(gson.toJson(requestBody), MediaType.parse("application/json")))
             .build();
 
-    try (Response response = client.newCall(request).execute()) {
+    try (Response response = GeminiTransport.execute(client, request, handle)) {
+      if (response == null) {
+        return true;
+      }
       String body = response.body() != null ? response.body().string() : "";
       if (!response.isSuccessful()) {
         int code = response.code();
@@ -363,183 +324,50 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
     return requestBody;
   }
 
+  /** Returns the cache to use for this request, or null; never waits for the cache to exist. */
   @Nullable
-  private String ensureCacheReady(@NonNull CacheType cacheType) {
-    CacheState state = getCacheState(cacheType);
-    synchronized (state.lock) {
-      if (state.cacheReady && state.cachedContentName != null) {
-        return state.cachedContentName;
-      }
-
-      String cachedContentName = prefs.getString(getCacheNameKey(cacheType), null);
-      if (cachedContentName != null) {
-        long createdAt = prefs.getLong(getCacheCreatedKey(cacheType), 0);
-        int ttl = prefs.getInt(getCacheTtlKey(cacheType), CACHE_TTL_SECONDS);
-        long elapsedSeconds = (System.currentTimeMillis() - createdAt) / 1000L;
-
-        if (elapsedSeconds <= ttl) {
-          CacheValidationResult validationResult = validateCacheFromServer(cachedContentName);
-          if (validationResult.status == CacheValidationStatus.VALID
-              && validationResult.remainingSeconds > MIN_REMAINING_TTL_SECONDS) {
-            state.cachedContentName = cachedContentName;
-            state.cacheReady = true;
-            return cachedContentName;
-          }
-        }
-        clearLocalCacheData(cacheType);
-      }
-
-      String newCacheName = createCache(cacheType);
-      if (newCacheName != null) {
-        state.cachedContentName = newCacheName;
-        state.cacheReady = true;
-        return newCacheName;
-      }
-
-      state.cachedContentName = null;
-      state.cacheReady = false;
-      return null;
-    }
-  }
-
-  @Nullable
-  private String createCache(@NonNull CacheType cacheType) {
-    try {
-      JsonObject requestBody = new JsonObject();
-      requestBody.addProperty("model", "models/" + modelName);
-
-      JsonArray contents = new JsonArray();
-
-      JsonObject userContent = new JsonObject();
-      userContent.addProperty("role", "user");
-      JsonArray userParts = new JsonArray();
-      JsonObject userPart = new JsonObject();
-      userPart.addProperty("text", getCacheInitUserPrompt(cacheType));
-      userParts.add(userPart);
-      userContent.add("parts", userParts);
-      contents.add(userContent);
-
-      JsonObject modelContent = new JsonObject();
-      modelContent.addProperty("role", "model");
-      JsonArray modelParts = new JsonArray();
-      JsonObject modelPart = new JsonObject();
-      modelPart.addProperty("text", getCacheInitModelPrompt(cacheType));
-      modelParts.add(modelPart);
-      modelContent.add("parts", modelParts);
-      contents.add(modelContent);
-
-      requestBody.add("contents", contents);
-      addSystemInstructionForCacheType(requestBody, cacheType);
-      requestBody.addProperty("ttl", CACHE_TTL_SECONDS + "s");
-      requestBody.addProperty("displayName", getCacheDisplayName(cacheType));
-
-      String url = BASE_URL + "/cachedContents?key=" + apiKey;
-      Request request =
-          new Request.Builder()
-              .url(url)
-              .post(
-                  RequestBody.create(gson.toJson(requestBody), MediaType.parse("application/json")))
-              .build();
-
-      try (Response response = client.newCall(request).execute()) {
-        String body = response.body() != null ? response.body().string() : "";
-        if (!response.isSuccessful()) {
-          Log.w(TAG, "Cache creation failed(" + cacheType + "): " + response.code() + " " + body);
-          return null;
-        }
-
-        JsonObject result = JsonParser.parseString(body).getAsJsonObject();
-        String cacheName = result.get("name").getAsString();
-        saveLocalCacheData(cacheType, cacheName);
-        Log.i(TAG, "Cache created(" + cacheType + "): " + cacheName);
-        return cacheName;
-      }
-    } catch (Exception e) {
-      Log.e(TAG, "createCache failed(" + cacheType + ")", e);
-      return null;
-    }
-  }
-
-  private CacheValidationResult validateCacheFromServer(@NonNull String cacheName) {
-    try {
-      String url = BASE_URL + "/" + cacheName + "?key=" + apiKey;
-      Request request = new Request.Builder().url(url).get().build();
-      try (Response response = client.newCall(request).execute()) {
-        if (response.code() == 404) {
-          return CacheValidationResult.invalid();
-        }
-        if (!response.isSuccessful()) {
-          return CacheValidationResult.error();
-        }
-        String body = response.body() != null ? response.body().string() : "";
-        JsonObject result = JsonParser.parseString(body).getAsJsonObject();
-        if (!result.has("expireTime")) {
-          return CacheValidationResult.error();
-        }
-
-        Instant expireTime = Instant.parse(result.get("expireTime").getAsString());
-        long remainingSeconds = expireTime.getEpochSecond() - Instant.now().getEpochSecond();
-        return CacheValidationResult.valid(remainingSeconds);
-      }
-    } catch (Exception e) {
-      Log.w(TAG, "validateCacheFromServer failed: " + cacheName, e);
-      return CacheValidationResult.error();
+  private String currentCacheName(@NonNull CacheType cacheType) {
+    return cacheRegistry.currentName(ensureCacheRegistered(cacheType));
+  }
+
+  @NonNull
+  private String ensureCacheRegistered(@NonNull CacheType cacheType) {
+    String key =
+        cacheType == CacheType.EXPRESSION_FILTER
+            ? expressionFilterCacheKey
+            : wordExtractionCacheKey;
+    if (key != null) {
+      return key;
+    }
+    key =
+        cacheRegistry.register(
+            apiKey,
+            new CachedContentRegistry.Spec(
+                modelName,
+                getCacheDisplayName(cacheType),
+                buildSystemPrompt(cacheType),
+                getCacheInitUserPrompt(cacheType),
+                getCacheInitModelPrompt(cacheType)));
+    if (cacheType == CacheType.EXPRESSION_FILTER) {
+      expressionFilterCacheKey = key;
+    } else {
+      wordExtractionCacheKey = key;
     }
+    return key;
   }
 
-  private void invalidateCache(@NonNull CacheType cacheType) {
-    CacheState state = getCacheState(cacheType);
-    synchronized (state.lock) {
-      state.cachedContentName = null;
-      state.cacheReady = false;
-      clearLocalCacheData(cacheType);
+  private void invalidateCache(@NonNull CacheType cacheType, @Nullable String cachedContentName) {
+    if (cachedContentName != null) {
+      cacheRegistry.invalidate(ensureCacheRegistered(cacheType), cachedContentName);
     }
   }
 
-  private CacheState getCacheState(@NonNull CacheType cacheType) {
-    return cacheType == CacheType.EXPRESSION_FILTER ? expressionFilterCache : wordExtractionCache;
-  }
-
-  private String getCacheNameKey(@NonNull CacheType cacheType) {
-    return cacheType == CacheType.EXPRESSION_FILTER
-        ? KEY_EXPRESSION_CACHE_NAME
-        : KEY_WORD_CACHE_NAME;
-  }
-
-  private String getCacheCreatedKey(@NonNull CacheType cacheType) {
-    return cacheType == CacheType.EXPRESSION_FILTER
-        ? KEY_EXPRESSION_CACHE_CREATED
-        : KEY_WORD_CACHE_CREATED;
-  }
-
-  private String getCacheTtlKey(@NonNull CacheType cacheType) {
-    return cacheType == CacheType.EXPRESSION_FILTER ? KEY_EXPRESSION_CACHE_TTL : KEY_WORD_CACHE_TTL;
-  }
-
   private String getCacheDisplayName(@NonNull CacheType cacheType) {
     return cacheType == CacheType.EXPRESSION_FILTER
         ? DISPLAY_NAME_EXPRESSION_FILTER
         : DISPLAY_NAME_WORD_EXTRACTION;
   }
 
-  private void saveLocalCacheData(@NonNull CacheType cacheType, @NonNull String cacheName) {
-    prefs
-        .edit()
-        .putString(getCacheNameKey(cacheType), cacheName)
-        .putLong(getCacheCreatedKey(cacheType), System.currentTimeMillis())
-        .putInt(getCacheTtlKey(cacheType), CACHE_TTL_SECONDS)
-        .apply();
-  }
-
-  private void clearLocalCacheData(@NonNull CacheType cacheType) {
-    prefs
-        .edit()
-        .remove(getCacheNameKey(cacheType))
-        .remove(getCacheCreatedKey(cacheType))
-        .remove(getCacheTtlKey(cacheType))
-        .apply();
-  }
-
   private String getCacheInitUserPrompt(@NonNull CacheType cacheType) {
     if (cacheType == CacheType.EXPRESSION_FILTER) {
       return "Initialize session summary expression filtering.";
@@ -554,13 +382,11 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
     return "I am ready to extract learning vocabulary in JSON format.";
   }
 
-  private void addSystemInstructionForCacheType(
-      @NonNull JsonObject requestBody, @NonNull CacheType cacheType) {
+  private String buildSystemPrompt(@NonNull CacheType cacheType) {
     if (cacheType == CacheType.EXPRESSION_FILTER) {
-      addExpressionFilterSystemInstruction(requestBody);
-      return;
+      return buildExpressionFilterSystemPrompt();
     }
-    addWordExtractionSystemInstruction(requestBody);
+    return buildWordExtractionSystemPrompt();
   }
 
   private void addExpressionFilterSystemInstruction(@NonNull JsonObject requestBody) {
@@ -728,65 +554,8 @@ public class SessionSummaryManager implements ISessionSummaryLlmManager {
     }
   }
 
-  private String extractTextFromSseChunk(String json) {
-    try {
-      JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-      JsonArray candidates = root.getAsJsonArray("candidates");
-      if (candidates == null || candidates.size() == 0) {
-        return "";
-      }
-      JsonObject content = candidates.get(0).getAsJsonObject().getAsJsonObject("content");
-      JsonArray partsArr = content.getAsJsonArray("parts");
-      if (partsArr == null || partsArr.size() == 0) {
-        return "";
-      }
-      return partsArr.get(0).getAsJsonObject().get("text").getAsString();
-    } catch (Exception e) {
-      return "";
-    }
-  }
-
-  /**
-   * Best-effort incremental parser: attempts to parse completed expression objects from accumulated
-   * JSON text. Returns all fully-parsed expressions found so far.
-   */
-  private List<ISessionSummaryLlmManager.FilteredExpression> tryParseExpressions(
-      String accumulatedText) {
-    List<ISessionSummaryLlmManager.FilteredExpression> result = new ArrayList<>();
-    String cleanJson = accumulatedText.replace("```json", "").replace("```", "").trim();
-
-    // Find the start of the expressions array
-    int arrStart = cleanJson.indexOf('[');
-    if (arrStart < 0) {
-      return result;
-    }
-    String fromArray = cleanJson.substring(arrStart);
-
-    // Walk through the string and try to extract complete JSON objects
-    int depth = 0;
-    int objStart = -1;
-    for (int i = 0; i < fromArray.length(); i++) {
-      char c = fromArray.charAt(i);
-      if (c == '{') {
-        if (depth == 0) {
-          objStart = i;
-        }
-        depth++;
-      } else if (c == '}') {
-        depth--;
-        if (depth == 0 && objStart >= 0) {
-          String objStr = fromArray.substring(objStart, i + 1);
-          ISessionSummaryLlmManager.FilteredExpression expr = tryParseSingleExpression(objStr);
-          if (expr != null) {
-            result.add(expr);
-          }
-          objStart = -1;
-        }
-      }
-    }
-    return result;
-  }
-
+  /** Parses one streamed expression object; returns null if it is malformed or incomplete. */
+  @Nullable
   private ISessionSummaryLlmManager.FilteredExpression tryParseSingleExpression(String jsonStr) {
     try {
       JsonObject item = JsonParser.parseString(jsonStr).getAsJsonObject();
@@ -0,0 +1,71 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.ui;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Strips markdown-style {@code **bold**} markers from streamed text one chunk at a time.
+ *
+ * <p>A marker may be split across chunks, so a trailing single {@code *} is held back until the
+ * next character shows whether it starts a marker. Lone asterisks are kept as literal text. Each
+ * call reports plain and bold runs in order; the run text is only valid during the callback.
+ */
+public final class IncrementalBoldParser {
+
+  public interface RunSink {
+    void onRun(@NonNull CharSequence text, boolean bold);
+  }
+
+  @NonNull private final StringBuilder run = new StringBuilder();
+  private boolean bold;
+  private boolean pendingAsterisk;
+
+  /** Parses the next chunk. */
+  public void feed(@NonNull CharSequence chunk, @NonNull RunSink sink) {
+    for (int i = 0; i < chunk.length(); i++) {
+      char c = chunk.charAt(i);
+      if (c == '*') {
+        if (pendingAsterisk) {
+          pendingAsterisk = false;
+          flush(sink);
+          bold = !bold;
+        } else {
+          pendingAsterisk = true;
+        }
+        continue;
+      }
+      if (pendingAsterisk) {
+        pendingAsterisk = false;
+        run.append('*');
+      }
+      run.append(c);
+    }
+    flush(sink);
+  }
+
+  /** Ends the stream, emitting a held-back asterisk as literal text. */
+  public void finish(@NonNull RunSink sink) {
+    if (pendingAsterisk) {
+      pendingAsterisk = false;
+      run.append('*');
+    }
+    flush(sink);
+  }
+
+  public void reset() {
+    run.setLength(0);
+    bold = false;
+    pendingAsterisk = false;
+  }
+
+  public boolean isBold() {
+    return bold;
+  }
+
+  private void flush(@NonNull RunSink sink) {
+    if (run.length() == 0) {
+      return;
+    }
+    sink.onRun(run, bold);
+    run.setLength(0);
+  }
+}
@@ -0,0 +1,135 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.ui;
+
+import android.graphics.Typeface;
+import android.text.Editable;
+import android.text.Spanned;
+import android.text.style.StyleSpan;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.state.StreamingText;
+
+/**
+ * Renders a {@link StreamingText} into a {@link TextView} by appending only what is new.
+ *
+ * <p>The view holds an {@link Editable} buffer; each update appends the unseen suffix, with
+ * {@code **bold**} markers turned into spans by {@link IncrementalBoldParser}. Updates arriving
+ * within one display frame are applied together on the next animation frame, so the text is laid
+ * out at most once per frame. Binding a different view or stream starts over.
+ */
+public final class StreamingTextBinder {
+
+  @Nullable private TextView target;
+  @Nullable private StreamingText source;
+  private int renderedLength;
+  private int targetLength;
+  private boolean finished;
+  private boolean frameScheduled;
+
+  @NonNull private final IncrementalBoldParser parser = new IncrementalBoldParser();
+  @Nullable private StyleSpan openBoldSpan;
+  private int openBoldStart;
+
+  @NonNull private final Runnable applyFrame = this::applyPending;
+
+  @NonNull
+  private final IncrementalBoldParser.RunSink runSink =
+      (text, bold) -> {
+        Editable editable = editable();
+        if (editable == null) {
+          return;
+        }
+        int start = editable.length();
+        editable.append(text);
+        if (!bold) {
+          openBoldSpan = null;
+          return;
+        }
+        if (openBoldSpan == null) {
+          openBoldSpan = new StyleSpan(Typeface.BOLD);
+          openBoldStart = start;
+        }
+        // Re-setting the same span extends it over a bold run that continues across chunks.
+        editable.setSpan(
+            openBoldSpan, openBoldStart, editable.length(), Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+      };
+
+  /**
+   * Shows the first {@code length} characters of {@code text} in {@code view}.
+   *
+   * @param complete whether the stream has ended, which releases a held-back trailing asterisk
+   */
+  public void bind(
+      @NonNull TextView view, @Nullable StreamingText text, int length, boolean complete) {
+    // Someone else replacing the view's text also means starting over.
+    if (view != target
+        || text != source
+        || length < targetLength
+        || view.getEditableText() == null) {
+      start(view, text);
+    }
+    targetLength = text == null ? 0 : length;
+    finished = complete;
+    if (renderedLength < targetLength || finished) {
+      scheduleFrame();
+    }
+  }
+
+  /** Detaches from the current view and drops any pending update. */
+  public void clear() {
+    cancelFrame();
+    target = null;
+    source = null;
+    renderedLength = 0;
+    targetLength = 0;
+    finished = false;
+    parser.reset();
+    openBoldSpan = null;
+  }
+
+  private void start(@NonNull TextView view, @Nullable StreamingText text) {
+    cancelFrame();
+    target = view;
+    source = text;
+    renderedLength = 0;
+    targetLength = 0;
+    finished = false;
+    parser.reset();
+    openBoldSpan = null;
+    view.setText("", TextView.BufferType.EDITABLE);
+  }
+
+  private void scheduleFrame() {
+    if (frameScheduled || target == null) {
+      return;
+    }
+    frameScheduled = true;
+    target.postOnAnimation(applyFrame);
+  }
+
+  private void cancelFrame() {
+    if (frameScheduled && target != null) {
+      target.removeCallbacks(applyFrame);
+    }
+    frameScheduled = false;
+  }
+
+  private void applyPending() {
+    frameScheduled = false;
+    if (source == null) {
+      return;
+    }
+    if (renderedLength < targetLength) {
+      parser.feed(source.substring(renderedLength, targetLength), runSink);
+      renderedLength = targetLength;
+    }
+    if (finished) {
+      parser.finish(runSink);
+    }
+  }
+
+  @Nullable
+  private Editable editable() {
+    return target == null ? null : target.getEditableText();
+  }
+}
@@ -9,6 +9,7 @@ import androidx.lifecycle.ViewModel;
 import com.google.gson.Gson;
 import com.jjundev.oneclickeng.BuildConfig;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IQuizGenerationManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import com.jjundev.oneclickeng.learning.quiz.session.QuizStreamingSessionStore;
@@ -46,6 +47,7 @@ public class DialogueQuizViewModel extends ViewModel {
   private int requestedQuestionCount = 5;
   private boolean streamCompleted = false;
   private long activeLoadRequestId = 0L;
+  @Nullable private RequestHandle activeLoadRequest;
   @Nullable private String attachedSessionId;
   @Nullable private QuizStreamingSessionStore.Listener sessionListener;
 
@@ -202,37 +204,39 @@ public class DialogueQuizViewModel extends ViewModel {
 
     detachSession(true);
     long requestId = ++activeLoadRequestId;
+    cancelActiveLoadRequest();
     resetRuntimeState();
     uiState.postValue(QuizUiState.loading());
     logDebug("quiz load start");
-    quizGenerationManager.generateQuizFromSummaryStreamingAsync(
-        seed,
-        requestedQuestionCount,
-        new IQuizGenerationManager.QuizStreamingCallback() {
-          @Override
-          public void onQuestion(@NonNull QuizData.QuizQuestion rawQuestion) {
-            if (requestId != activeLoadRequestId) {
-              return;
-            }
-            onIncomingQuestion(rawQuestion);
-          }
-
-          @Override
-          public void onComplete(@Nullable String warningMessage) {
-            if (requestId != activeLoadRequestId) {
-              return;
-            }
-            onStreamComplete(warningMessage, false);
-          }
-
-          @Override
-          public void onFailure(@NonNull String error) {
-            if (requestId != activeLoadRequestId) {
-              return;
-            }
-            onStreamFailure(error, false);
-          }
-        });
+    activeLoadRequest =
+        quizGenerationManager.generateQuizFromSummaryStreamingAsync(
+            seed,
+            requestedQuestionCount,
+            new IQuizGenerationManager.QuizStreamingCallback() {
+              @Override
+              public void onQuestion(@NonNull QuizData.QuizQuestion rawQuestion) {
+                if (requestId != activeLoadRequestId) {
+                  return;
+                }
+                onIncomingQuestion(rawQuestion);
+              }
+
+              @Override
+              public void onComplete(@Nullable String warningMessage) {
+                if (requestId != activeLoadRequestId) {
+                  return;
+                }
+                onStreamComplete(warningMessage, false);
+              }
+
+              @Override
+              public void onFailure(@NonNull String error) {
+                if (requestId != activeLoadRequestId) {
+                  return;
+                }
+                onStreamFailure(error, false);
+              }
+            });
   }
 
   private void onIncomingQuestion(@NonNull QuizData.QuizQuestion rawQuestion) {
@@ -375,10 +379,19 @@ public class DialogueQuizViewModel extends ViewModel {
 
   @Override
   protected void onCleared() {
+    cancelActiveLoadRequest();
     detachSession(true);
     super.onCleared();
   }
 
+  private void cancelActiveLoadRequest() {
+    RequestHandle request = activeLoadRequest;
+    activeLoadRequest = null;
+    if (request != null) {
+      request.cancel();
+    }
+  }
+
   private void publishCurrentQuestionState() {
     QuizQuestionState state = currentQuestionState;
     if (state == null || questions.isEmpty()) {
@@ -3,6 +3,7 @@ package com.jjundev.oneclickeng.learning.quiz.session;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IQuizGenerationManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import java.util.ArrayList;
@@ -21,6 +22,7 @@ public class InMemoryQuizStreamingSessionStore implements QuizStreamingSessionSt
     private boolean completed = false;
     @Nullable private String warningMessage;
     @Nullable private String failureMessage;
+    @Nullable private RequestHandle requestHandle;
     private boolean released = false;
   }
 
@@ -34,28 +36,38 @@ public class InMemoryQuizStreamingSessionStore implements QuizStreamingSessionSt
       @NonNull SummaryData seed,
       int requestedQuestionCount) {
     String sessionId = UUID.randomUUID().toString();
+    SessionState state = new SessionState();
     synchronized (lock) {
-      sessions.put(sessionId, new SessionState());
-    }
-    manager.generateQuizFromSummaryStreamingAsync(
-        seed,
-        requestedQuestionCount,
-        new IQuizGenerationManager.QuizStreamingCallback() {
-          @Override
-          public void onQuestion(@NonNull QuizData.QuizQuestion question) {
-            dispatchQuestion(sessionId, question);
-          }
+      sessions.put(sessionId, state);
+    }
+    RequestHandle handle =
+        manager.generateQuizFromSummaryStreamingAsync(
+            seed,
+            requestedQuestionCount,
+            new IQuizGenerationManager.QuizStreamingCallback() {
+              @Override
+              public void onQuestion(@NonNull QuizData.QuizQuestion question) {
+                dispatchQuestion(sessionId, question);
+              }
 
-          @Override
-          public void onComplete(@Nullable String warningMessage) {
-            dispatchComplete(sessionId, warningMessage);
-          }
+              @Override
+              public void onComplete(@Nullable String warningMessage) {
+                dispatchComplete(sessionId, warningMessage);
+              }
 
-          @Override
-          public void onFailure(@NonNull String error) {
-            dispatchFailure(sessionId, error);
-          }
-        });
+              @Override
+              public void onFailure(@NonNull String error) {
+                dispatchFailure(sessionId, error);
+              }
+            });
+    boolean released;
+    synchronized (lock) {
+      released = state.released;
+      state.requestHandle = handle;
+    }
+    if (released) {
+      handle.cancel();
+    }
     return sessionId;
   }
 
@@ -95,6 +107,7 @@ public class InMemoryQuizStreamingSessionStore implements QuizStreamingSessionSt
     if (sessionId == null) {
       return;
     }
+    RequestHandle handle;
     synchronized (lock) {
       SessionState state = sessions.remove(sessionId);
       if (state == null) {
@@ -102,6 +115,11 @@ public class InMemoryQuizStreamingSessionStore implements QuizStreamingSessionSt
       }
       state.released = true;
       state.listeners.clear();
+      handle = state.requestHandle;
+      state.requestHandle = null;
+    }
+    if (handle != null) {
+      handle.cancel();
     }
   }
 
@@ -0,0 +1,835 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Owns every Gemini {@code cachedContents} entry the app uses.
+ *
+ * <p>Entries are keyed by model and prompt signature, so changing a prompt or model simply maps to
+ * a new entry while the old one lapses on the server. Names and expiry times are persisted, checked
+ * against the server concurrently at startup, and extended in the background shortly before they
+ * expire while a feature is still using them. Request paths only call {@link #currentName(String)},
+ * which never blocks: without a usable cache it returns {@code null}, starts creating one in the
+ * background, and the caller sends its system prompt inline for that request.
+ */
+public final class CachedContentRegistry {
+  private static final String TAG = "CachedContentRegistry";
+  private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
+  private static final String PREF_NAME = "gemini_cached_contents";
+  private static final String KEY_NAME_SUFFIX = ":name";
+  private static final String KEY_EXPIRE_AT_SUFFIX = ":expireAt";
+  private static final MediaType JSON = MediaType.parse("application/json");
+
+  static final int CACHE_TTL_SECONDS = 3600; // 1 hour
+  // Renew early enough that a failed renewal can still be retried before the cache is gone.
+  static final long RENEW_BEFORE_EXPIRY_MS = 10 * 60_000L;
+  // Requests take seconds, so a cache with less than this left is not handed out anymore.
+  static final long MIN_USABLE_REMAINING_MS = 60_000L;
+  // Caches nobody asked for in this long are left to expire instead of being renewed.
+  static final long IDLE_RELEASE_MS = 30 * 60_000L;
+  static final long RETRY_DELAY_MS = 30_000L;
+
+  @Nullable private static volatile CachedContentRegistry instance;
+
+  /** Everything needed to (re)create one cache. Two equal specs map to the same entry. */
+  public static final class Spec {
+    @NonNull private final String modelName;
+    @NonNull private final String displayName;
+    @NonNull private final String systemPrompt;
+    @NonNull private final String primingUserText;
+    @NonNull private final String primingModelText;
+
+    /**
+     * @param primingUserText first user turn stored with the cache (context material or a short
+     *     initialization line)
+     * @param primingModelText model acknowledgement stored after {@code primingUserText}
+     */
+    public Spec(
+        @NonNull String modelName,
+        @NonNull String displayName,
+        @NonNull String systemPrompt,
+        @NonNull String primingUserText,
+        @NonNull String primingModelText) {
+      this.modelName = normalizeModelName(modelName);
+      this.displayName = displayName;
+      this.systemPrompt = systemPrompt;
+      this.primingUserText = primingUserText;
+      this.primingModelText = primingModelText;
+    }
+
+    @NonNull
+    String modelName() {
+      return modelName;
+    }
+
+    @NonNull
+    String displayName() {
+      return displayName;
+    }
+
+    @NonNull
+    String systemPrompt() {
+      return systemPrompt;
+    }
+
+    @NonNull
+    String primingUserText() {
+      return primingUserText;
+    }
+
+    @NonNull
+    String primingModelText() {
+      return primingModelText;
+    }
+  }
+
+  public interface ReadyListener {
+    void onReady(@NonNull String cacheName);
+
+    void onError(@NonNull String error);
+  }
+
+  /** Server side of the cachedContents lifecycle; swapped out in tests. */
+  interface Backend {
+    @NonNull
+    RemoteCache create(@NonNull String apiKey, @NonNull Spec spec) throws IOException;
+
+    /** Returns {@code null} if the cache no longer exists for this key. */
+    @Nullable
+    RemoteCache get(@NonNull String apiKey, @NonNull String name) throws IOException;
+
+    /** Returns {@code null} if the cache no longer exists for this key. */
+    @Nullable
+    RemoteCache extend(@NonNull String apiKey, @NonNull String name, int ttlSeconds)
+        throws IOException;
+
+    void delete(@NonNull String apiKey, @NonNull String name) throws IOException;
+  }
+
+  /** Persisted name and expiry per entry key. */
+  interface Store {
+    @NonNull
+    Map<String, RemoteCache> loadAll();
+
+    void save(@NonNull String key, @NonNull RemoteCache cache);
+
+    void remove(@NonNull String key);
+  }
+
+  static final class RemoteCache {
+    @NonNull final String name;
+    final long expireAtMs;
+
+    RemoteCache(@NonNull String name, long expireAtMs) {
+      this.name = name;
+      this.expireAtMs = expireAtMs;
+    }
+  }
+
+  private static final class Entry {
+    @NonNull private final String key;
+    @Nullable private String apiKey;
+    @Nullable private Spec spec;
+    @Nullable private String name;
+    private long expireAtMs;
+    private long lastAccessAtMs;
+    private long retryAtMs;
+    private boolean busy;
+    @NonNull private final List<ReadyListener> listeners = new ArrayList<>();
+
+    private Entry(@NonNull String key) {
+      this.key = key;
+    }
+  }
+
+  private final Object lock = new Object();
+  private final Map<String, Entry> entries = new HashMap<>();
+  @NonNull private final Backend backend;
+  @NonNull private final Store store;
+  @NonNull private final Executor workerExecutor;
+  @NonNull private final LongSupplier clockMs;
+  private final boolean autoRenew;
+  private boolean persistedLoaded;
+  @Nullable private Thread renewThread;
+
+  @NonNull
+  public static CachedContentRegistry getInstance(@NonNull Context context) {
+    CachedContentRegistry existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (CachedContentRegistry.class) {
+      if (instance == null) {
+        Context appContext = context.getApplicationContext();
+        instance =
+            new CachedContentRegistry(
+                new HttpBackend(GeminiTransport.getInstance().client()),
+                new PrefsStore(appContext.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE)),
+                createWorkerExecutor(),
+                System::currentTimeMillis,
+                true);
+      }
+      return instance;
+    }
+  }
+
+  CachedContentRegistry(
+      @NonNull Backend backend,
+      @NonNull Store store,
+      @NonNull Executor workerExecutor,
+      @NonNull LongSupplier clockMs,
+      boolean autoRenew) {
+    this.backend = backend;
+    this.store = store;
+    this.workerExecutor = workerExecutor;
+    this.clockMs = clockMs;
+    this.autoRenew = autoRenew;
+  }
+
+  /**
+   * Checks every persisted cache against the server in parallel, dropping the ones that are gone.
+   * Called once at app startup so that the first request of each feature already finds a cache.
+   */
+  public void validatePersisted(@NonNull String apiKey) {
+    if (apiKey.trim().isEmpty()) {
+      return;
+    }
+    // Loading the persisted entries touches disk, so even that part stays off the caller's thread.
+    workerExecutor.execute(() -> validatePersistedNow(apiKey));
+  }
+
+  private void validatePersistedNow(@NonNull String apiKey) {
+    List<Runnable> work = new ArrayList<>();
+    synchronized (lock) {
+      loadPersistedLocked();
+      for (Entry entry : entries.values()) {
+        if (entry.busy || entry.name == null) {
+          continue;
+        }
+        if (entry.apiKey == null) {
+          entry.apiKey = apiKey;
+        }
+        entry.busy = true;
+        work.add(validateTask(entry, entry.apiKey, entry.name));
+      }
+    }
+    Log.d(TAG, "Validating " + work.size() + " persisted cache(s)");
+    executeAll(work);
+  }
+
+  /**
+   * Registers the cache described by {@code spec} and starts creating it if no usable cache
+   * exists yet. Safe to call repeatedly.
+   *
+   * @return the key to pass to {@link #currentName(String)}
+   */
+  @NonNull
+  public String register(@NonNull String apiKey, @NonNull Spec spec) {
+    String key = buildKey(apiKey, spec);
+    Runnable work;
+    synchronized (lock) {
+      loadPersistedLocked();
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        entry = new Entry(key);
+        entries.put(key, entry);
+      }
+      entry.apiKey = apiKey;
+      entry.spec = spec;
+      entry.lastAccessAtMs = clockMs.getAsLong();
+      work = refreshIfNeededLocked(entry);
+      onStateChangedLocked();
+    }
+    execute(work);
+    return key;
+  }
+
+  /**
+   * Returns the cache name to put in {@code cachedContent}, or {@code null} if the request should
+   * carry its own system prompt. Never waits on the network.
+   */
+  @Nullable
+  public String currentName(@NonNull String key) {
+    Runnable work;
+    synchronized (lock) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      boolean wasIdle = isIdleLocked(entry);
+      entry.lastAccessAtMs = clockMs.getAsLong();
+      if (wasIdle) {
+        onStateChangedLocked();
+      }
+      if (isUsableLocked(entry)) {
+        return entry.name;
+      }
+      work = refreshIfNeededLocked(entry);
+    }
+    execute(work);
+    return null;
+  }
+
+  /**
+   * Calls {@code listener} once the cache is usable, or with an error if it cannot be created
+   * right now. The listener runs on a background thread.
+   */
+  public void ensureReady(@NonNull String key, @NonNull ReadyListener listener) {
+    Runnable work;
+    String readyName = null;
+    String error = null;
+    synchronized (lock) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        error = "Cache is not registered";
+        work = null;
+      } else {
+        entry.lastAccessAtMs = clockMs.getAsLong();
+        if (isUsableLocked(entry)) {
+          readyName = entry.name;
+          work = null;
+        } else {
+          work = refreshIfNeededLocked(entry);
+          if (entry.busy) {
+            entry.listeners.add(listener);
+          } else {
+            error = "Cache creation is backing off after a failure";
+          }
+        }
+      }
+    }
+    if (readyName != null) {
+      listener.onReady(readyName);
+    } else if (error != null) {
+      listener.onError(error);
+    }
+    execute(work);
+  }
+
+  /**
+   * Forgets {@code name} after a request that used it was rejected (400/404), and starts creating a
+   * replacement. A stale name from an older request does not affect a newer cache.
+   */
+  public void invalidate(@NonNull String key, @Nullable String name) {
+    Runnable work;
+    synchronized (lock) {
+      Entry entry = entries.get(key);
+      if (entry == null || entry.name == null || !entry.name.equals(name)) {
+        return;
+      }
+      Log.i(TAG, "Cache rejected by server, recreating: " + name);
+      clearLocked(entry);
+      entry.retryAtMs = 0L;
+      work = refreshIfNeededLocked(entry);
+    }
+    execute(work);
+  }
+
+  /** Drops the entry locally and deletes it on the server. */
+  public void remove(@NonNull String key) {
+    String name;
+    String apiKey;
+    synchronized (lock) {
+      Entry entry = entries.remove(key);
+      if (entry == null) {
+        return;
+      }
+      store.remove(key);
+      name = entry.name;
+      apiKey = entry.apiKey;
+    }
+    if (name == null || apiKey == null) {
+      return;
+    }
+    workerExecutor.execute(
+        () -> {
+          try {
+            backend.delete(apiKey, name);
+          } catch (IOException e) {
+            Log.w(TAG, "Cache delete failed: " + name, e);
+          }
+        });
+  }
+
+  /**
+   * Starts renewing every in-use cache that is close to expiry.
+   *
+   * @return milliseconds until the next renewal is due, or -1 if nothing needs renewing
+   */
+  long renewDue() {
+    synchronized (lock) {
+      return renewDueLocked();
+    }
+  }
+
+  private long renewDueLocked() {
+    long now = clockMs.getAsLong();
+    long nextWaitMs = -1L;
+    List<Runnable> work = new ArrayList<>();
+    for (Entry entry : entries.values()) {
+      if (entry.busy
+          || entry.name == null
+          || entry.spec == null
+          || entry.apiKey == null
+          || isIdleLocked(entry)) {
+        continue;
+      }
+      long dueAtMs = Math.max(entry.expireAtMs - RENEW_BEFORE_EXPIRY_MS, entry.retryAtMs);
+      if (now < dueAtMs) {
+        long waitMs = dueAtMs - now;
+        nextWaitMs = nextWaitMs < 0L ? waitMs : Math.min(nextWaitMs, waitMs);
+        continue;
+      }
+      entry.busy = true;
+      work.add(extendTask(entry, entry.apiKey, entry.name));
+    }
+    executeAll(work);
+    return nextWaitMs;
+  }
+
+  @Nullable
+  private Runnable refreshIfNeededLocked(@NonNull Entry entry) {
+    if (entry.busy
+        || isUsableLocked(entry)
+        || entry.spec == null
+        || entry.apiKey == null
+        || clockMs.getAsLong() < entry.retryAtMs) {
+      return null;
+    }
+    entry.busy = true;
+    if (entry.name != null && entry.expireAtMs > clockMs.getAsLong()) {
+      return extendTask(entry, entry.apiKey, entry.name);
+    }
+    clearLocked(entry);
+    return createTask(entry, entry.apiKey, entry.spec);
+  }
+
+  @NonNull
+  private Runnable createTask(@NonNull Entry entry, @NonNull String apiKey, @NonNull Spec spec) {
+    return () -> {
+      try {
+        RemoteCache created = backend.create(apiKey, spec);
+        Log.i(TAG, "Cache created(" + spec.displayName() + "): " + created.name);
+        onSucceeded(entry, created);
+      } catch (IOException | RuntimeException e) {
+        onFailed(entry, "Cache creation failed: " + e.getMessage());
+      }
+    };
+  }
+
+  @NonNull
+  private Runnable extendTask(@NonNull Entry entry, @NonNull String apiKey, @NonNull String name) {
+    return () -> {
+      try {
+        RemoteCache extended = backend.extend(apiKey, name, CACHE_TTL_SECONDS);
+        if (extended != null) {
+          Log.d(TAG, "Cache renewed: " + name);
+          onSucceeded(entry, extended);
+          return;
+        }
+        Log.i(TAG, "Cache gone on server, recreating: " + name);
+        Spec spec = onGone(entry, name);
+        if (spec != null) {
+          createTask(entry, apiKey, spec).run();
+        }
+      } catch (IOException | RuntimeException e) {
+        onFailed(entry, "Cache renewal failed: " + e.getMessage());
+      }
+    };
+  }
+
+  @NonNull
+  private Runnable validateTask(
+      @NonNull Entry entry, @NonNull String apiKey, @NonNull String name) {
+    return () -> {
+      try {
+        RemoteCache current = backend.get(apiKey, name);
+        if (current != null) {
+          onSucceeded(entry, current);
+          return;
+        }
+        Log.i(TAG, "Persisted cache invalid on server: " + name);
+        Spec spec = onGone(entry, name);
+        if (spec != null) {
+          createTask(entry, apiKey, spec).run();
+        }
+      } catch (IOException | RuntimeException e) {
+        // Keep trusting the persisted expiry; a request rejected with 400/404 still invalidates it.
+        Log.w(TAG, "Cache validation failed: " + name + ", " + e.getMessage());
+        onFailed(entry, "Cache validation failed: " + e.getMessage());
+      }
+    };
+  }
+
+  private void onSucceeded(@NonNull Entry entry, @NonNull RemoteCache cache) {
+    List<ReadyListener> listeners;
+    synchronized (lock) {
+      entry.busy = false;
+      entry.retryAtMs = 0L;
+      if (entries.get(entry.key) != entry) {
+        // Removed while the call was in flight.
+        return;
+      }
+      entry.name = cache.name;
+      entry.expireAtMs = cache.expireAtMs;
+      store.save(entry.key, cache);
+      listeners = new ArrayList<>(entry.listeners);
+      entry.listeners.clear();
+      onStateChangedLocked();
+    }
+    for (ReadyListener listener : listeners) {
+      listener.onReady(cache.name);
+    }
+  }
+
+  /** Clears a cache the server no longer knows and returns the spec to recreate it, if any. */
+  @Nullable
+  private Spec onGone(@NonNull Entry entry, @NonNull String name) {
+    synchronized (lock) {
+      if (name.equals(entry.name)) {
+        clearLocked(entry);
+      }
+      boolean current = entries.get(entry.key) == entry;
+      if (entry.spec == null || !current) {
+        entry.busy = false;
+        if (current) {
+          entries.remove(entry.key);
+        }
+        return null;
+      }
+      // Stay busy; the caller creates the replacement on the same worker thread.
+      return entry.spec;
+    }
+  }
+
+  private void onFailed(@NonNull Entry entry, @NonNull String error) {
+    List<ReadyListener> listeners;
+    synchronized (lock) {
+      entry.busy = false;
+      entry.retryAtMs = clockMs.getAsLong() + RETRY_DELAY_MS;
+      listeners = new ArrayList<>(entry.listeners);
+      entry.listeners.clear();
+      onStateChangedLocked();
+    }
+    Log.w(TAG, error);
+    for (ReadyListener listener : listeners) {
+      listener.onError(error);
+    }
+  }
+
+  private void clearLocked(@NonNull Entry entry) {
+    if (entry.name != null) {
+      store.remove(entry.key);
+    }
+    entry.name = null;
+    entry.expireAtMs = 0L;
+  }
+
+  private boolean isUsableLocked(@NonNull Entry entry) {
+    return entry.name != null
+        && entry.expireAtMs - clockMs.getAsLong() > MIN_USABLE_REMAINING_MS;
+  }
+
+  private boolean isIdleLocked(@NonNull Entry entry) {
+    return clockMs.getAsLong() - entry.lastAccessAtMs > IDLE_RELEASE_MS;
+  }
+
+  private void loadPersistedLocked() {
+    if (persistedLoaded) {
+      return;
+    }
+    persistedLoaded = true;
+    long now = clockMs.getAsLong();
+    for (Map.Entry<String, RemoteCache> persisted : store.loadAll().entrySet()) {
+      RemoteCache cache = persisted.getValue();
+      if (cache.expireAtMs - now <= MIN_USABLE_REMAINING_MS) {
+        store.remove(persisted.getKey());
+        continue;
+      }
+      Entry entry = new Entry(persisted.getKey());
+      entry.name = cache.name;
+      entry.expireAtMs = cache.expireAtMs;
+      entry.lastAccessAtMs = now;
+      entries.put(entry.key, entry);
+    }
+  }
+
+  private void onStateChangedLocked() {
+    if (autoRenew) {
+      ensureRenewThreadLocked();
+      lock.notifyAll();
+    }
+  }
+
+  private void ensureRenewThreadLocked() {
+    if (renewThread != null) {
+      return;
+    }
+    Thread thread = new Thread(this::renewLoop, "CachedContentRenewal");
+    thread.setDaemon(true);
+    renewThread = thread;
+    thread.start();
+  }
+
+  private void renewLoop() {
+    synchronized (lock) {
+      while (true) {
+        long waitMs = renewDueLocked();
+        try {
+          if (waitMs < 0L) {
+            lock.wait();
+          } else {
+            lock.wait(Math.max(1L, waitMs));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          renewThread = null;
+          return;
+        }
+      }
+    }
+  }
+
+  private void execute(@Nullable Runnable work) {
+    if (work != null) {
+      workerExecutor.execute(work);
+    }
+  }
+
+  private void executeAll(@NonNull List<Runnable> work) {
+    for (Runnable runnable : work) {
+      workerExecutor.execute(runnable);
+    }
+  }
+
+  @NonNull
+  static String buildKey(@NonNull String apiKey, @NonNull Spec spec) {
+    // The API key is part of the signature because caches are only visible to the project that
+    // created them.
+    return spec.modelName()
+        + "/"
+        + sha256Hex(
+            apiKey
+                + '\u0000'
+                + spec.systemPrompt()
+                + '\u0000'
+                + spec.primingUserText()
+                + '\u0000'
+                + spec.primingModelText());
+  }
+
+  @NonNull
+  static String sha256Hex(@NonNull String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte current : hash) {
+        String hex = Integer.toHexString(current & 0xff);
+        if (hex.length() == 1) {
+          builder.append('0');
+        }
+        builder.append(hex);
+      }
+      return builder.toString();
+    } catch (Exception ignored) {
+      return Integer.toHexString(value.hashCode());
+    }
+  }
+
+  @NonNull
+  private static String normalizeModelName(@Nullable String modelName) {
+    String trimmed = modelName == null ? "" : modelName.trim();
+    return trimmed.startsWith("models/") ? trimmed.substring("models/".length()) : trimmed;
+  }
+
+  @NonNull
+  private static ExecutorService createWorkerExecutor() {
+    AtomicInteger threadIndex = new AtomicInteger(0);
+    return Executors.newCachedThreadPool(
+        runnable -> {
+          Thread thread = new Thread(runnable, "GeminiCache-" + threadIndex.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static final class HttpBackend implements Backend {
+    @NonNull private final OkHttpClient client;
+
+    private HttpBackend(@NonNull OkHttpClient client) {
+      this.client = client;
+    }
+
+    @NonNull
+    @Override
+    public RemoteCache create(@NonNull String apiKey, @NonNull Spec spec) throws IOException {
+      JsonObject requestBody = new JsonObject();
+      requestBody.addProperty("model", "models/" + spec.modelName());
+
+      JsonArray contents = new JsonArray();
+      contents.add(textContent("user", spec.primingUserText()));
+      contents.add(textContent("model", spec.primingModelText()));
+      requestBody.add("contents", contents);
+
+      JsonObject sysInstruction = new JsonObject();
+      JsonArray sysParts = new JsonArray();
+      JsonObject sysPart = new JsonObject();
+      sysPart.addProperty("text", spec.systemPrompt());
+      sysParts.add(sysPart);
+      sysInstruction.add("parts", sysParts);
+      requestBody.add("systemInstruction", sysInstruction);
+
+      requestBody.addProperty("ttl", CACHE_TTL_SECONDS + "s");
+      requestBody.addProperty("displayName", spec.displayName());
+
+      Request request =
+          new Request.Builder()
+              .url(BASE_URL + "/cachedContents?key=" + apiKey)
+              .post(RequestBody.create(requestBody.toString(), JSON))
+              .build();
+      try (Response response = client.newCall(request).execute()) {
+        String body = response.body() != null ? response.body().string() : "";
+        if (!response.isSuccessful()) {
+          throw new IOException(response.code() + " " + body);
+        }
+        return parseCache(body, null);
+      }
+    }
+
+    @Nullable
+    @Override
+    public RemoteCache get(@NonNull String apiKey, @NonNull String name) throws IOException {
+      Request request =
+          new Request.Builder().url(BASE_URL + "/" + name + "?key=" + apiKey).get().build();
+      return executeForCache(request, name);
+    }
+
+    @Nullable
+    @Override
+    public RemoteCache extend(@NonNull String apiKey, @NonNull String name, int ttlSeconds)
+        throws IOException {
+      JsonObject requestBody = new JsonObject();
+      requestBody.addProperty("ttl", ttlSeconds + "s");
+      Request request =
+          new Request.Builder()
+              .url(BASE_URL + "/" + name + "?key=" + apiKey + "&updateMask=ttl")
+              .patch(RequestBody.create(requestBody.toString(), JSON))
+              .build();
+      return executeForCache(request, name);
+    }
+
+    @Override
+    public void delete(@NonNull String apiKey, @NonNull String name) throws IOException {
+      Request request =
+          new Request.Builder().url(BASE_URL + "/" + name + "?key=" + apiKey).delete().build();
+      client.newCall(request).execute().close();
+    }
+
+    @Nullable
+    private RemoteCache executeForCache(@NonNull Request request, @NonNull String name)
+        throws IOException {
+      try (Response response = client.newCall(request).execute()) {
+        // 403 is what a cache owned by another API key's project looks like.
+        if (response.code() == 404 || response.code() == 403) {
+          return null;
+        }
+        String body = response.body() != null ? response.body().string() : "";
+        if (!response.isSuccessful()) {
+          throw new IOException("Server check failed: " + response.code());
+        }
+        return parseCache(body, name);
+      }
+    }
+
+    @NonNull
+    private static RemoteCache parseCache(@NonNull String body, @Nullable String fallbackName)
+        throws IOException {
+      JsonObject result = JsonParser.parseString(body).getAsJsonObject();
+      String name = result.has("name") ? result.get("name").getAsString() : fallbackName;
+      if (name == null) {
+        throw new IOException("No name in cache response");
+      }
+      if (!result.has("expireTime")) {
+        throw new IOException("No expireTime in cache response");
+      }
+      Instant expireTime = Instant.parse(result.get("expireTime").getAsString());
+      return new RemoteCache(name, expireTime.toEpochMilli());
+    }
+
+    @NonNull
+    private static JsonObject textContent(@NonNull String role, @NonNull String text) {
+      JsonObject content = new JsonObject();
+      content.addProperty("role", role);
+      JsonArray parts = new JsonArray();
+      JsonObject part = new JsonObject();
+      part.addProperty("text", text);
+      parts.add(part);
+      content.add("parts", parts);
+      return content;
+    }
+  }
+
+  private static final class PrefsStore implements Store {
+    @NonNull private final SharedPreferences prefs;
+
+    private PrefsStore(@NonNull SharedPreferences prefs) {
+      this.prefs = prefs;
+    }
+
+    @NonNull
+    @Override
+    public Map<String, RemoteCache> loadAll() {
+      Map<String, RemoteCache> result = new HashMap<>();
+      for (Map.Entry<String, ?> pref : prefs.getAll().entrySet()) {
+        String prefKey = pref.getKey();
+        if (!prefKey.endsWith(KEY_NAME_SUFFIX) || !(pref.getValue() instanceof String)) {
+          continue;
+        }
+        String key = prefKey.substring(0, prefKey.length() - KEY_NAME_SUFFIX.length());
+        long expireAtMs = prefs.getLong(key + KEY_EXPIRE_AT_SUFFIX, 0L);
+        result.put(key, new RemoteCache((String) pref.getValue(), expireAtMs));
+      }
+      return result;
+    }
+
+    @Override
+    public void save(@NonNull String key, @NonNull RemoteCache cache) {
+      prefs
+          .edit()
+          .putString(key + KEY_NAME_SUFFIX, cache.name)
+          .putLong(key + KEY_EXPIRE_AT_SUFFIX, cache.expireAtMs)
+          .apply();
+    }
+
+    @Override
+    public void remove(@NonNull String key) {
+      prefs.edit().remove(key + KEY_NAME_SUFFIX).remove(key + KEY_EXPIRE_AT_SUFFIX).apply();
+    }
+  }
+}
@@ -3,18 +3,17 @@ package com.jjundev.oneclickeng.manager_gemini;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import androidx.annotation.NonNull;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IExtraQuestionManager;
-import java.util.concurrent.TimeUnit;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okio.BufferedSource;
 
 /** Gemini 추가 질문 처리 매니저 피드백 결과에 대한 사용자의 추가 질문을 처리합니다. */
 public class ExtraQuestionManager
@@ -30,11 +29,7 @@ public class ExtraQuestionManager
   private final Gson gson;
 
   private static final OkHttpClient streamingClient =
-      new OkHttpClient.Builder()
-          .connectTimeout(30, TimeUnit.SECONDS)
-          .readTimeout(0, TimeUnit.SECONDS) // 스트리밍을 위해 타임아웃 무제한
-          .writeTimeout(30, TimeUnit.SECONDS)
-          .build();
+      GeminiTransport.getInstance().streamingClient();
 
   public ExtraQuestionManager(String apiKey, String modelName) {
     this.apiKey = normalizeOrDefault(apiKey, "");
@@ -51,14 +46,20 @@ public class ExtraQuestionManager
    * @param userQuestion 사용자의 추가 질문
    * @param callback 스트리밍 응답 콜백
    */
+  @NonNull
   @Override
-  public void askExtraQuestionStreaming(
+  public RequestHandle askExtraQuestionStreaming(
       String originalSentence,
       String userSentence,
       String userQuestion,
       IExtraQuestionManager.StreamingResponseCallback callback) {
-    new Thread(
-            () -> {
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.NORMAL,
+            GeminiRequestScheduler.estimateTextTokens(originalSentence, userSentence, userQuestion),
+            0L,
+            handle -> {
               try {
                 JsonObject requestBody = new JsonObject();
                 JsonArray contents = new JsonArray();
@@ -109,7 +110,11 @@ public class ExtraQuestionManager
                         .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
                         .build();
 
-                try (Response response = streamingClient.newCall(request).execute()) {
+                try (Response response =
+                    GeminiTransport.execute(streamingClient, request, handle)) {
+                  if (response == null) {
+                    return;
+                  }
                   if (!response.isSuccessful()) {
                     String responseBody = response.body() != null ? response.body().string() : "";
                     Log.e(
@@ -118,39 +123,27 @@ public class ExtraQuestionManager
                     return;
                   }
 
-                  BufferedSource source = response.body().source();
-                  while (!source.exhausted()) {
-                    String line = source.readUtf8Line();
-                    if (line != null && line.startsWith("data: ")) {
-                      String json = line.substring(6).trim();
-                      if (json.equals("[DONE]")) break;
-
-                      try {
-                        JsonObject root = JsonParser.parseString(json).getAsJsonObject();
-                        JsonArray candidates = root.getAsJsonArray("candidates");
-                        if (candidates != null && candidates.size() > 0) {
-                          JsonObject content =
-                              candidates.get(0).getAsJsonObject().getAsJsonObject("content");
-                          JsonArray partsArr = content.getAsJsonArray("parts");
-                          if (partsArr != null && partsArr.size() > 0) {
-                            String text =
-                                partsArr.get(0).getAsJsonObject().get("text").getAsString();
-                            mainHandler.post(() -> callback.onTextChunk(text));
-                          }
-                        }
-                      } catch (Exception e) {
-                        // 개별 청크 파싱 에러는 무시
-                      }
-                    }
+                  // 파싱에 실패한 개별 청크는 GeminiSseReader가 건너뛴다
+                  GeminiSseReader sseReader = new GeminiSseReader(response.body().source());
+                  String text;
+                  while (!handle.isCancelled() && (text = sseReader.nextText()) != null) {
+                    handle.recordOutputTokens(GeminiRequestScheduler.estimateOutputTokens(text));
+                    String chunk = text;
+                    mainHandler.post(() -> callback.onTextChunk(chunk));
+                  }
+                  if (handle.isCancelled()) {
+                    return;
                   }
                   mainHandler.post(callback::onComplete);
                 }
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 Log.e(TAG, "Streaming error", e);
                 mainHandler.post(() -> callback.onError("Error: " + e.getMessage()));
               }
-            })
-        .start();
+            });
   }
 
   private static String normalizeOrDefault(String value, String defaultValue) {
@@ -0,0 +1,171 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded directory holding one file per key, shared by the on-disk Gemini caches.
+ *
+ * <p>Entries are written to a temp file and renamed into place, so a crash never leaves a truncated
+ * entry behind. Recency survives restarts through the file modification time, and the least
+ * recently used files are deleted once the total size exceeds the limit. The caches only decide
+ * what goes in a file. Thread-safe; all methods do disk I/O, so call them off the main thread.
+ */
+final class FileLruCache {
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  interface EntryReader<T> {
+    /** Decodes an entry; throwing drops it from the cache. */
+    @NonNull
+    T read(@NonNull File file) throws IOException;
+  }
+
+  interface EntryWriter {
+    void write(@NonNull OutputStream out) throws IOException;
+  }
+
+  private final String tag;
+  private final File directory;
+  private final long maxBytes;
+  private final LongSupplier clockMs;
+  private final Object lock = new Object();
+  // Access-ordered: iteration starts at the least recently used key. Values are file sizes.
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes;
+  private boolean loaded;
+
+  FileLruCache(
+      @NonNull String tag, @NonNull File directory, long maxBytes, @NonNull LongSupplier clockMs) {
+    this.tag = tag;
+    this.directory = directory;
+    this.maxBytes = maxBytes;
+    this.clockMs = clockMs;
+  }
+
+  /**
+   * Reads an entry and marks it as recently used. Returns {@code null} on a miss, including when
+   * the reader rejects the file, in which case the entry is deleted.
+   */
+  @Nullable
+  <T> T get(@NonNull String key, @NonNull EntryReader<T> reader) {
+    synchronized (lock) {
+      loadLocked();
+      if (entries.get(key) == null) { // get(), not containsKey(), updates the access order
+        return null;
+      }
+      File file = new File(directory, key);
+      T value;
+      try {
+        value = reader.read(file);
+      } catch (IOException e) {
+        Log.w(tag, "Dropping unreadable entry " + key, e);
+        removeLocked(key);
+        return null;
+      }
+      if (!file.setLastModified(clockMs.getAsLong())) {
+        Log.w(tag, "Failed to touch " + key);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Writes an entry of {@code sizeBytes}, replacing any previous value, then evicts down to the
+   * size limit. An entry larger than the whole limit is not stored.
+   */
+  void put(@NonNull String key, long sizeBytes, @NonNull EntryWriter writer) {
+    if (sizeBytes > maxBytes) {
+      return;
+    }
+    synchronized (lock) {
+      loadLocked();
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        Log.w(tag, "Cannot create " + directory);
+        return;
+      }
+      File temp = new File(directory, key + TEMP_SUFFIX);
+      File file = new File(directory, key);
+      try (OutputStream out = new FileOutputStream(temp)) {
+        writer.write(out);
+      } catch (IOException e) {
+        Log.w(tag, "Failed to write " + key, e);
+        temp.delete();
+        return;
+      }
+      if (!temp.renameTo(file)) {
+        Log.w(tag, "Failed to commit " + key);
+        temp.delete();
+        return;
+      }
+      file.setLastModified(clockMs.getAsLong());
+      Long previous = entries.put(key, file.length());
+      totalBytes += file.length() - (previous != null ? previous : 0L);
+      trimLocked();
+    }
+  }
+
+  /** Current total size of all entries in bytes. */
+  long sizeBytes() {
+    synchronized (lock) {
+      loadLocked();
+      return totalBytes;
+    }
+  }
+
+  int entryCount() {
+    synchronized (lock) {
+      loadLocked();
+      return entries.size();
+    }
+  }
+
+  private void loadLocked() {
+    if (loaded) {
+      return;
+    }
+    loaded = true;
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+    for (File file : files) {
+      if (file.getName().endsWith(TEMP_SUFFIX)) {
+        file.delete();
+        continue;
+      }
+      entries.put(file.getName(), file.length());
+      totalBytes += file.length();
+    }
+    trimLocked();
+  }
+
+  private void trimLocked() {
+    Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+    while (totalBytes > maxBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      new File(directory, eldest.getKey()).delete();
+      totalBytes -= eldest.getValue();
+      iterator.remove();
+    }
+  }
+
+  private void removeLocked(@NonNull String key) {
+    Long size = entries.remove(key);
+    if (size != null) {
+      totalBytes -= size;
+    }
+    new File(directory, key).delete();
+  }
+}
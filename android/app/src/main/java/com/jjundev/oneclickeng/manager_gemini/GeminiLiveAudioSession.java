@@ -0,0 +1,461 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
+import com.jjundev.oneclickeng.tool.FlacEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * One Gemini Live (BidiGenerateContent) session that analyzes an utterance while it is recorded.
+ *
+ * <p>The socket is opened when recording starts. Audio chunks are queued until the server
+ * acknowledges the setup message and are then sent as realtime input between an explicit
+ * activityStart and activityEnd, so the model has already consumed the audio by the time the user
+ * stops. Model text is collected until {@code turnComplete} and parsed into {@link
+ * FluencyFeedback}. If the socket fails, {@link #finish} hands the recording to the regular
+ * generateContent path instead. The same happens when the result has not arrived {@link
+ * #FINISH_TIMEOUT_MS} after the utterance ended, or when the server has not acknowledged setup
+ * before {@link #MAX_PENDING_AUDIO_BYTES} of audio piled up. With a {@link FlacEncoder}, appended
+ * audio is also encoded as it arrives, so that fallback can upload FLAC without encoding the take
+ * after recording stops.
+ */
+final class GeminiLiveAudioSession implements ISpeakingFeedbackManager.AudioStream {
+  private static final String TAG = "GeminiLiveAudioSession";
+  static final String AUDIO_MIME_TYPE = "audio/pcm;rate=16000";
+  private static final int NORMAL_CLOSURE = 1000;
+  // How long to wait for setupComplete and turnComplete once recording has stopped.
+  static final long FINISH_TIMEOUT_MS = 15_000L;
+  // Ten seconds of 16 kHz PCM16; beyond that the fallback is cheaper than replaying the backlog.
+  static final int MAX_PENDING_AUDIO_BYTES = 320_000;
+
+  @NonNull
+  private static final ScheduledExecutorService timeoutExecutor =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "GeminiLiveTimeout");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  /** Analyzes a complete recording when the live session cannot. */
+  interface Fallback {
+    /**
+     * @param flacAudio {@code recordedAudio} already encoded as FLAC, or null to upload it as is
+     */
+    @NonNull
+    RequestHandle analyze(
+        @NonNull byte[] recordedAudio,
+        @Nullable byte[] flacAudio,
+        @NonNull ISpeakingFeedbackManager.AnalysisCallback callback);
+  }
+
+  /** Runs delayed work such as the finish timeout. */
+  interface Timer {
+    /** @return cancels {@code task} if it has not run yet */
+    @NonNull
+    Runnable schedule(@NonNull Runnable task, long delayMs);
+  }
+
+  private static final Timer DEFAULT_TIMER =
+      (task, delayMs) -> {
+        ScheduledFuture<?> future = timeoutExecutor.schedule(task, delayMs, TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+      };
+
+  private final Object lock = new Object();
+  @NonNull private final WebSocket.Factory socketFactory;
+  @NonNull private final Request request;
+  @NonNull private final String setupMessage;
+  @NonNull private final Executor callbackExecutor;
+  @NonNull private final Fallback fallback;
+  @Nullable private final FlacEncoder flacEncoder;
+  @NonNull private final Timer timer;
+  @NonNull private final RequestHandle handle = new RequestHandle();
+  // Messages sent before setupComplete; the server rejects input that precedes it.
+  @NonNull private final List<String> pendingMessages = new ArrayList<>();
+  private int pendingAudioBytes;
+  @NonNull private final StringBuilder modelText = new StringBuilder();
+
+  @Nullable private WebSocket socket;
+  private boolean setupComplete;
+  private boolean failed;
+  private boolean done;
+  @Nullable private ISpeakingFeedbackManager.AnalysisCallback callback;
+  @Nullable private byte[] recordedAudio;
+  private int recordedAudioOffset;
+  @Nullable private Runnable cancelTimeout;
+
+  GeminiLiveAudioSession(
+      @NonNull WebSocket.Factory socketFactory,
+      @NonNull String url,
+      @NonNull String setupMessage,
+      @NonNull Executor callbackExecutor,
+      @NonNull Fallback fallback) {
+    this(socketFactory, url, setupMessage, callbackExecutor, fallback, null);
+  }
+
+  GeminiLiveAudioSession(
+      @NonNull WebSocket.Factory socketFactory,
+      @NonNull String url,
+      @NonNull String setupMessage,
+      @NonNull Executor callbackExecutor,
+      @NonNull Fallback fallback,
+      @Nullable FlacEncoder flacEncoder) {
+    this(socketFactory, url, setupMessage, callbackExecutor, fallback, flacEncoder, DEFAULT_TIMER);
+  }
+
+  GeminiLiveAudioSession(
+      @NonNull WebSocket.Factory socketFactory,
+      @NonNull String url,
+      @NonNull String setupMessage,
+      @NonNull Executor callbackExecutor,
+      @NonNull Fallback fallback,
+      @Nullable FlacEncoder flacEncoder,
+      @NonNull Timer timer) {
+    this.socketFactory = socketFactory;
+    this.request = new Request.Builder().url(url).build();
+    this.setupMessage = setupMessage;
+    this.callbackExecutor = callbackExecutor;
+    this.fallback = fallback;
+    this.flacEncoder = flacEncoder;
+    this.timer = timer;
+  }
+
+  /** Connects and sends the setup message; audio may be appended right away. */
+  void open() {
+    WebSocket webSocket = socketFactory.newWebSocket(request, new Listener());
+    synchronized (lock) {
+      socket = webSocket;
+      pendingMessages.add(buildActivityMessage("activityStart"));
+    }
+    if (!handle.onStarted(webSocket::cancel)) {
+      return;
+    }
+    // OkHttp queues this until the handshake completes.
+    webSocket.send(setupMessage);
+  }
+
+  @Override
+  public void appendAudio(@NonNull byte[] buffer, int offset, int length) {
+    if (length <= 0) {
+      return;
+    }
+    if (flacEncoder != null) {
+      flacEncoder.write(buffer, offset, length);
+    }
+    if (!send(buildAudioMessage(buffer, offset, length), length)) {
+      fail("setup not acknowledged after " + MAX_PENDING_AUDIO_BYTES + " bytes of audio");
+    }
+  }
+
+  @NonNull
+  @Override
+  public RequestHandle finish(
+      @NonNull byte[] recordedAudio,
+      int streamOffsetBytes,
+      @NonNull ISpeakingFeedbackManager.AnalysisCallback callback) {
+    boolean useFallback;
+    synchronized (lock) {
+      if (this.callback != null || handle.isCancelled()) {
+        return handle;
+      }
+      this.callback = callback;
+      this.recordedAudio = recordedAudio;
+      this.recordedAudioOffset = Math.max(0, streamOffsetBytes);
+      useFallback = failed;
+    }
+    handle.expect(
+        recordedAudio.length * 4L / 3L,
+        GeminiRequestScheduler.estimateAudioTokens(recordedAudio.length)
+            + GeminiRequestScheduler.DEFAULT_OUTPUT_TOKEN_ESTIMATE,
+        GeminiRequestScheduler.DEFAULT_OUTPUT_TOKEN_ESTIMATE);
+    if (useFallback) {
+      return runFallback(recordedAudio, recordedAudioOffset, callback);
+    }
+    Runnable cancel =
+        timer.schedule(
+            () -> fail("no result " + FINISH_TIMEOUT_MS + " ms after the utterance ended"),
+            FINISH_TIMEOUT_MS);
+    synchronized (lock) {
+      cancelTimeout = cancel;
+    }
+    send(buildActivityMessage("activityEnd"), 0);
+    return handle;
+  }
+
+  @Override
+  public void cancel() {
+    handle.cancel();
+    cancelTimeout();
+  }
+
+  /**
+   * @param audioBytes PCM bytes carried by {@code message}, counted against the pre-setup cap
+   * @return false if the message was dropped because the pre-setup cap was reached
+   */
+  private boolean send(@NonNull String message, int audioBytes) {
+    WebSocket webSocket;
+    synchronized (lock) {
+      if (failed || done) {
+        return true;
+      }
+      if (!setupComplete) {
+        if (pendingAudioBytes + audioBytes > MAX_PENDING_AUDIO_BYTES) {
+          return false;
+        }
+        pendingAudioBytes += audioBytes;
+        pendingMessages.add(message);
+        return true;
+      }
+      webSocket = socket;
+    }
+    if (webSocket != null) {
+      webSocket.send(message);
+    }
+    return true;
+  }
+
+  private void cancelTimeout() {
+    Runnable cancel;
+    synchronized (lock) {
+      cancel = cancelTimeout;
+      cancelTimeout = null;
+    }
+    if (cancel != null) {
+      cancel.run();
+    }
+  }
+
+  private void onServerMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+    JsonObject message;
+    try {
+      message = JsonParser.parseString(text).getAsJsonObject();
+    } catch (RuntimeException e) {
+      Log.w(TAG, "Ignoring unreadable live message: " + e.getMessage());
+      return;
+    }
+    if (message.has("setupComplete")) {
+      flushPending(webSocket);
+      return;
+    }
+    JsonObject serverContent = asObject(message.get("serverContent"));
+    if (serverContent == null) {
+      return;
+    }
+    JsonObject modelTurn = asObject(serverContent.get("modelTurn"));
+    if (modelTurn != null) {
+      appendModelText(modelTurn);
+    }
+    JsonElement turnComplete = serverContent.get("turnComplete");
+    if (turnComplete != null && turnComplete.isJsonPrimitive() && turnComplete.getAsBoolean()) {
+      complete(webSocket);
+    }
+  }
+
+  private void flushPending(@NonNull WebSocket webSocket) {
+    List<String> messages;
+    synchronized (lock) {
+      setupComplete = true;
+      messages = new ArrayList<>(pendingMessages);
+      pendingMessages.clear();
+      pendingAudioBytes = 0;
+    }
+    for (String message : messages) {
+      webSocket.send(message);
+    }
+  }
+
+  private void appendModelText(@NonNull JsonObject modelTurn) {
+    JsonElement parts = modelTurn.get("parts");
+    if (parts == null || !parts.isJsonArray()) {
+      return;
+    }
+    for (JsonElement part : parts.getAsJsonArray()) {
+      JsonObject partObject = asObject(part);
+      JsonElement text = partObject == null ? null : partObject.get("text");
+      if (text != null && text.isJsonPrimitive()) {
+        String chunk = text.getAsString();
+        handle.recordOutputTokens(GeminiRequestScheduler.estimateOutputTokens(chunk));
+        synchronized (lock) {
+          modelText.append(chunk);
+        }
+      }
+    }
+  }
+
+  private void complete(@NonNull WebSocket webSocket) {
+    ISpeakingFeedbackManager.AnalysisCallback target;
+    String text;
+    synchronized (lock) {
+      target = callback;
+      if (done || target == null) {
+        // With activity detection disabled the model only answers after activityEnd.
+        modelText.setLength(0);
+        return;
+      }
+      done = true;
+      text = modelText.toString();
+    }
+    cancelTimeout();
+    handle.finish();
+    webSocket.close(NORMAL_CLOSURE, null);
+    try {
+      FluencyFeedback feedback = SpeakingFeedbackManager.parseFluencyText(text);
+      callbackExecutor.execute(() -> target.onSuccess(feedback));
+    } catch (RuntimeException e) {
+      Log.e(TAG, "Failed to parse live result: " + text, e);
+      callbackExecutor.execute(() -> target.onError("Failed to parse result: " + e.getMessage()));
+    }
+  }
+
+  private void fail(@NonNull String reason) {
+    ISpeakingFeedbackManager.AnalysisCallback target;
+    byte[] audio;
+    int audioOffset;
+    WebSocket webSocket;
+    synchronized (lock) {
+      if (failed || done || handle.isCancelled()) {
+        return;
+      }
+      failed = true;
+      pendingMessages.clear();
+      pendingAudioBytes = 0;
+      target = callback;
+      audio = recordedAudio;
+      audioOffset = recordedAudioOffset;
+      webSocket = socket;
+    }
+    cancelTimeout();
+    Log.w(TAG, "Live session failed: " + reason);
+    if (webSocket != null) {
+      webSocket.cancel();
+    }
+    if (target != null && audio != null) {
+      runFallback(audio, audioOffset, target);
+    }
+  }
+
+  @NonNull
+  private RequestHandle runFallback(
+      @NonNull byte[] audio,
+      int streamOffsetBytes,
+      @NonNull ISpeakingFeedbackManager.AnalysisCallback target) {
+    // Only the blocks at the edges of the take still need encoding.
+    byte[] flac =
+        flacEncoder == null
+            ? null
+            : flacEncoder.encodeTake(streamOffsetBytes / 2, audio, 0, audio.length);
+    RequestHandle fallbackHandle = fallback.analyze(audio, flac, target);
+    handle.onStarted(fallbackHandle::cancel);
+    return handle;
+  }
+
+  @NonNull
+  static String buildAudioMessage(@NonNull byte[] buffer, int offset, int length) {
+    ByteBuffer encoded = Base64.getEncoder().encode(ByteBuffer.wrap(buffer, offset, length));
+    JsonObject audio = new JsonObject();
+    audio.addProperty("mimeType", AUDIO_MIME_TYPE);
+    audio.addProperty(
+        "data",
+        new String(
+            encoded.array(), encoded.arrayOffset(), encoded.remaining(), StandardCharsets.US_ASCII));
+    JsonObject realtimeInput = new JsonObject();
+    realtimeInput.add("audio", audio);
+    JsonObject root = new JsonObject();
+    root.add("realtimeInput", realtimeInput);
+    return root.toString();
+  }
+
+  @NonNull
+  private static String buildActivityMessage(@NonNull String activity) {
+    JsonObject realtimeInput = new JsonObject();
+    realtimeInput.add(activity, new JsonObject());
+    JsonObject root = new JsonObject();
+    root.add("realtimeInput", realtimeInput);
+    return root.toString();
+  }
+
+  /**
+   * Builds the first message of a session: model, text-only responses, the analysis instructions
+   * and manual activity detection so the turn ends exactly when recording stops.
+   */
+  @NonNull
+  static String buildSetupMessage(@NonNull String modelName, @NonNull String systemPrompt) {
+    JsonObject generationConfig = new JsonObject();
+    JsonArray modalities = new JsonArray();
+    modalities.add("TEXT");
+    generationConfig.add("responseModalities", modalities);
+
+    JsonObject promptPart = new JsonObject();
+    promptPart.addProperty("text", systemPrompt);
+    JsonArray promptParts = new JsonArray();
+    promptParts.add(promptPart);
+    JsonObject systemInstruction = new JsonObject();
+    systemInstruction.add("parts", promptParts);
+
+    JsonObject activityDetection = new JsonObject();
+    activityDetection.addProperty("disabled", true);
+    JsonObject realtimeInputConfig = new JsonObject();
+    realtimeInputConfig.add("automaticActivityDetection", activityDetection);
+
+    JsonObject setup = new JsonObject();
+    setup.addProperty("model", "models/" + modelName);
+    setup.add("generationConfig", generationConfig);
+    setup.add("systemInstruction", systemInstruction);
+    setup.add("realtimeInputConfig", realtimeInputConfig);
+    JsonObject root = new JsonObject();
+    root.add("setup", setup);
+    return root.toString();
+  }
+
+  @Nullable
+  private static JsonObject asObject(@Nullable JsonElement element) {
+    return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+  }
+
+  private final class Listener extends WebSocketListener {
+    @Override
+    public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
+      onServerMessage(webSocket, text);
+    }
+
+    @Override
+    public void onMessage(@NonNull WebSocket webSocket, @NonNull okio.ByteString bytes) {
+      // The Live API may deliver JSON as binary frames.
+      onServerMessage(webSocket, bytes.utf8());
+    }
+
+    @Override
+    public void onClosing(@NonNull WebSocket webSocket, int code, @NonNull String reason) {
+      fail("closed by server: " + code + " " + reason);
+      webSocket.close(NORMAL_CLOSURE, null);
+    }
+
+    @Override
+    public void onFailure(
+        @NonNull WebSocket webSocket, @NonNull Throwable t, @Nullable Response response) {
+      fail(t.getMessage() == null ? t.getClass().getSimpleName() : t.getMessage());
+    }
+  }
+}
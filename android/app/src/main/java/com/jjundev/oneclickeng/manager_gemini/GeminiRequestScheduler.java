@@ -0,0 +1,526 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.settings.AppSettings;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-wide queue in front of every Gemini generate call.
+ *
+ * <p>Requests are started in priority order and only when the per-model RPM/TPM token buckets have
+ * room, so a burst of speaking analysis, sentence feedback, extra questions and summary extraction
+ * no longer races into 429s. Features that use the same model share one bucket, sized from {@link
+ * #MODEL_LIMITS}. Requests that are still waiting can be dropped through their handle once the
+ * caller no longer needs the result.
+ */
+public final class GeminiRequestScheduler {
+  private static final String TAG = "GeminiRequestScheduler";
+
+  static final int DEFAULT_REQUESTS_PER_MINUTE = 60;
+  static final int DEFAULT_TOKENS_PER_MINUTE = 1_000_000;
+
+  /**
+   * Per-minute quotas by model family, matched as a substring of the model name in this order so
+   * that "flash-lite" and "tts" win over "flash". Models matching none use the defaults above.
+   */
+  static final Map<String, RateLimit> MODEL_LIMITS = createModelLimits();
+  static final int MAX_CONCURRENT_REQUESTS = 6;
+  static final int MAX_CONCURRENT_BACKGROUND_REQUESTS = 2;
+
+  // Gemini bills roughly 32 tokens per second of audio; 16 kHz mono PCM16 is 32000 bytes/s.
+  private static final int PCM_BYTES_PER_AUDIO_TOKEN = 1000;
+  private static final int CHARS_PER_TOKEN = 4;
+  static final int DEFAULT_OUTPUT_TOKEN_ESTIMATE = 1024;
+
+  public enum Priority {
+    /** The user is waiting on screen for this result (speaking, sentence feedback, TTS). */
+    INTERACTIVE,
+    /** User initiated but not blocking the current turn (extra questions, script generation). */
+    NORMAL,
+    /** Work the user has not asked for yet (summary extraction, quiz prefetch). */
+    BACKGROUND
+  }
+
+  /** Requests and tokens a model may use per minute. */
+  static final class RateLimit {
+    final int requestsPerMinute;
+    final int tokensPerMinute;
+
+    RateLimit(int requestsPerMinute, int tokensPerMinute) {
+      this.requestsPerMinute = requestsPerMinute;
+      this.tokensPerMinute = tokensPerMinute;
+    }
+  }
+
+  /** Handle for a submitted request. Cancelling only affects requests that have not started. */
+  public static final class ScheduledRequest {
+    @NonNull private final GeminiRequestScheduler owner;
+    @NonNull private final String modelName;
+    @NonNull private final Priority priority;
+    private final int estimatedTokens;
+    private final long sequence;
+    @NonNull private final Runnable task;
+    private boolean started;
+    private boolean cancelled;
+
+    private ScheduledRequest(
+        @NonNull GeminiRequestScheduler owner,
+        @NonNull String modelName,
+        @NonNull Priority priority,
+        int estimatedTokens,
+        long sequence,
+        @NonNull Runnable task) {
+      this.owner = owner;
+      this.modelName = modelName;
+      this.priority = priority;
+      this.estimatedTokens = estimatedTokens;
+      this.sequence = sequence;
+      this.task = task;
+    }
+
+    /** Returns true if the request was still queued and will never run. */
+    public boolean cancel() {
+      return owner.cancel(this);
+    }
+
+    public boolean isCancelled() {
+      synchronized (owner.lock) {
+        return cancelled;
+      }
+    }
+
+    public boolean isStarted() {
+      synchronized (owner.lock) {
+        return started;
+      }
+    }
+  }
+
+  @Nullable private static volatile GeminiRequestScheduler instance;
+
+  private final Object lock = new Object();
+  private final List<ScheduledRequest> queue = new ArrayList<>();
+  private final Map<String, ModelLimiter> limiters = new HashMap<>();
+  @NonNull private final Executor workerExecutor;
+  @NonNull private final LongSupplier clockMs;
+  private final boolean autoDispatch;
+  @NonNull private final Map<String, RateLimit> modelLimits;
+  @NonNull private final RateLimit defaultLimit;
+  private long sequence;
+  private int runningCount;
+  private int runningBackgroundCount;
+  @Nullable private Thread dispatchThread;
+
+  @NonNull
+  public static GeminiRequestScheduler getInstance() {
+    GeminiRequestScheduler existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (GeminiRequestScheduler.class) {
+      if (instance == null) {
+        instance =
+            new GeminiRequestScheduler(
+                createWorkerExecutor(), () -> System.nanoTime() / 1_000_000L, true);
+      }
+      return instance;
+    }
+  }
+
+  GeminiRequestScheduler(
+      @NonNull Executor workerExecutor, @NonNull LongSupplier clockMs, boolean autoDispatch) {
+    this(
+        workerExecutor,
+        clockMs,
+        autoDispatch,
+        MODEL_LIMITS,
+        new RateLimit(DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_TOKENS_PER_MINUTE));
+  }
+
+  /** Applies the same limits to every model. */
+  GeminiRequestScheduler(
+      @NonNull Executor workerExecutor,
+      @NonNull LongSupplier clockMs,
+      boolean autoDispatch,
+      int requestsPerMinute,
+      int tokensPerMinute) {
+    this(
+        workerExecutor,
+        clockMs,
+        autoDispatch,
+        Collections.emptyMap(),
+        new RateLimit(requestsPerMinute, tokensPerMinute));
+  }
+
+  GeminiRequestScheduler(
+      @NonNull Executor workerExecutor,
+      @NonNull LongSupplier clockMs,
+      boolean autoDispatch,
+      @NonNull Map<String, RateLimit> modelLimits,
+      @NonNull RateLimit defaultLimit) {
+    this.workerExecutor = workerExecutor;
+    this.clockMs = clockMs;
+    this.autoDispatch = autoDispatch;
+    this.modelLimits = modelLimits;
+    this.defaultLimit = defaultLimit;
+  }
+
+  /** Creates the buckets for every model configured in settings up front. */
+  public void registerModels(@NonNull AppSettings settings) {
+    synchronized (lock) {
+      limiterForLocked(settings.getLlmModelSentence());
+      limiterForLocked(settings.getLlmModelSpeaking());
+      limiterForLocked(settings.getLlmModelScript());
+      limiterForLocked(settings.getLlmModelSummary());
+      limiterForLocked(settings.getLlmModelExtra());
+      Log.d(TAG, "Registered rate limits for models: " + limiters.keySet());
+    }
+  }
+
+  /**
+   * Queues {@code task} to run on a worker thread once the model's rate limits allow it.
+   *
+   * @param estimatedTokens input plus expected output tokens charged against the TPM bucket
+   */
+  @NonNull
+  public ScheduledRequest submit(
+      @NonNull String modelName,
+      @NonNull Priority priority,
+      int estimatedTokens,
+      @NonNull Runnable task) {
+    synchronized (lock) {
+      ScheduledRequest request =
+          new ScheduledRequest(
+              this,
+              normalizeModelName(modelName),
+              priority,
+              Math.max(1, estimatedTokens),
+              sequence++,
+              task);
+      insertLocked(request);
+      if (autoDispatch) {
+        ensureDispatchThreadLocked();
+        lock.notifyAll();
+      }
+      return request;
+    }
+  }
+
+  /**
+   * Like {@link #submit(String, Priority, int, Runnable)}, but returns a {@link
+   * RequestHandle} that drops the request while queued and is handed to {@code task} so the call it
+   * makes can be aborted too. The task is skipped if the handle is cancelled before it starts.
+   *
+   * @param uploadBytes payload size recorded on the handle for savings metrics
+   */
+  @NonNull
+  public RequestHandle submit(
+      @NonNull String modelName,
+      @NonNull Priority priority,
+      int estimatedTokens,
+      long uploadBytes,
+      @NonNull Consumer<RequestHandle> task) {
+    RequestHandle handle = new RequestHandle();
+    handle.expect(uploadBytes, estimatedTokens, DEFAULT_OUTPUT_TOKEN_ESTIMATE);
+    ScheduledRequest request =
+        submit(
+            modelName,
+            priority,
+            estimatedTokens,
+            () -> {
+              if (handle.isCancelled()) {
+                return;
+              }
+              try {
+                task.accept(handle);
+              } finally {
+                handle.finish();
+              }
+            });
+    handle.onQueued(request::cancel);
+    return handle;
+  }
+
+  int queuedCount() {
+    synchronized (lock) {
+      return queue.size();
+    }
+  }
+
+  /**
+   * Starts every queued request that is allowed to run now.
+   *
+   * @return milliseconds until a rate-limited request may become runnable, or -1 if nothing is
+   *     waiting on a bucket
+   */
+  long dispatchPending() {
+    synchronized (lock) {
+      return dispatchPendingLocked();
+    }
+  }
+
+  private long dispatchPendingLocked() {
+    long now = clockMs.getAsLong();
+    long nextWaitMs = -1L;
+    Set<String> blockedModels = new HashSet<>();
+    Iterator<ScheduledRequest> iterator = queue.iterator();
+    while (iterator.hasNext() && runningCount < MAX_CONCURRENT_REQUESTS) {
+      ScheduledRequest request = iterator.next();
+      if (request.priority == Priority.BACKGROUND
+          && runningBackgroundCount >= MAX_CONCURRENT_BACKGROUND_REQUESTS) {
+        continue;
+      }
+      // Lower-priority work must not slip past a blocked request for the same model.
+      if (blockedModels.contains(request.modelName)) {
+        continue;
+      }
+      long waitMs = limiterForLocked(request.modelName).tryAcquire(request.estimatedTokens, now);
+      if (waitMs > 0L) {
+        blockedModels.add(request.modelName);
+        nextWaitMs = nextWaitMs < 0L ? waitMs : Math.min(nextWaitMs, waitMs);
+        continue;
+      }
+      iterator.remove();
+      startLocked(request);
+    }
+    return nextWaitMs;
+  }
+
+  private void startLocked(@NonNull ScheduledRequest request) {
+    request.started = true;
+    runningCount++;
+    if (request.priority == Priority.BACKGROUND) {
+      runningBackgroundCount++;
+    }
+    workerExecutor.execute(
+        () -> {
+          try {
+            request.task.run();
+          } catch (RuntimeException e) {
+            Log.e(TAG, "Scheduled request failed: model=" + request.modelName, e);
+          } finally {
+            onFinished(request);
+          }
+        });
+  }
+
+  private void onFinished(@NonNull ScheduledRequest request) {
+    synchronized (lock) {
+      runningCount--;
+      if (request.priority == Priority.BACKGROUND) {
+        runningBackgroundCount--;
+      }
+      lock.notifyAll();
+    }
+  }
+
+  private boolean cancel(@NonNull ScheduledRequest request) {
+    synchronized (lock) {
+      if (request.started || request.cancelled) {
+        return false;
+      }
+      request.cancelled = true;
+      queue.remove(request);
+      lock.notifyAll();
+      return true;
+    }
+  }
+
+  private void insertLocked(@NonNull ScheduledRequest request) {
+    int index = queue.size();
+    while (index > 0 && comesBefore(request, queue.get(index - 1))) {
+      index--;
+    }
+    queue.add(index, request);
+  }
+
+  private static boolean comesBefore(@NonNull ScheduledRequest a, @NonNull ScheduledRequest b) {
+    if (a.priority != b.priority) {
+      return a.priority.ordinal() < b.priority.ordinal();
+    }
+    return a.sequence < b.sequence;
+  }
+
+  private void ensureDispatchThreadLocked() {
+    if (dispatchThread != null) {
+      return;
+    }
+    Thread thread = new Thread(this::dispatchLoop, "GeminiRequestScheduler");
+    thread.setDaemon(true);
+    dispatchThread = thread;
+    thread.start();
+  }
+
+  private void dispatchLoop() {
+    synchronized (lock) {
+      while (true) {
+        long waitMs = dispatchPendingLocked();
+        try {
+          if (waitMs < 0L) {
+            lock.wait();
+          } else {
+            lock.wait(Math.max(1L, waitMs));
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          dispatchThread = null;
+          return;
+        }
+      }
+    }
+  }
+
+  @NonNull
+  private ModelLimiter limiterForLocked(@NonNull String modelName) {
+    String key = normalizeModelName(modelName);
+    ModelLimiter limiter = limiters.get(key);
+    if (limiter == null) {
+      long now = clockMs.getAsLong();
+      RateLimit limit = limitFor(key);
+      limiter =
+          new ModelLimiter(
+              new TokenBucket(limit.requestsPerMinute, now),
+              new TokenBucket(limit.tokensPerMinute, now));
+      limiters.put(key, limiter);
+    }
+    return limiter;
+  }
+
+  @NonNull
+  RateLimit limitFor(@NonNull String modelName) {
+    for (Map.Entry<String, RateLimit> entry : modelLimits.entrySet()) {
+      if (modelName.contains(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return defaultLimit;
+  }
+
+  @NonNull
+  private static Map<String, RateLimit> createModelLimits() {
+    // Paid tier 1 quotas, rounded down.
+    Map<String, RateLimit> limits = new LinkedHashMap<>();
+    limits.put("-tts", new RateLimit(10, 10_000));
+    limits.put("flash-lite", new RateLimit(4_000, 4_000_000));
+    limits.put("flash", new RateLimit(1_000, 1_000_000));
+    limits.put("pro", new RateLimit(150, 2_000_000));
+    return Collections.unmodifiableMap(limits);
+  }
+
+  @NonNull
+  private static String normalizeModelName(@Nullable String modelName) {
+    String trimmed = modelName == null ? "" : modelName.trim();
+    return trimmed.startsWith("models/") ? trimmed.substring("models/".length()) : trimmed;
+  }
+
+  /** Rough token estimate for the variable part of a text prompt plus a typical response. */
+  public static int estimateTextTokens(@Nullable CharSequence... promptParts) {
+    int chars = 0;
+    if (promptParts != null) {
+      for (CharSequence part : promptParts) {
+        chars += part == null ? 0 : part.length();
+      }
+    }
+    return chars / CHARS_PER_TOKEN + DEFAULT_OUTPUT_TOKEN_ESTIMATE;
+  }
+
+  /** Rough token count of streamed output text, for {@link RequestHandle#recordOutputTokens}. */
+  public static int estimateOutputTokens(@Nullable CharSequence text) {
+    return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+  }
+
+  /** Rough token estimate for a 16 kHz mono PCM16 clip plus a typical response. */
+  public static int estimateAudioTokens(int pcmBytes) {
+    return Math.max(0, pcmBytes) / PCM_BYTES_PER_AUDIO_TOKEN + DEFAULT_OUTPUT_TOKEN_ESTIMATE;
+  }
+
+  @NonNull
+  private static ExecutorService createWorkerExecutor() {
+    AtomicInteger threadIndex = new AtomicInteger(0);
+    return Executors.newCachedThreadPool(
+        runnable -> {
+          Thread thread = new Thread(runnable, "GeminiRequest-" + threadIndex.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  private static final class ModelLimiter {
+    @NonNull private final TokenBucket requests;
+    @NonNull private final TokenBucket tokens;
+
+    private ModelLimiter(@NonNull TokenBucket requests, @NonNull TokenBucket tokens) {
+      this.requests = requests;
+      this.tokens = tokens;
+    }
+
+    /** Takes one request and {@code tokenCount} tokens, or returns how long to wait for both. */
+    long tryAcquire(int tokenCount, long nowMs) {
+      long waitMs =
+          Math.max(
+              requests.millisUntilAvailable(1, nowMs),
+              tokens.millisUntilAvailable(tokenCount, nowMs));
+      if (waitMs > 0L) {
+        return waitMs;
+      }
+      requests.consume(1);
+      tokens.consume(tokenCount);
+      return 0L;
+    }
+  }
+
+  /** Classic token bucket refilled continuously at {@code perMinute / 60s}. */
+  static final class TokenBucket {
+    private static final double MS_PER_MINUTE = 60_000d;
+    private static final double EPSILON = 1e-6;
+
+    private final double capacity;
+    private double available;
+    private long lastRefillMs;
+
+    TokenBucket(long perMinute, long nowMs) {
+      this.capacity = Math.max(1L, perMinute);
+      this.available = capacity;
+      this.lastRefillMs = nowMs;
+    }
+
+    long millisUntilAvailable(double amount, long nowMs) {
+      refill(nowMs);
+      // A single request larger than the whole bucket waits for a full bucket instead of forever.
+      double needed = Math.min(amount, capacity);
+      if (available + EPSILON >= needed) {
+        return 0L;
+      }
+      return Math.max(1L, (long) Math.ceil((needed - available) * MS_PER_MINUTE / capacity));
+    }
+
+    void consume(double amount) {
+      available = Math.max(0d, available - Math.min(amount, capacity));
+    }
+
+    private void refill(long nowMs) {
+      if (nowMs <= lastRefillMs) {
+        return;
+      }
+      available = Math.min(capacity, available + (nowMs - lastRefillMs) * capacity / MS_PER_MINUTE);
+      lastRefillMs = nowMs;
+    }
+  }
+}
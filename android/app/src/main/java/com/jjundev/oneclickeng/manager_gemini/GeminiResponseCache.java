@@ -0,0 +1,66 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.LongSupplier;
+
+/**
+ * Content-addressed, size-bounded cache of complete Gemini responses in the app cache dir.
+ *
+ * <p>Keys are SHA-256 hashes of everything that determines the response (see {@link
+ * #buildKey(String...)}), so a changed prompt or model never reads a stale entry; it just misses
+ * and the old entry ages out. Each entry is one UTF-8 file named after its key, kept in a {@link
+ * FileLruCache}. All methods do disk I/O, so call them off the main thread.
+ */
+public final class GeminiResponseCache {
+  private static final String TAG = "GeminiResponseCache";
+  private static final String DIR_NAME = "gemini_responses";
+
+  static final long DEFAULT_MAX_BYTES = 2L * 1024 * 1024; // ~300 feedback responses
+
+  @Nullable private static volatile GeminiResponseCache instance;
+
+  private final FileLruCache files;
+
+  @NonNull
+  public static GeminiResponseCache getInstance(@NonNull Context context) {
+    GeminiResponseCache existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (GeminiResponseCache.class) {
+      if (instance == null) {
+        File directory = new File(context.getApplicationContext().getCacheDir(), DIR_NAME);
+        instance = new GeminiResponseCache(directory, DEFAULT_MAX_BYTES, System::currentTimeMillis);
+      }
+      return instance;
+    }
+  }
+
+  GeminiResponseCache(@NonNull File directory, long maxBytes, @NonNull LongSupplier clockMs) {
+    this.files = new FileLruCache(TAG, directory, maxBytes, clockMs);
+  }
+
+  /** Hashes the parts into a file-name-safe key; a separator keeps adjacent parts distinct. */
+  @NonNull
+  public static String buildKey(@NonNull String... parts) {
+    return CachedContentRegistry.sha256Hex(String.join("\u0000", parts));
+  }
+
+  /** Returns the cached response and marks it as recently used, or {@code null} on a miss. */
+  @Nullable
+  public String get(@NonNull String key) {
+    return files.get(
+        key, file -> new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+  }
+
+  /** Stores a response, replacing any previous value, then evicts down to the size limit. */
+  public void put(@NonNull String key, @NonNull String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    files.put(key, bytes.length, out -> out.write(bytes));
+  }
+}
@@ -0,0 +1,387 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+/**
+ * Pull-style decoder for {@code streamGenerateContent?alt=sse} responses.
+ *
+ * <p>Each SSE event is framed from the {@link BufferedSource} into one reused {@link Buffer} and
+ * walked with a streaming {@link JsonReader}. Only the {@code text} parts of the first candidate
+ * and the {@code usageMetadata} counters are materialized, so no JSON tree is built per event.
+ * Multi-line {@code data:} events are joined with {@code '\n'} as the SSE spec requires, and an
+ * event that fails to parse is skipped without affecting the rest of the stream.
+ *
+ * <p>Audio responses are read with {@link #nextInlineData()} instead, which decodes the {@code
+ * inlineData} parts of each event as it arrives.
+ */
+public final class GeminiSseReader {
+  private static final String TAG = "GeminiSseReader";
+  private static final ByteString DATA_FIELD = ByteString.encodeUtf8("data:");
+
+  @NonNull private final BufferedSource source;
+  @NonNull private final Buffer eventData = new Buffer();
+  @NonNull private final Utf8BufferReader eventReader = new Utf8BufferReader(eventData);
+  @NonNull private final StringBuilder textBuilder = new StringBuilder();
+  @NonNull private final ArrayDeque<InlineData> pendingInlineData = new ArrayDeque<>();
+  // Only decoded once a caller asks for it, so text streams never pay for base64 payloads.
+  private boolean collectInlineData;
+
+  private int promptTokenCount;
+  private int candidatesTokenCount;
+  private int cachedContentTokenCount;
+  private int thoughtsTokenCount;
+  private int totalTokenCount;
+  @Nullable private String finishReason;
+  private int skippedEventCount;
+
+  public GeminiSseReader(@NonNull BufferedSource source) {
+    this.source = source;
+  }
+
+  /**
+   * Returns the concatenated text parts of the next event that carries text, or {@code null} once
+   * the stream is exhausted. Events without text (for example the trailing usage-only event) are
+   * consumed silently but still update the usage counters.
+   */
+  @Nullable
+  public String nextText() throws IOException {
+    while (readEvent()) {
+      String text = decodeEvent();
+      if (text != null && !text.isEmpty()) {
+        return text;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the next decoded {@code inlineData} part of the first candidate, or {@code null} once
+   * the stream is exhausted. Parts of one event are returned in order before the next event is
+   * read.
+   */
+  @Nullable
+  public InlineData nextInlineData() throws IOException {
+    collectInlineData = true;
+    while (pendingInlineData.isEmpty()) {
+      if (!readEvent()) {
+        return null;
+      }
+      decodeEvent();
+    }
+    return pendingInlineData.poll();
+  }
+
+  public int getPromptTokenCount() {
+    return promptTokenCount;
+  }
+
+  public int getCandidatesTokenCount() {
+    return candidatesTokenCount;
+  }
+
+  public int getCachedContentTokenCount() {
+    return cachedContentTokenCount;
+  }
+
+  public int getThoughtsTokenCount() {
+    return thoughtsTokenCount;
+  }
+
+  public int getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  @Nullable
+  public String getFinishReason() {
+    return finishReason;
+  }
+
+  public int getSkippedEventCount() {
+    return skippedEventCount;
+  }
+
+  /** Copies the data lines of the next event into {@link #eventData}. */
+  private boolean readEvent() throws IOException {
+    eventData.clear();
+    boolean hasData = false;
+    while (true) {
+      long lineEnd = source.indexOf((byte) '\n');
+      Buffer buffer = source.getBuffer();
+      long newlineLength = 1L;
+      if (lineEnd == -1L) {
+        // indexOf() read to the end of the stream; whatever is left is the last line.
+        if (buffer.size() == 0L) {
+          return hasData;
+        }
+        lineEnd = buffer.size();
+        newlineLength = 0L;
+      }
+
+      long contentLength = lineEnd;
+      if (contentLength > 0L && buffer.getByte(contentLength - 1L) == '\r') {
+        contentLength--;
+      }
+
+      if (contentLength == 0L) {
+        source.skip(lineEnd + newlineLength);
+        if (hasData) {
+          return true;
+        }
+        continue;
+      }
+
+      // Only look at the buffered line, so a short line never blocks waiting for more bytes.
+      if (contentLength >= DATA_FIELD.size() && buffer.rangeEquals(0L, DATA_FIELD)) {
+        long valueOffset = DATA_FIELD.size();
+        if (valueOffset < contentLength && buffer.getByte(valueOffset) == ' ') {
+          valueOffset++;
+        }
+        if (hasData) {
+          eventData.writeByte('\n');
+        }
+        source.skip(valueOffset);
+        source.readFully(eventData, contentLength - valueOffset);
+        source.skip(lineEnd - contentLength + newlineLength);
+        hasData = true;
+      } else {
+        // Comments, event:, id: and retry: lines carry nothing we use.
+        source.skip(lineEnd + newlineLength);
+      }
+    }
+  }
+
+  /** Returns the event's text, or {@code null} if the event is not an object or is malformed. */
+  @Nullable
+  private String decodeEvent() {
+    textBuilder.setLength(0);
+    eventReader.discardPendingChar();
+    JsonReader json = new JsonReader(eventReader);
+    try {
+      if (json.peek() != JsonToken.BEGIN_OBJECT) {
+        // e.g. a "[DONE]" sentinel.
+        return null;
+      }
+      json.beginObject();
+      while (json.hasNext()) {
+        String name = json.nextName();
+        if ("candidates".equals(name) && json.peek() == JsonToken.BEGIN_ARRAY) {
+          readCandidates(json);
+        } else if ("usageMetadata".equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+          readUsageMetadata(json);
+        } else {
+          json.skipValue();
+        }
+      }
+      json.endObject();
+      return textBuilder.toString();
+    } catch (IOException | IllegalStateException | IllegalArgumentException e) {
+      // The event is already framed, so a malformed payload never desynchronizes the stream.
+      skippedEventCount++;
+      Log.w(TAG, "Skipping malformed SSE event: " + e.getMessage());
+      return null;
+    } finally {
+      eventData.clear();
+    }
+  }
+
+  private void readCandidates(@NonNull JsonReader json) throws IOException {
+    json.beginArray();
+    boolean first = true;
+    while (json.hasNext()) {
+      if (first && json.peek() == JsonToken.BEGIN_OBJECT) {
+        readCandidate(json);
+      } else {
+        json.skipValue();
+      }
+      first = false;
+    }
+    json.endArray();
+  }
+
+  private void readCandidate(@NonNull JsonReader json) throws IOException {
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if ("content".equals(name) && json.peek() == JsonToken.BEGIN_OBJECT) {
+        readContent(json);
+      } else if ("finishReason".equals(name) && json.peek() == JsonToken.STRING) {
+        finishReason = json.nextString();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+  }
+
+  private void readContent(@NonNull JsonReader json) throws IOException {
+    json.beginObject();
+    while (json.hasNext()) {
+      if ("parts".equals(json.nextName()) && json.peek() == JsonToken.BEGIN_ARRAY) {
+        json.beginArray();
+        while (json.hasNext()) {
+          if (json.peek() == JsonToken.BEGIN_OBJECT) {
+            readPart(json);
+          } else {
+            json.skipValue();
+          }
+        }
+        json.endArray();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+  }
+
+  private void readPart(@NonNull JsonReader json) throws IOException {
+    String text = null;
+    boolean thought = false;
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if ("text".equals(name) && json.peek() == JsonToken.STRING) {
+        text = json.nextString();
+      } else if (collectInlineData
+          && "inlineData".equals(name)
+          && json.peek() == JsonToken.BEGIN_OBJECT) {
+        readInlineData(json);
+      } else if ("thought".equals(name) && json.peek() == JsonToken.BOOLEAN) {
+        thought = json.nextBoolean();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    if (text != null && !thought) {
+      textBuilder.append(text);
+    }
+  }
+
+  private void readInlineData(@NonNull JsonReader json) throws IOException {
+    String mimeType = "";
+    String data = null;
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if ("mimeType".equals(name) && json.peek() == JsonToken.STRING) {
+        mimeType = json.nextString();
+      } else if ("data".equals(name) && json.peek() == JsonToken.STRING) {
+        data = json.nextString();
+      } else {
+        json.skipValue();
+      }
+    }
+    json.endObject();
+    if (data != null && !data.isEmpty()) {
+      pendingInlineData.add(new InlineData(mimeType, Base64.getDecoder().decode(data)));
+    }
+  }
+
+  private void readUsageMetadata(@NonNull JsonReader json) throws IOException {
+    json.beginObject();
+    while (json.hasNext()) {
+      String name = json.nextName();
+      if (json.peek() != JsonToken.NUMBER) {
+        json.skipValue();
+        continue;
+      }
+      switch (name) {
+        case "promptTokenCount":
+          promptTokenCount = json.nextInt();
+          break;
+        case "candidatesTokenCount":
+          candidatesTokenCount = json.nextInt();
+          break;
+        case "cachedContentTokenCount":
+          cachedContentTokenCount = json.nextInt();
+          break;
+        case "thoughtsTokenCount":
+          thoughtsTokenCount = json.nextInt();
+          break;
+        case "totalTokenCount":
+          totalTokenCount = json.nextInt();
+          break;
+        default:
+          json.skipValue();
+          break;
+      }
+    }
+    json.endObject();
+  }
+
+  /** One decoded {@code inlineData} part. */
+  public static final class InlineData {
+    @NonNull private final String mimeType;
+    @NonNull private final byte[] data;
+
+    InlineData(@NonNull String mimeType, @NonNull byte[] data) {
+      this.mimeType = mimeType;
+      this.data = data;
+    }
+
+    @NonNull
+    public String getMimeType() {
+      return mimeType;
+    }
+
+    @NonNull
+    public byte[] getData() {
+      return data;
+    }
+  }
+
+  /** Decodes UTF-8 from a {@link Buffer} without an intermediate byte[] or String. */
+  private static final class Utf8BufferReader extends Reader {
+    @NonNull private final Buffer buffer;
+    private int pendingLowSurrogate = -1;
+
+    Utf8BufferReader(@NonNull Buffer buffer) {
+      this.buffer = buffer;
+    }
+
+    void discardPendingChar() {
+      pendingLowSurrogate = -1;
+    }
+
+    @Override
+    public int read(@NonNull char[] chars, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      int count = 0;
+      if (pendingLowSurrogate >= 0) {
+        chars[offset + count++] = (char) pendingLowSurrogate;
+        pendingLowSurrogate = -1;
+      }
+      while (count < length && !buffer.exhausted()) {
+        int codePoint = buffer.readUtf8CodePoint();
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+          chars[offset + count++] = (char) codePoint;
+          continue;
+        }
+        chars[offset + count++] = Character.highSurrogate(codePoint);
+        char low = Character.lowSurrogate(codePoint);
+        if (count < length) {
+          chars[offset + count++] = low;
+        } else {
+          pendingLowSurrogate = low;
+        }
+      }
+      return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,148 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Process-wide HTTP transport shared by every Gemini manager.
+ *
+ * <p>All clients handed out here share one {@link Dispatcher} and one {@link ConnectionPool}, so
+ * requests from different features are multiplexed over the same HTTP/2 connection instead of each
+ * manager paying its own DNS lookup and TLS handshake.
+ */
+public final class GeminiTransport {
+  private static final String TAG = "GeminiTransport";
+  private static final String WARM_UP_URL = "https://generativelanguage.googleapis.com/";
+  private static final int MAX_IDLE_CONNECTIONS = 4;
+  private static final long KEEP_ALIVE_MINUTES = 5L;
+  private static final int MAX_REQUESTS_PER_HOST = 16;
+  private static final long WARM_UP_MIN_INTERVAL_MS = 60_000L;
+  private static final long WEB_SOCKET_PING_SECONDS = 15L;
+
+  @Nullable private static volatile GeminiTransport instance;
+
+  @NonNull private final OkHttpClient client;
+  @NonNull private final OkHttpClient streamingClient;
+  @NonNull private final OkHttpClient webSocketClient;
+  private final AtomicLong lastWarmUpAtMs = new AtomicLong(0L);
+
+  @NonNull
+  public static GeminiTransport getInstance() {
+    GeminiTransport existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (GeminiTransport.class) {
+      if (instance == null) {
+        instance = new GeminiTransport();
+      }
+      return instance;
+    }
+  }
+
+  private GeminiTransport() {
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+    ConnectionPool connectionPool =
+        new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
+    this.client =
+        new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
+            .connectionPool(connectionPool)
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(60, TimeUnit.SECONDS)
+            .writeTimeout(60, TimeUnit.SECONDS)
+            .build();
+    // newBuilder() keeps the dispatcher and connection pool, only the timeouts differ.
+    this.streamingClient =
+        client
+            .newBuilder()
+            .readTimeout(0, TimeUnit.SECONDS) // No read timeout for streaming
+            .writeTimeout(30, TimeUnit.SECONDS)
+            .build();
+    this.webSocketClient =
+        streamingClient
+            .newBuilder()
+            .pingInterval(WEB_SOCKET_PING_SECONDS, TimeUnit.SECONDS)
+            .build();
+  }
+
+  /** Client for unary requests (generateContent, cachedContents). */
+  @NonNull
+  public OkHttpClient client() {
+    return client;
+  }
+
+  /** Client for SSE requests (streamGenerateContent); same pool, no read timeout. */
+  @NonNull
+  public OkHttpClient streamingClient() {
+    return streamingClient;
+  }
+
+  /** Client for Live API web sockets; same pool, no read timeout, periodic pings. */
+  @NonNull
+  public OkHttpClient webSocketClient() {
+    return webSocketClient;
+  }
+
+  /**
+   * Executes {@code request} on {@code client} with the call tied to {@code handle}, so cancelling
+   * the handle aborts the upload or the response stream. Returns null without sending anything if
+   * the handle was cancelled before the call could start.
+   */
+  @Nullable
+  public static Response execute(
+      @NonNull OkHttpClient client, @NonNull Request request, @NonNull RequestHandle handle)
+      throws IOException {
+    Call call = client.newCall(request);
+    if (!handle.onStarted(call::cancel)) {
+      return null;
+    }
+    return call.execute();
+  }
+
+  /**
+   * Opens a connection to the Gemini host in the background so the first real request of a session
+   * does not wait on DNS and TLS. Repeated calls within a minute are ignored.
+   */
+  public void warmUp() {
+    long now = System.currentTimeMillis();
+    long last = lastWarmUpAtMs.get();
+    if (now - last < WARM_UP_MIN_INTERVAL_MS || !lastWarmUpAtMs.compareAndSet(last, now)) {
+      return;
+    }
+
+    Request request = new Request.Builder().url(WARM_UP_URL).head().build();
+    client
+        .newCall(request)
+        .enqueue(
+            new Callback() {
+              @Override
+              public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                Log.d(TAG, "Warm-up failed: " + e.getMessage());
+              }
+
+              @Override
+              public void onResponse(@NonNull Call call, @NonNull Response response) {
+                Log.d(TAG, "Warm-up done: protocol=" + response.protocol());
+                response.close();
+              }
+            });
+  }
+}
@@ -0,0 +1,148 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import android.content.Context;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded cache of synthesized speech as raw PCM in the app cache dir.
+ *
+ * <p>Entries live in a {@link FileLruCache} like {@link GeminiResponseCache}'s. Each file is an
+ * 8-byte header (magic and sample rate) followed by the PCM, and hits read the PCM straight into
+ * the array handed to playback, so a replayed line costs one file read and no network. Hit and
+ * miss counts are kept for the current process only. All methods do disk I/O, so call them off the
+ * main thread.
+ */
+public final class GeminiTtsAudioCache {
+  private static final String TAG = "GeminiTtsAudioCache";
+  private static final String DIR_NAME = "gemini_tts_audio";
+  private static final int MAGIC = 0x50434d31; // "PCM1"
+  private static final int HEADER_BYTES = 8;
+
+  static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024; // ~10 minutes of 24 kHz speech
+
+  @Nullable private static volatile GeminiTtsAudioCache instance;
+
+  private final FileLruCache files;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  @NonNull
+  public static GeminiTtsAudioCache getInstance(@NonNull Context context) {
+    GeminiTtsAudioCache existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (GeminiTtsAudioCache.class) {
+      if (instance == null) {
+        File directory = new File(context.getApplicationContext().getCacheDir(), DIR_NAME);
+        instance = new GeminiTtsAudioCache(directory, DEFAULT_MAX_BYTES, System::currentTimeMillis);
+      }
+      return instance;
+    }
+  }
+
+  GeminiTtsAudioCache(@NonNull File directory, long maxBytes, @NonNull LongSupplier clockMs) {
+    this.files = new FileLruCache(TAG, directory, maxBytes, clockMs);
+  }
+
+  /** Returns the cached audio and marks it as recently used, or {@code null} on a miss. */
+  @Nullable
+  public GeminiTtsAudio get(@NonNull String key) {
+    GeminiTtsAudio audio = files.get(key, GeminiTtsAudioCache::readEntry);
+    if (audio != null) {
+      hits.incrementAndGet();
+    } else {
+      misses.incrementAndGet();
+    }
+    return audio;
+  }
+
+  /** Stores PCM, replacing any previous value, then evicts down to the size limit. */
+  public void put(@NonNull String key, @NonNull byte[] pcm, int sampleRateHz) {
+    if (pcm.length == 0 || sampleRateHz <= 0) {
+      return;
+    }
+    files.put(
+        key,
+        HEADER_BYTES + (long) pcm.length,
+        out -> {
+          out.write(ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(sampleRateHz).array());
+          out.write(pcm);
+        });
+  }
+
+  /** Lookup counts since process start plus the current disk footprint. */
+  @NonNull
+  public Stats getStats() {
+    return new Stats(hits.get(), misses.get(), files.entryCount(), files.sizeBytes());
+  }
+
+  @NonNull
+  private static GeminiTtsAudio readEntry(@NonNull File file) throws IOException {
+    long pcmBytes = file.length() - HEADER_BYTES;
+    if (pcmBytes <= 0L || pcmBytes > Integer.MAX_VALUE) {
+      throw new IOException("Bad size");
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file), HEADER_BYTES))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Bad header");
+      }
+      int sampleRateHz = in.readInt();
+      if (sampleRateHz <= 0) {
+        throw new IOException("Bad sample rate");
+      }
+      // Past the header the buffer is empty, so the PCM is read directly into the result.
+      byte[] pcm = new byte[(int) pcmBytes];
+      in.readFully(pcm);
+      return new GeminiTtsAudio(pcm, sampleRateHz, "audio/L16;rate=" + sampleRateHz);
+    }
+  }
+
+  /** Snapshot of cache effectiveness for display. */
+  public static final class Stats {
+    private final long hits;
+    private final long misses;
+    private final int entryCount;
+    private final long sizeBytes;
+
+    Stats(long hits, long misses, int entryCount, long sizeBytes) {
+      this.hits = hits;
+      this.misses = misses;
+      this.entryCount = entryCount;
+      this.sizeBytes = sizeBytes;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public int getEntryCount() {
+      return entryCount;
+    }
+
+    public long getSizeBytes() {
+      return sizeBytes;
+    }
+
+    /** Share of lookups served from the cache, 0 to 1; 0 before the first lookup. */
+    public float getHitRate() {
+      long lookups = hits + misses;
+      return lookups == 0L ? 0f : hits / (float) lookups;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package com.jjundev.oneclickeng.manager_gemini;
 
+import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.google.gson.Gson;
@@ -11,13 +13,21 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IGeminiTtsManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.Base64;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import okhttp3.Call;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
@@ -25,34 +35,73 @@ import okhttp3.RequestBody;
 import okhttp3.Response;
 
 public final class GeminiTtsManager implements IGeminiTtsManager {
+  private static final String TAG = "GeminiTtsManager";
   private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
   private static final String MODEL_NAME = "gemini-2.5-flash-preview-tts";
   private static final int DEFAULT_SAMPLE_RATE_HZ = 24000;
   private static final Pattern MIME_RATE_PATTERN = Pattern.compile("rate=(\\d+)");
+  // A cached line is handed to stream callbacks in pieces this size (~0.7 s at 24 kHz).
+  private static final int CACHED_CHUNK_BYTES = 32 * 1024;
+
+  // Audio cache lookups and writes hit the disk; one thread keeps them off the main thread.
+  private static final ExecutorService audioCacheExecutor = Executors.newSingleThreadExecutor();
+  // Stream callbacks are paced by the player, so they run here instead of on a request thread.
+  private static final ExecutorService cachedStreamExecutor = Executors.newCachedThreadPool();
 
   private final Object requestLock = new Object();
   @NonNull private final OkHttpClient client;
+  @NonNull private final OkHttpClient streamingClient;
   @NonNull private final Gson gson;
-  @NonNull private final Handler mainHandler;
+  @NonNull private final Executor mainThread;
+  @NonNull private final Executor streamExecutor;
   @NonNull private final String apiKey;
+  @Nullable private final GeminiTtsAudioCache audioCache;
 
-  @Nullable private Call activeCall;
+  @Nullable private RequestHandle activeRequest;
   private long requestToken = 0L;
 
   public GeminiTtsManager(@NonNull String apiKey) {
+    this(apiKey, null);
+  }
+
+  /** Serves repeated lines from the on-disk {@link GeminiTtsAudioCache} without a request. */
+  public GeminiTtsManager(@NonNull Context context, @NonNull String apiKey) {
+    this(apiKey, GeminiTtsAudioCache.getInstance(context));
+  }
+
+  private GeminiTtsManager(@NonNull String apiKey, @Nullable GeminiTtsAudioCache audioCache) {
+    this(
+        apiKey,
+        audioCache,
+        GeminiTransport.getInstance().client(),
+        GeminiTransport.getInstance().streamingClient(),
+        new Handler(Looper.getMainLooper())::post,
+        cachedStreamExecutor);
+  }
+
+  /**
+   * @param mainThread runs completion and error callbacks
+   * @param streamExecutor runs stream audio callbacks, which may block
+   */
+  GeminiTtsManager(
+      @NonNull String apiKey,
+      @Nullable GeminiTtsAudioCache audioCache,
+      @NonNull OkHttpClient client,
+      @NonNull OkHttpClient streamingClient,
+      @NonNull Executor mainThread,
+      @NonNull Executor streamExecutor) {
     this.apiKey = normalize(apiKey);
-    this.client =
-        new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build();
+    this.audioCache = audioCache;
+    this.client = client;
+    this.streamingClient = streamingClient;
     this.gson = new Gson();
-    this.mainHandler = new Handler(Looper.getMainLooper());
+    this.mainThread = mainThread;
+    this.streamExecutor = streamExecutor;
   }
 
+  @NonNull
   @Override
-  public void synthesize(
+  public RequestHandle synthesize(
       @NonNull String text,
       @Nullable String localeTag,
       float speechRate,
@@ -61,70 +110,391 @@ public final class GeminiTtsManager implements IGeminiTtsManager {
     String safeText = normalize(text);
     if (safeText.isEmpty()) {
       postError(callback, "Text is empty");
-      return;
+      return RequestHandle.completed();
     }
     if (apiKey.isEmpty()) {
       postError(callback, "Gemini API key is missing");
-      return;
+      return RequestHandle.completed();
     }
 
     long token = reserveRequestToken();
-    String resolvedVoiceName = normalize(voiceName).isEmpty() ? "Kore" : normalize(voiceName);
-    Request request = buildSynthesisRequest(safeText, localeTag, speechRate, resolvedVoiceName);
-
-    new Thread(
-            () -> {
-              Call call = client.newCall(request);
-              if (!setActiveCallIfCurrent(token, call)) {
-                call.cancel();
+    BooleanSupplier current = () -> isRequestCurrent(token);
+    String resolvedVoiceName = resolveVoiceName(voiceName);
+    String cacheKey = buildAudioCacheKey(safeText, localeTag, speechRate, resolvedVoiceName);
+    return submitWithAudioCache(
+        token,
+        cacheKey,
+        cached -> postSuccessIfCurrent(current, callback, cached),
+        () ->
+            submitSynthesis(
+                current,
+                GeminiRequestScheduler.Priority.INTERACTIVE,
+                safeText,
+                localeTag,
+                speechRate,
+                resolvedVoiceName,
+                cacheKey,
+                callback));
+  }
+
+  @NonNull
+  @Override
+  public RequestHandle prefetch(
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @Nullable String voiceName,
+      @NonNull SynthesisCallback callback) {
+    String safeText = normalize(text);
+    if (safeText.isEmpty()) {
+      postError(callback, "Text is empty");
+      return RequestHandle.completed();
+    }
+    if (apiKey.isEmpty()) {
+      postError(callback, "Gemini API key is missing");
+      return RequestHandle.completed();
+    }
+
+    RequestHandle handle = new RequestHandle();
+    BooleanSupplier current = () -> !handle.isCancelled();
+    String resolvedVoiceName = resolveVoiceName(voiceName);
+    String cacheKey = buildAudioCacheKey(safeText, localeTag, speechRate, resolvedVoiceName);
+    lookupThenSubmit(
+        handle,
+        current,
+        cacheKey,
+        cached -> postSuccessIfCurrent(current, callback, cached),
+        () ->
+            submitSynthesis(
+                current,
+                GeminiRequestScheduler.Priority.BACKGROUND,
+                safeText,
+                localeTag,
+                speechRate,
+                resolvedVoiceName,
+                cacheKey,
+                callback));
+    return handle;
+  }
+
+  @NonNull
+  private RequestHandle submitSynthesis(
+      @NonNull BooleanSupplier current,
+      @NonNull GeminiRequestScheduler.Priority priority,
+      @NonNull String safeText,
+      @Nullable String localeTag,
+      float speechRate,
+      @NonNull String resolvedVoiceName,
+      @NonNull String cacheKey,
+      @NonNull SynthesisCallback callback) {
+    Request request =
+        buildSynthesisRequest(safeText, localeTag, speechRate, resolvedVoiceName, false);
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            MODEL_NAME,
+            priority,
+            GeminiRequestScheduler.estimateTextTokens(safeText),
+            0L,
+            requestHandle -> {
+              if (!current.getAsBoolean()) {
                 return;
               }
-
-              try (Response response = call.execute()) {
-                if (!isRequestCurrent(token)) {
+              try (Response response = GeminiTransport.execute(client, request, requestHandle)) {
+                if (response == null || !current.getAsBoolean()) {
                   return;
                 }
                 if (!response.isSuccessful()) {
                   String body = response.body() != null ? response.body().string() : "";
                   postErrorIfCurrent(
-                      token,
+                      current,
                       callback,
-                      "Gemini TTS request failed: " + response.code() + (body.isEmpty() ? "" : " " + body));
+                      "Gemini TTS request failed: "
+                          + response.code()
+                          + (body.isEmpty() ? "" : " " + body));
                   return;
                 }
 
                 String body = response.body() != null ? response.body().string() : "";
                 GeminiTtsAudio audio = parseAudioFromResponseBody(body);
-                postSuccessIfCurrent(token, callback, audio);
+                postSuccessIfCurrent(current, callback, audio);
+                storeAudio(cacheKey, audio.getPcmData(), audio.getSampleRateHz());
               } catch (Exception e) {
-                if (call.isCanceled() || !isRequestCurrent(token)) {
+                if (requestHandle.isCancelled() || !current.getAsBoolean()) {
                   return;
                 }
                 postErrorIfCurrent(
-                    token, callback, "Gemini TTS synthesize failed: " + normalize(e.getMessage()));
-              } finally {
-                clearActiveCall(token, call);
+                    current,
+                    callback,
+                    "Gemini TTS synthesize failed: " + normalize(e.getMessage()));
               }
-            })
-        .start();
+            });
   }
 
+  @NonNull
   @Override
-  public void cancelActiveRequest() {
-    Call callToCancel;
-    synchronized (requestLock) {
-      requestToken++;
-      callToCancel = activeCall;
-      activeCall = null;
+  public RequestHandle synthesizeStream(
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @Nullable String voiceName,
+      @NonNull StreamCallback callback) {
+    String safeText = normalize(text);
+    if (safeText.isEmpty()) {
+      postStreamError(callback, "Text is empty");
+      return RequestHandle.completed();
+    }
+    if (apiKey.isEmpty()) {
+      postStreamError(callback, "Gemini API key is missing");
+      return RequestHandle.completed();
+    }
+
+    long token = reserveRequestToken();
+    String resolvedVoiceName = resolveVoiceName(voiceName);
+    String cacheKey = buildAudioCacheKey(safeText, localeTag, speechRate, resolvedVoiceName);
+    return submitWithAudioCache(
+        token,
+        cacheKey,
+        cached -> streamExecutor.execute(() -> replayCachedStream(token, cached, callback)),
+        () ->
+            submitStream(
+                token, safeText, localeTag, speechRate, resolvedVoiceName, cacheKey, callback));
+  }
+
+  /**
+   * Downloads the line at INTERACTIVE priority. The request thread only reads the response and
+   * queues each chunk on a {@link StreamRelay}, so it releases its scheduler slot once the line is
+   * generated rather than when playback ends, however long the player blocks in {@code
+   * onAudioChunk}.
+   */
+  @NonNull
+  private RequestHandle submitStream(
+      long token,
+      @NonNull String safeText,
+      @Nullable String localeTag,
+      float speechRate,
+      @NonNull String resolvedVoiceName,
+      @NonNull String cacheKey,
+      @NonNull StreamCallback callback) {
+    Request request =
+        buildSynthesisRequest(safeText, localeTag, speechRate, resolvedVoiceName, true);
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            MODEL_NAME,
+            GeminiRequestScheduler.Priority.INTERACTIVE,
+            GeminiRequestScheduler.estimateTextTokens(safeText),
+            0L,
+            requestHandle -> {
+              if (!isRequestCurrent(token)) {
+                return;
+              }
+              StreamRelay relay = new StreamRelay(streamExecutor);
+              try (Response response =
+                  GeminiTransport.execute(streamingClient, request, requestHandle)) {
+                if (response == null || !isRequestCurrent(token)) {
+                  return;
+                }
+                if (!response.isSuccessful()) {
+                  String body = response.body() != null ? response.body().string() : "";
+                  String error =
+                      "Gemini TTS request failed: "
+                          + response.code()
+                          + (body.isEmpty() ? "" : " " + body);
+                  relay.post(() -> postStreamErrorIfCurrent(token, callback, error));
+                  return;
+                }
+
+                GeminiSseReader sseReader = new GeminiSseReader(response.body().source());
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+                int sampleRateHz = 0;
+                boolean ended = false;
+                while (isRequestCurrent(token) && !requestHandle.isCancelled()) {
+                  GeminiSseReader.InlineData chunk = sseReader.nextInlineData();
+                  if (chunk == null) {
+                    ended = true;
+                    break;
+                  }
+                  if (chunk.getData().length == 0) {
+                    continue;
+                  }
+                  if (sampleRateHz == 0) {
+                    // Every chunk of one response has the same format.
+                    sampleRateHz = parseSampleRateFromMimeType(chunk.getMimeType());
+                  }
+                  byte[] data = chunk.getData();
+                  int rate = sampleRateHz;
+                  received.write(data, 0, data.length);
+                  relay.post(
+                      () -> {
+                        if (isRequestCurrent(token)) {
+                          callback.onAudioChunk(data, rate);
+                        }
+                      });
+                }
+                if (sampleRateHz == 0) {
+                  relay.post(
+                      () -> postStreamErrorIfCurrent(token, callback, "Missing inlineData audio"));
+                  return;
+                }
+                relay.post(() -> postStreamCompleteIfCurrent(token, callback));
+                if (ended) {
+                  // Only a stream read to the end is the whole line.
+                  storeAudio(cacheKey, received.toByteArray(), sampleRateHz);
+                }
+              } catch (Exception e) {
+                if (requestHandle.isCancelled() || !isRequestCurrent(token)) {
+                  return;
+                }
+                String error = "Gemini TTS stream failed: " + normalize(e.getMessage());
+                relay.post(() -> postStreamErrorIfCurrent(token, callback, error));
+              }
+            });
+  }
+
+  /**
+   * Runs one stream's callbacks in order, one at a time, on {@code executor}. Completion and errors
+   * are queued behind the audio, so they still arrive after the last chunk.
+   */
+  private static final class StreamRelay {
+    @NonNull private final Executor executor;
+    private final ArrayDeque<Runnable> steps = new ArrayDeque<>();
+    private boolean draining;
+
+    StreamRelay(@NonNull Executor executor) {
+      this.executor = executor;
+    }
+
+    void post(@NonNull Runnable step) {
+      synchronized (steps) {
+        steps.add(step);
+        if (draining) {
+          return;
+        }
+        draining = true;
+      }
+      executor.execute(this::drain);
+    }
+
+    private void drain() {
+      while (true) {
+        Runnable step;
+        synchronized (steps) {
+          step = steps.poll();
+          if (step == null) {
+            draining = false;
+            return;
+          }
+        }
+        try {
+          step.run();
+        } catch (RuntimeException e) {
+          // Keep going so the completion or error behind this chunk is still delivered.
+          Log.w(TAG, "Stream callback failed", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Makes {@code token} the active request and serves it from the audio cache when possible,
+   * otherwise starts {@code network}. The returned handle cancels whichever stage is running.
+   */
+  @NonNull
+  private RequestHandle submitWithAudioCache(
+      long token,
+      @NonNull String cacheKey,
+      @NonNull Consumer<GeminiTtsAudio> onCacheHit,
+      @NonNull Supplier<RequestHandle> network) {
+    GeminiTtsAudioCache cache = audioCache;
+    if (cache == null) {
+      RequestHandle handle = network.get();
+      setActiveRequestIfCurrent(token, handle);
+      return handle;
+    }
+    RequestHandle handle = new RequestHandle();
+    setActiveRequestIfCurrent(token, handle);
+    lookupThenSubmit(handle, () -> isRequestCurrent(token), cacheKey, onCacheHit, network);
+    return handle;
+  }
+
+  /** Looks {@code cacheKey} up off the main thread, then serves the hit or starts the request. */
+  private void lookupThenSubmit(
+      @NonNull RequestHandle handle,
+      @NonNull BooleanSupplier current,
+      @NonNull String cacheKey,
+      @NonNull Consumer<GeminiTtsAudio> onCacheHit,
+      @NonNull Supplier<RequestHandle> network) {
+    GeminiTtsAudioCache cache = audioCache;
+    if (cache == null) {
+      handle.onQueued(network.get()::cancel);
+      return;
+    }
+    audioCacheExecutor.execute(
+        () -> {
+          if (handle.isCancelled() || !current.getAsBoolean()) {
+            return;
+          }
+          GeminiTtsAudio cached = cache.get(cacheKey);
+          if (cached != null) {
+            handle.finish();
+            onCacheHit.accept(cached);
+            return;
+          }
+          // Runs the network request's cancel hook at once if the handle was cancelled meanwhile.
+          handle.onQueued(network.get()::cancel);
+        });
+  }
+
+  /** Hands a cached line to a stream callback the way a fast network stream would. */
+  private void replayCachedStream(
+      long token, @NonNull GeminiTtsAudio audio, @NonNull StreamCallback callback) {
+    byte[] pcm = audio.getPcmData();
+    for (int offset = 0; offset < pcm.length; offset += CACHED_CHUNK_BYTES) {
+      if (!isRequestCurrent(token)) {
+        return;
+      }
+      int end = Math.min(pcm.length, offset + CACHED_CHUNK_BYTES);
+      callback.onAudioChunk(Arrays.copyOfRange(pcm, offset, end), audio.getSampleRateHz());
     }
-    if (callToCancel != null) {
-      callToCancel.cancel();
+    postStreamCompleteIfCurrent(token, callback);
+  }
+
+  private void storeAudio(@NonNull String cacheKey, @NonNull byte[] pcm, int sampleRateHz) {
+    GeminiTtsAudioCache cache = audioCache;
+    if (cache != null) {
+      audioCacheExecutor.execute(() -> cache.put(cacheKey, pcm, sampleRateHz));
     }
   }
 
+  /**
+   * Keys a line by everything that changes the synthesized audio. Whitespace runs are collapsed and
+   * the rate is rounded as in the prompt, so lines that sound the same share an entry.
+   */
+  @NonNull
+  static String buildAudioCacheKey(
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @NonNull String voiceName) {
+    return GeminiResponseCache.buildKey(
+        MODEL_NAME,
+        normalize(text).replaceAll("\\s+", " "),
+        voiceName,
+        formatSpeechRate(speechRate),
+        resolveLocaleTag(localeTag));
+  }
+
+  @Override
+  public void cancelActiveRequest() {
+    reserveRequestToken();
+  }
+
   @NonNull
   private Request buildSynthesisRequest(
-      @NonNull String text, @Nullable String localeTag, float speechRate, @NonNull String voiceName) {
+      @NonNull String text,
+      @Nullable String localeTag,
+      float speechRate,
+      @NonNull String voiceName,
+      boolean streaming) {
     JsonObject root = new JsonObject();
     JsonArray contents = new JsonArray();
     JsonObject content = new JsonObject();
@@ -150,7 +520,12 @@ public final class GeminiTtsManager implements IGeminiTtsManager {
     generationConfig.add("speechConfig", speechConfig);
     root.add("generationConfig", generationConfig);
 
-    String url = BASE_URL + "/models/" + MODEL_NAME + ":generateContent?key=" + apiKey;
+    String url =
+        BASE_URL
+            + "/models/"
+            + MODEL_NAME
+            + (streaming ? ":streamGenerateContent?alt=sse&key=" : ":generateContent?key=")
+            + apiKey;
     String json = gson.toJson(root);
     return new Request.Builder()
         .url(url)
@@ -160,17 +535,12 @@ public final class GeminiTtsManager implements IGeminiTtsManager {
 
   @NonNull
   private String buildSpeechPrompt(@NonNull String text, @Nullable String localeTag, float speechRate) {
-    float clamped = clamp(speechRate, 0.5f, 1.5f);
-    String locale = normalize(localeTag);
-    if (locale.isEmpty()) {
-      locale = "en-US";
-    }
     return "Read the following text out loud only. "
         + "Use pronunciation for locale "
-        + locale
+        + resolveLocaleTag(localeTag)
         + ". "
         + "Aim for speaking speed multiplier "
-        + String.format(Locale.US, "%.2f", clamped)
+        + formatSpeechRate(speechRate)
         + ". "
         + "Do not add commentary or extra words. "
         + "Text: "
@@ -267,28 +637,28 @@ public final class GeminiTtsManager implements IGeminiTtsManager {
   }
 
   private long reserveRequestToken() {
-    Call callToCancel;
+    RequestHandle requestToCancel;
     long token;
     synchronized (requestLock) {
       requestToken++;
       token = requestToken;
-      callToCancel = activeCall;
-      activeCall = null;
+      requestToCancel = activeRequest;
+      activeRequest = null;
     }
-    if (callToCancel != null) {
-      callToCancel.cancel();
+    if (requestToCancel != null) {
+      requestToCancel.cancel();
     }
     return token;
   }
 
-  private boolean setActiveCallIfCurrent(long token, @NonNull Call call) {
+  private void setActiveRequestIfCurrent(long token, @NonNull RequestHandle handle) {
     synchronized (requestLock) {
-      if (token != requestToken) {
-        return false;
+      if (token == requestToken) {
+        activeRequest = handle;
+        return;
       }
-      activeCall = call;
-      return true;
     }
+    handle.cancel();
   }
 
   private boolean isRequestCurrent(long token) {
@@ -297,37 +667,74 @@ public final class GeminiTtsManager implements IGeminiTtsManager {
     }
   }
 
-  private void clearActiveCall(long token, @NonNull Call call) {
-    synchronized (requestLock) {
-      if (token == requestToken && activeCall == call) {
-        activeCall = null;
-      }
+  private void postSuccessIfCurrent(
+      @NonNull BooleanSupplier current,
+      @NonNull SynthesisCallback callback,
+      @NonNull GeminiTtsAudio audio) {
+    if (!current.getAsBoolean()) {
+      return;
     }
+    mainThread.execute(
+        () -> {
+          if (!current.getAsBoolean()) {
+            return;
+          }
+          callback.onSuccess(audio);
+        });
   }
 
-  private void postSuccessIfCurrent(
-      long token, @NonNull SynthesisCallback callback, @NonNull GeminiTtsAudio audio) {
+  private void postErrorIfCurrent(
+      @NonNull BooleanSupplier current, @NonNull SynthesisCallback callback, @NonNull String error) {
+    if (!current.getAsBoolean()) {
+      return;
+    }
+    postError(callback, error);
+  }
+
+  private void postError(@NonNull SynthesisCallback callback, @NonNull String error) {
+    mainThread.execute(() -> callback.onError(error));
+  }
+
+  private void postStreamCompleteIfCurrent(long token, @NonNull StreamCallback callback) {
     if (!isRequestCurrent(token)) {
       return;
     }
-    mainHandler.post(
+    mainThread.execute(
         () -> {
           if (!isRequestCurrent(token)) {
             return;
           }
-          callback.onSuccess(audio);
+          callback.onComplete();
         });
   }
 
-  private void postErrorIfCurrent(long token, @NonNull SynthesisCallback callback, @NonNull String error) {
+  private void postStreamErrorIfCurrent(
+      long token, @NonNull StreamCallback callback, @NonNull String error) {
     if (!isRequestCurrent(token)) {
       return;
     }
-    postError(callback, error);
+    postStreamError(callback, error);
   }
 
-  private void postError(@NonNull SynthesisCallback callback, @NonNull String error) {
-    mainHandler.post(() -> callback.onError(error));
+  private void postStreamError(@NonNull StreamCallback callback, @NonNull String error) {
+    mainThread.execute(() -> callback.onError(error));
+  }
+
+  @NonNull
+  private static String resolveVoiceName(@Nullable String voiceName) {
+    String voice = normalize(voiceName);
+    return voice.isEmpty() ? "Kore" : voice;
+  }
+
+  @NonNull
+  private static String resolveLocaleTag(@Nullable String localeTag) {
+    String locale = normalize(localeTag);
+    return locale.isEmpty() ? "en-US" : locale;
+  }
+
+  @NonNull
+  private static String formatSpeechRate(float speechRate) {
+    return String.format(Locale.US, "%.2f", clamp(speechRate, 0.5f, 1.5f));
   }
 
   @NonNull
@@ -0,0 +1,160 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+/**
+ * generateContent request body that carries one recording as base64 inline data, either WAV built
+ * around raw PCM or an already encoded FLAC file.
+ *
+ * <p>The JSON envelope is built as usual, with {@link #inlineAudioPart(String)} standing in for the
+ * audio. {@link #writeTo} writes the text around the placeholder and encodes the audio header and
+ * payload straight into the sink a block at a time, so an upload never holds the WAV, its base64
+ * text or the serialized JSON in memory. The payload array is only read, so the body can be written
+ * again when a request is retried.
+ */
+final class InlineAudioRequestBody extends RequestBody {
+  static final String WAV_MIME_TYPE = "audio/wav";
+  static final String FLAC_MIME_TYPE = "audio/flac";
+  static final int WAV_HEADER_BYTES = 44;
+  private static final MediaType JSON = MediaType.parse("application/json");
+  private static final String DATA_PLACEHOLDER = "@@inline-audio-data@@";
+  private static final int SAMPLE_RATE = 16000;
+  private static final int CHANNELS = 1;
+  private static final int BITS_PER_SAMPLE = 16;
+  // A multiple of 3, so only the last block can need base64 padding.
+  private static final int BLOCK_BYTES = 3 * 1024;
+
+  @NonNull private final byte[] prefix;
+  @NonNull private final byte[] suffix;
+  @NonNull private final byte[] header;
+  @NonNull private final byte[] payload;
+
+  /**
+   * @param envelopeJson serialized request containing exactly one {@link #inlineWavPart()}
+   * @param pcmData raw PCM (16kHz, 16-bit, mono)
+   */
+  InlineAudioRequestBody(@NonNull String envelopeJson, @NonNull byte[] pcmData) {
+    this(envelopeJson, wavHeader(pcmData.length), pcmData);
+  }
+
+  private InlineAudioRequestBody(
+      @NonNull String envelopeJson, @NonNull byte[] header, @NonNull byte[] payload) {
+    int at = envelopeJson.indexOf(DATA_PLACEHOLDER);
+    if (at < 0 || at != envelopeJson.lastIndexOf(DATA_PLACEHOLDER)) {
+      throw new IllegalArgumentException("Envelope must contain exactly one inline audio part");
+    }
+    this.prefix = envelopeJson.substring(0, at).getBytes(StandardCharsets.UTF_8);
+    this.suffix =
+        envelopeJson.substring(at + DATA_PLACEHOLDER.length()).getBytes(StandardCharsets.UTF_8);
+    this.header = header;
+    this.payload = payload;
+  }
+
+  /**
+   * @param envelopeJson serialized request containing exactly one {@link
+   *     #inlineAudioPart(String)} for {@link #FLAC_MIME_TYPE}
+   * @param flacData a complete FLAC file
+   */
+  @NonNull
+  static InlineAudioRequestBody flac(@NonNull String envelopeJson, @NonNull byte[] flacData) {
+    return new InlineAudioRequestBody(envelopeJson, new byte[0], flacData);
+  }
+
+  /** A WAV content part whose data is filled in with the recording when the body is written. */
+  @NonNull
+  static JsonObject inlineWavPart() {
+    return inlineAudioPart(WAV_MIME_TYPE);
+  }
+
+  /** A content part of the given type whose data is filled in when the body is written. */
+  @NonNull
+  static JsonObject inlineAudioPart(@NonNull String mimeType) {
+    JsonObject inlineData = new JsonObject();
+    inlineData.addProperty("mimeType", mimeType);
+    inlineData.addProperty("data", DATA_PLACEHOLDER);
+    JsonObject part = new JsonObject();
+    part.add("inlineData", inlineData);
+    return part;
+  }
+
+  @Nullable
+  @Override
+  public MediaType contentType() {
+    return JSON;
+  }
+
+  @Override
+  public long contentLength() {
+    long audioBytes = header.length + (long) payload.length;
+    return prefix.length + (audioBytes + 2) / 3 * 4 + suffix.length;
+  }
+
+  @Override
+  public void writeTo(@NonNull BufferedSink sink) throws IOException {
+    Base64.Encoder encoder = Base64.getEncoder();
+    byte[] block = new byte[BLOCK_BYTES];
+    byte[] encoded = new byte[BLOCK_BYTES / 3 * 4];
+
+    sink.write(prefix);
+    System.arraycopy(header, 0, block, 0, header.length);
+    int filled = header.length;
+    int position = 0;
+    while (true) {
+      int count = Math.min(BLOCK_BYTES - filled, payload.length - position);
+      System.arraycopy(payload, position, block, filled, count);
+      position += count;
+      filled += count;
+      if (filled < BLOCK_BYTES) {
+        break;
+      }
+      sink.write(encoded, 0, encoder.encode(block, encoded));
+      filled = 0;
+    }
+    if (filled > 0) {
+      ByteBuffer tail = encoder.encode(ByteBuffer.wrap(block, 0, filled));
+      sink.write(tail.array(), tail.arrayOffset(), tail.remaining());
+    }
+    sink.write(suffix);
+  }
+
+  @NonNull
+  private static byte[] wavHeader(int pcmLength) {
+    byte[] header = new byte[WAV_HEADER_BYTES];
+    writeWavHeader(header, pcmLength);
+    return header;
+  }
+
+  /** Writes the 44-byte RIFF header for {@code pcmLength} bytes of PCM; returns its length. */
+  static int writeWavHeader(@NonNull byte[] target, int pcmLength) {
+    int blockAlign = CHANNELS * BITS_PER_SAMPLE / 8;
+    ByteBuffer header =
+        ByteBuffer.wrap(target, 0, WAV_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    header.put(ascii("RIFF")).putInt(36 + pcmLength).put(ascii("WAVE"));
+    header
+        .put(ascii("fmt "))
+        .putInt(16)
+        .putShort((short) 1) // PCM
+        .putShort((short) CHANNELS)
+        .putInt(SAMPLE_RATE)
+        .putInt(SAMPLE_RATE * blockAlign)
+        .putShort((short) blockAlign)
+        .putShort((short) BITS_PER_SAMPLE);
+    header.put(ascii("data")).putInt(pcmLength);
+    return WAV_HEADER_BYTES;
+  }
+
+  @NonNull
+  private static byte[] ascii(@NonNull String tag) {
+    return tag.getBytes(StandardCharsets.US_ASCII);
+  }
+}
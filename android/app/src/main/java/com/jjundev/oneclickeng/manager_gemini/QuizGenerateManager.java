@@ -1,7 +1,6 @@
 package com.jjundev.oneclickeng.manager_gemini;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
@@ -12,24 +11,25 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.jjundev.oneclickeng.BuildConfig;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IQuizGenerationManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
-import com.jjundev.oneclickeng.tool.IncrementalQuizQuestionParser;
+import com.jjundev.oneclickeng.tool.StreamingJsonBinder;
 import java.io.IOException;
-import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okio.BufferedSource;
 
 /** One-shot LLM manager for quiz question generation from summary seed data. */
 public class QuizGenerateManager implements IQuizGenerationManager {
@@ -37,14 +37,8 @@ public class QuizGenerateManager implements IQuizGenerationManager {
   private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
   private static final String DEFAULT_MODEL_NAME = "gemini-3.1-flash-lite-preview";
 
-  private static final String PREF_NAME = "gemini_quiz_cache_prefs";
-  private static final String KEY_CACHE_NAME = "gemini_quiz_cache_name";
-  private static final String KEY_CACHE_CREATED = "gemini_quiz_cache_created_at";
-  private static final String KEY_CACHE_TTL = "gemini_quiz_cache_ttl_seconds";
-  private static final String KEY_PROMPT_SCHEMA_VERSION = "gemini_quiz_prompt_schema_version";
-  private static final int PROMPT_SCHEMA_VERSION = 2;
-  private static final int CACHE_TTL_SECONDS = 3600; // 1 hour
-  private static final int MIN_REMAINING_TTL_SECONDS = 300; // 5 minutes
+  private static final String CACHE_DISPLAY_NAME = "QuizGeneratorCache";
+  private static final String QUESTIONS_PATH = "questions[]";
 
   private final OkHttpClient client;
   private final Gson gson;
@@ -52,48 +46,39 @@ public class QuizGenerateManager implements IQuizGenerationManager {
   private final String apiKey;
   private final String modelName;
   private final Context context;
-  private final SharedPreferences prefs;
+  private final CachedContentRegistry cacheRegistry;
 
   private static final OkHttpClient streamingClient =
-      new OkHttpClient.Builder()
-          .connectTimeout(30, TimeUnit.SECONDS)
-          .readTimeout(0, TimeUnit.SECONDS)
-          .writeTimeout(30, TimeUnit.SECONDS)
-          .build();
+      GeminiTransport.getInstance().streamingClient();
 
-  private String cachedContentName;
-  private boolean cacheReady = false;
+  @Nullable private volatile String cacheKey;
 
   public QuizGenerateManager(Context context, String apiKey, String modelName) {
     this.context = context;
     this.apiKey = normalizeOrDefault(apiKey, "");
     this.modelName = normalizeOrDefault(modelName, DEFAULT_MODEL_NAME);
-    this.client =
-        new OkHttpClient.Builder()
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
-            .build();
+    this.client = GeminiTransport.getInstance().client();
     this.gson = new Gson();
     this.mainHandler = new Handler(Looper.getMainLooper());
-    this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    this.cacheRegistry = CachedContentRegistry.getInstance(context);
   }
 
+  @NonNull
   @Override
-  public void generateQuizFromSummaryAsync(
+  public RequestHandle generateQuizFromSummaryAsync(
       @NonNull SummaryData summaryData,
       int requestedQuestionCount,
       @NonNull QuizCallback callback) {
     if (callback == null) {
-      return;
+      return RequestHandle.completed();
     }
     if (summaryData == null) {
       postFailure(callback, "Summary data is null");
-      return;
+      return RequestHandle.completed();
     }
     if (apiKey == null || apiKey.trim().isEmpty()) {
       postFailure(callback, "API key is missing");
-      return;
+      return RequestHandle.completed();
     }
 
     final int maxQuestions = Math.max(1, Math.min(10, requestedQuestionCount));
@@ -101,19 +86,26 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     QuizData.QuizSeed seed = buildQuizSeed(summaryData);
     if (!hasSeed(seed)) {
       postFailure(callback, "Quiz seed is empty");
-      return;
+      return RequestHandle.completed();
     }
 
     int expressionCount = seed.getExpressions() == null ? 0 : seed.getExpressions().size();
     int wordCount = seed.getWords() == null ? 0 : seed.getWords().size();
     logDebug("quiz request start: expressionCount=" + expressionCount + ", wordCount=" + wordCount);
 
-    new Thread(
-            () -> {
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.BACKGROUND,
+            GeminiRequestScheduler.estimateTextTokens(),
+            0L,
+            handle -> {
               try {
+                String key = ensureCacheRegistered();
+                String cacheName = cacheRegistry.currentName(key);
                 JsonObject requestBody = new JsonObject();
-                if (cacheReady && cachedContentName != null) {
-                  requestBody.addProperty("cachedContent", cachedContentName);
+                if (cacheName != null) {
+                  requestBody.addProperty("cachedContent", cacheName);
                 } else {
                   JsonObject sysInstruction = new JsonObject();
                   JsonArray sysParts = new JsonArray();
@@ -148,10 +140,14 @@ public class QuizGenerateManager implements IQuizGenerationManager {
                                 gson.toJson(requestBody), MediaType.parse("application/json")))
                         .build();
 
-                try (Response response = client.newCall(request).execute()) {
+                try (Response response = GeminiTransport.execute(client, request, handle)) {
+                  if (response == null) {
+                    return;
+                  }
                   String body = response.body() != null ? response.body().string() : "";
                   if (!response.isSuccessful()) {
                     logDebug("quiz request failed: code=" + response.code());
+                    invalidateCacheOnRejection(key, cacheName, response.code());
                     postFailure(callback, "Quiz LLM request failed: " + response.code());
                     return;
                   }
@@ -174,28 +170,31 @@ public class QuizGenerateManager implements IQuizGenerationManager {
                   mainHandler.post(() -> callback.onSuccess(parseResult.getQuestions()));
                 }
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 logDebug("quiz request exception: " + safeMessage(e));
                 postFailure(callback, "Quiz LLM error: " + safeMessage(e));
               }
-            })
-        .start();
+            });
   }
 
+  @NonNull
   @Override
-  public void generateQuizFromSummaryStreamingAsync(
+  public RequestHandle generateQuizFromSummaryStreamingAsync(
       @NonNull SummaryData summaryData,
       int requestedQuestionCount,
       @NonNull QuizStreamingCallback callback) {
     if (callback == null) {
-      return;
+      return RequestHandle.completed();
     }
     if (summaryData == null) {
       postFailure(callback, "Summary data is null");
-      return;
+      return RequestHandle.completed();
     }
     if (apiKey == null || apiKey.trim().isEmpty()) {
       postFailure(callback, "API key is missing");
-      return;
+      return RequestHandle.completed();
     }
 
     final int maxQuestions = Math.max(1, Math.min(10, requestedQuestionCount));
@@ -203,7 +202,7 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     QuizData.QuizSeed seed = buildQuizSeed(summaryData);
     if (!hasSeed(seed)) {
       postFailure(callback, "Quiz seed is empty");
-      return;
+      return RequestHandle.completed();
     }
 
     int expressionCount = seed.getExpressions() == null ? 0 : seed.getExpressions().size();
@@ -214,13 +213,20 @@ public class QuizGenerateManager implements IQuizGenerationManager {
             + ", wordCount="
             + wordCount);
 
-    new Thread(
-            () -> {
-              int emittedQuestionCount = 0;
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.BACKGROUND,
+            GeminiRequestScheduler.estimateTextTokens(),
+            0L,
+            handle -> {
+              AtomicInteger emittedQuestions = new AtomicInteger();
               try {
+                String key = ensureCacheRegistered();
+                String cacheName = cacheRegistry.currentName(key);
                 JsonObject requestBody = new JsonObject();
-                if (cacheReady && cachedContentName != null) {
-                  requestBody.addProperty("cachedContent", cachedContentName);
+                if (cacheName != null) {
+                  requestBody.addProperty("cachedContent", cacheName);
                 } else {
                   JsonObject sysInstruction = new JsonObject();
                   JsonArray sysParts = new JsonArray();
@@ -260,10 +266,14 @@ public class QuizGenerateManager implements IQuizGenerationManager {
                                 gson.toJson(requestBody), MediaType.parse("application/json")))
                         .build();
 
-                IncrementalQuizQuestionParser parser = new IncrementalQuizQuestionParser();
-                try (Response response = streamingClient.newCall(request).execute()) {
+                try (Response response =
+                    GeminiTransport.execute(streamingClient, request, handle)) {
+                  if (response == null) {
+                    return;
+                  }
                   if (!response.isSuccessful()) {
                     logDebug("quiz stream request failed: code=" + response.code());
+                    invalidateCacheOnRejection(key, cacheName, response.code());
                     postFailure(callback, "Quiz LLM request failed: " + response.code());
                     return;
                   }
@@ -272,79 +282,46 @@ public class QuizGenerateManager implements IQuizGenerationManager {
                     return;
                   }
 
-                  BufferedSource source = response.body().source();
-                  while (!source.exhausted() && emittedQuestionCount < maxQuestions) {
-                    String line = source.readUtf8Line();
-                    if (line == null || !line.startsWith("data: ")) {
-                      continue;
-                    }
-                    String data = line.substring(6).trim();
-                    if (data.isEmpty() || "[DONE]".equals(data)) {
-                      continue;
-                    }
-
-                    try {
-                      JsonObject root = JsonParser.parseString(data).getAsJsonObject();
-                      JsonArray candidates = root.getAsJsonArray("candidates");
-                      if (candidates == null || candidates.size() == 0) {
-                        continue;
-                      }
-                      JsonObject content =
-                          candidates.get(0).getAsJsonObject().getAsJsonObject("content");
-                      if (content == null) {
-                        continue;
-                      }
-                      JsonArray responseParts = content.getAsJsonArray("parts");
-                      if (responseParts == null || responseParts.size() == 0) {
-                        continue;
-                      }
-
-                      for (JsonElement responsePart : responseParts) {
-                        if (responsePart == null || !responsePart.isJsonObject()) {
-                          continue;
+                  GeminiSseReader sseReader = new GeminiSseReader(response.body().source());
+                  StreamingJsonBinder binder = new StreamingJsonBinder();
+                  binder.on(
+                      QUESTIONS_PATH,
+                      (reader, index) -> {
+                        if (emittedQuestions.get() >= maxQuestions) {
+                          reader.skipValue();
+                          binder.stop();
+                          return;
                         }
-                        JsonObject responsePartObject = responsePart.getAsJsonObject();
-                        if (!responsePartObject.has("text")) {
-                          continue;
-                        }
-
-                        List<String> questionObjects =
-                            parser.addChunk(responsePartObject.get("text").getAsString());
-                        for (String questionObject : questionObjects) {
-                          if (emittedQuestionCount >= maxQuestions) {
-                            break;
-                          }
-                          QuizData.QuizQuestion parsedQuestion =
-                              parseQuestionObjectForStreaming(questionObject);
-                          if (parsedQuestion == null) {
-                            continue;
-                          }
-                          emittedQuestionCount++;
-                          QuizData.QuizQuestion callbackQuestion = parsedQuestion;
-                          mainHandler.post(() -> callback.onQuestion(callbackQuestion));
+                        QuizData.QuizQuestion question = readQuestion(reader);
+                        if (question == null) {
+                          return;
                         }
-                      }
-                    } catch (Exception ignored) {
-                      // Ignore malformed chunk and keep streaming.
-                    }
-                  }
+                        emittedQuestions.incrementAndGet();
+                        mainHandler.post(() -> callback.onQuestion(question));
+                      });
+                  binder.bind(new SseTextReader(sseReader, handle, null));
                 }
 
-                if (emittedQuestionCount > 0) {
+                if (handle.isCancelled()) {
+                  return;
+                }
+                if (emittedQuestions.get() > 0) {
                   postComplete(callback, null);
                   return;
                 }
                 postFailure(callback, "Failed to parse quiz questions");
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 logDebug("quiz stream request exception: " + safeMessage(e));
-                if (emittedQuestionCount > 0) {
+                if (emittedQuestions.get() > 0) {
                   postComplete(callback, "partial stream interrupted");
                 } else {
                   postFailure(callback, "Quiz LLM error: " + safeMessage(e));
                 }
               }
-            })
-        .start();
+            });
   }
 
   @NonNull
@@ -510,28 +487,59 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     return null;
   }
 
+  /**
+   * Reads one streamed question object field by field. Returns {@code null}, with the value
+   * consumed, if it is not an object or lacks the question or answer.
+   */
   @Nullable
-  private static QuizData.QuizQuestion parseQuestionObjectForStreaming(
-      @Nullable String rawQuestionObject) {
-    if (rawQuestionObject == null || rawQuestionObject.trim().isEmpty()) {
+  static QuizData.QuizQuestion readQuestion(@NonNull JsonReader reader) throws IOException {
+    if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+      reader.skipValue();
       return null;
     }
-    try {
-      JsonObject item = JsonParser.parseString(rawQuestionObject).getAsJsonObject();
-      String questionMain = trimToNull(readAsString(item, "question_main"));
-      String questionMaterial = trimToNull(readAsString(item, "question_material"));
-      String answer = trimToNull(readAsString(item, "answer"));
-      if (questionMain == null || answer == null) {
-        return null;
+    String questionMain = null;
+    String questionMaterial = null;
+    String answer = null;
+    String explanation = null;
+    List<String> rawChoices = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      switch (reader.nextName()) {
+        case "question_main":
+          questionMain = trimToNull(StreamingJsonBinder.nextStringOrNull(reader));
+          break;
+        case "question_material":
+          questionMaterial = trimToNull(StreamingJsonBinder.nextStringOrNull(reader));
+          break;
+        case "answer":
+          answer = trimToNull(StreamingJsonBinder.nextStringOrNull(reader));
+          break;
+        case "explanation":
+          explanation = trimToNull(StreamingJsonBinder.nextStringOrNull(reader));
+          break;
+        case "choices":
+          if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            break;
+          }
+          rawChoices = new ArrayList<>();
+          reader.beginArray();
+          while (reader.hasNext()) {
+            rawChoices.add(StreamingJsonBinder.nextStringOrNull(reader));
+          }
+          reader.endArray();
+          break;
+        default:
+          reader.skipValue();
+          break;
       }
-
-      List<String> choices = sanitizeChoices(readAsArray(item, "choices"));
-      String explanation = trimToNull(readAsString(item, "explanation"));
-      return new QuizData.QuizQuestion(
-          questionMain, questionMaterial, answer, choices, explanation);
-    } catch (Exception ignored) {
+    }
+    reader.endObject();
+    if (questionMain == null || answer == null) {
       return null;
     }
+    return new QuizData.QuizQuestion(
+        questionMain, questionMaterial, answer, sanitizeChoices(rawChoices), explanation);
   }
 
   @Nullable
@@ -539,13 +547,25 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     if (choicesArray == null || choicesArray.size() == 0) {
       return null;
     }
-    List<String> result = new ArrayList<>();
-    Set<String> seen = new HashSet<>();
+    List<String> rawChoices = new ArrayList<>();
     for (int i = 0; i < choicesArray.size(); i++) {
       if (choicesArray.get(i) == null || !choicesArray.get(i).isJsonPrimitive()) {
         continue;
       }
-      String choice = trimToNull(choicesArray.get(i).getAsString());
+      rawChoices.add(choicesArray.get(i).getAsString());
+    }
+    return sanitizeChoices(rawChoices);
+  }
+
+  @Nullable
+  private static List<String> sanitizeChoices(@Nullable List<String> rawChoices) {
+    if (rawChoices == null || rawChoices.isEmpty()) {
+      return null;
+    }
+    List<String> result = new ArrayList<>();
+    Set<String> seen = new HashSet<>();
+    for (String rawChoice : rawChoices) {
+      String choice = trimToNull(rawChoice);
       if (choice == null) {
         continue;
       }
@@ -558,6 +578,7 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     return result.isEmpty() ? null : result;
   }
 
+
   @NonNull
   private static String extractFirstTextPart(@Nullable String body) {
     if (body == null || body.trim().isEmpty()) {
@@ -671,206 +692,51 @@ public class QuizGenerateManager implements IQuizGenerationManager {
     Log.d(TAG, message);
   }
 
-  interface ValidationCallback {
-    void onValid(String cacheName, long remainingSeconds);
-
-    void onInvalid();
-
-    void onError(String error);
-  }
-
   @Override
   public void initializeCache(@NonNull InitCallback callback) {
-    int savedPromptSchemaVersion = prefs.getInt(KEY_PROMPT_SCHEMA_VERSION, 0);
-    if (savedPromptSchemaVersion != PROMPT_SCHEMA_VERSION) {
-      logDebug(
-          "Prompt schema changed: "
-              + savedPromptSchemaVersion
-              + " -> "
-              + PROMPT_SCHEMA_VERSION
-              + ". Resetting quiz cache.");
-      clearLocalCacheData();
-    }
-
-    String savedCacheName = prefs.getString(KEY_CACHE_NAME, null);
-
-    if (savedCacheName != null) {
-      long createdAt = prefs.getLong(KEY_CACHE_CREATED, 0);
-      int ttl = prefs.getInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS);
-      long elapsedSeconds = (System.currentTimeMillis() - createdAt) / 1000;
-
-      if (elapsedSeconds > ttl) {
-        logDebug("Local cache expired, creating new one");
-        clearLocalCacheData();
-        createCache(callback);
-        return;
-      }
-
-      validateCacheFromServer(
-          savedCacheName,
-          new ValidationCallback() {
-            @Override
-            public void onValid(String name, long remainingSeconds) {
-              if (remainingSeconds > MIN_REMAINING_TTL_SECONDS) {
-                logDebug("Reusing existing cache: " + name);
-                cachedContentName = name;
-                cacheReady = true;
-                mainHandler.post(callback::onReady);
-              } else {
-                logDebug("Cache expiring soon. Creating new cache.");
-                createCache(callback);
-              }
-            }
-
-            @Override
-            public void onInvalid() {
-              logDebug("Saved cache invalid. Creating new cache.");
-              clearLocalCacheData();
-              createCache(callback);
-            }
-
-            @Override
-            public void onError(String error) {
-              logDebug("Validation error: " + error + ". Creating new cache.");
-              createCache(callback);
-            }
-          });
-    } else {
-      logDebug("No local cache found. Creating new cache.");
-      createCache(callback);
-    }
-  }
-
-  private void createCache(@NonNull InitCallback callback) {
     new Thread(
-            () -> {
-              try {
-                String systemPrompt = getSystemPrompt();
-
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "models/" + modelName);
-
-                JsonArray contents = new JsonArray();
-                JsonObject userContent = new JsonObject();
-                userContent.addProperty("role", "user");
-                JsonArray userParts = new JsonArray();
-                JsonObject userPart = new JsonObject();
-                userPart.addProperty("text", "Initialize quiz generator.");
-                userParts.add(userPart);
-                userContent.add("parts", userParts);
-                contents.add(userContent);
-
-                JsonObject modelContent = new JsonObject();
-                modelContent.addProperty("role", "model");
-                JsonArray modelParts = new JsonArray();
-                JsonObject modelPart = new JsonObject();
-                modelPart.addProperty(
-                    "text",
-                    "I am ready to generate English learning quizzes based on your requirements.");
-                modelParts.add(modelPart);
-                modelContent.add("parts", modelParts);
-                contents.add(modelContent);
-
-                requestBody.add("contents", contents);
-
-                JsonObject sysInstruction = new JsonObject();
-                JsonArray sysParts = new JsonArray();
-                JsonObject sysPart = new JsonObject();
-                sysPart.addProperty("text", systemPrompt);
-                sysParts.add(sysPart);
-                sysInstruction.add("parts", sysParts);
-                requestBody.add("systemInstruction", sysInstruction);
-
-                requestBody.addProperty("ttl", CACHE_TTL_SECONDS + "s");
-                requestBody.addProperty("displayName", "QuizGeneratorCache");
-
-                String url = BASE_URL + "/cachedContents?key=" + apiKey;
-                String jsonBody = gson.toJson(requestBody);
-
-                Request request =
-                    new Request.Builder()
-                        .url(url)
-                        .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                  String responseBody = response.body() != null ? response.body().string() : "";
-
-                  if (!response.isSuccessful()) {
-                    logDebug("Cache creation failed: " + response.code() + " - " + responseBody);
-                    mainHandler.post(
-                        () -> callback.onError("Cache creation failed: " + responseBody));
-                    return;
-                  }
-
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-                  cachedContentName = result.get("name").getAsString();
-                  cacheReady = true;
-
-                  prefs
-                      .edit()
-                      .putString(KEY_CACHE_NAME, cachedContentName)
-                      .putLong(KEY_CACHE_CREATED, System.currentTimeMillis())
-                      .putInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS)
-                      .putInt(KEY_PROMPT_SCHEMA_VERSION, PROMPT_SCHEMA_VERSION)
-                      .apply();
-
-                  logDebug("New cache created: " + cachedContentName);
-                  mainHandler.post(callback::onReady);
-                }
-              } catch (Exception e) {
-                logDebug("Cache initialization error: " + safeMessage(e));
-                mainHandler.post(() -> callback.onError("Error: " + e.getMessage()));
-              }
-            })
-        .start();
-  }
-
-  private void validateCacheFromServer(String cacheName, ValidationCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                String url = BASE_URL + "/" + cacheName + "?key=" + apiKey;
-                Request request = new Request.Builder().url(url).get().build();
+            () ->
+                cacheRegistry.ensureReady(
+                    ensureCacheRegistered(),
+                    new CachedContentRegistry.ReadyListener() {
+                      @Override
+                      public void onReady(@NonNull String cacheName) {
+                        logDebug("Cache ready: " + cacheName);
+                        mainHandler.post(callback::onReady);
+                      }
 
-                try (Response response = client.newCall(request).execute()) {
-                  if (response.code() == 404) {
-                    callback.onInvalid();
-                    return;
-                  }
-                  if (!response.isSuccessful()) {
-                    callback.onError("Server check failed: " + response.code());
-                    return;
-                  }
-                  String responseBody = response.body() != null ? response.body().string() : "";
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-
-                  if (result.has("expireTime")) {
-                    String expireTimeStr = result.get("expireTime").getAsString();
-                    Instant expireTime = Instant.parse(expireTimeStr);
-                    long remainingSeconds =
-                        expireTime.getEpochSecond() - Instant.now().getEpochSecond();
-                    callback.onValid(cacheName, remainingSeconds);
-                  } else {
-                    callback.onError("No expireTime in response");
-                  }
-                }
-              } catch (Exception e) {
-                logDebug("Cache validation error: " + safeMessage(e));
-                callback.onError(e.getMessage());
-              }
-            })
+                      @Override
+                      public void onError(@NonNull String error) {
+                        logDebug("Cache not ready: " + error);
+                        mainHandler.post(() -> callback.onError(error));
+                      }
+                    }))
         .start();
   }
 
-  private void clearLocalCacheData() {
-    prefs
-        .edit()
-        .remove(KEY_CACHE_NAME)
-        .remove(KEY_CACHE_CREATED)
-        .remove(KEY_CACHE_TTL)
-        .remove(KEY_PROMPT_SCHEMA_VERSION)
-        .apply();
+  @NonNull
+  private String ensureCacheRegistered() {
+    String key = cacheKey;
+    if (key == null) {
+      key =
+          cacheRegistry.register(
+              apiKey,
+              new CachedContentRegistry.Spec(
+                  modelName,
+                  CACHE_DISPLAY_NAME,
+                  getSystemPrompt(),
+                  "Initialize quiz generator.",
+                  "I am ready to generate English learning quizzes based on your requirements."));
+      cacheKey = key;
+    }
+    return key;
+  }
+
+  private void invalidateCacheOnRejection(
+      @NonNull String key, @Nullable String cacheName, int responseCode) {
+    if (cacheName != null && (responseCode == 400 || responseCode == 404)) {
+      cacheRegistry.invalidate(key, cacheName);
+    }
   }
 
   private String getSystemPrompt() {
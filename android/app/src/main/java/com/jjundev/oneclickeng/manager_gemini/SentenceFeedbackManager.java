@@ -1,15 +1,20 @@
 package com.jjundev.oneclickeng.manager_gemini;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
 import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonToken;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ConceptualBridge;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.GrammarFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.NaturalnessFeedback;
@@ -17,16 +22,24 @@ import com.jjundev.oneclickeng.learning.dialoguelearning.model.ParaphrasingLevel
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ToneStyle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.WritingScore;
-import com.jjundev.oneclickeng.tool.IncrementalJsonSectionParser;
+import com.jjundev.oneclickeng.tool.StreamingJsonBinder;
+import java.io.BufferedReader;
 import java.io.IOException;
-import java.time.Instant;
-import java.util.concurrent.TimeUnit;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okio.BufferedSource;
 
 /**
  * Gemini Feedback Manager (Gemini 2 Flash Preview) Integrated with Prompt Caching and Streaming
@@ -39,24 +52,23 @@ public class SentenceFeedbackManager
   private static final String TAG = "SentenceFeedbackManager";
   private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
   private static final String DEFAULT_MODEL_NAME = "gemini-3.1-flash-lite-preview";
-  private static final int CACHE_TTL_SECONDS = 3600; // 1 hour
-
-  private static final String PREF_NAME = "gemini_cache_prefs";
-  private static final String KEY_CACHE_NAME = "gemini_cache_name_v2";
-  private static final String KEY_CACHE_CREATED = "gemini_cache_created_at";
-  private static final String KEY_CACHE_TTL = "gemini_cache_ttl_seconds";
-  private static final int MIN_REMAINING_TTL_SECONDS = 300; // 5 minutes
+  private static final String CACHE_DISPLAY_NAME = "SentenceFeedbackContext";
 
   private final OkHttpClient client;
   private final Gson gson;
+  private final Map<String, TypeAdapter<?>> sectionAdapters;
   private final String apiKey;
   private final String modelName;
   private final Handler mainHandler;
-  private final SharedPreferences prefs;
+  private final CachedContentRegistry cacheRegistry;
 
   private final Context context;
-  private String cachedContentName;
-  private boolean cacheReady = false;
+  @Nullable private volatile String cacheKey;
+  @Nullable private volatile String promptSignature;
+
+  private final GeminiResponseCache responseCache;
+  // Identical requests keyed by response key; also guards each stream's subscribers and sections.
+  private final Map<String, SharedFeedbackStream> inFlightStreams = new HashMap<>();
 
   public interface FeedbackCallback {
     void onSuccess(SentenceFeedback feedback, boolean usedCache);
@@ -64,353 +76,468 @@ public class SentenceFeedbackManager
     void onError(String error);
   }
 
-  interface ValidationCallback {
-    void onValid(String cacheName, long remainingSeconds);
-
-    void onInvalid();
-
-    void onError(String error);
-  }
-
   public SentenceFeedbackManager(Context context, String apiKey, String modelName) {
     this.context = context;
     this.apiKey = normalizeOrDefault(apiKey, "");
     this.modelName = normalizeOrDefault(modelName, DEFAULT_MODEL_NAME);
-    this.client =
-        new OkHttpClient.Builder()
-            .connectTimeout(60, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .writeTimeout(60, TimeUnit.SECONDS)
-            .build();
+    this.client = GeminiTransport.getInstance().client();
     this.gson = new Gson();
+    this.sectionAdapters = createSectionAdapters(gson);
     this.mainHandler = new Handler(Looper.getMainLooper());
-    this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    this.cacheRegistry = CachedContentRegistry.getInstance(context);
+    this.responseCache = GeminiResponseCache.getInstance(context);
   }
 
   private static final OkHttpClient streamingClient =
-      new OkHttpClient.Builder()
-          .connectTimeout(30, TimeUnit.SECONDS)
-          .readTimeout(0, TimeUnit.SECONDS) // No read timeout for streaming
-          .writeTimeout(30, TimeUnit.SECONDS)
-          .build();
+      GeminiTransport.getInstance().streamingClient();
+
+  // Response cache lookups read from disk; one thread keeps them off the main thread and ordered.
+  private static final ExecutorService responseCacheExecutor =
+      Executors.newSingleThreadExecutor();
 
   /** Cache initialization - Caches system prompt and context. */
   @Override
   public void initializeCache(ISentenceFeedbackManager.InitCallback callback) {
-    String savedCacheName = prefs.getString(KEY_CACHE_NAME, null);
+    new Thread(
+            () ->
+                cacheRegistry.ensureReady(
+                    ensureCacheRegistered(),
+                    new CachedContentRegistry.ReadyListener() {
+                      @Override
+                      public void onReady(@NonNull String cacheName) {
+                        Log.i(TAG, "[GeminiCache] Cache ready: " + cacheName);
+                        mainHandler.post(callback::onReady);
+                      }
+
+                      @Override
+                      public void onError(@NonNull String error) {
+                        mainHandler.post(() -> callback.onError(error));
+                      }
+                    }))
+        .start();
+  }
+
+  /** Registers the system prompt and context material once; reads assets, so call off main. */
+  @NonNull
+  private String ensureCacheRegistered() {
+    String key = cacheKey;
+    if (key == null) {
+      key =
+          cacheRegistry.register(
+              apiKey,
+              new CachedContentRegistry.Spec(
+                  modelName,
+                  CACHE_DISPLAY_NAME,
+                  buildSystemPrompt(),
+                  buildContextMaterial(),
+                  "I understand. I am ready to evaluate sentences."));
+      cacheKey = key;
+    }
+    return key;
+  }
+
+  @NonNull
+  @Override
+  public RequestHandle analyzeSentenceStreaming(
+      String originalSentence,
+      String userSentence,
+      ISentenceFeedbackManager.StreamingFeedbackCallback callback) {
+    String original = originalSentence.trim();
+    String user = normalizeUserSentence(userSentence);
+    RequestHandle handle = new RequestHandle();
+    handle.expect(
+        0L,
+        GeminiRequestScheduler.estimateTextTokens(original, user),
+        GeminiRequestScheduler.DEFAULT_OUTPUT_TOKEN_ESTIMATE);
+    FeedbackSubscriber subscriber = new FeedbackSubscriber(handle, callback, original, user);
+    responseCacheExecutor.execute(
+        () -> {
+          if (handle.isCancelled()) {
+            return;
+          }
+          String responseKey = buildResponseKey(original, user);
+          String cached = responseCache.get(responseKey);
+          if (cached != null) {
+            Log.d(TAG, "Feedback served from response cache");
+            replayCachedResponse(cached, subscriber);
+            return;
+          }
+          joinOrStartStream(responseKey, subscriber);
+        });
+    return handle;
+  }
 
-    if (savedCacheName != null) {
-      long createdAt = prefs.getLong(KEY_CACHE_CREATED, 0);
-      int ttl = prefs.getInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS);
-      long elapsedSeconds = (System.currentTimeMillis() - createdAt) / 1000;
+  /** Replays a stored response through the same section events a live stream produces. */
+  private void replayCachedResponse(@NonNull String response, @NonNull FeedbackSubscriber sub) {
+    try {
+      newSectionBinder(section -> applySection(section, sub.feedback, sub.callback))
+          .bind(new StringReader(response));
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to replay cached feedback: " + e.getMessage());
+    }
+    sub.handle.finish();
+    mainHandler.post(() -> sub.callback.onComplete(sub.feedback));
+  }
+
+  /**
+   * Attaches the subscriber to an identical request that is already streaming, replaying the
+   * sections it has produced so far, or starts a new one.
+   */
+  private void joinOrStartStream(@NonNull String responseKey, @NonNull FeedbackSubscriber sub) {
+    SharedFeedbackStream stream;
+    boolean start = false;
+    synchronized (inFlightStreams) {
+      stream = inFlightStreams.get(responseKey);
+      if (stream == null) {
+        stream = new SharedFeedbackStream(responseKey);
+        inFlightStreams.put(responseKey, stream);
+        start = true;
+      }
+      SharedFeedbackStream joined = stream;
+      if (!sub.handle.onStarted(() -> leaveStream(joined, sub))) {
+        if (start) {
+          inFlightStreams.remove(responseKey);
+        }
+        return;
+      }
+      stream.subscribers.add(sub);
+      for (BoundSection section : stream.sections) {
+        applySection(section, sub.feedback, sub.callback);
+      }
+    }
+    if (!start) {
+      Log.d(TAG, "Joined in-flight feedback request");
+      return;
+    }
+    SharedFeedbackStream started = stream;
+    RequestHandle networkHandle =
+        GeminiRequestScheduler.getInstance()
+            .submit(
+                modelName,
+                GeminiRequestScheduler.Priority.INTERACTIVE,
+                GeminiRequestScheduler.estimateTextTokens(sub.originalSentence, sub.userSentence),
+                0L,
+                handle -> streamFeedback(started, sub.originalSentence, sub.userSentence, handle));
+    synchronized (inFlightStreams) {
+      started.networkHandle = networkHandle;
+      if (!started.subscribers.isEmpty()) {
+        return;
+      }
+    }
+    // Every subscriber left before the request was handed to the scheduler.
+    networkHandle.cancel();
+  }
 
-      if (elapsedSeconds > ttl) {
-        Log.d(TAG, "[GeminiCache] Local cache expired, creating new one");
-        clearLocalCacheData();
-        createCache(callback);
+  private void leaveStream(@NonNull SharedFeedbackStream stream, @NonNull FeedbackSubscriber sub) {
+    RequestHandle networkHandle;
+    synchronized (inFlightStreams) {
+      if (!stream.subscribers.remove(sub) || !stream.subscribers.isEmpty()) {
         return;
       }
+      if (inFlightStreams.get(stream.responseKey) == stream) {
+        inFlightStreams.remove(stream.responseKey);
+      }
+      networkHandle = stream.networkHandle;
+    }
+    if (networkHandle != null) {
+      networkHandle.cancel();
+    }
+  }
 
-      Log.d(TAG, "[GeminiCache] Found local cache info, verifying with server...");
-      validateCacheFromServer(
-          savedCacheName,
-          new ValidationCallback() {
-            @Override
-            public void onValid(String name, long remainingSeconds) {
-              if (remainingSeconds > MIN_REMAINING_TTL_SECONDS) {
-                Log.i(TAG, "[GeminiCache] REUSING EXISTING CACHE: " + name);
-                cachedContentName = name;
-                cacheReady = true;
-                mainHandler.post(callback::onReady);
-              } else {
-                Log.i(TAG, "[GeminiCache] Cache expiring soon. CREATING NEW CACHE.");
-                createCache(callback);
-              }
-            }
+  private void streamFeedback(
+      @NonNull SharedFeedbackStream stream,
+      @NonNull String originalSentence,
+      @NonNull String userSentence,
+      @NonNull RequestHandle handle) {
+    try {
+      String key = ensureCacheRegistered();
+      String cacheName = cacheRegistry.currentName(key);
+      JsonObject requestBody = new JsonObject();
+      if (cacheName != null) {
+        requestBody.addProperty("cachedContent", cacheName);
+      } else {
+        addSystemInstruction(requestBody);
+      }
 
-            @Override
-            public void onInvalid() {
-              Log.i(TAG, "[GeminiCache] Cache invalid on server. CREATING NEW CACHE.");
-              clearLocalCacheData();
-              createCache(callback);
-            }
+      JsonArray contents = new JsonArray();
+      JsonObject userContent = new JsonObject();
+      userContent.addProperty("role", "user");
+      JsonArray parts = new JsonArray();
+
+      JsonObject textPart = new JsonObject();
+      textPart.addProperty(
+          "text",
+          "Original Korean Sentence: \""
+              + originalSentence
+              + "\"\nUser's English Translation: \""
+              + userSentence
+              + "\"\nAnalyze the translation and provide JSON feedback.");
+      parts.add(textPart);
+
+      userContent.add("parts", parts);
+      contents.add(userContent);
+      requestBody.add("contents", contents);
+
+      JsonObject generationConfig = new JsonObject();
+      generationConfig.addProperty("responseMimeType", "application/json");
+      requestBody.add("generationConfig", generationConfig);
+
+      String url =
+          BASE_URL
+              + "/models/"
+              + modelName
+              + ":streamGenerateContent?key="
+              + apiKey
+              + "&alt=sse";
+      String jsonBody = gson.toJson(requestBody);
 
-            @Override
-            public void onError(String error) {
-              Log.w(TAG, "[GeminiCache] Validation error: " + error + ". CREATING NEW CACHE.");
-              createCache(callback);
-            }
-          });
-    } else {
-      Log.i(TAG, "[GeminiCache] No local cache found. CREATING NEW CACHE.");
-      createCache(callback);
+      Request request =
+          new Request.Builder()
+              .url(url)
+              .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+              .build();
+
+      try (Response response = GeminiTransport.execute(streamingClient, request, handle)) {
+        if (response == null) {
+          return;
+        }
+        if (!response.isSuccessful()) {
+          if (cacheName != null && (response.code() == 400 || response.code() == 404)) {
+            cacheRegistry.invalidate(key, cacheName);
+          }
+          failStream(stream, "Streaming failed: " + response.code());
+          return;
+        }
+
+        StringBuilder fullResponse = new StringBuilder();
+        StreamingJsonBinder sectionBinder =
+            newSectionBinder(
+                section -> {
+                  synchronized (inFlightStreams) {
+                    stream.sections.add(section);
+                    for (FeedbackSubscriber sub : stream.subscribers) {
+                      applySection(section, sub.feedback, sub.callback);
+                    }
+                  }
+                });
+        sectionBinder.bind(
+            new SseTextReader(
+                new GeminiSseReader(response.body().source()),
+                handle,
+                text -> {
+                  fullResponse.append(text);
+                  int outputTokens = GeminiRequestScheduler.estimateOutputTokens(text);
+                  synchronized (inFlightStreams) {
+                    for (FeedbackSubscriber sub : stream.subscribers) {
+                      sub.handle.recordOutputTokens(outputTokens);
+                    }
+                  }
+                }));
+        if (handle.isCancelled()) {
+          return;
+        }
+        storeResponse(stream.responseKey, fullResponse.toString());
+        for (FeedbackSubscriber sub : finishStream(stream)) {
+          mainHandler.post(() -> sub.callback.onComplete(sub.feedback));
+        }
+      }
+    } catch (Exception e) {
+      if (handle.isCancelled()) {
+        return;
+      }
+      failStream(stream, "Streaming Error: " + e.getMessage());
     }
   }
 
-  private void createCache(ISentenceFeedbackManager.InitCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                String systemPrompt = buildSystemPrompt();
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "models/" + modelName);
-
-                JsonArray contents = new JsonArray();
-                JsonObject contextContent = new JsonObject();
-                contextContent.addProperty("role", "user");
-                JsonArray contextParts = new JsonArray();
-                JsonObject contextPart = new JsonObject();
-                contextPart.addProperty("text", buildContextMaterial());
-                contextParts.add(contextPart);
-                contextContent.add("parts", contextParts);
-                contents.add(contextContent);
-
-                JsonObject modelResponse = new JsonObject();
-                modelResponse.addProperty("role", "model");
-                JsonArray modelParts = new JsonArray();
-                JsonObject modelPart = new JsonObject();
-                modelPart.addProperty("text", "I understand. I am ready to evaluate sentences.");
-                modelParts.add(modelPart);
-                modelResponse.add("parts", modelParts);
-                contents.add(modelResponse);
-
-                requestBody.add("contents", contents);
-
-                JsonObject sysInstruction = new JsonObject();
-                JsonArray sysParts = new JsonArray();
-                JsonObject sysPart = new JsonObject();
-                sysPart.addProperty("text", systemPrompt);
-                sysParts.add(sysPart);
-                sysInstruction.add("parts", sysParts);
-                requestBody.add("systemInstruction", sysInstruction);
-
-                requestBody.addProperty("ttl", CACHE_TTL_SECONDS + "s");
-                requestBody.addProperty("displayName", "SentenceFeedbackContext");
-
-                String url = BASE_URL + "/cachedContents?key=" + apiKey;
-                String jsonBody = gson.toJson(requestBody);
-
-                Request request =
-                    new Request.Builder()
-                        .url(url)
-                        .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                  String responseBody = response.body() != null ? response.body().string() : "";
-                  if (!response.isSuccessful()) {
-                    mainHandler.post(
-                        () -> callback.onError("Cache creation failed: " + responseBody));
-                    return;
-                  }
+  /** Caches the response only if it is one complete JSON object, so truncated output is retried. */
+  private void storeResponse(@NonNull String responseKey, @NonNull String response) {
+    try {
+      if (JsonParser.parseString(response).isJsonObject()) {
+        responseCache.put(responseKey, response);
+      }
+    } catch (Exception e) {
+      Log.w(TAG, "Not caching malformed feedback response: " + e.getMessage());
+    }
+  }
 
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-                  cachedContentName = result.get("name").getAsString();
-                  cacheReady = true;
-
-                  prefs
-                      .edit()
-                      .putString(KEY_CACHE_NAME, cachedContentName)
-                      .putLong(KEY_CACHE_CREATED, System.currentTimeMillis())
-                      .putInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS)
-                      .apply();
-
-                  Log.i(TAG, "[GeminiCache] NEW CACHE CREATED: " + cachedContentName);
-                  mainHandler.post(callback::onReady);
-                }
-              } catch (Exception e) {
-                mainHandler.post(() -> callback.onError("Error: " + e.getMessage()));
-              }
-            })
-        .start();
+  private void failStream(@NonNull SharedFeedbackStream stream, @NonNull String error) {
+    for (FeedbackSubscriber sub : finishStream(stream)) {
+      mainHandler.post(() -> sub.callback.onError(error));
+    }
   }
 
-  private void validateCacheFromServer(String cacheName, ValidationCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                String url = BASE_URL + "/" + cacheName + "?key=" + apiKey;
-                Request request = new Request.Builder().url(url).get().build();
-                try (Response response = client.newCall(request).execute()) {
-                  if (response.code() == 404) {
-                    callback.onInvalid();
-                    return;
-                  }
-                  if (!response.isSuccessful()) {
-                    callback.onError("Server check failed: " + response.code());
-                    return;
-                  }
-                  String responseBody = response.body().string();
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-                  if (result.has("expireTime")) {
-                    Instant expireTime = Instant.parse(result.get("expireTime").getAsString());
-                    long remainingSeconds =
-                        expireTime.getEpochSecond() - Instant.now().getEpochSecond();
-                    callback.onValid(cacheName, remainingSeconds);
-                  } else {
-                    callback.onError("No expireTime in response");
-                  }
-                }
-              } catch (Exception e) {
-                callback.onError(e.getMessage());
-              }
-            })
-        .start();
+  /** Detaches every subscriber so identical requests from now on start a fresh call. */
+  @NonNull
+  private List<FeedbackSubscriber> finishStream(@NonNull SharedFeedbackStream stream) {
+    List<FeedbackSubscriber> subscribers;
+    synchronized (inFlightStreams) {
+      if (inFlightStreams.get(stream.responseKey) == stream) {
+        inFlightStreams.remove(stream.responseKey);
+      }
+      subscribers = new ArrayList<>(stream.subscribers);
+      stream.subscribers.clear();
+    }
+    for (FeedbackSubscriber sub : subscribers) {
+      sub.handle.finish();
+    }
+    return subscribers;
+  }
+
+  /**
+   * Content address of a feedback response: model, prompt signature and both sentences. Reads the
+   * prompt assets on first use, so call off the main thread.
+   */
+  @NonNull
+  private String buildResponseKey(@NonNull String originalSentence, @NonNull String userSentence) {
+    String signature = promptSignature;
+    if (signature == null) {
+      signature = GeminiResponseCache.buildKey(buildSystemPrompt(), buildContextMaterial());
+      promptSignature = signature;
+    }
+    return GeminiResponseCache.buildKey(modelName, signature, originalSentence, userSentence);
   }
 
-  private void clearLocalCacheData() {
-    prefs.edit().remove(KEY_CACHE_NAME).remove(KEY_CACHE_CREATED).remove(KEY_CACHE_TTL).apply();
+  /** Whitespace differences do not change the feedback, so they should not miss the cache. */
+  @NonNull
+  static String normalizeUserSentence(@Nullable String userSentence) {
+    return userSentence == null ? "" : userSentence.trim().replaceAll("\\s+", " ");
   }
 
-  @Override
-  public void analyzeSentenceStreaming(
-      String originalSentence,
-      String userSentence,
-      ISentenceFeedbackManager.StreamingFeedbackCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                JsonObject requestBody = new JsonObject();
-                if (cacheReady && cachedContentName != null) {
-                  requestBody.addProperty("cachedContent", cachedContentName);
-                } else {
-                  addSystemInstruction(requestBody);
-                }
-
-                JsonArray contents = new JsonArray();
-                JsonObject userContent = new JsonObject();
-                userContent.addProperty("role", "user");
-                JsonArray parts = new JsonArray();
-
-                JsonObject textPart = new JsonObject();
-                textPart.addProperty(
-                    "text",
-                    "Original Korean Sentence: \""
-                        + originalSentence
-                        + "\"\nUser's English Translation: \""
-                        + userSentence
-                        + "\"\nAnalyze the translation and provide JSON feedback.");
-                parts.add(textPart);
-
-                userContent.add("parts", parts);
-                contents.add(userContent);
-                requestBody.add("contents", contents);
-
-                JsonObject generationConfig = new JsonObject();
-                generationConfig.addProperty("responseMimeType", "application/json");
-                requestBody.add("generationConfig", generationConfig);
-
-                String url =
-                    BASE_URL
-                        + "/models/"
-                        + modelName
-                        + ":streamGenerateContent?key="
-                        + apiKey
-                        + "&alt=sse";
-                String jsonBody = gson.toJson(requestBody);
-
-                Request request =
-                    new Request.Builder()
-                        .url(url)
-                        .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                        .build();
-
-                try (Response response = streamingClient.newCall(request).execute()) {
-                  if (!response.isSuccessful()) {
-                    mainHandler.post(
-                        () -> callback.onError("Streaming failed: " + response.code()));
-                    return;
-                  }
+  /** One caller of {@link #analyzeSentenceStreaming}, with its own accumulated feedback. */
+  private final class FeedbackSubscriber {
+    final RequestHandle handle;
+    final ISentenceFeedbackManager.StreamingFeedbackCallback callback;
+    final String originalSentence;
+    final String userSentence;
+    final SentenceFeedback feedback = new SentenceFeedback();
+
+    FeedbackSubscriber(
+        RequestHandle handle,
+        ISentenceFeedbackManager.StreamingFeedbackCallback callback,
+        String originalSentence,
+        String userSentence) {
+      this.handle = handle;
+      this.callback = callback;
+      this.originalSentence = originalSentence;
+      this.userSentence = userSentence;
+      feedback.setUserSentence(trimToNull(userSentence));
+      feedback.setOriginalSentence(trimToNull(originalSentence));
+    }
+  }
 
-                  BufferedSource source = response.body().source();
-                  StringBuilder fullResponse = new StringBuilder();
-                  SentenceFeedback accumulatedFeedback = new SentenceFeedback();
-                  accumulatedFeedback.setUserSentence(trimToNull(userSentence));
-                  accumulatedFeedback.setOriginalSentence(trimToNull(originalSentence));
-                  IncrementalJsonSectionParser sectionParser = new IncrementalJsonSectionParser();
-
-                  while (!source.exhausted()) {
-                    String line = source.readUtf8Line();
-                    if (line != null && line.startsWith("data: ")) {
-                      String data = line.substring(6);
-                      JsonObject root = JsonParser.parseString(data).getAsJsonObject();
-                      JsonArray candidates = root.getAsJsonArray("candidates");
-                      if (candidates != null && !candidates.isEmpty()) {
-                        JsonObject content =
-                            candidates.get(0).getAsJsonObject().getAsJsonObject("content");
-                        JsonArray responseParts = content.getAsJsonArray("parts");
-                        String text =
-                            responseParts.get(0).getAsJsonObject().get("text").getAsString();
-
-                        fullResponse.append(text);
-
-                        // Use IncrementalJsonSectionParser to detect completed sections
-                        java.util.List<IncrementalJsonSectionParser.SectionResult> sections =
-                            sectionParser.addChunk(text);
-                        for (IncrementalJsonSectionParser.SectionResult section : sections) {
-                          processSectionResult(section, accumulatedFeedback, callback);
-                        }
-                      }
-                    }
-                  }
-                  mainHandler.post(() -> callback.onComplete(accumulatedFeedback));
-                }
-              } catch (Exception e) {
-                mainHandler.post(() -> callback.onError("Streaming Error: " + e.getMessage()));
-              }
-            })
-        .start();
+  /** A single streaming call shared by every identical request made while it is in flight. */
+  private static final class SharedFeedbackStream {
+    final String responseKey;
+    final List<FeedbackSubscriber> subscribers = new ArrayList<>();
+    final List<BoundSection> sections = new ArrayList<>();
+    @Nullable RequestHandle networkHandle;
+
+    SharedFeedbackStream(String responseKey) {
+      this.responseKey = responseKey;
+    }
   }
 
-  private void processSectionResult(
-      IncrementalJsonSectionParser.SectionResult section,
+  /**
+   * Creates a binder that reads each feedback section from the token stream straight into its
+   * model class and hands it to {@code sink} as soon as the section's last token arrives.
+   */
+  @NonNull
+  private StreamingJsonBinder newSectionBinder(@NonNull SectionSink sink) {
+    StreamingJsonBinder binder = new StreamingJsonBinder();
+    for (Map.Entry<String, TypeAdapter<?>> entry : sectionAdapters.entrySet()) {
+      String key = entry.getKey();
+      TypeAdapter<?> adapter = entry.getValue();
+      binder.on(
+          key,
+          (reader, index) -> {
+            JsonToken token = reader.peek();
+            if (token != JsonToken.BEGIN_OBJECT && token != JsonToken.BEGIN_ARRAY) {
+              Log.w(TAG, "Skipping section '" + key + "' with unexpected " + token);
+              reader.skipValue();
+              return;
+            }
+            Object value = adapter.read(reader);
+            if (value != null) {
+              sink.accept(new BoundSection(key, value));
+            }
+          });
+    }
+    return binder;
+  }
+
+  @NonNull
+  private static Map<String, TypeAdapter<?>> createSectionAdapters(@NonNull Gson gson) {
+    Map<String, TypeAdapter<?>> adapters = new LinkedHashMap<>();
+    adapters.put("writingScore", gson.getAdapter(WritingScore.class));
+    adapters.put("grammar", gson.getAdapter(GrammarFeedback.class));
+    adapters.put("conceptualBridge", gson.getAdapter(ConceptualBridge.class));
+    adapters.put("naturalness", gson.getAdapter(NaturalnessFeedback.class));
+    adapters.put("toneStyle", gson.getAdapter(ToneStyle.class));
+    adapters.put("paraphrasing", gson.getAdapter(new TypeToken<List<ParaphrasingLevel>>() {}));
+    return adapters;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void applySection(
+      BoundSection section,
       SentenceFeedback accumulated,
       ISentenceFeedbackManager.StreamingFeedbackCallback callback) {
-    try {
-      switch (section.key) {
-        case "writingScore":
-          if (accumulated.getWritingScore() == null) {
-            accumulated.setWritingScore(gson.fromJson(section.jsonValue, WritingScore.class));
-            mainHandler.post(() -> callback.onSectionReady("writingScore", accumulated));
-          }
-          break;
-        case "grammar":
-          if (accumulated.getGrammar() == null) {
-            accumulated.setGrammar(gson.fromJson(section.jsonValue, GrammarFeedback.class));
-            mainHandler.post(() -> callback.onSectionReady("grammar", accumulated));
-          }
-          break;
-        case "conceptualBridge":
-          if (accumulated.getConceptualBridge() == null) {
-            accumulated.setConceptualBridge(
-                gson.fromJson(section.jsonValue, ConceptualBridge.class));
-            mainHandler.post(() -> callback.onSectionReady("conceptualBridge", accumulated));
-          }
-          break;
-        case "naturalness":
-          if (accumulated.getNaturalness() == null) {
-            accumulated.setNaturalness(gson.fromJson(section.jsonValue, NaturalnessFeedback.class));
-            mainHandler.post(() -> callback.onSectionReady("naturalness", accumulated));
-          }
-          break;
-        case "toneStyle":
-          if (accumulated.getToneStyle() == null) {
-            accumulated.setToneStyle(gson.fromJson(section.jsonValue, ToneStyle.class));
-            mainHandler.post(() -> callback.onSectionReady("toneStyle", accumulated));
-          }
-          break;
-        case "paraphrasing":
-          if (accumulated.getParaphrasing() == null) {
-            java.lang.reflect.Type type =
-                new com.google.gson.reflect.TypeToken<
-                    java.util.List<ParaphrasingLevel>>() {}.getType();
-            accumulated.setParaphrasing(gson.fromJson(section.jsonValue, type));
-            mainHandler.post(() -> callback.onSectionReady("paraphrasing", accumulated));
-          }
-          break;
-      }
-    } catch (Exception e) {
-      Log.w(TAG, "Failed to parse section '" + section.key + "': " + e.getMessage());
+    boolean applied = false;
+    switch (section.key) {
+      case "writingScore":
+        if (accumulated.getWritingScore() == null) {
+          accumulated.setWritingScore((WritingScore) section.value);
+          applied = true;
+        }
+        break;
+      case "grammar":
+        if (accumulated.getGrammar() == null) {
+          accumulated.setGrammar((GrammarFeedback) section.value);
+          applied = true;
+        }
+        break;
+      case "conceptualBridge":
+        if (accumulated.getConceptualBridge() == null) {
+          accumulated.setConceptualBridge((ConceptualBridge) section.value);
+          applied = true;
+        }
+        break;
+      case "naturalness":
+        if (accumulated.getNaturalness() == null) {
+          accumulated.setNaturalness((NaturalnessFeedback) section.value);
+          applied = true;
+        }
+        break;
+      case "toneStyle":
+        if (accumulated.getToneStyle() == null) {
+          accumulated.setToneStyle((ToneStyle) section.value);
+          applied = true;
+        }
+        break;
+      case "paraphrasing":
+        if (accumulated.getParaphrasing() == null) {
+          accumulated.setParaphrasing((List<ParaphrasingLevel>) section.value);
+          applied = true;
+        }
+        break;
+    }
+    if (applied) {
+      mainHandler.post(() -> callback.onSectionReady(section.key, accumulated));
+    }
+  }
+
+  private interface SectionSink {
+    void accept(@NonNull BoundSection section);
+  }
+
+  /** A feedback section already bound to its model object; shared by every subscriber. */
+  private static final class BoundSection {
+    final String key;
+    final Object value;
+
+    BoundSection(String key, Object value) {
+      this.key = key;
+      this.value = value;
     }
   }
 
@@ -428,10 +555,9 @@ public class SentenceFeedbackManager
       try (Response response = client.newCall(request).execute()) {
         String responseBody = response.body() != null ? response.body().string() : "";
         if (!response.isSuccessful()) {
-          if (usedCache && (response.code() == 400 || response.code() == 404)) {
-            cacheReady = false;
-            cachedContentName = null;
-            clearLocalCacheData();
+          String key = cacheKey;
+          if (usedCache && key != null && (response.code() == 400 || response.code() == 404)) {
+            cacheRegistry.invalidate(key, requestBody.get("cachedContent").getAsString());
           }
           mainHandler.post(() -> callback.onError("Request failed: " + response.code()));
           return;
@@ -478,21 +604,10 @@ public class SentenceFeedbackManager
   }
 
   public void clearCache() {
-    if (cachedContentName == null) return;
-    String nameToDelete = cachedContentName;
-    cachedContentName = null;
-    cacheReady = false;
-    clearLocalCacheData();
-    new Thread(
-            () -> {
-              try {
-                String url = BASE_URL + "/" + nameToDelete + "?key=" + apiKey;
-                Request request = new Request.Builder().url(url).delete().build();
-                client.newCall(request).execute();
-              } catch (Exception ignored) {
-              }
-            })
-        .start();
+    String key = cacheKey;
+    if (key == null) return;
+    cacheKey = null;
+    cacheRegistry.remove(key);
   }
 
   private void addSystemInstruction(JsonObject root) {
@@ -506,9 +621,8 @@ public class SentenceFeedbackManager
   }
 
   private String readAssetFile(String fileName) {
-    try (java.io.InputStream is = context.getAssets().open(fileName);
-        java.io.BufferedReader reader =
-            new java.io.BufferedReader(new java.io.InputStreamReader(is))) {
+    try (InputStream is = context.getAssets().open(fileName);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
       StringBuilder sb = new StringBuilder();
       String line;
       while ((line = reader.readLine()) != null) {
@@ -881,29 +995,6 @@ public class SentenceFeedbackManager
         + "Check 10: Is the encouragement message tone-appropriate for the given score? A low score should never receive overly enthusiastic praise, and a high score should never receive lukewarm feedback.";
   }
 
-  private byte[] pcmToWav(byte[] pcmData) throws IOException {
-    int sampleRate = 16000;
-    int channels = 1;
-    int byteRate = 16 * sampleRate * channels / 8;
-    int totalDataLen = pcmData.length + 36;
-    java.io.ByteArrayOutputStream baos = new java.io.ByteArrayOutputStream();
-    writeString(baos, "RIFF");
-    writeInt(baos, totalDataLen);
-    writeString(baos, "WAVE");
-    writeString(baos, "fmt ");
-    writeInt(baos, 16);
-    writeShort(baos, (short) 1);
-    writeShort(baos, (short) channels);
-    writeInt(baos, sampleRate);
-    writeInt(baos, byteRate);
-    writeShort(baos, (short) 2);
-    writeShort(baos, (short) 16);
-    writeString(baos, "data");
-    writeInt(baos, pcmData.length);
-    baos.write(pcmData);
-    return baos.toByteArray();
-  }
-
   private static String normalizeOrDefault(String value, String defaultValue) {
     if (value == null) {
       return defaultValue;
@@ -911,20 +1002,4 @@ public class SentenceFeedbackManager
     String trimmed = value.trim();
     return trimmed.isEmpty() ? defaultValue : trimmed;
   }
-
-  private void writeString(java.io.ByteArrayOutputStream baos, String str) throws IOException {
-    baos.write(str.getBytes());
-  }
-
-  private void writeInt(java.io.ByteArrayOutputStream baos, int val) throws IOException {
-    baos.write(val & 0xFF);
-    baos.write((val >> 8) & 0xFF);
-    baos.write((val >> 16) & 0xFF);
-    baos.write((val >> 24) & 0xFF);
-  }
-
-  private void writeShort(java.io.ByteArrayOutputStream baos, short val) throws IOException {
-    baos.write(val & 0xFF);
-    baos.write((val >> 8) & 0xFF);
-  }
 }
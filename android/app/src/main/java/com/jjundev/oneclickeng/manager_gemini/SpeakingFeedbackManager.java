@@ -1,11 +1,11 @@
 package com.jjundev.oneclickeng.manager_gemini;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.os.Handler;
 import android.os.Looper;
-import android.util.Base64;
 import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
@@ -13,19 +13,16 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.stream.JsonReader;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
+import com.jjundev.oneclickeng.tool.FlacEncoder;
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringReader;
-import java.time.Instant;
-import java.util.concurrent.TimeUnit;
-import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.RequestBody;
 import okhttp3.Response;
 
 /** Gemini Fluency Analysis Manager Uses REST API generateContent to analyze audio. */
@@ -36,13 +33,13 @@ public class SpeakingFeedbackManager
   private static final String TAG = "SpeakingFeedbackManager";
   private static final String BASE_URL = "https://generativelanguage.googleapis.com/v1beta";
   private static final String DEFAULT_MODEL_NAME = "gemini-3.1-flash-lite-preview";
-  private static final int CACHE_TTL_SECONDS = 3600; // 1 hour
-  private static final int MIN_REMAINING_TTL_SECONDS = 300; // 5 minutes
-
-  private static final String PREF_NAME = "gemini_speaking_cache_prefs";
-  private static final String KEY_CACHE_NAME = "gemini_speaking_cache_name_v1";
-  private static final String KEY_CACHE_CREATED = "gemini_speaking_cache_created_at";
-  private static final String KEY_CACHE_TTL = "gemini_speaking_cache_ttl_seconds";
+  private static final String CACHE_DISPLAY_NAME = "SpeakingFeedbackPrompt";
+  private static final String LIVE_URL =
+      "wss://generativelanguage.googleapis.com/ws/"
+          + "google.ai.generativelanguage.v1beta.GenerativeService.BidiGenerateContent";
+  private static final String ANALYZE_INSTRUCTION =
+      "Analyze this audio and return only the required JSON.";
+  private static final int SAMPLE_RATE = 16000;
 
   private final OkHttpClient client;
   private final Gson gson;
@@ -50,209 +47,81 @@ public class SpeakingFeedbackManager
   private final String modelName;
   private final Handler mainHandler;
   private final Context context;
-  private final SharedPreferences prefs;
-
-  private String cachedContentName;
-  private boolean cacheReady = false;
+  private final CachedContentRegistry cacheRegistry;
+  private final boolean flacUpload;
+  @Nullable private final String liveModelName;
 
-  interface ValidationCallback {
-    void onValid(String cacheName, long remainingSeconds);
+  @Nullable private volatile String cacheKey;
+  @Nullable private volatile String liveSetupMessage;
 
-    void onInvalid();
+  public SpeakingFeedbackManager(Context context, String apiKey, String modelName) {
+    this(context, apiKey, modelName, true);
+  }
 
-    void onError(String error);
+  public SpeakingFeedbackManager(
+      Context context, String apiKey, String modelName, boolean flacUpload) {
+    this(context, apiKey, modelName, flacUpload, null);
   }
 
-  public SpeakingFeedbackManager(Context context, String apiKey, String modelName) {
+  /**
+   * @param flacUpload upload recordings as lossless FLAC, about half the size of WAV for speech
+   * @param liveModelName Gemini Live model that analyzes takes while they are recorded, or null to
+   *     analyze only after recording stops
+   */
+  public SpeakingFeedbackManager(
+      Context context,
+      String apiKey,
+      String modelName,
+      boolean flacUpload,
+      @Nullable String liveModelName) {
+    this.flacUpload = flacUpload;
+    this.liveModelName = normalizeOrDefault(liveModelName, null);
     this.context = context.getApplicationContext();
     this.apiKey = normalizeOrDefault(apiKey, "");
     this.modelName = normalizeOrDefault(modelName, DEFAULT_MODEL_NAME);
-    this.client =
-        new OkHttpClient.Builder()
-            .connectTimeout(60, TimeUnit.SECONDS)
-            .readTimeout(60, TimeUnit.SECONDS)
-            .writeTimeout(60, TimeUnit.SECONDS)
-            .build();
+    this.client = GeminiTransport.getInstance().client();
     this.gson = new Gson();
     this.mainHandler = new Handler(Looper.getMainLooper());
-    this.prefs = this.context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+    this.cacheRegistry = CachedContentRegistry.getInstance(this.context);
   }
 
   @Override
   public void initializeCache(ISpeakingFeedbackManager.InitCallback callback) {
-    String savedCacheName = prefs.getString(KEY_CACHE_NAME, null);
-
-    if (savedCacheName != null) {
-      long createdAt = prefs.getLong(KEY_CACHE_CREATED, 0);
-      int ttl = prefs.getInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS);
-      long elapsedSeconds = (System.currentTimeMillis() - createdAt) / 1000;
-
-      if (elapsedSeconds > ttl) {
-        Log.d(TAG, "[SpeakingCache] Local cache expired, creating new one");
-        clearLocalCacheData();
-        createCache(callback);
-        return;
-      }
-
-      validateCacheFromServer(
-          savedCacheName,
-          new ValidationCallback() {
-            @Override
-            public void onValid(String name, long remainingSeconds) {
-              if (remainingSeconds > MIN_REMAINING_TTL_SECONDS) {
-                Log.i(TAG, "[SpeakingCache] Reusing cache: " + name);
-                cachedContentName = name;
-                cacheReady = true;
-                mainHandler.post(callback::onReady);
-              } else {
-                Log.i(TAG, "[SpeakingCache] Cache expiring soon, creating new cache");
-                createCache(callback);
-              }
-            }
-
-            @Override
-            public void onInvalid() {
-              Log.i(TAG, "[SpeakingCache] Server cache invalid, creating new cache");
-              clearLocalCacheData();
-              createCache(callback);
-            }
-
-            @Override
-            public void onError(String error) {
-              Log.w(TAG, "[SpeakingCache] Validation error: " + error + ". Creating new cache.");
-              createCache(callback);
-            }
-          });
-    } else {
-      Log.i(TAG, "[SpeakingCache] No local cache found. Creating new cache.");
-      createCache(callback);
-    }
-  }
-
-  private void createCache(ISpeakingFeedbackManager.InitCallback callback) {
     new Thread(
-            () -> {
-              try {
-                JsonObject requestBody = new JsonObject();
-                requestBody.addProperty("model", "models/" + modelName);
-
-                JsonArray contents = new JsonArray();
-
-                JsonObject userContent = new JsonObject();
-                userContent.addProperty("role", "user");
-                JsonArray userParts = new JsonArray();
-                JsonObject userPart = new JsonObject();
-                userPart.addProperty("text", "Initialize Speaking Feedback analysis.");
-                userParts.add(userPart);
-                userContent.add("parts", userParts);
-                contents.add(userContent);
-
-                JsonObject modelContent = new JsonObject();
-                modelContent.addProperty("role", "model");
-                JsonArray modelParts = new JsonArray();
-                JsonObject modelPart = new JsonObject();
-                modelPart.addProperty(
-                    "text", "I am ready to analyze speaking audio and return JSON feedback.");
-                modelParts.add(modelPart);
-                modelContent.add("parts", modelParts);
-                contents.add(modelContent);
-
-                requestBody.add("contents", contents);
-
-                addSystemInstruction(requestBody);
-                requestBody.addProperty("ttl", CACHE_TTL_SECONDS + "s");
-                requestBody.addProperty("displayName", "SpeakingFeedbackPrompt");
-
-                String url = BASE_URL + "/cachedContents?key=" + apiKey;
-                String jsonBody = gson.toJson(requestBody);
-
-                Request request =
-                    new Request.Builder()
-                        .url(url)
-                        .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
-                        .build();
-
-                try (Response response = client.newCall(request).execute()) {
-                  String responseBody = response.body() != null ? response.body().string() : "";
-                  if (!response.isSuccessful()) {
-                    Log.e(
-                        TAG,
-                        "[SpeakingCache] Cache creation failed: "
-                            + response.code()
-                            + " - "
-                            + responseBody);
-                    mainHandler.post(
-                        () -> callback.onError("Cache creation failed: " + responseBody));
-                    return;
-                  }
-
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-                  cachedContentName = result.get("name").getAsString();
-                  cacheReady = true;
-
-                  prefs
-                      .edit()
-                      .putString(KEY_CACHE_NAME, cachedContentName)
-                      .putLong(KEY_CACHE_CREATED, System.currentTimeMillis())
-                      .putInt(KEY_CACHE_TTL, CACHE_TTL_SECONDS)
-                      .apply();
-
-                  Log.i(TAG, "[SpeakingCache] New cache created: " + cachedContentName);
-                  mainHandler.post(callback::onReady);
-                }
-              } catch (Exception e) {
-                Log.e(TAG, "[SpeakingCache] createCache failed", e);
-                mainHandler.post(() -> callback.onError("Error: " + e.getMessage()));
-              }
-            })
-        .start();
-  }
-
-  private void validateCacheFromServer(String cacheName, ValidationCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                String url = BASE_URL + "/" + cacheName + "?key=" + apiKey;
-                Request request = new Request.Builder().url(url).get().build();
-
-                try (Response response = client.newCall(request).execute()) {
-                  if (response.code() == 404) {
-                    callback.onInvalid();
-                    return;
-                  }
-
-                  if (!response.isSuccessful()) {
-                    callback.onError("Server check failed: " + response.code());
-                    return;
-                  }
-
-                  String responseBody = response.body() != null ? response.body().string() : "";
-                  JsonObject result = JsonParser.parseString(responseBody).getAsJsonObject();
-                  if (!result.has("expireTime")) {
-                    callback.onError("No expireTime in cache response");
-                    return;
-                  }
-
-                  Instant expireTime = Instant.parse(result.get("expireTime").getAsString());
-                  long remainingSeconds =
-                      expireTime.getEpochSecond() - Instant.now().getEpochSecond();
-                  callback.onValid(cacheName, remainingSeconds);
-                }
-              } catch (Exception e) {
-                callback.onError(e.getMessage());
-              }
-            })
+            () ->
+                cacheRegistry.ensureReady(
+                    ensureCacheRegistered(),
+                    new CachedContentRegistry.ReadyListener() {
+                      @Override
+                      public void onReady(@NonNull String cacheName) {
+                        Log.i(TAG, "[SpeakingCache] Cache ready: " + cacheName);
+                        mainHandler.post(callback::onReady);
+                      }
+
+                      @Override
+                      public void onError(@NonNull String error) {
+                        mainHandler.post(() -> callback.onError(error));
+                      }
+                    }))
         .start();
   }
 
-  private void clearLocalCacheData() {
-    prefs.edit().remove(KEY_CACHE_NAME).remove(KEY_CACHE_CREATED).remove(KEY_CACHE_TTL).apply();
-  }
-
-  private void invalidateCacheState() {
-    cachedContentName = null;
-    cacheReady = false;
-    clearLocalCacheData();
+  @NonNull
+  private String ensureCacheRegistered() {
+    String key = cacheKey;
+    if (key == null) {
+      key =
+          cacheRegistry.register(
+              apiKey,
+              new CachedContentRegistry.Spec(
+                  modelName,
+                  CACHE_DISPLAY_NAME,
+                  buildSystemPrompt(),
+                  "Initialize Speaking Feedback analysis.",
+                  "I am ready to analyze speaking audio and return JSON feedback."));
+      cacheKey = key;
+    }
+    return key;
   }
 
   /**
@@ -261,35 +130,91 @@ public class SpeakingFeedbackManager
    * @param pcmData Raw PCM data (16kHz, 16-bit, Mono)
    * @param callback Callback for result
    */
+  @NonNull
   @Override
-  public void analyzeAudio(byte[] pcmData, ISpeakingFeedbackManager.AnalysisCallback callback) {
-    new Thread(
-            () -> {
-              try {
-                // 1. Convert PCM to WAV
-                byte[] wavData = pcmToWav(pcmData);
-                String base64Audio = Base64.encodeToString(wavData, Base64.NO_WRAP);
+  public RequestHandle analyzeAudio(
+      byte[] pcmData, ISpeakingFeedbackManager.AnalysisCallback callback) {
+    return analyzeRecording(pcmData, null, callback);
+  }
 
-                sendAnalysisRequest(base64Audio, callback, true, true);
+  /**
+   * @param flacData {@code pcmData} already encoded, e.g. while it was recorded; encoded here when
+   *     null and FLAC upload is on
+   */
+  @NonNull
+  private RequestHandle analyzeRecording(
+      @NonNull byte[] pcmData,
+      @Nullable byte[] flacData,
+      @NonNull ISpeakingFeedbackManager.AnalysisCallback callback) {
+    return GeminiRequestScheduler.getInstance()
+        .submit(
+            modelName,
+            GeminiRequestScheduler.Priority.INTERACTIVE,
+            GeminiRequestScheduler.estimateAudioTokens(pcmData.length),
+            // The audio is uploaded base64 encoded; PCM bounds the FLAC size.
+            (flacData != null ? flacData.length : pcmData.length) * 4L / 3L,
+            handle -> {
+              try {
+                byte[] flac = flacData;
+                if (flac == null && flacUpload) {
+                  flac = FlacEncoder.encode(SAMPLE_RATE, pcmData);
+                }
+                sendAnalysisRequest(pcmData, flac, callback, handle, true, true);
               } catch (Exception e) {
+                if (handle.isCancelled()) {
+                  return;
+                }
                 Log.e(TAG, "Analysis Failed", e);
                 notifyError(callback, "Analysis Failed: " + e.getMessage());
               }
-            })
-        .start();
+            });
+  }
+
+  /**
+   * Opens a Gemini Live session that receives audio while the user is still speaking. The Live API
+   * has no cachedContent support, so the system prompt travels in the setup message instead.
+   */
+  @Nullable
+  @Override
+  public ISpeakingFeedbackManager.AudioStream openAudioStream() {
+    String liveModel = liveModelName;
+    if (apiKey.isEmpty() || liveModel == null) {
+      return null;
+    }
+    String setup = liveSetupMessage;
+    if (setup == null) {
+      setup =
+          GeminiLiveAudioSession.buildSetupMessage(
+              liveModel, buildSystemPrompt() + "\n\n" + ANALYZE_INSTRUCTION);
+      liveSetupMessage = setup;
+    }
+    GeminiLiveAudioSession session =
+        new GeminiLiveAudioSession(
+            GeminiTransport.getInstance().webSocketClient(),
+            LIVE_URL + "?key=" + apiKey,
+            setup,
+            mainHandler::post,
+            this::analyzeRecording,
+            flacUpload ? new FlacEncoder(SAMPLE_RATE) : null);
+    session.open();
+    return session;
   }
 
   private void sendAnalysisRequest(
-      String base64Audio,
+      byte[] pcmData,
+      @Nullable byte[] flacData,
       ISpeakingFeedbackManager.AnalysisCallback callback,
+      RequestHandle handle,
       boolean allowCacheUse,
       boolean allowRetryWithoutCache)
       throws IOException {
     JsonObject root = new JsonObject();
-    boolean useCache = allowCacheUse && cacheReady && cachedContentName != null;
+    String key = ensureCacheRegistered();
+    String cacheName = allowCacheUse ? cacheRegistry.currentName(key) : null;
+    boolean useCache = cacheName != null;
 
     if (useCache) {
-      root.addProperty("cachedContent", cachedContentName);
+      root.addProperty("cachedContent", cacheName);
     } else {
       addSystemInstruction(root);
     }
@@ -299,15 +224,14 @@ public class SpeakingFeedbackManager
     content.addProperty("role", "user");
     JsonArray parts = new JsonArray();
 
-    JsonObject audioPart = new JsonObject();
-    JsonObject inlineData = new JsonObject();
-    inlineData.addProperty("mimeType", "audio/wav");
-    inlineData.addProperty("data", base64Audio);
-    audioPart.add("inlineData", inlineData);
-    parts.add(audioPart);
+    // The recording is streamed into the body when it is written.
+    parts.add(
+        flacData != null
+            ? InlineAudioRequestBody.inlineAudioPart(InlineAudioRequestBody.FLAC_MIME_TYPE)
+            : InlineAudioRequestBody.inlineWavPart());
 
     JsonObject textPart = new JsonObject();
-    textPart.addProperty("text", "Analyze this audio and return only the required JSON.");
+    textPart.addProperty("text", ANALYZE_INSTRUCTION);
     parts.add(textPart);
 
     content.add("parts", parts);
@@ -318,7 +242,7 @@ public class SpeakingFeedbackManager
     generationConfig.addProperty("responseMimeType", "application/json");
     root.add("generationConfig", generationConfig);
 
-    String jsonBody = gson.toJson(root);
+    String envelope = gson.toJson(root);
     String url =
         BASE_URL
             + "/models/"
@@ -329,12 +253,23 @@ public class SpeakingFeedbackManager
     Request request =
         new Request.Builder()
             .url(url)
-            .post(RequestBody.create(jsonBody, MediaType.parse("application/json")))
+            .post(
+                flacData != null
+                    ? InlineAudioRequestBody.flac(envelope, flacData)
+                    : new InlineAudioRequestBody(envelope, pcmData))
             .build();
 
-    Log.d(TAG, "Sending analysis request. useCache=" + useCache);
+    Log.d(
+        TAG,
+        "Sending analysis request. useCache="
+            + useCache
+            + ", audio="
+            + (flacData != null ? "flac " + flacData.length + "/" + pcmData.length : "wav"));
 
-    try (Response response = client.newCall(request).execute()) {
+    try (Response response = GeminiTransport.execute(client, request, handle)) {
+      if (response == null) {
+        return;
+      }
       if (!response.isSuccessful()) {
         String errorBody = response.body() != null ? response.body().string() : "Unknown error";
         int code = response.code();
@@ -343,8 +278,8 @@ public class SpeakingFeedbackManager
           Log.w(
               TAG,
               "Cached request failed (" + code + "), invalidating cache and retrying non-cached.");
-          invalidateCacheState();
-          sendAnalysisRequest(base64Audio, callback, false, false);
+          cacheRegistry.invalidate(key, cacheName);
+          sendAnalysisRequest(pcmData, flacData, callback, handle, false, false);
           return;
         }
 
@@ -396,53 +331,8 @@ public class SpeakingFeedbackManager
         }
 
         String text = firstPart.getAsJsonObject().get("text").getAsString();
-
-        // Clean and Extract JSON
-        String cleanJson = extractJson(text);
-
-        // Parse with Lenient mode
-        JsonReader reader = new JsonReader(new StringReader(cleanJson));
-        reader.setLenient(true);
-        JsonElement element = JsonParser.parseReader(reader);
-
-        JsonObject resultJson;
-
-        if (element.isJsonArray()) {
-          JsonArray resultArray = element.getAsJsonArray();
-          if (resultArray.size() > 0) {
-            resultJson = resultArray.get(0).getAsJsonObject();
-          } else {
-            notifyError(callback, "Empty JSON array in response");
-            return;
-          }
-        } else if (element.isJsonObject()) {
-          resultJson = element.getAsJsonObject();
-        } else {
-          notifyError(callback, "Invalid JSON format in text");
-          return;
-        }
-
-        int fluency = resultJson.has("fluency") ? resultJson.get("fluency").getAsInt() : 0;
-        int confidence = resultJson.has("confidence") ? resultJson.get("confidence").getAsInt() : 0;
-        int hesitations =
-            resultJson.has("hesitations") ? resultJson.get("hesitations").getAsInt() : 0;
-        String transcript =
-            resultJson.has("transcript") ? resultJson.get("transcript").getAsString() : "";
-        String feedbackMessage = "";
-        if (resultJson.has("feedback_message")
-            && !resultJson.get("feedback_message").isJsonNull()) {
-          feedbackMessage = resultJson.get("feedback_message").getAsString();
-        } else if (resultJson.has("feedbackMessage")
-            && !resultJson.get("feedbackMessage").isJsonNull()) {
-          feedbackMessage = resultJson.get("feedbackMessage").getAsString();
-        }
-        final String finalFeedbackMessage = feedbackMessage;
-
-        mainHandler.post(
-            () ->
-                callback.onSuccess(
-                    new FluencyFeedback(
-                        fluency, confidence, hesitations, transcript, finalFeedbackMessage)));
+        FluencyFeedback feedback = parseFluencyText(text);
+        mainHandler.post(() -> callback.onSuccess(feedback));
       } else {
         notifyError(callback, "No candidates in response");
       }
@@ -452,8 +342,51 @@ public class SpeakingFeedbackManager
     }
   }
 
+  /**
+   * Parses the model's JSON answer, with or without surrounding prose or a one-element array.
+   *
+   * @throws RuntimeException if the text holds no usable JSON object
+   */
+  @NonNull
+  static FluencyFeedback parseFluencyText(String text) {
+    // Clean and Extract JSON
+    String cleanJson = extractJson(text);
+
+    // Parse with Lenient mode
+    JsonReader reader = new JsonReader(new StringReader(cleanJson));
+    reader.setLenient(true);
+    JsonElement element = JsonParser.parseReader(reader);
+
+    JsonObject resultJson;
+    if (element.isJsonArray()) {
+      JsonArray resultArray = element.getAsJsonArray();
+      if (resultArray.size() == 0) {
+        throw new IllegalStateException("Empty JSON array in response");
+      }
+      resultJson = resultArray.get(0).getAsJsonObject();
+    } else if (element.isJsonObject()) {
+      resultJson = element.getAsJsonObject();
+    } else {
+      throw new IllegalStateException("Invalid JSON format in text");
+    }
+
+    int fluency = resultJson.has("fluency") ? resultJson.get("fluency").getAsInt() : 0;
+    int confidence = resultJson.has("confidence") ? resultJson.get("confidence").getAsInt() : 0;
+    int hesitations = resultJson.has("hesitations") ? resultJson.get("hesitations").getAsInt() : 0;
+    String transcript =
+        resultJson.has("transcript") ? resultJson.get("transcript").getAsString() : "";
+    String feedbackMessage = "";
+    if (resultJson.has("feedback_message") && !resultJson.get("feedback_message").isJsonNull()) {
+      feedbackMessage = resultJson.get("feedback_message").getAsString();
+    } else if (resultJson.has("feedbackMessage")
+        && !resultJson.get("feedbackMessage").isJsonNull()) {
+      feedbackMessage = resultJson.get("feedbackMessage").getAsString();
+    }
+    return new FluencyFeedback(fluency, confidence, hesitations, transcript, feedbackMessage);
+  }
+
   /** Extracts the first JSON object or array from the text. */
-  private String extractJson(String text) {
+  private static String extractJson(String text) {
     if (text == null || text.isEmpty()) return "";
 
     int firstBrace = text.indexOf('{');
@@ -534,34 +467,6 @@ public class SpeakingFeedbackManager
         + "7) Output JSON only. Do not use markdown code fences.";
   }
 
-  // Helper: Add WAV Header to PCM Data
-  private byte[] pcmToWav(byte[] pcmData) throws IOException {
-    int sampleRate = 16000;
-    int channels = 1;
-    int byteRate = 16 * sampleRate * channels / 8;
-    int totalDataLen = pcmData.length + 36;
-
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-    // WAV Header
-    writeString(baos, "RIFF"); // ChunkID
-    writeInt(baos, totalDataLen); // ChunkSize
-    writeString(baos, "WAVE"); // Format
-    writeString(baos, "fmt "); // Subchunk1ID
-    writeInt(baos, 16); // Subchunk1Size
-    writeShort(baos, (short) 1); // AudioFormat (PCM)
-    writeShort(baos, (short) channels); // NumChannels
-    writeInt(baos, sampleRate); // SampleRate
-    writeInt(baos, byteRate); // ByteRate
-    writeShort(baos, (short) 2); // BlockAlign
-    writeShort(baos, (short) 16); // BitsPerSample
-    writeString(baos, "data"); // Subchunk2ID
-    writeInt(baos, pcmData.length); // Subchunk2Size
-
-    baos.write(pcmData);
-    return baos.toByteArray();
-  }
-
   private static String normalizeOrDefault(String value, String defaultValue) {
     if (value == null) {
       return defaultValue;
@@ -569,20 +474,4 @@ public class SpeakingFeedbackManager
     String trimmed = value.trim();
     return trimmed.isEmpty() ? defaultValue : trimmed;
   }
-
-  private void writeString(ByteArrayOutputStream baos, String str) throws IOException {
-    baos.write(str.getBytes());
-  }
-
-  private void writeInt(ByteArrayOutputStream baos, int val) throws IOException {
-    baos.write(val & 0xFF);
-    baos.write((val >> 8) & 0xFF);
-    baos.write((val >> 16) & 0xFF);
-    baos.write((val >> 24) & 0xFF);
-  }
-
-  private void writeShort(ByteArrayOutputStream baos, short val) throws IOException {
-    baos.write(val & 0xFF);
-    baos.write((val >> 8) & 0xFF);
-  }
 }
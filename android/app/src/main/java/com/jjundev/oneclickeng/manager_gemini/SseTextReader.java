@@ -0,0 +1,65 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Exposes the model text of an SSE response as a {@link Reader}, so a streaming JSON reader can
+ * pull the generated document directly. Each text chunk is fetched from {@link GeminiSseReader}
+ * only when the previous one is used up, counted against the request's output tokens, and handed
+ * to the optional listener. The reader reports end of input once the request is cancelled.
+ */
+final class SseTextReader extends Reader {
+
+  interface ChunkListener {
+    void onChunk(@NonNull String text);
+  }
+
+  @NonNull private final GeminiSseReader sseReader;
+  @NonNull private final RequestHandle handle;
+  @Nullable private final ChunkListener listener;
+  @Nullable private String chunk;
+  private int position;
+
+  SseTextReader(
+      @NonNull GeminiSseReader sseReader,
+      @NonNull RequestHandle handle,
+      @Nullable ChunkListener listener) {
+    this.sseReader = sseReader;
+    this.handle = handle;
+    this.listener = listener;
+  }
+
+  @Override
+  public int read(@NonNull char[] buffer, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    String current = chunk;
+    if (current == null || position >= current.length()) {
+      current = handle.isCancelled() ? null : sseReader.nextText();
+      if (current == null) {
+        chunk = null;
+        return -1;
+      }
+      chunk = current;
+      position = 0;
+      handle.recordOutputTokens(GeminiRequestScheduler.estimateOutputTokens(current));
+      if (listener != null) {
+        listener.onChunk(current);
+      }
+    }
+    int count = Math.min(length, current.length() - position);
+    current.getChars(position, position + count, buffer, offset);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public void close() {
+    // The HTTP response owns the underlying source.
+  }
+}
@@ -0,0 +1,141 @@
+package com.jjundev.oneclickeng.others;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.text.PrecomputedText;
+import android.text.SpannableString;
+import android.util.Log;
+import android.util.LruCache;
+import android.widget.TextView;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background render stage for styled feedback text.
+ *
+ * <p>Spans are built and measured into a {@link PrecomputedText} on a worker thread using the
+ * target view's text metrics, so the main thread only swaps in a finished layout. Results are
+ * cached by section content and metrics, so re-binding the same feedback costs nothing. A view only
+ * receives the result of its latest request; older results are cached but not applied. While a new
+ * request is rendering the view is left empty, so a recycled view never shows the previous text.
+ *
+ * <p>{@link #render} and {@link #cancelPending} must be called on the main thread.
+ */
+public final class PrecomputedSpanRenderer {
+  private static final String TAG = "PrecomputedSpanRenderer";
+  private static final int DEFAULT_CACHE_SIZE = 48;
+  private static final ExecutorService renderExecutor = Executors.newSingleThreadExecutor();
+
+  /** Builds the styled text; runs on the worker thread. */
+  public interface SpanBuilder {
+    @NonNull
+    CharSequence build();
+  }
+
+  @NonNull private final Executor executor;
+  @NonNull private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  @NonNull private final LruCache<Key, PrecomputedText> cache;
+  @NonNull private final Map<TextView, Key> pendingByView = new WeakHashMap<>();
+
+  public PrecomputedSpanRenderer() {
+    this(renderExecutor, DEFAULT_CACHE_SIZE);
+  }
+
+  public PrecomputedSpanRenderer(@NonNull Executor executor, int cacheSize) {
+    this.executor = executor;
+    this.cache = new LruCache<>(Math.max(1, cacheSize));
+  }
+
+  /**
+   * Shows the text built by {@code builder} in {@code target} once it is measured. A cached result
+   * is applied immediately; otherwise the view is cleared until the result is ready.
+   *
+   * @param contentKey identifies everything {@code builder} renders, e.g. the section's segments
+   */
+  public void render(
+      @NonNull TextView target, @NonNull String contentKey, @NonNull SpanBuilder builder) {
+    PrecomputedText.Params params = target.getTextMetricsParams();
+    Key key = new Key(contentKey, params);
+    PrecomputedText cached = cache.get(key);
+    if (cached != null) {
+      pendingByView.remove(target);
+      target.setText(cached);
+      return;
+    }
+    if (key.equals(pendingByView.get(target))) {
+      return;
+    }
+    pendingByView.put(target, key);
+    target.setText(null);
+    executor.execute(
+        () -> {
+          PrecomputedText text = null;
+          try {
+            text = PrecomputedText.create(builder.build(), params);
+          } catch (RuntimeException e) {
+            Log.w(TAG, "Failed to precompute feedback text", e);
+          }
+          PrecomputedText result = text;
+          mainHandler.post(() -> onRendered(target, key, result, builder));
+        });
+  }
+
+  /** Drops all outstanding requests; their results are still cached when they arrive. */
+  public void cancelPending() {
+    pendingByView.clear();
+  }
+
+  private void onRendered(
+      @NonNull TextView target,
+      @NonNull Key key,
+      @Nullable PrecomputedText text,
+      @NonNull SpanBuilder builder) {
+    if (text != null) {
+      cache.put(key, text);
+    }
+    if (!key.equals(pendingByView.get(target))) {
+      return;
+    }
+    pendingByView.remove(target);
+    if (text == null) {
+      target.setText(builder.build());
+    } else if (text.getParams().equals(target.getTextMetricsParams())) {
+      target.setText(text);
+    } else {
+      // The view's typeface or size changed meanwhile; keep the spans and let it measure them.
+      target.setText(new SpannableString(text));
+    }
+  }
+
+  private static final class Key {
+    @NonNull private final String contentKey;
+    @NonNull private final PrecomputedText.Params params;
+
+    private Key(@NonNull String contentKey, @NonNull PrecomputedText.Params params) {
+      this.contentKey = contentKey;
+      this.params = params;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) other;
+      return contentKey.equals(that.contentKey) && params.equals(that.params);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * contentKey.hashCode() + params.hashCode();
+    }
+  }
+}
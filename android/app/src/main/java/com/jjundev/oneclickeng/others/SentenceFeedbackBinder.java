@@ -14,6 +14,7 @@ import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.SeekBar;
 import android.widget.TextView;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 import androidx.core.widget.ImageViewCompat;
 import com.facebook.shimmer.ShimmerFrameLayout;
@@ -39,6 +40,7 @@ public class SentenceFeedbackBinder {
   private final int colorNormal;
   private final int colorHighlightBg;
   private final int colorHighlightText;
+  private final PrecomputedSpanRenderer spanRenderer;
   private SentenceFeedback feedback;
   private TtsActionListener ttsActionListener;
   private ParaphrasingBookmarkDelegate paraphrasingBookmarkDelegate;
@@ -126,7 +128,16 @@ public class SentenceFeedbackBinder {
   private ImageView btnSpeakParaphrasingLevel3;
 
   public SentenceFeedbackBinder(View rootView) {
+    this(rootView, null);
+  }
+
+  /**
+   * @param spanRenderer when set, styled sentences and reasons are built and measured off the main
+   *     thread and swapped in when ready; otherwise they are set synchronously
+   */
+  public SentenceFeedbackBinder(View rootView, @Nullable PrecomputedSpanRenderer spanRenderer) {
     this.rootView = rootView;
+    this.spanRenderer = spanRenderer;
     this.colorNormal = ContextCompat.getColor(rootView.getContext(), R.color.color_primary_text);
     this.colorHighlightBg =
         ContextCompat.getColor(rootView.getContext(), R.color.color_feedback_highlight_bg);
@@ -467,9 +478,7 @@ public class SentenceFeedbackBinder {
     if (cardGrammar != null) cardGrammar.setVisibility(View.VISIBLE);
 
     if (tvGrammarExample != null && feedback.getGrammar().getCorrectedSentence() != null) {
-      SpannableStringBuilder spannable =
-          buildStyledSentence(feedback.getGrammar().getCorrectedSentence());
-      tvGrammarExample.setText(spannable);
+      setStyledSentence(tvGrammarExample, feedback.getGrammar().getCorrectedSentence());
     }
 
     if (tvGrammarExplanation != null && feedback.getGrammar().getExplanation() != null) {
@@ -525,8 +534,7 @@ public class SentenceFeedbackBinder {
     if (cardNaturalness != null) cardNaturalness.setVisibility(View.VISIBLE);
 
     if (tvNaturalSentenceExample != null && naturalness.getNaturalSentence() != null) {
-      SpannableStringBuilder spannable = buildStyledSentence(naturalness.getNaturalSentence());
-      tvNaturalSentenceExample.setText(spannable);
+      setStyledSentence(tvNaturalSentenceExample, naturalness.getNaturalSentence());
     }
 
     if (tvNaturalSentenceTranslation != null) {
@@ -551,11 +559,11 @@ public class SentenceFeedbackBinder {
 
     if (reasons != null) {
       if (tvNaturalnessReason1 != null && reasons.size() > 0) {
-        tvNaturalnessReason1.setText(formatReason(reasons.get(0)));
+        setReason(tvNaturalnessReason1, reasons.get(0));
         tvNaturalnessReason1.setVisibility(View.VISIBLE);
       }
       if (tvNaturalnessReason2 != null && reasons.size() > 1) {
-        tvNaturalnessReason2.setText(formatReason(reasons.get(1)));
+        setReason(tvNaturalnessReason2, reasons.get(1));
         tvNaturalnessReason2.setVisibility(View.VISIBLE);
       }
     }
@@ -747,6 +755,38 @@ public class SentenceFeedbackBinder {
     }
   }
 
+  private void setStyledSentence(TextView target, StyledSentence styledSentence) {
+    if (spanRenderer == null) {
+      target.setText(buildStyledSentence(styledSentence));
+      return;
+    }
+    spanRenderer.render(
+        target, styledSentenceKey(styledSentence), () -> buildStyledSentence(styledSentence));
+  }
+
+  private void setReason(TextView target, ReasonItem reason) {
+    if (spanRenderer == null) {
+      target.setText(formatReason(reason));
+      return;
+    }
+    spanRenderer.render(target, reasonKey(reason), () -> formatReason(reason));
+  }
+
+  /** Cache key covering every segment's type and text */
+  static String styledSentenceKey(StyledSentence styledSentence) {
+    StringBuilder key = new StringBuilder("styled");
+    if (styledSentence.getSegments() != null) {
+      for (TextSegment segment : styledSentence.getSegments()) {
+        key.append('\u001E').append(segment.getType()).append('\u001F').append(segment.getText());
+      }
+    }
+    return key.toString();
+  }
+
+  static String reasonKey(ReasonItem reason) {
+    return "reason\u001E" + reason.getKeyword() + '\u001F' + reason.getDescription();
+  }
+
   /** Build SpannableStringBuilder from StyledSentence */
   private SpannableStringBuilder buildStyledSentence(StyledSentence styledSentence) {
     SpannableStringBuilder builder = new SpannableStringBuilder();
@@ -6,6 +6,7 @@ import androidx.annotation.Nullable;
 public final class AppSettings {
   public static final String DEFAULT_MODEL_SENTENCE = "gemini-3-flash-preview";
   public static final String DEFAULT_MODEL_SPEAKING = "gemini-2.5-flash-lite";
+  public static final String DEFAULT_MODEL_SPEAKING_LIVE = "gemini-live-2.5-flash-preview";
   public static final String DEFAULT_MODEL_SCRIPT = "gemini-3-flash-preview";
   public static final String DEFAULT_MODEL_SUMMARY = "gemini-3-flash-preview";
   public static final String DEFAULT_MODEL_EXTRA = "gemini-3-flash-preview";
@@ -14,6 +15,10 @@ public final class AppSettings {
   public static final String DEFAULT_TTS_PROVIDER = TTS_PROVIDER_ANDROID;
   public static final float DEFAULT_TTS_SPEECH_RATE = 1.00f;
   public static final String DEFAULT_TTS_LOCALE_TAG = "en-US";
+  public static final long DEFAULT_AUTO_STOP_SILENCE_MS = 1500L;
+  public static final long MAX_AUTO_STOP_SILENCE_MS = 5000L;
+  public static final boolean DEFAULT_FLAC_AUDIO_UPLOAD = true;
+  public static final boolean DEFAULT_LIVE_SPEAKING_ANALYSIS = false;
 
   private final boolean muteAllPlayback;
   @NonNull private final String userNickname;
@@ -26,6 +31,9 @@ public final class AppSettings {
   @NonNull private final String ttsProvider;
   private final float ttsSpeechRate;
   @NonNull private final String ttsLocaleTag;
+  private final long autoStopSilenceMs;
+  private final boolean flacAudioUpload;
+  private final boolean liveSpeakingAnalysis;
 
   public AppSettings(
       boolean muteAllPlayback,
@@ -38,7 +46,10 @@ public final class AppSettings {
       @Nullable String llmModelExtra,
       @Nullable String ttsProvider,
       float ttsSpeechRate,
-      @Nullable String ttsLocaleTag) {
+      @Nullable String ttsLocaleTag,
+      long autoStopSilenceMs,
+      boolean flacAudioUpload,
+      boolean liveSpeakingAnalysis) {
     this.muteAllPlayback = muteAllPlayback;
     this.userNickname = normalizeOrEmpty(userNickname);
     this.llmApiKeyOverride = normalizeOrEmpty(llmApiKeyOverride);
@@ -50,6 +61,9 @@ public final class AppSettings {
     this.ttsProvider = normalizeOrDefault(ttsProvider, DEFAULT_TTS_PROVIDER);
     this.ttsSpeechRate = clamp(ttsSpeechRate, 0.5f, 1.5f);
     this.ttsLocaleTag = normalizeOrDefault(ttsLocaleTag, DEFAULT_TTS_LOCALE_TAG);
+    this.autoStopSilenceMs = Math.max(0L, Math.min(autoStopSilenceMs, MAX_AUTO_STOP_SILENCE_MS));
+    this.flacAudioUpload = flacAudioUpload;
+    this.liveSpeakingAnalysis = liveSpeakingAnalysis;
   }
 
   public boolean isMuteAllPlayback() {
@@ -76,6 +90,12 @@ public final class AppSettings {
     return DEFAULT_MODEL_SPEAKING;
   }
 
+  /** Gemini Live counterpart of {@link #getLlmModelSpeaking()}, used while recording. */
+  @NonNull
+  public String getLlmModelSpeakingLive() {
+    return DEFAULT_MODEL_SPEAKING_LIVE;
+  }
+
   @NonNull
   public String getLlmModelScript() {
     return DEFAULT_MODEL_SCRIPT;
@@ -105,6 +125,21 @@ public final class AppSettings {
     return ttsLocaleTag;
   }
 
+  /** Trailing silence that ends a speaking take automatically; 0 turns auto-stop off. */
+  public long getAutoStopSilenceMs() {
+    return autoStopSilenceMs;
+  }
+
+  /** Whether speaking takes are uploaded as lossless FLAC instead of WAV. */
+  public boolean isFlacAudioUpload() {
+    return flacAudioUpload;
+  }
+
+  /** Whether speaking takes are streamed to Gemini Live while they are recorded. */
+  public boolean isLiveSpeakingAnalysis() {
+    return liveSpeakingAnalysis;
+  }
+
   @NonNull
   public String resolveEffectiveApiKey(@Nullable String defaultApiKey) {
     return normalizeOrEmpty(defaultApiKey);
@@ -18,6 +18,9 @@ public final class AppSettingsStore {
   private static final String KEY_TTS_PROVIDER = "tts_provider";
   private static final String KEY_TTS_SPEECH_RATE = "tts_speech_rate";
   private static final String KEY_TTS_LOCALE_TAG = "tts_locale_tag";
+  private static final String KEY_AUTO_STOP_SILENCE_MS = "auto_stop_silence_ms";
+  private static final String KEY_FLAC_AUDIO_UPLOAD = "flac_audio_upload";
+  private static final String KEY_LIVE_SPEAKING_ANALYSIS = "live_speaking_analysis";
 
   @NonNull private final SharedPreferences preferences;
 
@@ -38,7 +41,11 @@ public final class AppSettingsStore {
         preferences.getString(KEY_LLM_MODEL_EXTRA, AppSettings.DEFAULT_MODEL_EXTRA),
         preferences.getString(KEY_TTS_PROVIDER, AppSettings.DEFAULT_TTS_PROVIDER),
         preferences.getFloat(KEY_TTS_SPEECH_RATE, AppSettings.DEFAULT_TTS_SPEECH_RATE),
-        preferences.getString(KEY_TTS_LOCALE_TAG, AppSettings.DEFAULT_TTS_LOCALE_TAG));
+        preferences.getString(KEY_TTS_LOCALE_TAG, AppSettings.DEFAULT_TTS_LOCALE_TAG),
+        preferences.getLong(KEY_AUTO_STOP_SILENCE_MS, AppSettings.DEFAULT_AUTO_STOP_SILENCE_MS),
+        preferences.getBoolean(KEY_FLAC_AUDIO_UPLOAD, AppSettings.DEFAULT_FLAC_AUDIO_UPLOAD),
+        preferences.getBoolean(
+            KEY_LIVE_SPEAKING_ANALYSIS, AppSettings.DEFAULT_LIVE_SPEAKING_ANALYSIS));
   }
 
   public void setMuteAllPlayback(boolean enabled) {
@@ -94,6 +101,19 @@ public final class AppSettingsStore {
         .apply();
   }
 
+  public void setAutoStopSilenceMs(long silenceMs) {
+    long clamped = Math.max(0L, Math.min(silenceMs, AppSettings.MAX_AUTO_STOP_SILENCE_MS));
+    preferences.edit().putLong(KEY_AUTO_STOP_SILENCE_MS, clamped).apply();
+  }
+
+  public void setFlacAudioUpload(boolean enabled) {
+    preferences.edit().putBoolean(KEY_FLAC_AUDIO_UPLOAD, enabled).apply();
+  }
+
+  public void setLiveSpeakingAnalysis(boolean enabled) {
+    preferences.edit().putBoolean(KEY_LIVE_SPEAKING_ANALYSIS, enabled).apply();
+  }
+
   @NonNull
   private static String normalizeOrDefault(@Nullable String value, @NonNull String defaultValue) {
     String normalized = normalizeOrEmpty(value);
@@ -0,0 +1,595 @@
+package com.jjundev.oneclickeng.tool;
+
+import android.media.AudioAttributes;
+import android.media.AudioFormat;
+import android.media.AudioTrack;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 앱 전체가 공유하는 오디오 출력 엔진. 24kHz, 16-bit, Mono MODE_STREAM AudioTrack 하나를 계속 재사용한다.
+ *
+ * <p>재생할 오디오는 {@link Clip} 단위로 큐에 쌓이고, 전용 스레드가 순서대로 트랙에 써서 클립 사이에 공백 없이 이어 재생한다. 16kHz
+ * 녹음처럼 샘플레이트가 다른 입력은 쓰는 쪽 스레드에서 {@link PcmResampler}로 출력 샘플레이트에 맞춘다. 트랙의 플레이백 헤드가 클립 끝을
+ * 지나면 메인 스레드의 {@link ClipListener}로 완료가 전달되며, 큐가 한동안 비어 있으면 트랙을 일시정지한다.
+ *
+ * <p>트랙과 메인 스레드는 {@link OutputTrack}, {@link MainThread} 뒤에 있어 테스트에서 가짜로 바꾸고, writer 스레드 대신
+ * {@link #writeNextChunk}와 {@link #pollPosition}을 직접 호출해 큐/flush/되감기 동작을 확인할 수 있다.
+ */
+public final class AudioOutputEngine {
+
+  public static final int OUTPUT_SAMPLE_RATE_HZ = 24000;
+
+  private static final String TAG = "AudioOutputEngine";
+  private static final int CHANNEL_CONFIG = AudioFormat.CHANNEL_OUT_MONO;
+  private static final int AUDIO_FORMAT = AudioFormat.ENCODING_PCM_16BIT;
+  // 재생 시작/중지 지연을 줄이려 버퍼는 작게 (약 0.1초)
+  private static final int BUFFER_MILLIS = 100;
+  private static final long POSITION_INTERVAL_MS = 20L;
+  private static final long IDLE_PAUSE_MS = 3000L;
+  // 스트림 클립에 쌓아 둘 수 있는 미재생 오디오 (약 1초). 넘으면 Clip.write가 블로킹된다.
+  private static final int MAX_PENDING_BYTES = OUTPUT_SAMPLE_RATE_HZ * 2;
+
+  @Nullable private static volatile AudioOutputEngine instance;
+
+  @NonNull private final TrackFactory trackFactory;
+  @NonNull private final MainThread mainThread;
+  private final boolean startWriterThread;
+  private final Object lock = new Object();
+  // 완료되지 않은 클립 (재생 순서)
+  private final ArrayDeque<Clip> queue = new ArrayDeque<>();
+  private final Runnable pollPositionRunnable = this::pollPosition;
+  private final Runnable pauseIfIdleRunnable = this::pauseIfIdle;
+
+  @Nullable private OutputTrack audioTrack;
+  @Nullable private Thread writerThread;
+  private boolean trackPlaying;
+  private boolean polling;
+  // 마지막 flush 이후 트랙에 쓴 프레임 수. 플레이백 헤드와 같은 기준이다.
+  private long framesWritten;
+  // flush마다 증가. flush 전에 시작된 write의 결과는 버린다.
+  private long generation;
+  @Nullable private Clip writingClip;
+
+  /** 재생 완료/오류 알림. 모두 메인 스레드에서 호출된다. */
+  public interface ClipListener {
+    void onCompleted();
+
+    void onError(@Nullable String error);
+  }
+
+  /** 엔진이 쓰는 출력 트랙 (기본은 AudioTrack). */
+  interface OutputTrack {
+    void play();
+
+    void pause();
+
+    /** 버퍼를 비우고 플레이백 헤드를 0으로 되돌린다. 블로킹된 write도 깨어난다. */
+    void flush();
+
+    void release();
+
+    /**
+     * 블로킹 쓰기
+     *
+     * @return 쓴 바이트 수, 오류면 음수
+     */
+    int write(@NonNull byte[] data, int offset, int length);
+
+    /** 마지막 flush 이후 재생된 프레임 수 */
+    long getPlaybackHeadFrames();
+  }
+
+  interface TrackFactory {
+    @NonNull
+    OutputTrack create() throws Exception;
+  }
+
+  /** 메인 스레드 예약 (기본은 메인 Looper의 Handler). */
+  interface MainThread {
+    void post(@NonNull Runnable task);
+
+    void postDelayed(@NonNull Runnable task, long delayMs);
+
+    void removeCallbacks(@NonNull Runnable task);
+  }
+
+  @NonNull
+  public static AudioOutputEngine getInstance() {
+    AudioOutputEngine existing = instance;
+    if (existing != null) {
+      return existing;
+    }
+    synchronized (AudioOutputEngine.class) {
+      if (instance == null) {
+        instance = new AudioOutputEngine();
+      }
+      return instance;
+    }
+  }
+
+  private AudioOutputEngine() {
+    this(AudioOutputEngine::createTrack, new HandlerMainThread(), true);
+  }
+
+  /**
+   * @param startWriterThread false면 writer 스레드를 띄우지 않는다. 호출하는 쪽이 {@link #writeNextChunk}로 직접 쓴다.
+   */
+  AudioOutputEngine(
+      @NonNull TrackFactory trackFactory,
+      @NonNull MainThread mainThread,
+      boolean startWriterThread) {
+    this.trackFactory = trackFactory;
+    this.mainThread = mainThread;
+    this.startWriterThread = startWriterThread;
+  }
+
+  /** 큐 끝에 스트림 클립을 연다. {@link Clip#write}로 오디오를 넘기고 {@link Clip#finish}로 끝을 표시한다. */
+  @NonNull
+  public Clip open(int sampleRateHz, @NonNull ClipListener listener) {
+    Clip clip = new Clip(sampleRateHz, listener);
+    synchronized (lock) {
+      queue.add(clip);
+      startLocked();
+    }
+    return clip;
+  }
+
+  /** 메모리에 있는 PCM 전체를 큐 끝에 넣는다. 블로킹하지 않으므로 메인 스레드에서 호출해도 된다. */
+  @NonNull
+  public Clip play(@NonNull byte[] pcmData, int sampleRateHz, @NonNull ClipListener listener) {
+    Clip clip = new Clip(sampleRateHz, listener);
+    byte[] converted = clip.resampler.process(pcmData, 0, pcmData.length);
+    synchronized (lock) {
+      clip.appendLocked(converted);
+      clip.finished = true;
+      queue.add(clip);
+      startLocked();
+    }
+    return clip;
+  }
+
+  private void startLocked() {
+    mainThread.removeCallbacks(pauseIfIdleRunnable);
+    if (audioTrack == null) {
+      try {
+        audioTrack = trackFactory.create();
+      } catch (Exception e) {
+        Log.e(TAG, "AudioTrack 생성 오류", e);
+        failAllLocked(e.getMessage());
+        return;
+      }
+    }
+    if (startWriterThread && writerThread == null) {
+      writerThread = new Thread(this::writerLoop, TAG);
+      writerThread.setDaemon(true);
+      writerThread.start();
+    }
+    if (!polling) {
+      polling = true;
+      mainThread.post(pollPositionRunnable);
+    }
+    lock.notifyAll();
+  }
+
+  private void writerLoop() {
+    try {
+      while (true) {
+        writeNextChunk(true);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * 다음에 쓸 청크 하나를 트랙에 쓴다 (writer 스레드).
+   *
+   * @param waitForData 쓸 청크가 없을 때 생길 때까지 기다릴지 여부
+   * @return 청크를 쓰거나 트랙 오류를 처리했으면 true, 쓸 청크가 없으면 false
+   */
+  boolean writeNextChunk(boolean waitForData) throws InterruptedException {
+    Clip clip;
+    OutputTrack track;
+    byte[] chunk;
+    int offset;
+    long writeGeneration;
+    synchronized (lock) {
+      while ((clip = nextWritableLocked()) == null || audioTrack == null) {
+        if (!waitForData) {
+          return false;
+        }
+        lock.wait();
+      }
+      track = audioTrack;
+      if (!trackPlaying) {
+        try {
+          track.play();
+          trackPlaying = true;
+        } catch (Exception e) {
+          Log.e(TAG, "AudioTrack 재생 오류", e);
+          releaseTrackLocked();
+          failAllLocked(e.getMessage());
+          return true;
+        }
+      }
+      if (clip.startFrame < 0) {
+        clip.startFrame = framesWritten;
+      }
+      chunk = clip.chunks.get(clip.writeIndex);
+      offset = clip.writeOffset;
+      writeGeneration = generation;
+      writingClip = clip;
+    }
+
+    int written;
+    try {
+      written = track.write(chunk, offset, chunk.length - offset);
+    } catch (Exception e) {
+      Log.e(TAG, "AudioTrack 쓰기 오류", e);
+      written = AudioTrack.ERROR;
+    }
+
+    synchronized (lock) {
+      writingClip = null;
+      if (writeGeneration == generation) {
+        if (written > 0) {
+          framesWritten += written / 2;
+          clip.advanceLocked(written);
+          if (clip.finished && clip.pendingBytes == 0) {
+            clip.endFrame = framesWritten;
+          }
+        } else if (written < 0) {
+          // 오디오 서버 재시작 등으로 트랙이 죽은 경우. 다음 클립에서 새로 만든다.
+          releaseTrackLocked();
+          failAllLocked("AudioTrack 쓰기 오류 (" + written + ")");
+        }
+      }
+      lock.notifyAll();
+    }
+    return true;
+  }
+
+  /** 다음에 쓸 클립. 앞 클립이 데이터를 기다리는 중이면 순서를 지키기 위해 null */
+  @Nullable
+  private Clip nextWritableLocked() {
+    for (Clip clip : queue) {
+      if (clip.pendingBytes > 0) {
+        return clip;
+      }
+      if (!clip.finished) {
+        return null;
+      }
+      // 모두 쓴 클립은 건너뛰어 다음 클립을 바로 이어 쓴다. 빈 클립은 여기서 위치가 정해진다.
+      if (clip.startFrame < 0) {
+        clip.startFrame = framesWritten;
+      }
+      if (clip.endFrame < 0) {
+        clip.endFrame = framesWritten;
+      }
+    }
+    return null;
+  }
+
+  /** 플레이백 헤드가 끝을 지난 클립을 완료 처리한다 (메인 스레드, 약 20ms 간격). */
+  void pollPosition() {
+    List<Runnable> events = new ArrayList<>();
+    boolean keepPolling;
+    synchronized (lock) {
+      long head = playbackHeadLocked();
+      Iterator<Clip> iterator = queue.iterator();
+      while (iterator.hasNext()) {
+        Clip clip = iterator.next();
+        if (clip.endFrame < 0 || head < clip.endFrame) {
+          break;
+        }
+        iterator.remove();
+        clip.done = true;
+        events.add(clip.listener::onCompleted);
+      }
+      keepPolling = !queue.isEmpty();
+      polling = keepPolling;
+    }
+    for (Runnable event : events) {
+      event.run();
+    }
+    if (keepPolling) {
+      mainThread.postDelayed(pollPositionRunnable, POSITION_INTERVAL_MS);
+    } else {
+      mainThread.postDelayed(pauseIfIdleRunnable, IDLE_PAUSE_MS);
+    }
+  }
+
+  private void pauseIfIdle() {
+    synchronized (lock) {
+      if (!queue.isEmpty() || audioTrack == null || !trackPlaying) {
+        return;
+      }
+      try {
+        audioTrack.pause();
+      } catch (Exception e) {
+        Log.e(TAG, "AudioTrack 일시정지 오류", e);
+      }
+      trackPlaying = false;
+    }
+  }
+
+  private void cancel(@NonNull Clip clip) {
+    synchronized (lock) {
+      if (clip.done || clip.cancelled) {
+        return;
+      }
+      clip.cancelled = true;
+      queue.remove(clip);
+      if (clip.startFrame >= 0) {
+        // 이미 트랙 버퍼에 들어간 오디오는 flush로만 지울 수 있다.
+        flushLocked();
+      }
+      lock.notifyAll();
+    }
+  }
+
+  /** 버퍼를 비우고, 남은 클립은 이미 재생된 위치부터 다시 쓰게 한다. */
+  private void flushLocked() {
+    long head = playbackHeadLocked();
+    if (audioTrack != null) {
+      try {
+        // 블로킹된 write도 여기서 깨어난다.
+        audioTrack.pause();
+        audioTrack.flush();
+      } catch (Exception e) {
+        Log.e(TAG, "AudioTrack flush 오류", e);
+      }
+    }
+    trackPlaying = false;
+    generation++;
+    for (Clip clip : queue) {
+      clip.rewindLocked(head);
+    }
+    framesWritten = 0L;
+  }
+
+  private long playbackHeadLocked() {
+    if (audioTrack == null) {
+      return 0L;
+    }
+    try {
+      return audioTrack.getPlaybackHeadFrames();
+    } catch (Exception e) {
+      return 0L;
+    }
+  }
+
+  private void failAllLocked(@Nullable String error) {
+    for (Clip clip : queue) {
+      clip.done = true;
+      ClipListener listener = clip.listener;
+      mainThread.post(
+          () -> {
+            if (!clip.cancelled) {
+              listener.onError(error);
+            }
+          });
+    }
+    queue.clear();
+    lock.notifyAll();
+  }
+
+  private void releaseTrackLocked() {
+    OutputTrack track = audioTrack;
+    audioTrack = null;
+    trackPlaying = false;
+    generation++;
+    framesWritten = 0L;
+    if (track == null) {
+      return;
+    }
+    try {
+      track.pause();
+      track.flush();
+      track.release();
+    } catch (Exception e) {
+      Log.e(TAG, "AudioTrack 해제 오류", e);
+    }
+  }
+
+  @NonNull
+  private static OutputTrack createTrack() {
+    int minBufferSize =
+        AudioTrack.getMinBufferSize(OUTPUT_SAMPLE_RATE_HZ, CHANNEL_CONFIG, AUDIO_FORMAT);
+    int bufferSize = Math.max(minBufferSize, OUTPUT_SAMPLE_RATE_HZ * 2 * BUFFER_MILLIS / 1000);
+    AudioTrack track =
+        new AudioTrack.Builder()
+            .setAudioAttributes(
+                new AudioAttributes.Builder()
+                    .setUsage(AudioAttributes.USAGE_MEDIA)
+                    .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                    .build())
+            .setAudioFormat(
+                new AudioFormat.Builder()
+                    .setEncoding(AUDIO_FORMAT)
+                    .setSampleRate(OUTPUT_SAMPLE_RATE_HZ)
+                    .setChannelMask(CHANNEL_CONFIG)
+                    .build())
+            .setBufferSizeInBytes(bufferSize)
+            .setTransferMode(AudioTrack.MODE_STREAM)
+            .setPerformanceMode(AudioTrack.PERFORMANCE_MODE_LOW_LATENCY)
+            .build();
+    // 트랙을 stop()하지 않으므로, 버퍼가 덜 차도 짧은 클립이 바로 재생되게 한다.
+    track.setStartThresholdInFrames(1);
+    return new AudioTrackOutput(track);
+  }
+
+  private static final class AudioTrackOutput implements OutputTrack {
+    @NonNull private final AudioTrack track;
+
+    AudioTrackOutput(@NonNull AudioTrack track) {
+      this.track = track;
+    }
+
+    @Override
+    public void play() {
+      track.play();
+    }
+
+    @Override
+    public void pause() {
+      track.pause();
+    }
+
+    @Override
+    public void flush() {
+      track.flush();
+    }
+
+    @Override
+    public void release() {
+      track.release();
+    }
+
+    @Override
+    public int write(@NonNull byte[] data, int offset, int length) {
+      return track.write(data, offset, length, AudioTrack.WRITE_BLOCKING);
+    }
+
+    @Override
+    public long getPlaybackHeadFrames() {
+      return track.getPlaybackHeadPosition() & 0xFFFFFFFFL;
+    }
+  }
+
+  private static final class HandlerMainThread implements MainThread {
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    @Override
+    public void post(@NonNull Runnable task) {
+      handler.post(task);
+    }
+
+    @Override
+    public void postDelayed(@NonNull Runnable task, long delayMs) {
+      handler.postDelayed(task, delayMs);
+    }
+
+    @Override
+    public void removeCallbacks(@NonNull Runnable task) {
+      handler.removeCallbacks(task);
+    }
+  }
+
+  /** 큐에 들어간 오디오 한 덩어리. 출력 샘플레이트로 변환된 청크를 완료될 때까지 보관한다. */
+  public final class Clip {
+    @NonNull private final ClipListener listener;
+    @NonNull private final PcmResampler resampler;
+    // 아래 필드는 모두 lock으로 보호된다.
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int writeIndex;
+    private int writeOffset;
+    private long totalBytes;
+    private long pendingBytes;
+    private boolean finished;
+    private boolean cancelled;
+    private boolean done;
+    // 트랙 기준 시작/끝 프레임, 아직 정해지지 않았으면 -1
+    private long startFrame = -1L;
+    private long endFrame = -1L;
+    // flush 전에 이미 재생된 프레임 수
+    private long baseFrames;
+
+    private Clip(int sampleRateHz, @NonNull ClipListener listener) {
+      this.listener = listener;
+      this.resampler = new PcmResampler(sampleRateHz, OUTPUT_SAMPLE_RATE_HZ);
+    }
+
+    /**
+     * PCM 청크 추가 (생산자 스레드에서 호출). 재생되지 않은 오디오가 많으면 재생이 따라잡을 때까지 블로킹된다.
+     *
+     * @return 클립이 아직 유효해서 청크를 받았으면 true
+     */
+    public boolean write(@NonNull byte[] pcmData, int offset, int length) {
+      byte[] converted = resampler.process(pcmData, offset, length);
+      synchronized (lock) {
+        while (!cancelled && !done && pendingBytes >= MAX_PENDING_BYTES) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+          }
+        }
+        if (cancelled || done || finished) {
+          return false;
+        }
+        appendLocked(converted);
+        lock.notifyAll();
+        return true;
+      }
+    }
+
+    /** 스트림 끝 표시. 넘긴 오디오가 모두 재생되면 {@link ClipListener#onCompleted}가 호출된다. */
+    public void finish() {
+      synchronized (lock) {
+        if (finished || cancelled || done) {
+          return;
+        }
+        finished = true;
+        if (pendingBytes == 0 && startFrame >= 0 && writingClip != this) {
+          endFrame = framesWritten;
+        }
+        lock.notifyAll();
+      }
+    }
+
+    /** 재생 중지. 이후 콜백은 호출되지 않는다. */
+    public void cancel() {
+      AudioOutputEngine.this.cancel(this);
+    }
+
+    /** 재생 중이거나 재생 대기 중인지 확인 */
+    public boolean isActive() {
+      synchronized (lock) {
+        return !done && !cancelled;
+      }
+    }
+
+    private void appendLocked(@NonNull byte[] converted) {
+      if (converted.length == 0) {
+        return;
+      }
+      chunks.add(converted);
+      totalBytes += converted.length;
+      pendingBytes += converted.length;
+    }
+
+    private void advanceLocked(int bytes) {
+      pendingBytes -= bytes;
+      writeOffset += bytes;
+      while (writeIndex < chunks.size() && writeOffset >= chunks.get(writeIndex).length) {
+        writeOffset -= chunks.get(writeIndex).length;
+        writeIndex++;
+      }
+    }
+
+    private void rewindLocked(long head) {
+      if (startFrame < 0) {
+        return;
+      }
+      long writtenFrames = (totalBytes - pendingBytes) / 2;
+      long playedFrames = Math.min(writtenFrames, baseFrames + Math.max(0L, head - startFrame));
+      writeIndex = 0;
+      writeOffset = 0;
+      pendingBytes = totalBytes;
+      advanceLocked((int) (playedFrames * 2));
+      baseFrames = playedFrames;
+      startFrame = -1L;
+      endFrame = -1L;
+    }
+  }
+}
@@ -6,8 +6,10 @@ import android.media.AudioFormat;
 import android.media.AudioRecord;
 import android.media.MediaRecorder;
 import android.util.Log;
+import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
 import androidx.fragment.app.Fragment;
+import java.nio.ByteBuffer;
 
 /** 오디오 녹음 관리 클래스 16-bit PCM, 16kHz, mono 포맷으로 녹음 */
 public class AudioRecorder {
@@ -15,11 +17,15 @@ public class AudioRecorder {
   private static final String TAG = "AudioRecorder";
 
   // 오디오 설정 (Gemini Live API 요구사항)
-  private static final int SAMPLE_RATE = 16000; // 16kHz
+  public static final int SAMPLE_RATE = 16000; // 16kHz
   private static final int CHANNEL_CONFIG = AudioFormat.CHANNEL_IN_MONO;
   private static final int AUDIO_FORMAT = AudioFormat.ENCODING_PCM_16BIT;
   private static final int CHUNK_SIZE = 1024; // 청크당 바이트 수
+  public static final int BYTES_PER_SECOND = SAMPLE_RATE * 2; // 16-bit mono
+  public static final int DEFAULT_MAX_RECORDING_SECONDS = 60;
 
+  // 최대 녹음 길이만큼 미리 할당해 두고 녹음마다 재사용
+  @NonNull private final PcmCaptureBuffer captureBuffer;
   private AudioRecord audioRecord;
   private volatile boolean isRecording = false;
   private Thread recordingThread;
@@ -27,11 +33,23 @@ public class AudioRecorder {
 
   /** 오디오 데이터 콜백 인터페이스 */
   public interface AudioCallback {
-    void onAudioData(byte[] audioData);
+    /**
+     * 녹음 스레드에서 호출됩니다. {@code buffer}는 내부 버퍼이므로 호출 중에만 읽고 보관하거나 수정하지
+     * 마세요.
+     */
+    void onAudioData(@NonNull byte[] buffer, int offset, int length);
 
     void onError(String error);
   }
 
+  public AudioRecorder() {
+    this(DEFAULT_MAX_RECORDING_SECONDS);
+  }
+
+  public AudioRecorder(int maxRecordingSeconds) {
+    captureBuffer = new PcmCaptureBuffer(maxRecordingSeconds * BYTES_PER_SECOND, CHUNK_SIZE);
+  }
+
   /** 권한 확인 */
   public static boolean hasRecordPermission(Fragment fragment) {
     return ContextCompat.checkSelfPermission(
@@ -42,6 +60,7 @@ public class AudioRecorder {
   /** 녹음 시작 */
   public synchronized void startRecording(AudioCallback callback) {
     stopRecording();
+    captureBuffer.reset();
     this.callback = callback;
 
     int minBufferSize = AudioRecord.getMinBufferSize(SAMPLE_RATE, CHANNEL_CONFIG, AUDIO_FORMAT);
@@ -97,22 +116,25 @@ public class AudioRecorder {
 
   /** 녹음 루프 (별도 스레드에서 실행) */
   private void recordLoop() {
-    byte[] buffer = new byte[CHUNK_SIZE];
+    byte[] buffer = captureBuffer.array();
 
     while (isRecording) {
       AudioRecord currentRecord = audioRecord;
       if (currentRecord == null) {
         break;
       }
-      int bytesRead = currentRecord.read(buffer, 0, CHUNK_SIZE);
+      // 캡처 버퍼의 다음 슬롯에 직접 읽으므로 청크마다 할당하거나 복사하지 않음
+      int offset = captureBuffer.nextChunkOffset();
+      int bytesRead = currentRecord.read(buffer, offset, captureBuffer.nextChunkSize());
 
       if (bytesRead > 0) {
+        boolean alreadyOverflowed = captureBuffer.isOverflowed();
+        if (!captureBuffer.commit(bytesRead) && !alreadyOverflowed) {
+          Log.w(TAG, "최대 녹음 길이 초과, 이후 오디오는 저장되지 않음");
+        }
         AudioCallback currentCallback = callback;
         if (currentCallback != null) {
-          // 읽은 만큼만 복사
-          byte[] audioData = new byte[bytesRead];
-          System.arraycopy(buffer, 0, audioData, 0, bytesRead);
-          currentCallback.onAudioData(audioData);
+          currentCallback.onAudioData(buffer, offset, bytesRead);
         }
       } else if (bytesRead == AudioRecord.ERROR_INVALID_OPERATION
           || bytesRead == AudioRecord.ERROR_BAD_VALUE) {
@@ -160,6 +182,15 @@ public class AudioRecorder {
     Log.d(TAG, "녹음 중지됨");
   }
 
+  /**
+   * 마지막 녹음의 읽기 전용 뷰 (복사 없음). 녹음이 멈춘 뒤에 호출해야 하며 다음 {@link
+   * #startRecording} 전까지만 유효합니다.
+   */
+  @NonNull
+  public ByteBuffer getRecording() {
+    return captureBuffer.asReadOnlyBuffer();
+  }
+
   /** 녹음 상태 확인 */
   public boolean isRecording() {
     return isRecording;
@@ -0,0 +1,589 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Lossless FLAC encoder for 16-bit little-endian mono PCM, fed incrementally while recording.
+ *
+ * <p>Every full block of {@link #write written} audio is encoded as soon as it fills, using
+ * whichever of a constant, verbatim or fixed-predictor (order 0-4) subframe with partitioned Rice
+ * residuals is smallest. {@link #encodeTake} then only has to encode the partial blocks at the
+ * edges of the requested range and frame the rest, so producing the file at stop time costs a
+ * hash and a CRC pass over the take rather than a full encode.
+ *
+ * <p>The output uses variable-blocksize framing, where each frame header carries its first
+ * sample number. That lets a take trimmed to an arbitrary start reuse the blocks encoded on the
+ * block grid: frames are renumbered relative to the start as they are assembled. A block is only
+ * reused if the PCM passed to {@link #encodeTake} matches what was written for it, so a stream that
+ * missed chunks degrades to encoding those blocks again rather than to wrong audio. The STREAMINFO
+ * MD5 is left zero, which the format defines as "not computed".
+ */
+public final class FlacEncoder {
+  public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+  private static final int MIN_BLOCK_SIZE = 16;
+  private static final int MAX_FIXED_ORDER = 4;
+  private static final int MAX_PARTITION_ORDER = 6;
+  // Four-bit Rice parameters; 15 is reserved as the escape code.
+  private static final int MAX_RICE_PARAMETER = 14;
+  private static final int BITS_PER_SAMPLE = 16;
+  private static final int STREAMINFO_BYTES = 34;
+
+  private static final int[] CRC8_TABLE = crcTable(0x07, 8);
+  private static final int[] CRC16_TABLE = crcTable(0x8005, 16);
+
+  private final int sampleRate;
+  private final int blockSize;
+
+  // Block being filled by write().
+  @NonNull private final int[] block;
+  private int blockFill;
+  private int pendingLowByte = -1;
+  private long samplesWritten;
+
+  // Subframes of the blocks encoded so far, back to back; block i spans
+  // [bodyOffsets[i], bodyOffsets[i] + bodyLengths[i]) of bodies.
+  @NonNull private final BitWriter bodies = new BitWriter(16 * 1024);
+  @NonNull private int[] bodyOffsets = new int[64];
+  @NonNull private int[] bodyLengths = new int[64];
+  @NonNull private long[] blockHashes = new long[64];
+  private int encodedBlocks;
+
+  // Scratch for encoding one block: fixed-predictor differences per order and partition sums.
+  @NonNull private final int[][] differences;
+  @NonNull private final long[] partitionSums = new long[1 << MAX_PARTITION_ORDER];
+  @NonNull private final int[] edgeSamples;
+  private int estimatedPartitionOrder;
+
+  public FlacEncoder(int sampleRate) {
+    this(sampleRate, DEFAULT_BLOCK_SIZE);
+  }
+
+  public FlacEncoder(int sampleRate, int blockSize) {
+    if (blockSize < MIN_BLOCK_SIZE || blockSize > 65535) {
+      throw new IllegalArgumentException("Unsupported block size " + blockSize);
+    }
+    this.sampleRate = sampleRate;
+    this.blockSize = blockSize;
+    this.block = new int[blockSize];
+    // An edge block at the start of a take can grow by up to MIN_BLOCK_SIZE samples.
+    int maxBlock = blockSize + MIN_BLOCK_SIZE;
+    this.edgeSamples = new int[maxBlock];
+    this.differences = new int[MAX_FIXED_ORDER + 1][maxBlock];
+  }
+
+  /** Encodes the whole of {@code pcm} in one go. */
+  @NonNull
+  public static byte[] encode(int sampleRate, @NonNull byte[] pcm) {
+    return new FlacEncoder(sampleRate).encodeTake(0L, pcm, 0, pcm.length);
+  }
+
+  /** Appends captured PCM; each block is encoded as soon as it is full. */
+  public synchronized void write(@NonNull byte[] pcm, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    if (pendingLowByte >= 0 && index < end) {
+      addSample((short) (pendingLowByte | (pcm[index++] << 8)));
+      pendingLowByte = -1;
+    }
+    for (; index + 1 < end; index += 2) {
+      addSample((short) ((pcm[index] & 0xFF) | (pcm[index + 1] << 8)));
+    }
+    if (index < end) {
+      pendingLowByte = pcm[index] & 0xFF;
+    }
+  }
+
+  public synchronized long getSamplesWritten() {
+    return samplesWritten;
+  }
+
+  /**
+   * Returns a complete FLAC file for the samples {@code [startSample, startSample + length / 2)}
+   * of the written stream, whose PCM is {@code pcm[offset, offset + length)}. Blocks already
+   * encoded by {@link #write} are reused; the rest are encoded from {@code pcm}. The encoder can
+   * keep being written to and asked for other ranges afterwards.
+   */
+  @NonNull
+  public synchronized byte[] encodeTake(
+      long startSample, @NonNull byte[] pcm, int offset, int length) {
+    int sampleCount = length / 2;
+    long endSample = startSample + sampleCount;
+    BitWriter edgeBodies = new BitWriter(1024);
+    FrameList frames = new FrameList();
+
+    long gridStart = (startSample + blockSize - 1) / blockSize * blockSize;
+    if (gridStart > startSample && gridStart - startSample < MIN_BLOCK_SIZE) {
+      // Only the last block may be shorter than the minimum, so merge a sliver into the next one.
+      gridStart += blockSize;
+    }
+    long position = startSample;
+    long headEnd = Math.min(gridStart, endSample);
+    if (headEnd > position) {
+      encodeEdge(pcm, offset, startSample, position, headEnd, edgeBodies, frames);
+      position = headEnd;
+    }
+    while (position + blockSize <= endSample) {
+      int blockIndex = (int) (position / blockSize);
+      int pcmOffset = offset + (int) (position - startSample) * 2;
+      if (blockIndex < encodedBlocks
+          && blockHashes[blockIndex] == hashPcm(pcm, pcmOffset, blockSize)) {
+        frames.add(bodies, bodyOffsets[blockIndex], bodyLengths[blockIndex], blockSize);
+      } else {
+        encodeEdge(pcm, offset, startSample, position, position + blockSize, edgeBodies, frames);
+      }
+      position += blockSize;
+    }
+    if (endSample > position) {
+      encodeEdge(pcm, offset, startSample, position, endSample, edgeBodies, frames);
+    }
+    return assemble(frames, sampleCount);
+  }
+
+  private void addSample(int sample) {
+    block[blockFill++] = sample;
+    samplesWritten++;
+    if (blockFill < blockSize) {
+      return;
+    }
+    blockFill = 0;
+    if (encodedBlocks == bodyOffsets.length) {
+      int capacity = encodedBlocks * 2;
+      bodyOffsets = Arrays.copyOf(bodyOffsets, capacity);
+      bodyLengths = Arrays.copyOf(bodyLengths, capacity);
+      blockHashes = Arrays.copyOf(blockHashes, capacity);
+    }
+    int start = bodies.size();
+    encodeSubframe(block, blockSize, bodies);
+    bodyOffsets[encodedBlocks] = start;
+    bodyLengths[encodedBlocks] = bodies.size() - start;
+    blockHashes[encodedBlocks] = hashSamples(block, blockSize);
+    encodedBlocks++;
+  }
+
+  private void encodeEdge(
+      @NonNull byte[] pcm,
+      int offset,
+      long startSample,
+      long from,
+      long to,
+      @NonNull BitWriter out,
+      @NonNull FrameList frames) {
+    int count = (int) (to - from);
+    int index = offset + (int) (from - startSample) * 2;
+    for (int i = 0; i < count; i++, index += 2) {
+      edgeSamples[i] = (short) ((pcm[index] & 0xFF) | (pcm[index + 1] << 8));
+    }
+    int bodyStart = out.size();
+    encodeSubframe(edgeSamples, count, out);
+    frames.add(out, bodyStart, out.size() - bodyStart, count);
+  }
+
+  /** Writes the single subframe of a mono frame, padded to a byte boundary. */
+  private void encodeSubframe(@NonNull int[] samples, int count, @NonNull BitWriter out) {
+    boolean constant = true;
+    for (int i = 1; i < count && constant; i++) {
+      constant = samples[i] == samples[0];
+    }
+    if (constant) {
+      out.writeBits(0, 8); // CONSTANT
+      out.writeBits(samples[0], BITS_PER_SAMPLE);
+      out.alignToByte();
+      return;
+    }
+
+    long bestBits = 8L + (long) BITS_PER_SAMPLE * count;
+    int bestOrder = -1;
+    int bestPartitionOrder = 0;
+    int maxOrder = Math.min(MAX_FIXED_ORDER, count - 1);
+    System.arraycopy(samples, 0, differences[0], 0, count);
+    for (int order = 0; order <= maxOrder; order++) {
+      if (order > 0) {
+        int[] previous = differences[order - 1];
+        int[] current = differences[order];
+        for (int i = order; i < count; i++) {
+          current[i] = previous[i] - previous[i - 1];
+        }
+      }
+      long bits =
+          8L
+              + (long) BITS_PER_SAMPLE * order
+              + estimateResidualBits(differences[order], count, order);
+      if (bits < bestBits) {
+        bestBits = bits;
+        bestOrder = order;
+        bestPartitionOrder = estimatedPartitionOrder;
+      }
+    }
+
+    if (bestOrder < 0) {
+      out.writeBits(0x02, 8); // VERBATIM
+      for (int i = 0; i < count; i++) {
+        out.writeBits(samples[i], BITS_PER_SAMPLE);
+      }
+      out.alignToByte();
+      return;
+    }
+
+    out.writeBits((0x08 | bestOrder) << 1, 8); // FIXED, order in the low bits of the type
+    for (int i = 0; i < bestOrder; i++) {
+      out.writeBits(samples[i], BITS_PER_SAMPLE);
+    }
+    writeResiduals(differences[bestOrder], count, bestOrder, bestPartitionOrder, out);
+    out.alignToByte();
+  }
+
+  /** Cheapest partitioned Rice coding of the residuals; leaves its order in a field. */
+  private long estimateResidualBits(@NonNull int[] residuals, int count, int order) {
+    int maxPartitionOrder = 0;
+    while (maxPartitionOrder < MAX_PARTITION_ORDER
+        && count % (1 << (maxPartitionOrder + 1)) == 0
+        && (count >> (maxPartitionOrder + 1)) > order) {
+      maxPartitionOrder++;
+    }
+    int partitionSize = count >> maxPartitionOrder;
+    for (int partition = 0; partition < (1 << maxPartitionOrder); partition++) {
+      int from = partition == 0 ? order : partition * partitionSize;
+      long sum = 0L;
+      for (int i = from; i < (partition + 1) * partitionSize; i++) {
+        sum += zigZag(residuals[i]);
+      }
+      partitionSums[partition] = sum;
+    }
+
+    long bestBits = Long.MAX_VALUE;
+    for (int partitionOrder = maxPartitionOrder; partitionOrder >= 0; partitionOrder--) {
+      int partitions = 1 << partitionOrder;
+      if (partitionOrder < maxPartitionOrder) {
+        for (int partition = 0; partition < partitions; partition++) {
+          partitionSums[partition] =
+              partitionSums[partition * 2] + partitionSums[partition * 2 + 1];
+        }
+      }
+      long bits = 2 + 4;
+      for (int partition = 0; partition < partitions; partition++) {
+        int samples = (count >> partitionOrder) - (partition == 0 ? order : 0);
+        long sum = partitionSums[partition];
+        bits += 4 + riceBits(sum, samples, riceParameter(sum, samples));
+      }
+      if (bits < bestBits) {
+        bestBits = bits;
+        estimatedPartitionOrder = partitionOrder;
+      }
+    }
+    return bestBits;
+  }
+
+  private static void writeResiduals(
+      @NonNull int[] residuals, int count, int order, int partitionOrder, @NonNull BitWriter out) {
+    out.writeBits(0, 2); // Rice coding with 4-bit parameters
+    out.writeBits(partitionOrder, 4);
+    int partitionSize = count >> partitionOrder;
+    for (int partition = 0; partition < (1 << partitionOrder); partition++) {
+      int from = partition == 0 ? order : partition * partitionSize;
+      int to = (partition + 1) * partitionSize;
+      long sum = 0L;
+      for (int i = from; i < to; i++) {
+        sum += zigZag(residuals[i]);
+      }
+      int parameter = riceParameter(sum, to - from);
+      out.writeBits(parameter, 4);
+      for (int i = from; i < to; i++) {
+        int value = zigZag(residuals[i]);
+        out.writeUnary(value >>> parameter);
+        out.writeBits(value, parameter);
+      }
+    }
+  }
+
+  private static int riceParameter(long sum, int samples) {
+    if (samples <= 0) {
+      return 0;
+    }
+    int guess = 0;
+    while (guess < MAX_RICE_PARAMETER && ((long) samples << (guess + 1)) <= sum) {
+      guess++;
+    }
+    // The mean only approximates the best parameter; check its neighbours too.
+    int best = guess;
+    long bestBits = riceBits(sum, samples, guess);
+    for (int candidate = Math.max(0, guess - 1);
+        candidate <= Math.min(MAX_RICE_PARAMETER, guess + 1);
+        candidate++) {
+      long bits = riceBits(sum, samples, candidate);
+      if (bits < bestBits) {
+        bestBits = bits;
+        best = candidate;
+      }
+    }
+    return best;
+  }
+
+  private static long riceBits(long sum, int samples, int parameter) {
+    return (long) samples * (parameter + 1) + (sum >> parameter);
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  @NonNull
+  private byte[] assemble(@NonNull FrameList frames, long totalSamples) {
+    BitWriter out =
+        new BitWriter(4 + 4 + STREAMINFO_BYTES + frames.totalBodyBytes() + 32 * frames.size);
+    out.writeBytes(new byte[] {'f', 'L', 'a', 'C'}, 0, 4);
+    out.writeBits(0x80, 8); // last metadata block, STREAMINFO
+    out.writeBits(STREAMINFO_BYTES, 24);
+    int streamInfoAt = out.size();
+    out.writeBytes(new byte[STREAMINFO_BYTES], 0, STREAMINFO_BYTES);
+
+    byte[] header = new byte[16];
+    long sampleNumber = 0L;
+    int minBlock = Integer.MAX_VALUE;
+    int maxBlock = 0;
+    int minFrame = Integer.MAX_VALUE;
+    int maxFrame = 0;
+    for (int i = 0; i < frames.size; i++) {
+      int samples = frames.samples[i];
+      int headerLength = writeFrameHeader(header, sampleNumber, samples);
+      int crc = crc16(0, header, 0, headerLength);
+      crc = crc16(crc, frames.sources[i].array(), frames.offsets[i], frames.lengths[i]);
+      out.writeBytes(header, 0, headerLength);
+      out.writeBytes(frames.sources[i].array(), frames.offsets[i], frames.lengths[i]);
+      out.writeBits(crc, 16);
+
+      int frameBytes = headerLength + frames.lengths[i] + 2;
+      minFrame = Math.min(minFrame, frameBytes);
+      maxFrame = Math.max(maxFrame, frameBytes);
+      if (i < frames.size - 1) {
+        minBlock = Math.min(minBlock, samples);
+      }
+      maxBlock = Math.max(maxBlock, samples);
+      sampleNumber += samples;
+    }
+    if (minBlock == Integer.MAX_VALUE) {
+      minBlock = maxBlock;
+    }
+    minBlock = Math.max(MIN_BLOCK_SIZE, minBlock);
+    maxBlock = Math.max(minBlock, maxBlock);
+    if (frames.size == 0) {
+      minFrame = 0;
+    }
+
+    BitWriter streamInfo = new BitWriter(STREAMINFO_BYTES);
+    streamInfo.writeBits(minBlock, 16);
+    streamInfo.writeBits(maxBlock, 16);
+    streamInfo.writeBits(minFrame, 24);
+    streamInfo.writeBits(maxFrame, 24);
+    streamInfo.writeBits(sampleRate, 20);
+    streamInfo.writeBits(0, 3); // one channel
+    streamInfo.writeBits(BITS_PER_SAMPLE - 1, 5);
+    streamInfo.writeBits((int) (totalSamples >>> 32), 4);
+    streamInfo.writeBits((int) totalSamples, 32);
+    // MD5 of the audio: all zero means not computed.
+    streamInfo.writeBytes(new byte[16], 0, 16);
+
+    byte[] file = out.toByteArray();
+    System.arraycopy(streamInfo.array(), 0, file, streamInfoAt, STREAMINFO_BYTES);
+    return file;
+  }
+
+  /** Variable-blocksize frame header; returns its length including the CRC-8. */
+  private static int writeFrameHeader(@NonNull byte[] header, long sampleNumber, int samples) {
+    int at = 0;
+    header[at++] = (byte) 0xFF;
+    header[at++] = (byte) 0xF9; // sync code, variable blocksize
+    header[at++] = (byte) 0x70; // 16-bit block size at the end, sample rate from STREAMINFO
+    header[at++] = (byte) 0x08; // mono, 16 bits per sample
+    at = writeCodedNumber(header, at, sampleNumber);
+    header[at++] = (byte) ((samples - 1) >>> 8);
+    header[at++] = (byte) (samples - 1);
+    header[at] = (byte) crc8(header, at);
+    return at + 1;
+  }
+
+  /** The UTF-8-like coding FLAC uses for frame and sample numbers. */
+  private static int writeCodedNumber(@NonNull byte[] target, int at, long value) {
+    if (value < 0x80L) {
+      target[at++] = (byte) value;
+      return at;
+    }
+    int continuation;
+    int lead;
+    if (value < 0x800L) {
+      continuation = 1;
+      lead = 0xC0;
+    } else if (value < 0x10000L) {
+      continuation = 2;
+      lead = 0xE0;
+    } else if (value < 0x200000L) {
+      continuation = 3;
+      lead = 0xF0;
+    } else if (value < 0x4000000L) {
+      continuation = 4;
+      lead = 0xF8;
+    } else if (value < 0x80000000L) {
+      continuation = 5;
+      lead = 0xFC;
+    } else {
+      continuation = 6;
+      lead = 0xFE;
+    }
+    target[at++] = (byte) (lead | (value >>> (6 * continuation)));
+    for (int i = continuation - 1; i >= 0; i--) {
+      target[at++] = (byte) (0x80 | ((value >>> (6 * i)) & 0x3F));
+    }
+    return at;
+  }
+
+  private static long hashSamples(@NonNull int[] samples, int count) {
+    long hash = 1125899906842597L;
+    for (int i = 0; i < count; i++) {
+      hash = 31L * hash + samples[i];
+    }
+    return hash;
+  }
+
+  private static long hashPcm(@NonNull byte[] pcm, int offset, int count) {
+    long hash = 1125899906842597L;
+    for (int i = 0, index = offset; i < count; i++, index += 2) {
+      hash = 31L * hash + (short) ((pcm[index] & 0xFF) | (pcm[index + 1] << 8));
+    }
+    return hash;
+  }
+
+  private static int crc8(@NonNull byte[] data, int length) {
+    int crc = 0;
+    for (int i = 0; i < length; i++) {
+      crc = CRC8_TABLE[(crc ^ data[i]) & 0xFF];
+    }
+    return crc;
+  }
+
+  private static int crc16(int crc, @NonNull byte[] data, int offset, int length) {
+    for (int i = offset; i < offset + length; i++) {
+      crc = ((crc << 8) ^ CRC16_TABLE[((crc >>> 8) ^ data[i]) & 0xFF]) & 0xFFFF;
+    }
+    return crc;
+  }
+
+  @NonNull
+  private static int[] crcTable(int polynomial, int width) {
+    int topBit = 1 << (width - 1);
+    int mask = (1 << width) - 1;
+    int[] table = new int[256];
+    for (int value = 0; value < 256; value++) {
+      int crc = value << (width - 8);
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & topBit) != 0 ? (crc << 1) ^ polynomial : crc << 1;
+      }
+      table[value] = crc & mask;
+    }
+    return table;
+  }
+
+  /** Frames of one take in order, each a subframe body held in one of the writers. */
+  private static final class FrameList {
+    @NonNull BitWriter[] sources = new BitWriter[16];
+    @NonNull int[] offsets = new int[16];
+    @NonNull int[] lengths = new int[16];
+    @NonNull int[] samples = new int[16];
+    int size;
+
+    void add(@NonNull BitWriter source, int offset, int length, int sampleCount) {
+      if (size == sources.length) {
+        sources = Arrays.copyOf(sources, size * 2);
+        offsets = Arrays.copyOf(offsets, size * 2);
+        lengths = Arrays.copyOf(lengths, size * 2);
+        samples = Arrays.copyOf(samples, size * 2);
+      }
+      sources[size] = source;
+      offsets[size] = offset;
+      lengths[size] = length;
+      samples[size] = sampleCount;
+      size++;
+    }
+
+    int totalBodyBytes() {
+      int total = 0;
+      for (int i = 0; i < size; i++) {
+        total += lengths[i];
+      }
+      return total;
+    }
+  }
+
+  /** Big-endian bit writer over a growable byte array. */
+  private static final class BitWriter {
+    @NonNull private byte[] data;
+    private int size;
+    private long accumulator;
+    private int pendingBits;
+
+    BitWriter(int initialCapacity) {
+      data = new byte[Math.max(16, initialCapacity)];
+    }
+
+    /** Writes the low {@code count} (at most 32) bits of {@code value}. */
+    void writeBits(int value, int count) {
+      if (count == 0) {
+        return;
+      }
+      accumulator = (accumulator << count) | (value & ((1L << count) - 1));
+      pendingBits += count;
+      while (pendingBits >= 8) {
+        pendingBits -= 8;
+        put((byte) (accumulator >>> pendingBits));
+      }
+      accumulator &= (1L << pendingBits) - 1;
+    }
+
+    /** {@code zeros} zero bits followed by a one. */
+    void writeUnary(int zeros) {
+      while (zeros >= 32) {
+        writeBits(0, 32);
+        zeros -= 32;
+      }
+      writeBits(1, zeros + 1);
+    }
+
+    void alignToByte() {
+      if (pendingBits > 0) {
+        writeBits(0, 8 - pendingBits);
+      }
+    }
+
+    /** Appends whole bytes; only valid on a byte boundary. */
+    void writeBytes(@NonNull byte[] bytes, int offset, int length) {
+      ensureCapacity(length);
+      System.arraycopy(bytes, offset, data, size, length);
+      size += length;
+    }
+
+    int size() {
+      return size;
+    }
+
+    @NonNull
+    byte[] array() {
+      return data;
+    }
+
+    @NonNull
+    byte[] toByteArray() {
+      return data.length == size ? data : Arrays.copyOf(data, size);
+    }
+
+    private void put(byte value) {
+      ensureCapacity(1);
+      data[size++] = value;
+    }
+
+    private void ensureCapacity(int extra) {
+      if (size + extra > data.length) {
+        data = Arrays.copyOf(data, Math.max(data.length * 2, size + extra));
+      }
+    }
+  }
+}
@@ -3,20 +3,64 @@ package com.jjundev.oneclickeng.tool;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-
-/** Incrementally extracts dialogue metadata and completed turn objects from streamed JSON text. */
+import java.util.Map;
+
+/**
+ * Incrementally extracts dialogue metadata and completed turn objects from streamed JSON text.
+ *
+ * <p>The parser is a resumable state machine: it keeps its lexer state (inside a string, pending
+ * escape, container nesting) across chunks, so every character is examined exactly once and
+ * nothing before the current position is ever rescanned. Only the text of the turn object being
+ * read and the string currently being decoded are buffered.
+ */
 public final class IncrementalDialogueScriptParser {
-  private static final String SCRIPT_KEY = "\"script\"";
+  private static final String SCRIPT_KEY = "script";
   private static final String DEFAULT_OPPONENT_NAME = "AI Coach";
   private static final String DEFAULT_OPPONENT_GENDER = "female";
   private static final String[] TOPIC_KEYS = {"topic", "topicTitle", "conversationTopic"};
   private static final String[] OPPONENT_NAME_KEYS = {"opponent_name", "opponentName"};
   private static final String[] OPPONENT_GENDER_KEYS = {"opponent_gender", "opponentGender"};
 
-  @NonNull private final StringBuilder buffer = new StringBuilder();
-  private int emittedTurnCount = 0;
+  /** Top-level keys that carry dialogue metadata. */
+  public static final List<String> METADATA_KEYS =
+      Collections.unmodifiableList(
+          Arrays.asList(
+              "topic",
+              "topicTitle",
+              "conversationTopic",
+              "opponent_name",
+              "opponentName",
+              "opponent_gender",
+              "opponentGender"));
+  private static final int SCRIPT_NOT_SEEN = -1;
+  private static final int SCRIPT_DONE = -2;
+
+  // Container stack; true for objects, false for arrays.
+  @NonNull private boolean[] containerIsObject = new boolean[8];
+  private int depth = 0;
+  private boolean expectingKey = false;
+  @Nullable private String currentKey;
+
+  private boolean inString = false;
+  private boolean stringIsKey = false;
+  private boolean capturingString = false;
+  private boolean escaping = false;
+  private int unicodeDigitsLeft = 0;
+  private int unicodeValue = 0;
+  @NonNull private final StringBuilder stringValue = new StringBuilder();
+
+  // Depth of the script array once its '[' has been read; turns are the objects directly in it.
+  private int scriptArrayDepth = SCRIPT_NOT_SEEN;
+  @Nullable private StringBuilder turnText;
+
+  // First non-blank value seen for each metadata key; earlier keys in each group take priority.
+  @NonNull private final Map<String, String> metadataValues = new HashMap<>();
+  private boolean metadataChanged = false;
   @Nullable private Metadata lastEmittedMetadata;
 
   public static final class Metadata {
@@ -45,6 +89,25 @@ public final class IncrementalDialogueScriptParser {
     public String getOpponentGender() {
       return opponentGender;
     }
+
+    @Override
+    public boolean equals(Object other) {
+      if (this == other) {
+        return true;
+      }
+      if (!(other instanceof Metadata)) {
+        return false;
+      }
+      Metadata that = (Metadata) other;
+      return topic.equals(that.topic)
+          && opponentName.equals(that.opponentName)
+          && opponentGender.equals(that.opponentGender);
+    }
+
+    @Override
+    public int hashCode() {
+      return (topic.hashCode() * 31 + opponentName.hashCode()) * 31 + opponentGender.hashCode();
+    }
   }
 
   public static final class ParseUpdate {
@@ -69,34 +132,180 @@ public final class IncrementalDialogueScriptParser {
 
   @NonNull
   public ParseUpdate addChunk(@NonNull String chunk) {
-    if (!chunk.isEmpty()) {
-      buffer.append(chunk);
+    List<String> newlyCompleted = new ArrayList<>();
+    for (int i = 0; i < chunk.length(); i++) {
+      accept(chunk.charAt(i), newlyCompleted);
     }
 
-    Metadata metadata = tryExtractMetadata(buffer.toString(), lastEmittedMetadata);
-    if (metadata != null && isSameMetadata(metadata, lastEmittedMetadata)) {
-      metadata = null;
-    } else if (metadata != null) {
-      lastEmittedMetadata = metadata;
+    Metadata metadata = null;
+    if (metadataChanged) {
+      metadataChanged = false;
+      metadata = resolveMetadata(metadataValues, lastEmittedMetadata);
+      if (metadata != null && metadata.equals(lastEmittedMetadata)) {
+        metadata = null;
+      } else if (metadata != null) {
+        lastEmittedMetadata = metadata;
+      }
     }
+    return new ParseUpdate(metadata, newlyCompleted);
+  }
 
-    List<String> allCompleted = extractCompletedTurnObjects(buffer.toString());
-    List<String> newlyCompleted = new ArrayList<>();
-    if (allCompleted.size() > emittedTurnCount) {
-      for (int i = emittedTurnCount; i < allCompleted.size(); i++) {
-        newlyCompleted.add(allCompleted.get(i));
+  private void accept(char ch, @NonNull List<String> completedTurns) {
+    StringBuilder turn = turnText;
+    if (turn != null) {
+      turn.append(ch);
+    }
+
+    if (inString) {
+      acceptStringChar(ch);
+      return;
+    }
+
+    switch (ch) {
+      case '"':
+        stringIsKey = isInObject() && expectingKey;
+        capturingString = turn == null && (stringIsKey || isMetadataKey(currentKey));
+        stringValue.setLength(0);
+        inString = true;
+        break;
+      case '{':
+        boolean startsTurn = turn == null && depth == scriptArrayDepth;
+        push(true);
+        if (startsTurn) {
+          turnText = new StringBuilder().append(ch);
+        }
+        break;
+      case '[':
+        boolean startsScript =
+            turn == null && scriptArrayDepth == SCRIPT_NOT_SEEN && SCRIPT_KEY.equals(currentKey);
+        push(false);
+        if (startsScript) {
+          scriptArrayDepth = depth;
+        }
+        break;
+      case '}':
+      case ']':
+        pop();
+        if (turn != null && depth == scriptArrayDepth) {
+          completedTurns.add(turn.toString());
+          turnText = null;
+        } else if (depth == scriptArrayDepth - 1) {
+          scriptArrayDepth = SCRIPT_DONE;
+        }
+        break;
+      case ':':
+        expectingKey = false;
+        break;
+      case ',':
+        expectingKey = isInObject();
+        currentKey = null;
+        break;
+      default:
+        // Whitespace, numbers and literals carry nothing this parser needs.
+        break;
+    }
+  }
+
+  private void acceptStringChar(char ch) {
+    if (unicodeDigitsLeft > 0) {
+      unicodeValue = (unicodeValue << 4) + Character.digit(ch, 16);
+      if (--unicodeDigitsLeft == 0 && capturingString) {
+        stringValue.append((char) unicodeValue);
       }
-      emittedTurnCount = allCompleted.size();
+      return;
     }
-    return new ParseUpdate(metadata, newlyCompleted);
+    if (escaping) {
+      escaping = false;
+      if (ch == 'u') {
+        unicodeDigitsLeft = 4;
+        unicodeValue = 0;
+      } else if (capturingString) {
+        stringValue.append(unescape(ch));
+      }
+      return;
+    }
+    if (ch == '\\') {
+      escaping = true;
+      return;
+    }
+    if (ch == '"') {
+      inString = false;
+      onStringEnd();
+      return;
+    }
+    if (capturingString) {
+      stringValue.append(ch);
+    }
+  }
+
+  private void onStringEnd() {
+    if (stringIsKey) {
+      currentKey = capturingString ? stringValue.toString() : null;
+      return;
+    }
+    if (capturingString && currentKey != null) {
+      String value = trimToNull(stringValue.toString());
+      if (value != null && !metadataValues.containsKey(currentKey)) {
+        metadataValues.put(currentKey, value);
+        metadataChanged = true;
+      }
+    }
+    currentKey = null;
+  }
+
+  private void push(boolean isObject) {
+    if (depth == containerIsObject.length) {
+      containerIsObject = Arrays.copyOf(containerIsObject, depth * 2);
+    }
+    containerIsObject[depth++] = isObject;
+    expectingKey = isObject;
+    currentKey = null;
+  }
+
+  private void pop() {
+    if (depth > 0) {
+      depth--;
+    }
+    expectingKey = false;
+    currentKey = null;
+  }
+
+  private boolean isInObject() {
+    return depth > 0 && containerIsObject[depth - 1];
   }
 
+  private static char unescape(char ch) {
+    switch (ch) {
+      case 'n':
+        return '\n';
+      case 't':
+        return '\t';
+      case 'r':
+        return '\r';
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      default:
+        return ch;
+    }
+  }
+
+  private static boolean isMetadataKey(@Nullable String key) {
+    return key != null && METADATA_KEYS.contains(key);
+  }
+
+  /**
+   * Resolves metadata from the first non-blank value seen per key, as {@link #addChunk} does. Keys
+   * are those in {@link #METADATA_KEYS}; missing details fall back to {@code previousMetadata} and
+   * then to the defaults. Returns {@code null} until a topic is known.
+   */
   @Nullable
-  private static Metadata tryExtractMetadata(
-      @NonNull String source, @Nullable Metadata previousMetadata) {
+  public static Metadata resolveMetadata(
+      @NonNull Map<String, String> values, @Nullable Metadata previousMetadata) {
     String topic =
         firstNonBlank(
-            readJsonStringValue(source, TOPIC_KEYS),
+            readMetadataValue(values, TOPIC_KEYS),
             previousMetadata == null ? null : previousMetadata.getTopic());
     if (isBlank(topic)) {
       return null;
@@ -104,7 +313,7 @@ public final class IncrementalDialogueScriptParser {
 
     String opponentName =
         firstNonBlank(
-            readJsonStringValue(source, OPPONENT_NAME_KEYS),
+            readMetadataValue(values, OPPONENT_NAME_KEYS),
             previousMetadata == null ? null : previousMetadata.getOpponentName(),
             DEFAULT_OPPONENT_NAME);
 
@@ -114,175 +323,24 @@ public final class IncrementalDialogueScriptParser {
             DEFAULT_OPPONENT_GENDER);
     String opponentGender =
         normalizeGender(
-            firstNonBlank(readJsonStringValue(source, OPPONENT_GENDER_KEYS), previousGender),
+            firstNonBlank(readMetadataValue(values, OPPONENT_GENDER_KEYS), previousGender),
             previousGender);
 
     return new Metadata(topic.trim(), opponentName.trim(), opponentGender);
   }
 
-  private static boolean isSameMetadata(
-      @NonNull Metadata current, @Nullable Metadata previousMetadata) {
-    if (previousMetadata == null) {
-      return false;
-    }
-    return current.getTopic().equals(previousMetadata.getTopic())
-        && current.getOpponentName().equals(previousMetadata.getOpponentName())
-        && current.getOpponentGender().equals(previousMetadata.getOpponentGender());
-  }
-
   @Nullable
-  private static String readJsonStringValue(@NonNull String source, @NonNull String[] keys) {
+  private static String readMetadataValue(
+      @NonNull Map<String, String> values, @NonNull String[] keys) {
     for (String key : keys) {
-      String value = readJsonStringValue(source, key);
-      if (!isBlank(value)) {
+      String value = trimToNull(values.get(key));
+      if (value != null) {
         return value;
       }
     }
     return null;
   }
 
-  @Nullable
-  private static String readJsonStringValue(@NonNull String source, @NonNull String key) {
-    String quotedKey = "\"" + key + "\"";
-    int keyIndex = source.indexOf(quotedKey);
-    if (keyIndex < 0) {
-      return null;
-    }
-
-    int colonIndex = source.indexOf(':', keyIndex + quotedKey.length());
-    if (colonIndex < 0) {
-      return null;
-    }
-
-    int valueStart = -1;
-    for (int i = colonIndex + 1; i < source.length(); i++) {
-      char ch = source.charAt(i);
-      if (Character.isWhitespace(ch)) {
-        continue;
-      }
-      if (ch != '"') {
-        return null;
-      }
-      valueStart = i + 1;
-      break;
-    }
-    if (valueStart < 0 || valueStart > source.length()) {
-      return null;
-    }
-
-    StringBuilder builder = new StringBuilder();
-    boolean escaping = false;
-    for (int i = valueStart; i < source.length(); i++) {
-      char ch = source.charAt(i);
-      if (escaping) {
-        builder.append(ch);
-        escaping = false;
-        continue;
-      }
-      if (ch == '\\') {
-        escaping = true;
-        continue;
-      }
-      if (ch == '"') {
-        return builder.toString();
-      }
-      builder.append(ch);
-    }
-    return null;
-  }
-
-  @NonNull
-  private static List<String> extractCompletedTurnObjects(@NonNull String source) {
-    List<String> result = new ArrayList<>();
-    int arrayStartIndex = resolveScriptArrayStart(source);
-    if (arrayStartIndex < 0) {
-      return result;
-    }
-
-    boolean inString = false;
-    boolean escaping = false;
-    int objectStart = -1;
-    int braceDepth = 0;
-
-    for (int i = arrayStartIndex + 1; i < source.length(); i++) {
-      char ch = source.charAt(i);
-
-      if (inString) {
-        if (escaping) {
-          escaping = false;
-          continue;
-        }
-        if (ch == '\\') {
-          escaping = true;
-          continue;
-        }
-        if (ch == '"') {
-          inString = false;
-        }
-        continue;
-      }
-
-      if (ch == '"') {
-        inString = true;
-        continue;
-      }
-
-      if (objectStart < 0) {
-        if (ch == '{') {
-          objectStart = i;
-          braceDepth = 1;
-          continue;
-        }
-        if (ch == ']') {
-          break;
-        }
-        continue;
-      }
-
-      if (ch == '{') {
-        braceDepth++;
-        continue;
-      }
-      if (ch == '}') {
-        braceDepth--;
-        if (braceDepth == 0) {
-          result.add(source.substring(objectStart, i + 1));
-          objectStart = -1;
-        }
-      }
-    }
-
-    return result;
-  }
-
-  private static int resolveScriptArrayStart(@NonNull String source) {
-    int searchFrom = 0;
-    while (true) {
-      int keyIndex = source.indexOf(SCRIPT_KEY, searchFrom);
-      if (keyIndex < 0) {
-        return -1;
-      }
-      int arrayStart = findArrayStart(source, keyIndex + SCRIPT_KEY.length());
-      if (arrayStart >= 0) {
-        return arrayStart;
-      }
-      searchFrom = keyIndex + SCRIPT_KEY.length();
-    }
-  }
-
-  private static int findArrayStart(@NonNull String source, int fromIndex) {
-    for (int i = fromIndex; i < source.length(); i++) {
-      char ch = source.charAt(i);
-      if (ch == '[') {
-        return i;
-      }
-      if (!Character.isWhitespace(ch) && ch != ':') {
-        return -1;
-      }
-    }
-    return -1;
-  }
-
   private static boolean isBlank(@Nullable String value) {
     return trimToNull(value) == null;
   }
@@ -0,0 +1,93 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+
+/**
+ * Preallocated storage for one recording take, allocated once and reused for every take.
+ *
+ * <p>The backing array is a run of chunk slots sized for the maximum recording length plus one
+ * overflow slot. The recorder reads each chunk straight into the next slot, and subscribers get
+ * that slot as a slice of {@link #array()}, so capturing allocates nothing. Chunks read after the
+ * take is full land in the overflow slot: live subscribers still see them, but they are not kept.
+ *
+ * <p>Only the recording thread writes; {@link #asReadOnlyBuffer()} is meant to be called after
+ * recording has stopped.
+ */
+public final class PcmCaptureBuffer {
+  private final int chunkBytes;
+  private final int capacityBytes;
+  @NonNull private final byte[] data;
+  private int length;
+  private boolean overflowed;
+
+  public PcmCaptureBuffer(int capacityBytes, int chunkBytes) {
+    if (chunkBytes <= 0 || capacityBytes < chunkBytes) {
+      throw new IllegalArgumentException(
+          "capacity " + capacityBytes + " must hold at least one chunk of " + chunkBytes);
+    }
+    this.chunkBytes = chunkBytes;
+    // Whole slots only, so a full take ends on a chunk boundary.
+    this.capacityBytes = capacityBytes - capacityBytes % chunkBytes;
+    this.data = new byte[this.capacityBytes + chunkBytes];
+  }
+
+  /** Starts a new take; the previous take's view is no longer valid. */
+  public void reset() {
+    length = 0;
+    overflowed = false;
+  }
+
+  /** Backing array that chunks are read into; see {@link #nextChunkOffset()}. */
+  @NonNull
+  public byte[] array() {
+    return data;
+  }
+
+  /** Where the next chunk should be read: the end of the take, or the overflow slot once full. */
+  public int nextChunkOffset() {
+    return length < capacityBytes ? length : capacityBytes;
+  }
+
+  /** How many bytes may be read at {@link #nextChunkOffset()}. */
+  public int nextChunkSize() {
+    return length < capacityBytes ? Math.min(chunkBytes, capacityBytes - length) : chunkBytes;
+  }
+
+  /**
+   * Records that {@code count} bytes were read at {@link #nextChunkOffset()}.
+   *
+   * @return true if they were kept in the take, false if they went to the overflow slot
+   */
+  public boolean commit(int count) {
+    if (count <= 0) {
+      return true;
+    }
+    if (length >= capacityBytes) {
+      overflowed = true;
+      return false;
+    }
+    length += Math.min(count, capacityBytes - length);
+    return true;
+  }
+
+  /** Bytes kept in the current take. */
+  public int length() {
+    return length;
+  }
+
+  public int capacity() {
+    return capacityBytes;
+  }
+
+  /** True if audio was captured after the take reached {@link #capacity()}. */
+  public boolean isOverflowed() {
+    return overflowed;
+  }
+
+  /** The current take as a read-only view of the backing array; no bytes are copied. */
+  @NonNull
+  public ByteBuffer asReadOnlyBuffer() {
+    return ByteBuffer.wrap(data, 0, length).slice().asReadOnlyBuffer();
+  }
+}
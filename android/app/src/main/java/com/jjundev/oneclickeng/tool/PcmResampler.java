@@ -0,0 +1,91 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * 16-bit Little-endian Mono PCM 스트림 리샘플러 (선형 보간).
+ *
+ * <p>청크를 나눠 넣어도 한 번에 넣은 것과 같은 결과를 내도록 마지막 입력 샘플과 홀수 바이트를 다음 청크로 넘긴다. 출력 샘플 k는 입력
+ * 위치 k * inputRate / outputRate 에서 보간하며, 정수 연산으로 위치를 계산하므로 긴 스트림에서도 오차가 쌓이지 않는다. 스레드 안전하지 않다.
+ */
+final class PcmResampler {
+  private final int inputRate;
+  private final int outputRate;
+
+  private long inputFrames;
+  private long outputFrames;
+  private int previousSample;
+  private int pendingLowByte = -1;
+
+  PcmResampler(int inputRate, int outputRate) {
+    this.inputRate = Math.max(1, inputRate);
+    this.outputRate = Math.max(1, outputRate);
+  }
+
+  /** 다음 입력 청크를 변환한다. 반환 배열은 항상 짝수 길이 */
+  @NonNull
+  byte[] process(@NonNull byte[] pcm, int offset, int length) {
+    short[] samples = decode(pcm, offset, length);
+    int count = samples.length;
+    if (count == 0) {
+      return new byte[0];
+    }
+    if (inputRate == outputRate) {
+      inputFrames += count;
+      outputFrames += count;
+      return encode(samples, count);
+    }
+
+    long base = inputFrames;
+    long last = base + count - 1;
+    int capacity = (int) ((last + 1) * outputRate / inputRate - outputFrames + 2);
+    short[] out = new short[Math.max(0, capacity)];
+    int produced = 0;
+    while (produced < out.length) {
+      long position = outputFrames * inputRate;
+      long index = position / outputRate;
+      if (index + 1 > last) {
+        break;
+      }
+      long fraction = position % outputRate;
+      int x0 = index < base ? previousSample : samples[(int) (index - base)];
+      int x1 = samples[(int) (index + 1 - base)];
+      out[produced++] = (short) (x0 + (x1 - x0) * fraction / outputRate);
+      outputFrames++;
+    }
+    previousSample = samples[count - 1];
+    inputFrames += count;
+    return encode(out, produced);
+  }
+
+  @NonNull
+  private short[] decode(@NonNull byte[] pcm, int offset, int length) {
+    int index = offset;
+    int end = offset + length;
+    int total = length + (pendingLowByte >= 0 ? 1 : 0);
+    short[] samples = new short[total / 2];
+    int count = 0;
+    if (pendingLowByte >= 0 && index < end) {
+      samples[count++] = (short) (pendingLowByte | (pcm[index++] << 8));
+      pendingLowByte = -1;
+    }
+    for (; index + 1 < end; index += 2) {
+      samples[count++] = (short) ((pcm[index] & 0xFF) | (pcm[index + 1] << 8));
+    }
+    if (index < end) {
+      pendingLowByte = pcm[index] & 0xFF;
+    }
+    return count == samples.length ? samples : Arrays.copyOf(samples, count);
+  }
+
+  @NonNull
+  private static byte[] encode(@NonNull short[] samples, int count) {
+    byte[] bytes = new byte[count * 2];
+    for (int i = 0; i < count; i++) {
+      bytes[i * 2] = (byte) samples[i];
+      bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+    }
+    return bytes;
+  }
+}
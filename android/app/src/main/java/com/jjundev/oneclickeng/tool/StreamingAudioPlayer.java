@@ -0,0 +1,129 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * 도착하는 대로 재생하는 16-bit Mono PCM 스트림 플레이어. 공유 {@link AudioOutputEngine}의 스트림 클립 사용.
+ *
+ * <p>{@link #begin}은 메인 스레드에서 재생 세션을 열고, 생산자 스레드가 {@link #write}로 청크를 넘긴다. 첫 청크가 오면 그
+ * 샘플레이트로 클립을 열어 바로 재생하고, 재생되지 않은 오디오가 쌓이면 write가 블로킹되어 다운로드 속도를 재생 속도에 맞춘다. {@link
+ * #end} 이후 넘긴 오디오가 모두 재생되면 완료 콜백이 메인 스레드에서 호출된다. {@link #stop}이나 다음 {@link #begin}은 이전 세션을
+ * 무효화하므로, 늦게 도착한 청크는 재생되지 않는다.
+ */
+public class StreamingAudioPlayer {
+
+  private final AudioOutputEngine engine = AudioOutputEngine.getInstance();
+  private final Object sessionLock = new Object();
+
+  @Nullable private AudioOutputEngine.Clip clip;
+  @Nullable private RecordingAudioPlayer.PlaybackCallback playbackCallback;
+  private long playbackToken = 0L;
+
+  /** 새 재생 세션 시작 (기존 재생 중이면 자동 중지). 반환된 세션으로 write/end를 호출한다. */
+  public long begin(@NonNull RecordingAudioPlayer.PlaybackCallback callback) {
+    stop();
+    synchronized (sessionLock) {
+      playbackCallback = callback;
+      return playbackToken;
+    }
+  }
+
+  /**
+   * PCM 청크 재생 (생산자 스레드에서 호출, 재생이 따라잡을 때까지 블로킹될 수 있음)
+   *
+   * @return 세션이 유효하고 청크를 넘겼으면 true
+   */
+  public boolean write(long session, @NonNull byte[] pcmData, int sampleRateHz) {
+    AudioOutputEngine.Clip target;
+    synchronized (sessionLock) {
+      if (session != playbackToken || playbackCallback == null) {
+        return false;
+      }
+      if (clip == null) {
+        clip = engine.open(sampleRateHz, new SessionListener(session));
+      }
+      target = clip;
+    }
+    return target.write(pcmData, 0, pcmData.length);
+  }
+
+  /** 스트림 끝 표시 (메인 스레드). 이미 넘긴 오디오가 모두 재생되면 완료 콜백 호출 */
+  public void end(long session) {
+    AudioOutputEngine.Clip target;
+    synchronized (sessionLock) {
+      if (session != playbackToken || playbackCallback == null) {
+        return;
+      }
+      target = clip;
+    }
+    if (target == null) {
+      complete(session);
+      return;
+    }
+    target.finish();
+  }
+
+  /** 재생 중지 */
+  public void stop() {
+    AudioOutputEngine.Clip target;
+    synchronized (sessionLock) {
+      playbackToken++;
+      playbackCallback = null;
+      target = clip;
+      clip = null;
+    }
+    if (target != null) {
+      target.cancel();
+    }
+  }
+
+  /** 세션이 유효한 상태로 재생 중인지 확인 */
+  public boolean isPlaying(long session) {
+    synchronized (sessionLock) {
+      return session == playbackToken && clip != null;
+    }
+  }
+
+  @Nullable
+  private RecordingAudioPlayer.PlaybackCallback finishSession(long session) {
+    synchronized (sessionLock) {
+      if (session != playbackToken || playbackCallback == null) {
+        return null;
+      }
+      RecordingAudioPlayer.PlaybackCallback callback = playbackCallback;
+      playbackCallback = null;
+      playbackToken++;
+      clip = null;
+      return callback;
+    }
+  }
+
+  private void complete(long session) {
+    RecordingAudioPlayer.PlaybackCallback callback = finishSession(session);
+    if (callback != null) {
+      callback.onPlaybackCompleted();
+    }
+  }
+
+  private final class SessionListener implements AudioOutputEngine.ClipListener {
+    private final long session;
+
+    SessionListener(long session) {
+      this.session = session;
+    }
+
+    @Override
+    public void onCompleted() {
+      complete(session);
+    }
+
+    @Override
+    public void onError(@Nullable String error) {
+      RecordingAudioPlayer.PlaybackCallback callback = finishSession(session);
+      if (callback != null) {
+        callback.onPlaybackError(error);
+      }
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binds values of a streamed JSON document straight into model objects.
+ *
+ * <p>Paths use the same notation as {@link StreamingJsonExtractor}: {@code "grammar"} for the value
+ * of a top-level key, {@code "script[]"} for each element of the array under a top-level key, and
+ * {@link StreamingJsonExtractor#ROOT_ARRAY} for each element of a root array. A {@link
+ * ValueBinder} receives the {@link JsonReader} positioned at its value and reads it token by token
+ * (for example with a Gson {@code TypeAdapter}), so no substring or {@code JsonElement} tree is
+ * built. The reader pulls from the source only as far as it needs, which means every value is
+ * handed over as soon as its last token has arrived when the source is a live stream.
+ */
+public final class StreamingJsonBinder {
+
+  /** Reads exactly one JSON value from {@code reader}. */
+  public interface ValueBinder {
+    /**
+     * @param index position within the array for element paths; -1 for top-level key paths
+     */
+    void bind(@NonNull JsonReader reader, int index) throws IOException;
+  }
+
+  @NonNull private final Map<String, ValueBinder> keyBinders = new HashMap<>();
+  @NonNull private final Map<String, ValueBinder> elementBinders = new HashMap<>();
+  private volatile boolean stopped = false;
+
+  @NonNull
+  public StreamingJsonBinder on(@NonNull String path, @NonNull ValueBinder binder) {
+    if (path.endsWith("[]")) {
+      elementBinders.put(path.substring(0, path.length() - 2), binder);
+    } else {
+      keyBinders.put(path, binder);
+    }
+    return this;
+  }
+
+  /** Ends {@link #bind(Reader)} after the value currently being bound. */
+  public void stop() {
+    stopped = true;
+  }
+
+  /**
+   * Reads the first JSON object or array from {@code source}, skipping anything before it such as
+   * a Markdown code fence.
+   *
+   * @return true if the root value was read completely; false if it was cut off, malformed, or
+   *     {@link #stop()} was called. Values bound before that point stay bound.
+   * @throws IOException if reading {@code source} itself fails
+   */
+  public boolean bind(@NonNull Reader source) throws IOException {
+    JsonReader reader = new JsonReader(source);
+    reader.setLenient(true);
+    try {
+      while (!stopped) {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT) {
+          return bindRootObject(reader);
+        }
+        if (token == JsonToken.BEGIN_ARRAY) {
+          return bindArray(reader, elementBinders.get(""));
+        }
+        if (token == JsonToken.END_DOCUMENT) {
+          return false;
+        }
+        reader.skipValue();
+      }
+      return false;
+    } catch (EOFException | MalformedJsonException | JsonParseException e) {
+      return false;
+    }
+  }
+
+  private boolean bindRootObject(@NonNull JsonReader reader) throws IOException {
+    reader.beginObject();
+    while (!stopped && reader.hasNext()) {
+      String key = reader.nextName();
+      ValueBinder keyBinder = keyBinders.get(key);
+      ValueBinder elementBinder = elementBinders.get(key);
+      if (keyBinder != null) {
+        keyBinder.bind(reader, -1);
+      } else if (elementBinder != null && reader.peek() == JsonToken.BEGIN_ARRAY) {
+        if (!bindArray(reader, elementBinder)) {
+          return false;
+        }
+      } else {
+        reader.skipValue();
+      }
+    }
+    if (stopped) {
+      return false;
+    }
+    reader.endObject();
+    return true;
+  }
+
+  private boolean bindArray(@NonNull JsonReader reader, @Nullable ValueBinder binder)
+      throws IOException {
+    if (binder == null) {
+      reader.skipValue();
+      return true;
+    }
+    reader.beginArray();
+    int index = 0;
+    while (!stopped && reader.hasNext()) {
+      binder.bind(reader, index++);
+    }
+    if (stopped) {
+      return false;
+    }
+    reader.endArray();
+    return true;
+  }
+
+  /**
+   * Reads a string, number or boolean as text. Any other value, including null, is skipped and
+   * {@code null} is returned, so a binder never fails on an unexpected type.
+   */
+  @Nullable
+  public static String nextStringOrNull(@NonNull JsonReader reader) throws IOException {
+    JsonToken token = reader.peek();
+    if (token == JsonToken.STRING || token == JsonToken.NUMBER) {
+      return reader.nextString();
+    }
+    if (token == JsonToken.BOOLEAN) {
+      return String.valueOf(reader.nextBoolean());
+    }
+    reader.skipValue();
+    return null;
+  }
+}
@@ -0,0 +1,275 @@
+package com.jjundev.oneclickeng.tool;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Single-pass extractor for completed values in a streamed JSON document.
+ *
+ * <p>The caller declares which values it wants as paths: {@code "grammar"} is the value of a
+ * top-level key, {@code "questions[]"} is each element of the array under a top-level key, and
+ * {@link #ROOT_ARRAY} is each element of a root-level array. {@link #addChunk(String)} returns an
+ * event with the raw JSON text of every declared value that completed in that chunk.
+ *
+ * <p>Lexer state (string, escape, container nesting, current key) survives across chunks, so every
+ * character is examined once and only the values being captured are buffered. Anything before the
+ * root container, such as a Markdown code fence, is skipped.
+ */
+public final class StreamingJsonExtractor {
+  /** Path for the elements of a root-level array. */
+  public static final String ROOT_ARRAY = "[]";
+
+  private static final String ARRAY_SUFFIX = "[]";
+
+  /** One completed value. */
+  public static final class Event {
+    @NonNull private final String path;
+    private final int index;
+    @NonNull private final String json;
+
+    Event(@NonNull String path, int index, @NonNull String json) {
+      this.path = path;
+      this.index = index;
+      this.json = json;
+    }
+
+    /** The declared path this value matched, e.g. {@code "grammar"} or {@code "script[]"}. */
+    @NonNull
+    public String getPath() {
+      return path;
+    }
+
+    /** Position within the array for element paths; -1 for top-level key paths. */
+    public int getIndex() {
+      return index;
+    }
+
+    /** Raw JSON text of the value, exactly as it appeared in the stream. */
+    @NonNull
+    public String getJson() {
+      return json;
+    }
+  }
+
+  @NonNull private final Set<String> keyPaths = new HashSet<>();
+  // Top-level keys whose array elements are wanted, without the "[]" suffix.
+  @NonNull private final Set<String> arrayKeys = new HashSet<>();
+  private final boolean wantsRootArray;
+
+  // Container stack; true for objects, false for arrays.
+  @NonNull private boolean[] containerIsObject = new boolean[8];
+  private int depth = 0;
+  private boolean rootClosed = false;
+  private boolean expectingKey = false;
+  @Nullable private String currentKey;
+
+  private boolean inString = false;
+  private boolean escaping = false;
+  private boolean readingKey = false;
+  @NonNull private final StringBuilder keyText = new StringBuilder();
+
+  // Element array currently open, if any.
+  @Nullable private String arrayPath;
+  private int arrayDepth = -1;
+  private int arrayIndex = 0;
+
+  // Value currently being captured, if any.
+  @Nullable private StringBuilder capture;
+  @Nullable private String capturePath;
+  private int captureIndex;
+  private int captureDepth;
+  private boolean captureIsScalar;
+
+  public StreamingJsonExtractor(@NonNull String... paths) {
+    this(Arrays.asList(paths));
+  }
+
+  public StreamingJsonExtractor(@NonNull List<String> paths) {
+    boolean rootArray = false;
+    for (String path : paths) {
+      if (ROOT_ARRAY.equals(path)) {
+        rootArray = true;
+      } else if (path.endsWith(ARRAY_SUFFIX)) {
+        arrayKeys.add(path.substring(0, path.length() - ARRAY_SUFFIX.length()));
+      } else {
+        keyPaths.add(path);
+      }
+    }
+    wantsRootArray = rootArray;
+  }
+
+  /** Consumes the next chunk and returns the values completed by it, in stream order. */
+  @NonNull
+  public List<Event> addChunk(@NonNull String chunk) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < chunk.length(); i++) {
+      accept(chunk.charAt(i), events);
+    }
+    return events;
+  }
+
+  private void accept(char ch, @NonNull List<Event> events) {
+    if (rootClosed) {
+      return;
+    }
+    StringBuilder captured = capture;
+    if (captured != null && !captureIsScalar) {
+      captured.append(ch);
+    }
+
+    if (inString) {
+      acceptStringChar(ch, events);
+      return;
+    }
+
+    if (captured != null && captureIsScalar) {
+      if (ch != ',' && ch != '}' && ch != ']' && !Character.isWhitespace(ch)) {
+        captured.append(ch);
+        return;
+      }
+      emit(events);
+    }
+
+    if (depth == 0 && ch != '{' && ch != '[') {
+      return;
+    }
+    if (Character.isWhitespace(ch)) {
+      return;
+    }
+
+    if (capture == null && ch != ':' && ch != ',' && ch != '}' && ch != ']') {
+      startCaptureIfWanted(ch);
+    }
+
+    switch (ch) {
+      case '"':
+        inString = true;
+        readingKey = depth == 1 && isInObject() && expectingKey;
+        keyText.setLength(0);
+        break;
+      case '{':
+        push(true);
+        break;
+      case '[':
+        boolean opensElements =
+            (depth == 0 && wantsRootArray)
+                || (depth == 1 && currentKey != null && arrayKeys.contains(currentKey));
+        String elementPath = depth == 0 ? ROOT_ARRAY : currentKey + ARRAY_SUFFIX;
+        push(false);
+        if (opensElements && arrayPath == null) {
+          arrayPath = elementPath;
+          arrayDepth = depth;
+          arrayIndex = 0;
+        }
+        break;
+      case '}':
+      case ']':
+        pop();
+        if (capture != null && !captureIsScalar && depth == captureDepth) {
+          emit(events);
+        }
+        if (arrayPath != null && depth == arrayDepth - 1) {
+          arrayPath = null;
+        }
+        if (depth == 0) {
+          rootClosed = true;
+        }
+        break;
+      case ':':
+        expectingKey = false;
+        break;
+      case ',':
+        expectingKey = isInObject();
+        if (depth == 1) {
+          currentKey = null;
+        }
+        break;
+      default:
+        // Numbers and literals only matter while captured, which is handled above.
+        break;
+    }
+  }
+
+  private void acceptStringChar(char ch, @NonNull List<Event> events) {
+    if (escaping) {
+      escaping = false;
+    } else if (ch == '\\') {
+      escaping = true;
+    } else if (ch == '"') {
+      inString = false;
+      if (readingKey) {
+        readingKey = false;
+        currentKey = keyText.toString();
+      } else if (capture != null && depth == captureDepth) {
+        emit(events);
+      }
+      return;
+    }
+    if (readingKey) {
+      keyText.append(ch);
+    }
+  }
+
+  private void startCaptureIfWanted(char firstChar) {
+    String path = null;
+    int index = -1;
+    if (arrayPath != null && depth == arrayDepth) {
+      path = arrayPath;
+      index = arrayIndex;
+    } else if (depth == 1
+        && isInObject()
+        && !expectingKey
+        && currentKey != null
+        && keyPaths.contains(currentKey)) {
+      path = currentKey;
+    }
+    if (path == null) {
+      return;
+    }
+    capture = new StringBuilder().append(firstChar);
+    capturePath = path;
+    captureIndex = index;
+    captureDepth = depth;
+    captureIsScalar = firstChar != '{' && firstChar != '[' && firstChar != '"';
+  }
+
+  private void emit(@NonNull List<Event> events) {
+    StringBuilder captured = capture;
+    String path = capturePath;
+    capture = null;
+    capturePath = null;
+    if (captured == null || path == null) {
+      return;
+    }
+    events.add(new Event(path, captureIndex, captured.toString()));
+    if (captureIndex >= 0) {
+      arrayIndex++;
+    } else {
+      currentKey = null;
+    }
+  }
+
+  private void push(boolean isObject) {
+    if (depth == containerIsObject.length) {
+      containerIsObject = Arrays.copyOf(containerIsObject, depth * 2);
+    }
+    containerIsObject[depth++] = isObject;
+    expectingKey = isObject;
+  }
+
+  private void pop() {
+    if (depth > 0) {
+      depth--;
+    }
+    expectingKey = false;
+  }
+
+  private boolean isInObject() {
+    return depth > 0 && containerIsObject[depth - 1];
+  }
+}
@@ -0,0 +1,53 @@
+package com.jjundev.oneclickeng.view;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 녹음 스레드 하나가 쓰고 UI 스레드 하나가 읽는 진폭 링 버퍼. 잠금과 할당 없이 동작한다.
+ *
+ * <p>생산자는 {@link #push}로 청크마다 진폭을 넣고, {@link WaveformView}가 매 프레임 {@link #drainPeak}로 그 사이에 들어온 값의
+ * 최댓값만 가져간다. 읽는 쪽이 용량보다 뒤처지면 오래된 값은 덮어쓰이며, 미터 표시에는 최신 값만 있으면 충분하다.
+ */
+public final class AmplitudeRing {
+  public static final float NONE = -1f;
+
+  private final float[] values;
+  private final int mask;
+  // 지금까지 쓴 값의 수. lazySet으로 값 기록이 인덱스 공개보다 먼저 보이게 한다.
+  private final AtomicLong written = new AtomicLong();
+  // 소비자 스레드 전용
+  private long read;
+
+  /** @param capacity 보관할 값 수, 2의 거듭제곱으로 올림 */
+  public AmplitudeRing(int capacity) {
+    int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+    values = new float[size];
+    mask = size - 1;
+  }
+
+  /** 진폭 추가 (생산자 스레드) */
+  public void push(float amplitude) {
+    long index = written.get();
+    values[(int) (index & mask)] = amplitude;
+    written.lazySet(index + 1);
+  }
+
+  /** 마지막 호출 이후 들어온 값의 최댓값, 없으면 {@link #NONE} (소비자 스레드) */
+  public float drainPeak() {
+    long end = written.get();
+    if (end == read) {
+      return NONE;
+    }
+    float peak = 0f;
+    for (long index = Math.max(read, end - values.length); index < end; index++) {
+      peak = Math.max(peak, values[(int) (index & mask)]);
+    }
+    read = end;
+    return peak;
+  }
+
+  /** 아직 읽지 않은 값을 버린다 (소비자 스레드) */
+  public void clear() {
+    read = written.get();
+  }
+}
@@ -8,7 +8,9 @@ import android.graphics.Paint;
 import android.graphics.RectF;
 import android.graphics.Shader;
 import android.util.AttributeSet;
+import android.view.Choreographer;
 import android.view.View;
+import androidx.annotation.Nullable;
 import java.util.Random;
 
 /** 사용자의 음성 loudness를 waveform으로 시각화하는 커스텀 View Gemini Audio API에서 받은 데이터 또는 더미 데이터로 그릴 수 있습니다. */
@@ -27,6 +29,14 @@ public class WaveformView extends View {
   private int colorStart = Color.parseColor("#9E9E9E"); // 회색
   private int colorEnd = Color.parseColor("#757575"); // 진한 회색
 
+  // 막대 갱신 간격. 프레임마다 읽되 이 간격으로 모은 최댓값을 반영한다.
+  private static final long AMPLITUDE_UPDATE_INTERVAL_NANOS = 80_000_000L;
+  @Nullable private AmplitudeRing amplitudeSource;
+  private final Choreographer.FrameCallback amplitudeFrameCallback = this::onAmplitudeFrame;
+  private boolean amplitudeFramePosted;
+  private float pendingPeak = AmplitudeRing.NONE;
+  private long lastAmplitudeFrameNanos;
+
   public WaveformView(Context context) {
     super(context);
     init();
@@ -171,8 +181,59 @@ public class WaveformView extends View {
     }
   }
 
+  /**
+   * 녹음 스레드가 채우는 진폭 링을 연결합니다. 연결된 동안 Choreographer 프레임마다 링을 읽어 막대를 갱신합니다.
+   *
+   * @param source 읽을 링, null이면 연결 해제
+   */
+  public void setAmplitudeSource(@Nullable AmplitudeRing source) {
+    amplitudeSource = source;
+    pendingPeak = AmplitudeRing.NONE;
+    if (source != null) {
+      source.clear();
+    }
+    updateAmplitudeFrameCallback();
+  }
+
+  private void onAmplitudeFrame(long frameTimeNanos) {
+    amplitudeFramePosted = false;
+    AmplitudeRing source = amplitudeSource;
+    if (source == null) {
+      return;
+    }
+    float peak = source.drainPeak();
+    if (peak != AmplitudeRing.NONE) {
+      pendingPeak = Math.max(pendingPeak, peak);
+    }
+    if (pendingPeak != AmplitudeRing.NONE
+        && frameTimeNanos - lastAmplitudeFrameNanos >= AMPLITUDE_UPDATE_INTERVAL_NANOS) {
+      lastAmplitudeFrameNanos = frameTimeNanos;
+      addAmplitude(pendingPeak);
+      pendingPeak = AmplitudeRing.NONE;
+    }
+    updateAmplitudeFrameCallback();
+  }
+
+  private void updateAmplitudeFrameCallback() {
+    boolean wanted = amplitudeSource != null && isAttachedToWindow();
+    if (wanted && !amplitudeFramePosted) {
+      Choreographer.getInstance().postFrameCallback(amplitudeFrameCallback);
+      amplitudeFramePosted = true;
+    } else if (!wanted && amplitudeFramePosted) {
+      Choreographer.getInstance().removeFrameCallback(amplitudeFrameCallback);
+      amplitudeFramePosted = false;
+    }
+  }
+
+  @Override
+  protected void onAttachedToWindow() {
+    super.onAttachedToWindow();
+    updateAmplitudeFrameCallback();
+  }
+
   @Override
   protected void onDetachedFromWindow() {
     super.onDetachedFromWindow();
+    updateAmplitudeFrameCallback();
   }
 }
@@ -9,6 +9,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IQuizGenerationManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import com.jjundev.oneclickeng.learning.quiz.DialogueQuizViewModel;
@@ -343,22 +344,26 @@ public class DialogueQuizViewModelTest {
       callback.onReady();
     }
 
+    @NonNull
     @Override
-    public void generateQuizFromSummaryAsync(
+    public RequestHandle generateQuizFromSummaryAsync(
         @NonNull SummaryData summaryData,
         int requestedQuestionCount,
         @NonNull QuizCallback callback) {
       callback.onFailure("one-shot path is not used in this test");
+      return RequestHandle.completed();
     }
 
+    @NonNull
     @Override
-    public void generateQuizFromSummaryStreamingAsync(
+    public RequestHandle generateQuizFromSummaryStreamingAsync(
         @NonNull SummaryData summaryData,
         int requestedQuestionCount,
         @NonNull QuizStreamingCallback callback) {
       requestCount++;
       lastSummaryData = summaryData;
       streamingCallbacks.add(callback);
+      return new RequestHandle();
     }
 
     void emitQuestion(int requestIndex, @NonNull QuizData.QuizQuestion question) {
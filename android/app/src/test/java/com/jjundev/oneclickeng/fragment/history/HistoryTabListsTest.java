@@ -0,0 +1,83 @@
+package com.jjundev.oneclickeng.fragment.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.fragment.history.model.SavedCard;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class HistoryTabListsTest {
+
+  @Test
+  public void constructor_splitsTabsNewestFirst() {
+    HistoryItemWrapper oldWord = word("apple", 100L);
+    HistoryItemWrapper newWord = word("banana", 300L);
+    HistoryItemWrapper sentence = sentence("Hi there.", 200L);
+
+    HistoryTabLists lists = new HistoryTabLists(Arrays.asList(oldWord, sentence, newWord));
+
+    assertEquals(Arrays.asList(newWord, sentence, oldWord), lists.all());
+    assertEquals(Arrays.asList(newWord, oldWord), lists.forTab(HistoryTabLists.TAB_WORD));
+    assertEquals(Arrays.asList(sentence), lists.forTab(HistoryTabLists.TAB_SENTENCE));
+    assertTrue(lists.forTab(HistoryTabLists.TAB_EXPRESSION).isEmpty());
+    assertTrue(lists.forTab(7).isEmpty());
+  }
+
+  @Test
+  public void withSaved_flipsOnlyTheMatchingCard() {
+    HistoryItemWrapper apple = word("apple", 100L);
+    HistoryItemWrapper banana = word("banana", 200L);
+    HistoryTabLists lists = new HistoryTabLists(Arrays.asList(apple, banana));
+
+    HistoryTabLists updated = lists.withSaved(Collections.singleton(apple.getCardId()), false);
+
+    assertFalse(updated.forTab(HistoryTabLists.TAB_WORD).get(1).isSaved());
+    assertSame(banana, updated.forTab(HistoryTabLists.TAB_WORD).get(0));
+    assertSame(lists, lists.withSaved(Collections.singleton("missing"), false));
+    assertSame(lists, lists.withSaved(Collections.emptySet(), false));
+  }
+
+  @Test
+  public void cardIds_matchTheSummaryScreenAndGiveStableIds() {
+    HistoryItemWrapper derived = word("apple", 100L);
+    HistoryItemWrapper sameCardLater = word("apple", 999L);
+    HistoryItemWrapper fromDocument =
+        new HistoryItemWrapper(
+            HistoryItemWrapper.TYPE_WORD,
+            derived.getData(),
+            100L,
+            derived.getCardId(),
+            true);
+
+    assertEquals(SavedCard.idFor(derived.getData()), derived.getCardId());
+    assertEquals(derived.getCardId(), sameCardLater.getCardId());
+    assertEquals(derived.getStableId(), fromDocument.getStableId());
+    assertNotEquals(derived.getStableId(), word("banana", 100L).getStableId());
+
+    HistoryItemWrapper customId =
+        new HistoryItemWrapper(
+            HistoryItemWrapper.TYPE_WORD, derived.getData(), 100L, "not-a-uuid", true);
+    assertEquals("not-a-uuid", customId.getCardId());
+    assertEquals(customId.getStableId(), customId.withSaved(false).getStableId());
+  }
+
+  private static HistoryItemWrapper word(String english, long learnedAt) {
+    return new HistoryItemWrapper(
+        HistoryItemWrapper.TYPE_WORD,
+        new SummaryData.WordItem(english, english + "-ko", "", ""),
+        learnedAt);
+  }
+
+  private static HistoryItemWrapper sentence(String english, long learnedAt) {
+    return new HistoryItemWrapper(
+        HistoryItemWrapper.TYPE_SENTENCE,
+        new SummaryData.SentenceItem(english, english + "-ko"),
+        learnedAt);
+  }
+}
@@ -0,0 +1,155 @@
+package com.jjundev.oneclickeng.fragment.history;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class SavedCardIndexTest {
+
+  @Test
+  public void deltas_keepNewestFirstOrder() {
+    SavedCardIndex index = new SavedCardIndex();
+    index.upsert(word("a", 100L));
+    index.upsert(word("b", 300L));
+    index.upsert(word("c", 200L));
+
+    assertEquals(Arrays.asList("b", "c", "a"), englishOf(index.materialize(limits(10)).all()));
+
+    // MODIFIED with a newer timestamp moves the card to the top without duplicating it.
+    index.upsert(word("a", 400L));
+    assertEquals(Arrays.asList("a", "b", "c"), englishOf(index.materialize(limits(10)).all()));
+    assertEquals(3, index.size());
+
+    assertTrue(index.remove(word("b", 0L).getCardId()));
+    assertFalse(index.remove("missing"));
+    assertEquals(Arrays.asList("a", "c"), englishOf(index.materialize(limits(10)).all()));
+    assertNull(index.get(word("b", 0L).getCardId()));
+  }
+
+  @Test
+  public void materialize_pagesEachTabButKeepsAllCards() {
+    SavedCardIndex index = new SavedCardIndex();
+    for (int i = 0; i < 5; i++) {
+      index.upsert(word("w" + i, i));
+    }
+    index.upsert(sentence("s0", 10L));
+
+    HistoryTabLists page = index.materialize(limits(2));
+
+    assertEquals(Arrays.asList("w4", "w3"), englishOf(page.forTab(HistoryTabLists.TAB_WORD)));
+    assertEquals(5, page.getTabTotal(HistoryTabLists.TAB_WORD));
+    assertTrue(page.hasMore(HistoryTabLists.TAB_WORD));
+    assertFalse(page.hasMore(HistoryTabLists.TAB_SENTENCE));
+    assertEquals(6, page.all().size());
+  }
+
+  @Test
+  public void randomDeltas_matchAFullRebuild() {
+    Random random = new Random(7);
+    SavedCardIndex index = new SavedCardIndex();
+    List<HistoryItemWrapper> expected = new ArrayList<>();
+    for (int step = 0; step < 2_000; step++) {
+      String english = "card" + random.nextInt(60);
+      HistoryItemWrapper item = word(english, random.nextInt(40));
+      expected.removeIf(existing -> existing.getCardId().equals(item.getCardId()));
+      if (random.nextInt(4) == 0) {
+        index.remove(item.getCardId());
+      } else {
+        index.upsert(item);
+        expected.add(item);
+      }
+    }
+
+    HistoryTabLists rebuilt = new HistoryTabLists(expected);
+    assertEquals(rebuilt.all(), index.materialize(limits(Integer.MAX_VALUE)).all());
+  }
+
+  @Test
+  public void withSaved_keepsPaging() {
+    SavedCardIndex index = new SavedCardIndex();
+    for (int i = 0; i < 3; i++) {
+      index.upsert(word("w" + i, i));
+    }
+    HistoryTabLists page = index.materialize(limits(1));
+    String newest = page.forTab(HistoryTabLists.TAB_WORD).get(0).getCardId();
+
+    HistoryTabLists updated = page.withSaved(Collections.singleton(newest), false);
+
+    assertFalse(updated.forTab(HistoryTabLists.TAB_WORD).get(0).isSaved());
+    assertEquals(1, updated.forTab(HistoryTabLists.TAB_WORD).size());
+    assertEquals(3, updated.getTabTotal(HistoryTabLists.TAB_WORD));
+  }
+
+  @Test
+  public void materialize_pagesEachTabByItsOwnLimit() {
+    SavedCardIndex index = new SavedCardIndex();
+    for (int i = 0; i < 4; i++) {
+      index.upsert(word("w" + i, i));
+      index.upsert(sentence("s" + i, i));
+    }
+
+    HistoryTabLists page = index.materialize(new int[] {1, 3, 2});
+
+    assertEquals(Arrays.asList("w3", "w2", "w1"), englishOf(page.forTab(HistoryTabLists.TAB_WORD)));
+    assertEquals(Arrays.asList("s3", "s2"), englishOf(page.forTab(HistoryTabLists.TAB_SENTENCE)));
+    assertEquals(4, page.tabItems(HistoryTabLists.TAB_SENTENCE).size());
+  }
+
+  @Test
+  public void materialize_reusesTabsWithoutChanges() {
+    SavedCardIndex index = new SavedCardIndex();
+    index.upsert(word("w0", 0L));
+    index.upsert(sentence("s0", 0L));
+    HistoryTabLists before = index.materialize(limits(10));
+
+    index.upsert(word("w1", 1L));
+    HistoryTabLists after = index.materialize(limits(10));
+
+    assertSame(
+        before.tabItems(HistoryTabLists.TAB_SENTENCE),
+        after.tabItems(HistoryTabLists.TAB_SENTENCE));
+    assertEquals(Arrays.asList("w1", "w0"), englishOf(after.tabItems(HistoryTabLists.TAB_WORD)));
+    // The earlier snapshot is not affected by the new card.
+    assertEquals(1, before.getTabTotal(HistoryTabLists.TAB_WORD));
+  }
+
+  private static int[] limits(int perTab) {
+    return new int[] {perTab, perTab, perTab};
+  }
+
+  private static List<String> englishOf(List<HistoryItemWrapper> items) {
+    List<String> english = new ArrayList<>();
+    for (HistoryItemWrapper item : items) {
+      Object data = item.getData();
+      english.add(
+          data instanceof SummaryData.WordItem
+              ? ((SummaryData.WordItem) data).getEnglish()
+              : ((SummaryData.SentenceItem) data).getEnglish());
+    }
+    return english;
+  }
+
+  private static HistoryItemWrapper word(String english, long learnedAt) {
+    return new HistoryItemWrapper(
+        HistoryItemWrapper.TYPE_WORD,
+        new SummaryData.WordItem(english, english + "-ko", "", ""),
+        learnedAt);
+  }
+
+  private static HistoryItemWrapper sentence(String english, long learnedAt) {
+    return new HistoryItemWrapper(
+        HistoryItemWrapper.TYPE_SENTENCE,
+        new SummaryData.SentenceItem(english, english + "-ko"),
+        learnedAt);
+  }
+}
@@ -0,0 +1,234 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.Observer;
+import com.jjundev.oneclickeng.learning.dialoguelearning.controller.ExtraQuestionFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.controller.FeedbackFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.controller.ScriptFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.controller.SpeakingFlowController;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IDialogueGenerateManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IExtraQuestionManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.FrameCoalescingPublisher;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionOrchestrator;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.LearningSessionSnapshot;
+import com.jjundev.oneclickeng.learning.dialoguelearning.parser.DialogueScriptParser;
+import com.jjundev.oneclickeng.learning.dialoguelearning.session.DialogueScriptStreamingSessionStore;
+import com.jjundev.oneclickeng.learning.dialoguelearning.state.BottomSheetMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.LooperMode;
+
+/** Counts {@code sessionSnapshot} emissions while scripted sessions stream into the ViewModel. */
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class DialogueLearningViewModelSnapshotTest {
+  private static final String SESSION_ID = "session-1";
+  private static final int SCRIPT_LENGTH = 8;
+
+  private final List<LearningSessionSnapshot> emitted = new ArrayList<>();
+  private final Observer<LearningSessionSnapshot> observer = emitted::add;
+
+  private ManualFrameScheduler frames;
+  private FakeStreamingStore store;
+  @Nullable private ISentenceFeedbackManager.StreamingFeedbackCallback feedbackCallback;
+  @Nullable private IExtraQuestionManager.StreamingResponseCallback extraCallback;
+  private DialogueLearningViewModel viewModel;
+
+  @Before
+  public void setUp() {
+    frames = new ManualFrameScheduler();
+    store = new FakeStreamingStore();
+    ScriptFlowController scriptFlowController =
+        new ScriptFlowController(new DialogueScriptParser());
+    SpeakingFlowController speakingFlowController =
+        new SpeakingFlowController((audio, callback) -> RequestHandle.completed());
+    FeedbackFlowController feedbackFlowController =
+        new FeedbackFlowController(
+            (original, user, callback) -> {
+              feedbackCallback = callback;
+              return RequestHandle.completed();
+            });
+    ExtraQuestionFlowController extraQuestionFlowController =
+        new ExtraQuestionFlowController(
+            (original, user, question, callback) -> {
+              extraCallback = callback;
+              return RequestHandle.completed();
+            });
+    viewModel =
+        new DialogueLearningViewModel(
+            scriptFlowController,
+            speakingFlowController,
+            feedbackFlowController,
+            extraQuestionFlowController,
+            null,
+            new LearningSessionOrchestrator(
+                scriptFlowController,
+                speakingFlowController,
+                feedbackFlowController,
+                extraQuestionFlowController),
+            store,
+            frames);
+    viewModel.getSessionSnapshotState().observeForever(observer);
+  }
+
+  @After
+  public void tearDown() {
+    viewModel.getSessionSnapshotState().removeObserver(observer);
+  }
+
+  @Test
+  public void scriptStream_publishesOncePerFrame() {
+    assertTrue(viewModel.attachScriptStreamingSession(SESSION_ID, SCRIPT_LENGTH, "Cafe"));
+    assertEquals(1, runFrame());
+
+    DialogueScriptStreamingSessionStore.Listener listener = store.listener;
+    assertNotNull(listener);
+    listener.onMetadata(
+        new DialogueScriptStreamingSessionStore.ScriptMetadata("Travel", "Mia", "female"));
+    for (int i = 0; i < SCRIPT_LENGTH; i++) {
+      listener.onTurn(
+          new IDialogueGenerateManager.ScriptTurnChunk(
+              "한국어 " + i, "English " + i, i % 2 == 0 ? "model" : "user"));
+    }
+    listener.onComplete(null);
+
+    assertEquals(1, runFrame());
+    LearningSessionSnapshot snapshot = latest();
+    assertEquals("Travel", snapshot.getScriptUiState().getTopic());
+    assertEquals(SCRIPT_LENGTH, snapshot.getScriptUiState().getTotalSteps());
+    assertEquals(SCRIPT_LENGTH, viewModel.getScriptTurnsSnapshot().size());
+    assertEquals(0, runFrame());
+  }
+
+  @Test
+  public void feedbackStream_publishesOnceForAllSections() {
+    viewModel.startSentenceFeedback("나는 집에 갔다.", "I goed home.");
+    ISentenceFeedbackManager.StreamingFeedbackCallback callback = feedbackCallback;
+    assertNotNull(callback);
+    String[] sections = {"grammar", "writing", "conceptual", "natural", "paraphrase"};
+    for (String section : sections) {
+      callback.onSectionReady(section, new SentenceFeedback());
+    }
+    SentenceFeedback full = new SentenceFeedback();
+    callback.onComplete(full);
+
+    assertEquals(1, runFrame());
+    LearningSessionSnapshot snapshot = latest();
+    assertEquals(BottomSheetMode.FEEDBACK, snapshot.getBottomSheetMode());
+    assertFalse(snapshot.getFeedbackUiState().isLoading());
+    assertEquals(full, snapshot.getFeedbackUiState().getFullFeedback());
+  }
+
+  @Test
+  public void extraQuestionStream_publishesOnceForEveryChunkInAFrame() {
+    viewModel.askExtraQuestion("나는 집에 갔다.", "I went home.", "Why went?");
+    IExtraQuestionManager.StreamingResponseCallback callback = extraCallback;
+    assertNotNull(callback);
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      String chunk = "part" + i + " ";
+      expected.append(chunk);
+      callback.onTextChunk(chunk);
+    }
+    assertEquals(1, runFrame());
+    assertTrue(latest().getExtraQuestionUiState().isLoading());
+
+    callback.onComplete();
+    assertEquals(1, runFrame());
+    assertFalse(latest().getExtraQuestionUiState().isLoading());
+    assertEquals(expected.length(), latest().getExtraQuestionUiState().getResponseLength());
+  }
+
+  @Test
+  public void frameWithoutChanges_publishesNothing() {
+    runFrame();
+
+    // Already the current mode, so nothing is marked dirty.
+    viewModel.setBottomSheetMode(BottomSheetMode.DEFAULT_INPUT);
+
+    assertEquals(0, runFrame());
+  }
+
+  /** Runs the pending frame and returns how many snapshots it emitted. */
+  private int runFrame() {
+    int before = emitted.size();
+    frames.runFrame();
+    return emitted.size() - before;
+  }
+
+  @NonNull
+  private LearningSessionSnapshot latest() {
+    return emitted.get(emitted.size() - 1);
+  }
+
+  private static final class ManualFrameScheduler
+      implements FrameCoalescingPublisher.FrameScheduler {
+    @Nullable private Runnable pending;
+
+    @Override
+    public void scheduleFrame(@NonNull Runnable onFrame) {
+      pending = onFrame;
+    }
+
+    @Override
+    public void cancelFrame() {
+      pending = null;
+    }
+
+    void runFrame() {
+      Runnable frame = pending;
+      pending = null;
+      if (frame != null) {
+        frame.run();
+      }
+    }
+  }
+
+  /** Attaches to an empty, still-running session and keeps the listener for the test to drive. */
+  private static final class FakeStreamingStore implements DialogueScriptStreamingSessionStore {
+    @Nullable private Listener listener;
+
+    @NonNull
+    @Override
+    public String startSession(
+        @NonNull IDialogueGenerateManager manager,
+        @NonNull String level,
+        @NonNull String topic,
+        @NonNull String format,
+        int requestedLength) {
+      return SESSION_ID;
+    }
+
+    @Nullable
+    @Override
+    public Snapshot attach(@Nullable String sessionId, @NonNull Listener listener) {
+      this.listener = listener;
+      return new Snapshot(null, Collections.emptyList(), SCRIPT_LENGTH, "Cafe", false, null, null);
+    }
+
+    @Override
+    public void detach(@Nullable String sessionId, @NonNull Listener listener) {
+      if (this.listener == listener) {
+        this.listener = null;
+      }
+    }
+
+    @Override
+    public void release(@Nullable String sessionId) {}
+  }
+}
@@ -0,0 +1,133 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.AudioStats;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import org.junit.Test;
+
+public class AudioAnalyticsTest {
+  private static final int SAMPLE_RATE = 16000;
+
+  @Test
+  public void takeStats_matchAFullRescanOfTheRecording() {
+    byte[] take = concat(noise(400, 0.002), tone(800, 0.3), noise(400, 0.002));
+    AudioAnalytics analytics = new AudioAnalytics(SAMPLE_RATE, 0L);
+    feed(analytics, take, 333);
+
+    AudioStats stats = analytics.getTakeStats();
+
+    assertEquals(RecordedAudioSilenceDetector.calculateNormalizedRms(take), stats.getRms(), 1e-5f);
+    assertEquals(0.3f, stats.getPeak(), 0.01f);
+    assertEquals(take.length / 2, stats.getSampleCount());
+    assertEquals(1600L, stats.getDurationMs());
+    assertEquals(0L, stats.getClippedSamples());
+    assertTrue("voiced " + stats.getVoicedRatio(), stats.getVoicedRatio() > 0.5f);
+    assertTrue(stats.getVoicedRatio() < 0.9f);
+    assertNull(stats.getUnusableReason());
+  }
+
+  @Test
+  public void lastChunkStats_coverOnlyTheLatestChunk() {
+    AudioAnalytics analytics = new AudioAnalytics(SAMPLE_RATE, 0L);
+    analytics.process(tone(100, 0.3), 0, 3200);
+    byte[] quiet = noise(100, 0.0);
+    analytics.process(quiet, 0, quiet.length);
+
+    AudioStats chunk = analytics.getLastChunkStats();
+
+    assertEquals(quiet.length / 2, chunk.getSampleCount());
+    assertEquals(0f, chunk.getAmplitude(), 0f);
+    assertTrue(analytics.getTakeStats().getAmplitude() > 0f);
+  }
+
+  @Test
+  public void clippedTake_isClearlyUnusable() {
+    short[] values = new short[SAMPLE_RATE];
+    for (int i = 0; i < values.length; i++) {
+      double sample = Math.sin(2 * Math.PI * 220 * i / SAMPLE_RATE) * 3 * 32767;
+      values[i] = (short) Math.max(-32768, Math.min(32767, sample));
+    }
+    byte[] take = toBytes(values);
+    AudioAnalytics analytics = new AudioAnalytics(SAMPLE_RATE, 0L);
+    feed(analytics, take, 640);
+
+    AudioStats stats = analytics.getTakeStats();
+
+    assertTrue(stats.getClippingRatio() > 0.5f);
+    assertEquals(1f, stats.getPeak(), 0.001f);
+    assertEquals("clipped", stats.getUnusableReason());
+  }
+
+  @Test
+  public void silenceAndHiss_areClearlyUnusable() {
+    AudioAnalytics silent = new AudioAnalytics(SAMPLE_RATE, 0L);
+    feed(silent, new byte[32000], 640);
+    assertEquals("silent", silent.getTakeStats().getUnusableReason());
+
+    AudioAnalytics hiss = new AudioAnalytics(SAMPLE_RATE, 0L);
+    feed(hiss, noise(1000, 0.03), 640);
+    assertEquals("no_speech", hiss.getTakeStats().getUnusableReason());
+
+    assertTrue(AudioStats.EMPTY.isClearlyUnusable());
+  }
+
+  @Test
+  public void process_reportsAutoStopLikeTheDetector() {
+    byte[] take = concat(noise(300, 0.002), tone(700, 0.3), noise(1000, 0.002));
+    AudioAnalytics analytics = new AudioAnalytics(SAMPLE_RATE, 600L);
+    VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE, 600L);
+
+    for (int offset = 0; offset < take.length; offset += 640) {
+      int length = Math.min(640, take.length - offset);
+      assertEquals(detector.process(take, offset, length), analytics.process(take, offset, length));
+    }
+    assertFalse(analytics.getTakeStats().isClearlyUnusable());
+  }
+
+  private static void feed(AudioAnalytics analytics, byte[] pcm, int chunk) {
+    for (int offset = 0; offset < pcm.length; offset += chunk) {
+      analytics.process(pcm, offset, Math.min(chunk, pcm.length - offset));
+    }
+  }
+
+  private static byte[] tone(int ms, double amplitude) {
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      values[i] = (short) (Math.sin(2 * Math.PI * 220 * i / SAMPLE_RATE) * amplitude * 32767);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] noise(int ms, double amplitude) {
+    Random random = new Random(ms);
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      values[i] = (short) (random.nextGaussian() * amplitude * 32767);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] toBytes(short[] samples) {
+    byte[] bytes = new byte[samples.length * 2];
+    for (int i = 0; i < samples.length; i++) {
+      bytes[i * 2] = (byte) samples[i];
+      bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+    }
+    return bytes;
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.write(part, 0, part.length);
+    }
+    return out.toByteArray();
+  }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISentenceFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SentenceFeedback;
 import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Test;
@@ -59,12 +60,13 @@ public class FeedbackFlowControllerTest {
   private static final class ImmediateSentenceFeedbackService
       implements FeedbackFlowController.SentenceFeedbackService {
     @Override
-    public void analyzeSentenceStreaming(
+    public RequestHandle analyzeSentenceStreaming(
         String originalSentence,
         String userSentence,
         ISentenceFeedbackManager.StreamingFeedbackCallback callback) {
       callback.onSectionReady("grammar", new SentenceFeedback());
       callback.onComplete(new SentenceFeedback());
+      return RequestHandle.completed();
     }
   }
 }
@@ -5,6 +5,7 @@ import static org.junit.Assert.assertNotNull;
 
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.ScriptTurn;
 import com.jjundev.oneclickeng.learning.dialoguelearning.parser.DialogueScriptParser;
+import java.util.Arrays;
 import org.junit.Test;
 
 public class ScriptFlowControllerStreamingTest {
@@ -46,4 +47,22 @@ public class ScriptFlowControllerStreamingTest {
     assertEquals(2, finished.getCurrentStep());
     assertEquals(2, finished.getTotalSteps());
   }
+
+  @Test
+  public void getUpcomingOpponentLines_listsLaterOpponentTurnsIncludingStreamedOnes() {
+    ScriptFlowController controller = new ScriptFlowController(new DialogueScriptParser());
+    controller.startStreaming("인사", "Coach", "Partner", "female");
+    controller.appendStreamTurn(new ScriptTurn("안녕하세요", "Hello", "model"));
+    controller.appendStreamTurn(new ScriptTurn("반가워요", "Nice to meet you", "user"));
+    controller.appendStreamTurn(new ScriptTurn("어디 가요?", "Where are you going?", "model"));
+
+    assertEquals(
+        Arrays.asList("Hello", "Where are you going?"), controller.getUpcomingOpponentLines(3));
+    controller.moveToNextTurn();
+    assertEquals(Arrays.asList("Where are you going?"), controller.getUpcomingOpponentLines(3));
+
+    controller.appendStreamTurn(new ScriptTurn("집이요", "Home", "model"));
+    assertEquals(Arrays.asList("Where are you going?"), controller.getUpcomingOpponentLines(1));
+    assertEquals(2, controller.getUpcomingOpponentLines(3).size());
+  }
 }
@@ -0,0 +1,123 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.SpeechTrim;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import org.junit.Test;
+
+public class VoiceActivityDetectorTest {
+  private static final int SAMPLE_RATE = 16000;
+  private static final int BYTES_PER_MS = SAMPLE_RATE * 2 / 1000;
+
+  @Test
+  public void trim_cutsLeadingAndTrailingSilenceAroundSpeech() {
+    byte[] take = concat(noise(500, 0.002), tone(1000, 0.3), noise(800, 0.002));
+    VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE, 0L);
+    feed(detector, take, 640);
+
+    SpeechTrim trim = detector.trim(take.length, 100L, false);
+
+    assertTrue(detector.hasSpeech());
+    assertTrue(trim.isTrimmed());
+    assertEquals(400, trim.getLeadingTrimMs(), 20);
+    assertEquals(700, trim.getTrailingTrimMs(), 20);
+    assertEquals(0, trim.getStartByte() % 2);
+  }
+
+  @Test
+  public void process_requestsAutoStopOnceAfterTrailingSilence() {
+    VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE, 600L);
+    byte[] lead = concat(noise(300, 0.002), tone(700, 0.3));
+    assertFalse(feed(detector, lead, 640));
+
+    // A pause shorter than the configured silence does not end the take.
+    assertFalse(feed(detector, concat(noise(400, 0.002), tone(300, 0.3)), 640));
+
+    byte[] tail = noise(1000, 0.002);
+    int stoppedAtMs = -1;
+    int chunk = 20 * BYTES_PER_MS;
+    for (int offset = 0; offset < tail.length; offset += chunk) {
+      if (detector.process(tail, offset, Math.min(chunk, tail.length - offset))) {
+        assertEquals(-1, stoppedAtMs);
+        stoppedAtMs = offset / BYTES_PER_MS + 20;
+      }
+    }
+
+    assertEquals(600, stoppedAtMs, 20);
+    assertTrue(detector.getTrailingSilenceMs() >= 600L);
+  }
+
+  @Test
+  public void silenceAndBroadbandHissAreNotSpeech() {
+    byte[] take = concat(noise(1000, 0.0), noise(1000, 0.03));
+    VoiceActivityDetector detector = new VoiceActivityDetector(SAMPLE_RATE, 500L);
+
+    assertFalse(feed(detector, take, 640));
+    assertFalse(detector.hasSpeech());
+    SpeechTrim trim = detector.trim(take.length, 100L, false);
+    assertFalse(trim.isTrimmed());
+    assertEquals(take.length, trim.getKeptBytes());
+  }
+
+  @Test
+  public void oddChunkBoundariesGiveSameResultAsWholeFrames() {
+    byte[] take = concat(noise(300, 0.002), tone(600, 0.3), noise(300, 0.002));
+    VoiceActivityDetector aligned = new VoiceActivityDetector(SAMPLE_RATE, 0L);
+    VoiceActivityDetector odd = new VoiceActivityDetector(SAMPLE_RATE, 0L);
+    feed(aligned, take, 640);
+    feed(odd, take, 333);
+
+    SpeechTrim expected = aligned.trim(take.length, 0L, false);
+    SpeechTrim actual = odd.trim(take.length, 0L, false);
+    assertEquals(expected.getStartByte(), actual.getStartByte());
+    assertEquals(expected.getEndByte(), actual.getEndByte());
+  }
+
+  private static boolean feed(VoiceActivityDetector detector, byte[] pcm, int chunk) {
+    boolean stop = false;
+    for (int offset = 0; offset < pcm.length; offset += chunk) {
+      stop |= detector.process(pcm, offset, Math.min(chunk, pcm.length - offset));
+    }
+    return stop;
+  }
+
+  private static byte[] tone(int ms, double amplitude) {
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      values[i] = (short) (Math.sin(2 * Math.PI * 220 * i / SAMPLE_RATE) * amplitude * 32767);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] noise(int ms, double amplitude) {
+    Random random = new Random(ms);
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      values[i] = (short) (random.nextGaussian() * amplitude * 32767);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] toBytes(short[] samples) {
+    byte[] bytes = new byte[samples.length * 2];
+    for (int i = 0; i < samples.length; i++) {
+      bytes[i * 2] = (byte) samples[i];
+      bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+    }
+    return bytes;
+  }
+
+  private static byte[] concat(byte[]... parts) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    for (byte[] part : parts) {
+      out.write(part, 0, part.length);
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,195 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.coordinator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IGeminiTtsManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class ScriptTtsPrefetcherTest {
+
+  @Test
+  public void update_requestsNearestLinesUpToConcurrencyLimit() {
+    FakeTtsManager manager = new FakeTtsManager();
+    ScriptTtsPrefetcher prefetcher = new ScriptTtsPrefetcher(manager, 2, 1_000L);
+
+    prefetcher.update(lines("one", "two", "three"));
+
+    assertEquals(Arrays.asList("one", "two"), manager.texts());
+    manager.succeed("one", 100);
+    assertEquals(Arrays.asList("one", "two", "three"), manager.texts());
+    assertEquals(2, prefetcher.getInFlightCount());
+  }
+
+  @Test
+  public void take_returnsReadyAudioOnceAndCancelsUnfinishedLine() {
+    FakeTtsManager manager = new FakeTtsManager();
+    ScriptTtsPrefetcher prefetcher = new ScriptTtsPrefetcher(manager, 2, 1_000L);
+    prefetcher.update(lines("one", "two"));
+    GeminiTtsAudio audio = manager.succeed("one", 100);
+
+    assertSame(audio, prefetcher.take(line("one")));
+    assertNull(prefetcher.take(line("one")));
+    assertEquals(0L, prefetcher.getReadyBytes());
+
+    assertNull(prefetcher.take(line("two")));
+    assertTrue(manager.handle("two").isCancelled());
+    // Claimed lines are not requested again while they stay in the window.
+    prefetcher.update(lines("one", "two"));
+    assertEquals(2, manager.calls.size());
+  }
+
+  @Test
+  public void update_dropsLinesThatLeftTheWindow() {
+    FakeTtsManager manager = new FakeTtsManager();
+    ScriptTtsPrefetcher prefetcher = new ScriptTtsPrefetcher(manager, 2, 1_000L);
+    prefetcher.update(lines("one", "two"));
+    manager.succeed("one", 100);
+
+    prefetcher.update(lines("three"));
+
+    assertTrue(manager.handle("two").isCancelled());
+    assertEquals(0L, prefetcher.getReadyBytes());
+    assertEquals("three", manager.calls.get(2).text);
+    assertNull(prefetcher.take(line("one")));
+  }
+
+  @Test
+  public void byteBudget_stopsNewRequestsAndDropsOversizedResults() {
+    FakeTtsManager manager = new FakeTtsManager();
+    ScriptTtsPrefetcher prefetcher = new ScriptTtsPrefetcher(manager, 1, 150L);
+    prefetcher.update(lines("one", "two", "three"));
+
+    manager.succeed("one", 100);
+    manager.succeed("two", 100); // would exceed the budget, so it is not held
+    assertEquals(100L, prefetcher.getReadyBytes());
+    assertNull(prefetcher.take(line("two")));
+    assertEquals("three", manager.calls.get(2).text);
+
+    manager.succeed("three", 50);
+    prefetcher.update(lines("one", "two", "three", "four"));
+    assertEquals(3, manager.calls.size()); // budget full
+    assertNotNull(prefetcher.take(line("one")));
+    assertEquals("four", manager.calls.get(3).text);
+  }
+
+  @Test
+  public void failedLineIsNotRetriedAndLateResultsAfterCancelAllAreIgnored() {
+    FakeTtsManager manager = new FakeTtsManager();
+    ScriptTtsPrefetcher prefetcher = new ScriptTtsPrefetcher(manager, 2, 1_000L);
+    prefetcher.update(lines("one", "two"));
+
+    manager.call("one").callback.onError("boom");
+    prefetcher.update(lines("one", "two"));
+    assertEquals(2, manager.calls.size());
+
+    prefetcher.cancelAll();
+    assertTrue(manager.handle("two").isCancelled());
+    manager.succeed("two", 100);
+    assertEquals(0L, prefetcher.getReadyBytes());
+    assertEquals(0, prefetcher.getInFlightCount());
+  }
+
+  private static ScriptTtsPrefetcher.Line line(String text) {
+    return new ScriptTtsPrefetcher.Line(text, "en-US", 1f, "Kore");
+  }
+
+  private static List<ScriptTtsPrefetcher.Line> lines(String... texts) {
+    List<ScriptTtsPrefetcher.Line> lines = new ArrayList<>();
+    for (String text : texts) {
+      lines.add(line(text));
+    }
+    return lines;
+  }
+
+  private static final class Call {
+    final String text;
+    final IGeminiTtsManager.SynthesisCallback callback;
+    final RequestHandle handle = new RequestHandle();
+
+    Call(String text, IGeminiTtsManager.SynthesisCallback callback) {
+      this.text = text;
+      this.callback = callback;
+    }
+  }
+
+  /** Records prefetch calls; the test delivers results, late ones included. */
+  private static final class FakeTtsManager implements IGeminiTtsManager {
+    final List<Call> calls = new ArrayList<>();
+
+    List<String> texts() {
+      List<String> texts = new ArrayList<>();
+      for (Call call : calls) {
+        texts.add(call.text);
+      }
+      return texts;
+    }
+
+    Call call(String text) {
+      for (int i = calls.size() - 1; i >= 0; i--) {
+        if (calls.get(i).text.equals(text)) {
+          return calls.get(i);
+        }
+      }
+      throw new AssertionError("No request for " + text);
+    }
+
+    RequestHandle handle(String text) {
+      return call(text).handle;
+    }
+
+    GeminiTtsAudio succeed(String text, int bytes) {
+      GeminiTtsAudio audio = new GeminiTtsAudio(new byte[bytes], 24000, "audio/L16;rate=24000");
+      call(text).callback.onSuccess(audio);
+      return audio;
+    }
+
+    @NonNull
+    @Override
+    public RequestHandle prefetch(
+        @NonNull String text,
+        @Nullable String localeTag,
+        float speechRate,
+        @Nullable String voiceName,
+        @NonNull SynthesisCallback callback) {
+      Call call = new Call(text, callback);
+      calls.add(call);
+      return call.handle;
+    }
+
+    @NonNull
+    @Override
+    public RequestHandle synthesize(
+        @NonNull String text,
+        @Nullable String localeTag,
+        float speechRate,
+        @Nullable String voiceName,
+        @NonNull SynthesisCallback callback) {
+      throw new UnsupportedOperationException();
+    }
+
+    @NonNull
+    @Override
+    public RequestHandle synthesizeStream(
+        @NonNull String text,
+        @Nullable String localeTag,
+        float speechRate,
+        @Nullable String voiceName,
+        @NonNull StreamCallback callback) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void cancelActiveRequest() {}
+  }
+}
@@ -0,0 +1,101 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class AsyncRequestTrackerTest {
+
+  @Test
+  public void invalidate_abortsInFlightCallAndRecordsUnreadOutput() {
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    List<String> aborted = new ArrayList<>();
+    long requestId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_FEEDBACK);
+    RequestHandle handle = inFlightHandle(aborted, "feedback", 1_000);
+    handle.recordOutputTokens(400);
+    tracker.track(AsyncRequestTracker.CHANNEL_FEEDBACK, requestId, handle);
+
+    tracker.clearForTurnBoundary();
+
+    assertTrue(handle.isCancelled());
+    assertEquals(Arrays.asList("feedback"), aborted);
+    assertEquals(1L, tracker.getCancelledRequestCount());
+    assertEquals(600L, tracker.getSavedTokens());
+    assertEquals(600L * 4L, tracker.getSavedBytes());
+  }
+
+  @Test
+  public void nextRequestId_cancelsPreviousRequestOnSameChannelOnly() {
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    List<String> aborted = new ArrayList<>();
+    long extraId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_EXTRA);
+    RequestHandle extra = inFlightHandle(aborted, "extra", 100);
+    tracker.track(AsyncRequestTracker.CHANNEL_EXTRA, extraId, extra);
+    long speakingId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_SPEAKING);
+    RequestHandle speaking = inFlightHandle(aborted, "speaking", 100);
+    tracker.track(AsyncRequestTracker.CHANNEL_SPEAKING, speakingId, speaking);
+
+    tracker.nextRequestId(AsyncRequestTracker.CHANNEL_EXTRA);
+
+    assertTrue(extra.isCancelled());
+    assertFalse(speaking.isCancelled());
+    assertEquals(Arrays.asList("extra"), aborted);
+  }
+
+  @Test
+  public void track_staleRequestIsCancelledImmediately() {
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    List<String> aborted = new ArrayList<>();
+    long requestId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_SPEAKING);
+    tracker.invalidate(AsyncRequestTracker.CHANNEL_SPEAKING);
+
+    RequestHandle handle = inFlightHandle(aborted, "speaking", 100);
+    tracker.track(AsyncRequestTracker.CHANNEL_SPEAKING, requestId, handle);
+
+    assertTrue(handle.isCancelled());
+    assertEquals(Arrays.asList("speaking"), aborted);
+  }
+
+  @Test
+  public void invalidate_ignoresRequestsThatAlreadyFinished() {
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    long requestId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_FEEDBACK);
+    tracker.track(AsyncRequestTracker.CHANNEL_FEEDBACK, requestId, RequestHandle.completed());
+
+    tracker.invalidateAll();
+
+    assertEquals(0L, tracker.getCancelledRequestCount());
+    assertEquals(0L, tracker.getSavedTokens());
+  }
+
+  @Test
+  public void cancelBeforeStart_skipsCallAndCountsWholeRequest() {
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    List<String> aborted = new ArrayList<>();
+    long requestId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_SPEAKING);
+    RequestHandle handle = new RequestHandle();
+    handle.expect(64_000L, 1_100, 1_000);
+    tracker.track(AsyncRequestTracker.CHANNEL_SPEAKING, requestId, handle);
+
+    tracker.invalidate(AsyncRequestTracker.CHANNEL_SPEAKING);
+
+    assertFalse(handle.onStarted(() -> aborted.add("call")));
+    assertEquals(Arrays.asList("call"), aborted);
+    assertEquals(1_100L, tracker.getSavedTokens());
+    assertEquals(64_000L + 1_000L * 4L, tracker.getSavedBytes());
+  }
+
+  private static RequestHandle inFlightHandle(
+      List<String> aborted, String name, int expectedOutputTokens) {
+    RequestHandle handle = new RequestHandle();
+    handle.expect(0L, expectedOutputTokens, expectedOutputTokens);
+    handle.onStarted(() -> aborted.add(name));
+    return handle;
+  }
+}
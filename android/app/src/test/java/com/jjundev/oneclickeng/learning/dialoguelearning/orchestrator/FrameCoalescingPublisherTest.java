@@ -0,0 +1,132 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class FrameCoalescingPublisherTest {
+
+  @Test
+  public void scriptedSession_publishesOncePerFrameWithTheLatestState() {
+    Session session = new Session();
+
+    // Frame 1: the streamed script arrives as a burst of turns.
+    for (int turn = 1; turn <= 8; turn++) {
+      session.mutate("turn" + turn);
+    }
+    session.frame();
+    // Frame 2: speaking starts and the analysis result lands in the same frame.
+    session.mutate("recording");
+    session.mutate("analyzing");
+    session.mutate("analyzed");
+    session.frame();
+    // Frames 3-4: feedback sections and extra-question chunks stream in.
+    for (int section = 1; section <= 5; section++) {
+      session.mutate("feedback" + section);
+    }
+    session.frame();
+    for (int chunk = 1; chunk <= 20; chunk++) {
+      session.mutate("extra" + chunk);
+    }
+    session.frame();
+    // Frame 5: nothing changed, so nothing is published.
+    session.frame();
+
+    assertEquals(Arrays.asList("turn8", "analyzed", "feedback5", "extra20"), session.published);
+    assertEquals(36L, session.publisher.getMarkCount());
+    assertEquals(4L, session.publisher.getPublishCount());
+    assertEquals(4, session.scheduler.scheduledCount);
+  }
+
+  @Test
+  public void markDirty_schedulesOnlyOneFramePerBurst() {
+    Session session = new Session();
+
+    session.mutate("a");
+    session.mutate("b");
+
+    assertEquals(1, session.scheduler.scheduledCount);
+    assertTrue(session.publisher.isDirty());
+    assertTrue(session.published.isEmpty());
+  }
+
+  @Test
+  public void flush_publishesImmediatelyAndCancelsTheFrame() {
+    Session session = new Session();
+    session.mutate("a");
+
+    session.publisher.flush();
+    session.frame();
+
+    assertEquals(Arrays.asList("a"), session.published);
+    assertEquals(1, session.scheduler.cancelledCount);
+    assertFalse(session.publisher.isDirty());
+  }
+
+  @Test
+  public void cancel_dropsThePendingPublication() {
+    Session session = new Session();
+    session.mutate("a");
+
+    session.publisher.cancel();
+    session.frame();
+
+    assertTrue(session.published.isEmpty());
+    session.mutate("b");
+    session.frame();
+    assertEquals(Arrays.asList("b"), session.published);
+  }
+
+  private static final class Session {
+    private final ManualFrameScheduler scheduler = new ManualFrameScheduler();
+    private final List<String> published = new ArrayList<>();
+    private String state = "";
+    private final FrameCoalescingPublisher<String> publisher =
+        new FrameCoalescingPublisher<>(scheduler, () -> state, published::add);
+
+    void mutate(@NonNull String newState) {
+      state = newState;
+      publisher.markDirty();
+    }
+
+    void frame() {
+      scheduler.runFrame();
+    }
+  }
+
+  private static final class ManualFrameScheduler
+      implements FrameCoalescingPublisher.FrameScheduler {
+    @Nullable private Runnable pending;
+    private int scheduledCount;
+    private int cancelledCount;
+
+    @Override
+    public void scheduleFrame(@NonNull Runnable onFrame) {
+      pending = onFrame;
+      scheduledCount++;
+    }
+
+    @Override
+    public void cancelFrame() {
+      if (pending != null) {
+        cancelledCount++;
+      }
+      pending = null;
+    }
+
+    void runFrame() {
+      Runnable frame = pending;
+      pending = null;
+      if (frame != null) {
+        frame.run();
+      }
+    }
+  }
+}
@@ -6,6 +6,7 @@ import static org.junit.Assert.assertTrue;
 
 import com.google.gson.Gson;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISessionSummaryLlmManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
 import com.jjundev.oneclickeng.learning.dialoguelearning.model.SummaryData;
 import java.util.ArrayList;
 import java.util.List;
@@ -98,21 +99,23 @@ public class DialogueSummaryViewModelPromptMappingTest {
     }
 
     @Override
-    public void extractWordsFromSentencesAsync(
+    public RequestHandle extractWordsFromSentencesAsync(
         List<String> words,
         List<String> sentences,
         List<String> userOriginalSentences,
         WordExtractionCallback callback) {
       callback.onSuccess(new ArrayList<>());
+      return RequestHandle.completed();
     }
 
     @Override
-    public void filterExpressionsAsync(
+    public RequestHandle filterExpressionsAsync(
         SummaryFeatureBundle bundle, ExpressionFilterCallback callback) {
       for (FilteredExpression expression : expressions) {
         callback.onExpressionReceived(expression);
       }
       callback.onComplete();
+      return RequestHandle.completed();
     }
   }
 }
@@ -0,0 +1,77 @@
+package com.jjundev.oneclickeng.learning.dialoguelearning.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class IncrementalBoldParserTest {
+
+  @Test
+  public void feed_stripsMarkersAndReportsBoldRuns() {
+    Recorder recorder = new Recorder();
+
+    recorder.feed("Use **take off** here.");
+
+    assertEquals(Arrays.asList("Use ", "[take off]", " here."), recorder.runs);
+  }
+
+  @Test
+  public void feed_handlesMarkersSplitAcrossChunks() {
+    Recorder recorder = new Recorder();
+
+    recorder.feed("Say *");
+    recorder.feed("*hel");
+    recorder.feed("lo*");
+    recorder.feed("* now");
+
+    assertEquals(Arrays.asList("Say ", "[hel]", "[lo]", " now"), recorder.runs);
+    assertFalse(recorder.parser.isBold());
+  }
+
+  @Test
+  public void loneAsterisks_stayLiteral() {
+    Recorder recorder = new Recorder();
+
+    recorder.feed("2 * 3");
+    recorder.feed(" = 6 *");
+    assertEquals(Arrays.asList("2 * 3", " = 6 "), recorder.runs);
+
+    recorder.finish();
+    assertEquals(Arrays.asList("2 * 3", " = 6 ", "*"), recorder.runs);
+  }
+
+  @Test
+  public void reset_startsOverInPlainText() {
+    Recorder recorder = new Recorder();
+    recorder.feed("**open");
+    assertTrue(recorder.parser.isBold());
+
+    recorder.parser.reset();
+    recorder.feed("plain");
+
+    assertEquals(Arrays.asList("[open]", "plain"), recorder.runs);
+  }
+
+  private static final class Recorder implements IncrementalBoldParser.RunSink {
+    private final IncrementalBoldParser parser = new IncrementalBoldParser();
+    private final List<String> runs = new ArrayList<>();
+
+    void feed(String chunk) {
+      parser.feed(chunk, this);
+    }
+
+    void finish() {
+      parser.finish(this);
+    }
+
+    @Override
+    public void onRun(CharSequence text, boolean bold) {
+      runs.add(bold ? "[" + text + "]" : text.toString());
+    }
+  }
+}
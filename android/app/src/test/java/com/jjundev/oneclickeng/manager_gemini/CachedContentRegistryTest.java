@@ -0,0 +1,295 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachedContentRegistryTest {
+  private static final String API_KEY = "test-key";
+  private static final long TTL_MS = CachedContentRegistry.CACHE_TTL_SECONDS * 1000L;
+
+  private final AtomicLong nowMs = new AtomicLong(0L);
+  private final List<Runnable> pendingWork = new ArrayList<>();
+  private FakeBackend backend;
+  private FakeStore store;
+
+  @Before
+  public void setUp() {
+    nowMs.set(1_000_000L);
+    pendingWork.clear();
+    backend = new FakeBackend();
+    store = new FakeStore();
+  }
+
+  @Test
+  public void currentName_returnsNullWithoutWaitingUntilCreated() {
+    CachedContentRegistry registry = newRegistry();
+    String key = registry.register(API_KEY, spec("prompt"));
+
+    assertNull(registry.currentName(key));
+    assertEquals(1, pendingWork.size());
+
+    runPendingWork();
+    assertEquals("cachedContents/1", registry.currentName(key));
+    assertEquals(1, backend.createCount);
+  }
+
+  @Test
+  public void register_sameSpecTwiceCreatesOnce() {
+    CachedContentRegistry registry = newRegistry();
+    String first = registry.register(API_KEY, spec("prompt"));
+    String second = registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+
+    assertEquals(first, second);
+    assertEquals(1, backend.createCount);
+  }
+
+  @Test
+  public void register_keysByModelAndPromptSignature() {
+    CachedContentRegistry registry = newRegistry();
+    String base = registry.register(API_KEY, spec("prompt"));
+    String otherPrompt = registry.register(API_KEY, spec("prompt v2"));
+    String otherModel =
+        registry.register(
+            API_KEY, new CachedContentRegistry.Spec("models/other", "Test", "prompt", "u", "m"));
+
+    assertNotEquals(base, otherPrompt);
+    assertNotEquals(base, otherModel);
+    assertTrue(otherModel.startsWith("other/"));
+  }
+
+  @Test
+  public void validatePersisted_checksAllCachesConcurrentlyAndDropsGoneOnes() {
+    String liveKey = CachedContentRegistry.buildKey(API_KEY, spec("live"));
+    String goneKey = CachedContentRegistry.buildKey(API_KEY, spec("gone"));
+    long persistedExpireAtMs = nowMs.get() + 600_000L;
+    store.saved.put(
+        liveKey, new CachedContentRegistry.RemoteCache("cachedContents/live", persistedExpireAtMs));
+    store.saved.put(
+        goneKey, new CachedContentRegistry.RemoteCache("cachedContents/gone", persistedExpireAtMs));
+    backend.serverCaches.put("cachedContents/live", nowMs.get() + TTL_MS);
+    CachedContentRegistry registry = newRegistry();
+
+    registry.validatePersisted(API_KEY);
+    runPendingWork(1);
+    // Both GETs are handed to the worker pool before either one runs.
+    assertEquals(2, pendingWork.size());
+    runPendingWork();
+
+    assertEquals(2, backend.getCount);
+    assertEquals(nowMs.get() + TTL_MS, store.saved.get(liveKey).expireAtMs);
+    assertFalse(store.saved.containsKey(goneKey));
+    String key = registry.register(API_KEY, spec("live"));
+    assertEquals("cachedContents/live", registry.currentName(key));
+    assertEquals(0, backend.createCount);
+  }
+
+  @Test
+  public void renewDue_extendsInUseCacheBeforeExpiry() {
+    CachedContentRegistry registry = newRegistry();
+    String key = registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+
+    long waitMs = registry.renewDue();
+    assertEquals(TTL_MS - CachedContentRegistry.RENEW_BEFORE_EXPIRY_MS, waitMs);
+
+    nowMs.addAndGet(waitMs);
+    registry.currentName(key);
+    registry.renewDue();
+    runPendingWork();
+
+    assertEquals(1, backend.extendCount);
+    assertEquals(1, backend.createCount);
+    assertEquals("cachedContents/1", registry.currentName(key));
+    assertEquals(nowMs.get() + TTL_MS, store.saved.get(key).expireAtMs);
+  }
+
+  @Test
+  public void renewDue_letsIdleCacheExpire() {
+    CachedContentRegistry registry = newRegistry();
+    registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+
+    nowMs.addAndGet(CachedContentRegistry.IDLE_RELEASE_MS + 1L);
+
+    assertEquals(-1L, registry.renewDue());
+    assertEquals(0, backend.extendCount);
+  }
+
+  @Test
+  public void renewDue_recreatesCacheThatVanishedOnServer() {
+    CachedContentRegistry registry = newRegistry();
+    String key = registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+    backend.serverCaches.clear();
+
+    nowMs.addAndGet(TTL_MS - CachedContentRegistry.RENEW_BEFORE_EXPIRY_MS);
+    registry.currentName(key);
+    registry.renewDue();
+    runPendingWork();
+
+    assertEquals(2, backend.createCount);
+    assertEquals("cachedContents/2", registry.currentName(key));
+  }
+
+  @Test
+  public void invalidate_recreatesOnlyWhenNameIsCurrent() {
+    CachedContentRegistry registry = newRegistry();
+    String key = registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+
+    registry.invalidate(key, "cachedContents/stale");
+    assertEquals("cachedContents/1", registry.currentName(key));
+
+    registry.invalidate(key, "cachedContents/1");
+    assertNull(registry.currentName(key));
+    runPendingWork();
+    assertEquals("cachedContents/2", registry.currentName(key));
+  }
+
+  @Test
+  public void createFailure_backsOffBeforeRetrying() {
+    CachedContentRegistry registry = newRegistry();
+    backend.failCreate = true;
+    String key = registry.register(API_KEY, spec("prompt"));
+    runPendingWork();
+
+    assertNull(registry.currentName(key));
+    assertTrue(pendingWork.isEmpty());
+
+    backend.failCreate = false;
+    nowMs.addAndGet(CachedContentRegistry.RETRY_DELAY_MS);
+    assertNull(registry.currentName(key));
+    runPendingWork();
+    assertEquals("cachedContents/1", registry.currentName(key));
+  }
+
+  @Test
+  public void ensureReady_notifiesListenerAfterCreation() {
+    CachedContentRegistry registry = newRegistry();
+    String key = registry.register(API_KEY, spec("prompt"));
+    List<String> ready = new ArrayList<>();
+    registry.ensureReady(key, listener(ready));
+
+    assertTrue(ready.isEmpty());
+    runPendingWork();
+    assertEquals(1, ready.size());
+    assertEquals("cachedContents/1", ready.get(0));
+  }
+
+  private CachedContentRegistry newRegistry() {
+    return new CachedContentRegistry(backend, store, pendingWork::add, nowMs::get, false);
+  }
+
+  private void runPendingWork() {
+    while (!pendingWork.isEmpty()) {
+      pendingWork.remove(0).run();
+    }
+  }
+
+  private void runPendingWork(int count) {
+    for (int i = 0; i < count && !pendingWork.isEmpty(); i++) {
+      pendingWork.remove(0).run();
+    }
+  }
+
+  private static CachedContentRegistry.Spec spec(String systemPrompt) {
+    return new CachedContentRegistry.Spec(
+        "gemini-test", "Test", systemPrompt, "Initialize.", "Ready.");
+  }
+
+  private static CachedContentRegistry.ReadyListener listener(List<String> ready) {
+    return new CachedContentRegistry.ReadyListener() {
+      @Override
+      public void onReady(@NonNull String cacheName) {
+        ready.add(cacheName);
+      }
+
+      @Override
+      public void onError(@NonNull String error) {
+        ready.add("error: " + error);
+      }
+    };
+  }
+
+  private final class FakeBackend implements CachedContentRegistry.Backend {
+    final Map<String, Long> serverCaches = new HashMap<>();
+    boolean failCreate;
+    int createCount;
+    int getCount;
+    int extendCount;
+
+    @NonNull
+    @Override
+    public CachedContentRegistry.RemoteCache create(
+        @NonNull String apiKey, @NonNull CachedContentRegistry.Spec spec) throws IOException {
+      if (failCreate) {
+        throw new IOException("boom");
+      }
+      createCount++;
+      String name = "cachedContents/" + createCount;
+      serverCaches.put(name, nowMs.get() + TTL_MS);
+      return new CachedContentRegistry.RemoteCache(name, nowMs.get() + TTL_MS);
+    }
+
+    @Nullable
+    @Override
+    public CachedContentRegistry.RemoteCache get(@NonNull String apiKey, @NonNull String name) {
+      getCount++;
+      Long expireAtMs = serverCaches.get(name);
+      return expireAtMs == null ? null : new CachedContentRegistry.RemoteCache(name, expireAtMs);
+    }
+
+    @Nullable
+    @Override
+    public CachedContentRegistry.RemoteCache extend(
+        @NonNull String apiKey, @NonNull String name, int ttlSeconds) {
+      extendCount++;
+      if (!serverCaches.containsKey(name)) {
+        return null;
+      }
+      long expireAtMs = nowMs.get() + ttlSeconds * 1000L;
+      serverCaches.put(name, expireAtMs);
+      return new CachedContentRegistry.RemoteCache(name, expireAtMs);
+    }
+
+    @Override
+    public void delete(@NonNull String apiKey, @NonNull String name) {
+      serverCaches.remove(name);
+    }
+  }
+
+  private static final class FakeStore implements CachedContentRegistry.Store {
+    final Map<String, CachedContentRegistry.RemoteCache> saved = new HashMap<>();
+
+    @NonNull
+    @Override
+    public Map<String, CachedContentRegistry.RemoteCache> loadAll() {
+      return new HashMap<>(saved);
+    }
+
+    @Override
+    public void save(@NonNull String key, @NonNull CachedContentRegistry.RemoteCache cache) {
+      saved.put(key, cache);
+    }
+
+    @Override
+    public void remove(@NonNull String key) {
+      saved.remove(key);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FileLruCacheTest {
+  private static final FileLruCache.EntryReader<String> TEXT =
+      file -> new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+  private final AtomicLong nowMs = new AtomicLong();
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    nowMs.set(1_000_000L);
+    directory = Files.createTempDirectory("file-lru").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedOverLimit() {
+    FileLruCache cache = newCache(30L);
+    put(cache, "a", "aaaaaaaaaa");
+    put(cache, "b", "bbbbbbbbbb");
+    put(cache, "c", "cccccccccc");
+    cache.get("a", TEXT);
+
+    put(cache, "d", "dddddddddd");
+
+    assertNull(cache.get("b", TEXT));
+    assertEquals("aaaaaaaaaa", cache.get("a", TEXT));
+    assertEquals(3, cache.entryCount());
+    assertEquals(30L, cache.sizeBytes());
+    assertFalse(new File(directory, "b").exists());
+  }
+
+  @Test
+  public void put_replacingEntryKeepsSizeAccurate() {
+    FileLruCache cache = newCache(100L);
+    put(cache, "a", "aaaaaaaaaa");
+    put(cache, "a", "aaaa");
+
+    assertEquals(4L, cache.sizeBytes());
+    assertEquals(1, cache.entryCount());
+  }
+
+  @Test
+  public void put_skipsEntriesLargerThanTheLimit() {
+    FileLruCache cache = newCache(10L);
+    put(cache, "a", "aaaa");
+
+    put(cache, "big", "bbbbbbbbbbbb");
+
+    assertEquals("aaaa", cache.get("a", TEXT));
+    assertFalse(new File(directory, "big").exists());
+  }
+
+  @Test
+  public void reload_restoresRecencyFromDiskAndDropsTempFiles() throws IOException {
+    FileLruCache first = newCache(30L);
+    put(first, "a", "aaaaaaaaaa");
+    nowMs.addAndGet(1_000L);
+    put(first, "b", "bbbbbbbbbb");
+    nowMs.addAndGet(1_000L);
+    put(first, "c", "cccccccccc");
+    nowMs.addAndGet(1_000L);
+    first.get("a", TEXT);
+    Files.write(new File(directory, "e.tmp").toPath(), new byte[5]);
+
+    FileLruCache second = newCache(30L);
+    put(second, "d", "dddddddddd");
+
+    assertEquals("aaaaaaaaaa", second.get("a", TEXT));
+    assertNull(second.get("b", TEXT));
+    assertFalse(new File(directory, "e.tmp").exists());
+  }
+
+  @Test
+  public void get_dropsEntriesTheReaderRejects() {
+    FileLruCache cache = newCache(100L);
+    put(cache, "a", "aaaa");
+
+    assertNull(
+        cache.get(
+            "a",
+            file -> {
+              throw new IOException("Bad entry");
+            }));
+
+    assertEquals(0, cache.entryCount());
+    assertEquals(0L, cache.sizeBytes());
+    assertFalse(new File(directory, "a").exists());
+  }
+
+  private FileLruCache newCache(long maxBytes) {
+    return new FileLruCache("FileLruCacheTest", directory, maxBytes, nowMs::get);
+  }
+
+  private static void put(FileLruCache cache, String key, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    cache.put(key, bytes.length, out -> out.write(bytes));
+  }
+}
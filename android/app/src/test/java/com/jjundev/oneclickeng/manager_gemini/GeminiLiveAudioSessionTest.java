@@ -0,0 +1,348 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.ISpeakingFeedbackManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.FluencyFeedback;
+import com.jjundev.oneclickeng.tool.FlacEncoder;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import okhttp3.Request;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okio.ByteString;
+import org.junit.Test;
+
+public class GeminiLiveAudioSessionTest {
+
+  @Test
+  public void audioIsHeldUntilSetupCompleteThenStreamedBeforeFinish() {
+    FakeServer server = new FakeServer();
+    GeminiLiveAudioSession session = newSession(server, new RecordingFallback());
+    session.open();
+    session.appendAudio(new byte[] {1, 2}, 0, 2);
+
+    assertEquals(List.of("setup"), server.sentKinds());
+
+    server.reply("{\"setupComplete\":{}}");
+    session.appendAudio(new byte[] {9, 3, 4}, 1, 2);
+
+    assertEquals(List.of("setup", "activityStart", "audio", "audio"), server.sentKinds());
+    assertTrue(server.sent.get(2).contains(GeminiLiveAudioSession.AUDIO_MIME_TYPE));
+    assertTrue(server.sent.get(2).contains("AQI="));
+  }
+
+  @Test
+  public void finish_deliversResultParsedFromModelTurns() {
+    FakeServer server = new FakeServer();
+    GeminiLiveAudioSession session = newSession(server, new RecordingFallback());
+    RecordingCallback callback = new RecordingCallback();
+    session.open();
+    server.reply("{\"setupComplete\":{}}");
+    session.appendAudio(new byte[] {1, 2}, 0, 2);
+
+    RequestHandle handle = session.finish(new byte[] {1, 2}, callback);
+    server.reply(
+        "{\"serverContent\":{\"modelTurn\":{\"parts\":[{\"text\":\"{\\\"fluency\\\":8,\"}]}}}");
+    server.reply(
+        "{\"serverContent\":{\"modelTurn\":{\"parts\":"
+            + "[{\"text\":\"\\\"transcript\\\":\\\"hi\\\"}\"}]}}}");
+
+    assertNull(callback.result);
+    server.reply("{\"serverContent\":{\"turnComplete\":true}}");
+
+    assertEquals("activityEnd", server.sentKinds().get(server.sent.size() - 1));
+    assertNotNull(callback.result);
+    assertEquals(8, callback.result.getFluency());
+    assertEquals("hi", callback.result.getTranscript());
+    assertTrue(server.closed);
+    // The request is complete, so cancelling it has nothing left to abort.
+    assertFalse(handle.cancel());
+  }
+
+  @Test
+  public void failureBeforeFinish_analyzesWholeRecordingWithFallback() {
+    FakeServer server = new FakeServer();
+    RecordingFallback fallback = new RecordingFallback();
+    GeminiLiveAudioSession session = newSession(server, fallback);
+    RecordingCallback callback = new RecordingCallback();
+    session.open();
+    server.fail(new IOException("reset"));
+    byte[] recording = {5, 6, 7, 8};
+
+    RequestHandle handle = session.finish(recording, callback);
+
+    assertArrayEquals(recording, fallback.audio);
+    assertSame(callback, fallback.callback);
+    assertTrue(server.cancelled);
+    handle.cancel();
+    assertTrue(fallback.handle.isCancelled());
+  }
+
+  @Test
+  public void fallback_receivesFlacOfTrimmedTakeEncodedWhileStreaming() {
+    FakeServer server = new FakeServer();
+    RecordingFallback fallback = new RecordingFallback();
+    GeminiLiveAudioSession session =
+        new GeminiLiveAudioSession(
+            server,
+            "wss://localhost/live",
+            GeminiLiveAudioSession.buildSetupMessage("live-model", "prompt"),
+            Runnable::run,
+            fallback,
+            new FlacEncoder(16000, 256));
+    session.open();
+    byte[] stream = new byte[4000];
+    for (int i = 0; i < stream.length; i++) {
+      stream[i] = (byte) (i % 2 == 0 ? i : i / 200);
+    }
+    for (int offset = 0; offset < stream.length; offset += 640) {
+      session.appendAudio(stream, offset, Math.min(640, stream.length - offset));
+    }
+    server.fail(new IOException("reset"));
+    byte[] take = Arrays.copyOfRange(stream, 600, 3600);
+
+    session.finish(take, 600, new RecordingCallback());
+
+    assertSame(take, fallback.audio);
+    assertArrayEquals(
+        new FlacEncoder(16000, 256).encodeTake(300, take, 0, take.length), fallback.flac);
+  }
+
+  @Test
+  public void cancel_closesSocketWithoutCallback() {
+    FakeServer server = new FakeServer();
+    RecordingFallback fallback = new RecordingFallback();
+    GeminiLiveAudioSession session = newSession(server, fallback);
+    RecordingCallback callback = new RecordingCallback();
+    session.open();
+    server.reply("{\"setupComplete\":{}}");
+
+    session.cancel();
+    server.fail(new IOException("Canceled"));
+    session.finish(new byte[] {1}, callback);
+
+    assertTrue(server.cancelled);
+    assertNull(fallback.audio);
+    assertNull(callback.result);
+    assertNull(callback.error);
+  }
+
+  @Test
+  public void missingTurnComplete_fallsBackWhenTheFinishTimeoutFires() {
+    FakeServer server = new FakeServer();
+    RecordingFallback fallback = new RecordingFallback();
+    ManualTimer timer = new ManualTimer();
+    GeminiLiveAudioSession session = newSession(server, fallback, timer);
+    RecordingCallback callback = new RecordingCallback();
+    session.open();
+    server.reply("{\"setupComplete\":{}}");
+    byte[] recording = {1, 2};
+
+    session.finish(recording, callback);
+
+    assertEquals(GeminiLiveAudioSession.FINISH_TIMEOUT_MS, timer.delayMs);
+    assertNull(fallback.audio);
+    timer.fire();
+    assertSame(recording, fallback.audio);
+    assertSame(callback, fallback.callback);
+    assertTrue(server.cancelled);
+  }
+
+  @Test
+  public void turnComplete_cancelsTheFinishTimeout() {
+    FakeServer server = new FakeServer();
+    ManualTimer timer = new ManualTimer();
+    GeminiLiveAudioSession session = newSession(server, new RecordingFallback(), timer);
+    session.open();
+    server.reply("{\"setupComplete\":{}}");
+
+    session.finish(new byte[] {1, 2}, new RecordingCallback());
+    server.reply(
+        "{\"serverContent\":{\"modelTurn\":{\"parts\":[{\"text\":\"{}\"}]},"
+            + "\"turnComplete\":true}}");
+
+    assertTrue(timer.cancelled);
+  }
+
+  @Test
+  public void audioBeyondThePreSetupCap_isDroppedAndFinishUsesFallback() {
+    FakeServer server = new FakeServer();
+    RecordingFallback fallback = new RecordingFallback();
+    GeminiLiveAudioSession session = newSession(server, fallback, new ManualTimer());
+    session.open();
+    byte[] chunk = new byte[GeminiLiveAudioSession.MAX_PENDING_AUDIO_BYTES / 2];
+
+    session.appendAudio(chunk, 0, chunk.length);
+    session.appendAudio(chunk, 0, chunk.length);
+    session.appendAudio(chunk, 0, 2);
+    server.reply("{\"setupComplete\":{}}");
+    byte[] recording = {3, 4};
+    session.finish(recording, new RecordingCallback());
+
+    assertEquals(List.of("setup"), server.sentKinds());
+    assertTrue(server.cancelled);
+    assertSame(recording, fallback.audio);
+  }
+
+  private static GeminiLiveAudioSession newSession(
+      FakeServer server, RecordingFallback fallback, ManualTimer timer) {
+    return new GeminiLiveAudioSession(
+        server,
+        "wss://localhost/live",
+        GeminiLiveAudioSession.buildSetupMessage("live-model", "prompt"),
+        Runnable::run,
+        fallback,
+        null,
+        timer);
+  }
+
+  private static GeminiLiveAudioSession newSession(FakeServer server, RecordingFallback fallback) {
+    return new GeminiLiveAudioSession(
+        server,
+        "wss://localhost/live",
+        GeminiLiveAudioSession.buildSetupMessage("live-model", "prompt"),
+        Runnable::run,
+        fallback);
+  }
+
+  /** In-process stand-in for the Live endpoint: records frames and lets the test reply. */
+  private static final class FakeServer implements WebSocket.Factory, WebSocket {
+    final List<String> sent = new ArrayList<>();
+    WebSocketListener listener;
+    boolean closed;
+    boolean cancelled;
+
+    @NonNull
+    @Override
+    public WebSocket newWebSocket(@NonNull Request request, @NonNull WebSocketListener listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    void reply(String message) {
+      listener.onMessage(this, message);
+    }
+
+    void fail(Throwable t) {
+      listener.onFailure(this, t, null);
+    }
+
+    List<String> sentKinds() {
+      List<String> kinds = new ArrayList<>();
+      for (String message : sent) {
+        if (message.startsWith("{\"setup\"")) {
+          kinds.add("setup");
+        } else if (message.contains("\"audio\"")) {
+          kinds.add("audio");
+        } else if (message.contains("activityStart")) {
+          kinds.add("activityStart");
+        } else if (message.contains("activityEnd")) {
+          kinds.add("activityEnd");
+        } else {
+          kinds.add(message);
+        }
+      }
+      return kinds;
+    }
+
+    @NonNull
+    @Override
+    public Request request() {
+      return new Request.Builder().url("wss://localhost/live").build();
+    }
+
+    @Override
+    public boolean send(@NonNull String text) {
+      sent.add(text);
+      return true;
+    }
+
+    @Override
+    public boolean send(@NonNull ByteString bytes) {
+      return send(bytes.utf8());
+    }
+
+    @Override
+    public boolean close(int code, String reason) {
+      closed = true;
+      return true;
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+    }
+
+    @Override
+    public long queueSize() {
+      return 0L;
+    }
+  }
+
+  private static final class ManualTimer implements GeminiLiveAudioSession.Timer {
+    Runnable task;
+    long delayMs;
+    boolean cancelled;
+
+    @NonNull
+    @Override
+    public Runnable schedule(@NonNull Runnable task, long delayMs) {
+      this.task = task;
+      this.delayMs = delayMs;
+      return () -> cancelled = true;
+    }
+
+    void fire() {
+      if (!cancelled) {
+        task.run();
+      }
+    }
+  }
+
+  private static final class RecordingFallback implements GeminiLiveAudioSession.Fallback {
+    byte[] audio;
+    byte[] flac;
+    ISpeakingFeedbackManager.AnalysisCallback callback;
+    final RequestHandle handle = new RequestHandle();
+
+    @NonNull
+    @Override
+    public RequestHandle analyze(
+        @NonNull byte[] recordedAudio,
+        @Nullable byte[] flacAudio,
+        @NonNull ISpeakingFeedbackManager.AnalysisCallback callback) {
+      this.audio = recordedAudio;
+      this.flac = flacAudio;
+      this.callback = callback;
+      return handle;
+    }
+  }
+
+  private static final class RecordingCallback
+      implements ISpeakingFeedbackManager.AnalysisCallback {
+    FluencyFeedback result;
+    String error;
+
+    @Override
+    public void onSuccess(@NonNull FluencyFeedback result) {
+      this.result = result;
+    }
+
+    @Override
+    public void onError(@NonNull String error) {
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.RequestHandle;
+import com.jjundev.oneclickeng.learning.dialoguelearning.orchestrator.AsyncRequestTracker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeminiRequestSchedulerTest {
+  private static final String MODEL = "gemini-3-flash-preview";
+
+  private final AtomicLong nowMs = new AtomicLong(1_000L);
+  private final List<String> started = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    nowMs.set(1_000L);
+    started.clear();
+  }
+
+  @Test
+  public void dispatchPending_startsInteractiveBeforeBackground() {
+    GeminiRequestScheduler scheduler = newScheduler(1, 1_000_000);
+
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.BACKGROUND, 10, record("summary"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("extra"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.INTERACTIVE, 10, record("speaking"));
+    scheduler.dispatchPending();
+
+    assertEquals(Arrays.asList("speaking"), started);
+    assertEquals(2, scheduler.queuedCount());
+  }
+
+  @Test
+  public void dispatchPending_waitsForRequestBucketToRefill() {
+    GeminiRequestScheduler scheduler = newScheduler(2, 1_000_000);
+
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("a"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("b"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("c"));
+    long waitMs = scheduler.dispatchPending();
+
+    assertEquals(Arrays.asList("a", "b"), started);
+    assertEquals(30_000L, waitMs);
+
+    nowMs.addAndGet(waitMs - 1L);
+    scheduler.dispatchPending();
+    assertEquals(2, started.size());
+
+    nowMs.addAndGet(1L);
+    assertEquals(-1L, scheduler.dispatchPending());
+    assertEquals(Arrays.asList("a", "b", "c"), started);
+  }
+
+  @Test
+  public void dispatchPending_chargesEstimatedTokensAgainstTokenBucket() {
+    GeminiRequestScheduler scheduler = newScheduler(100, 2_000);
+
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 1_500, record("a"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 1_500, record("b"));
+    long waitMs = scheduler.dispatchPending();
+
+    assertEquals(Arrays.asList("a"), started);
+    assertTrue(waitMs > 0L);
+
+    nowMs.addAndGet(waitMs);
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("a", "b"), started);
+  }
+
+  @Test
+  public void dispatchPending_keepsSeparateBucketsPerModel() {
+    GeminiRequestScheduler scheduler = newScheduler(1, 1_000_000);
+
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("a"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("b"));
+    scheduler.submit(
+        "models/gemini-2.5-flash-lite",
+        GeminiRequestScheduler.Priority.BACKGROUND,
+        10,
+        record("lite"));
+    scheduler.dispatchPending();
+
+    assertEquals(Arrays.asList("a", "lite"), started);
+  }
+
+  @Test
+  public void dispatchPending_throttlesEachModelAtItsOwnRate() {
+    String lite = "gemini-3.1-flash-lite-preview";
+    Map<String, GeminiRequestScheduler.RateLimit> limits = new LinkedHashMap<>();
+    limits.put("flash-lite", new GeminiRequestScheduler.RateLimit(3, 1_000_000));
+    limits.put("flash", new GeminiRequestScheduler.RateLimit(1, 1_000_000));
+    GeminiRequestScheduler scheduler =
+        new GeminiRequestScheduler(
+            Runnable::run,
+            nowMs::get,
+            false,
+            limits,
+            new GeminiRequestScheduler.RateLimit(100, 1_000_000));
+
+    for (int i = 0; i < 4; i++) {
+      scheduler.submit(lite, GeminiRequestScheduler.Priority.NORMAL, 10, record("lite" + i));
+      scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("flash" + i));
+    }
+    long waitMs = scheduler.dispatchPending();
+
+    assertEquals(Arrays.asList("lite0", "flash0", "lite1", "lite2"), started);
+    // Three per minute refill one lite request every 20s; flash waits a full minute.
+    assertEquals(20_000L, waitMs);
+
+    nowMs.addAndGet(waitMs);
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("lite0", "flash0", "lite1", "lite2", "lite3"), started);
+
+    nowMs.addAndGet(40_000L);
+    scheduler.dispatchPending();
+    assertEquals("flash1", started.get(started.size() - 1));
+  }
+
+  @Test
+  public void limitFor_matchesModelFamiliesBeforeFallingBackToDefaults() {
+    GeminiRequestScheduler scheduler = new GeminiRequestScheduler(Runnable::run, nowMs::get, false);
+
+    GeminiRequestScheduler.RateLimit tts = scheduler.limitFor("gemini-2.5-flash-preview-tts");
+    GeminiRequestScheduler.RateLimit lite = scheduler.limitFor("gemini-3.1-flash-lite-preview");
+    GeminiRequestScheduler.RateLimit flash = scheduler.limitFor(MODEL);
+    GeminiRequestScheduler.RateLimit unknown = scheduler.limitFor("gemma-3-27b-it");
+
+    assertEquals(GeminiRequestScheduler.MODEL_LIMITS.get("-tts"), tts);
+    assertEquals(GeminiRequestScheduler.MODEL_LIMITS.get("flash-lite"), lite);
+    assertEquals(GeminiRequestScheduler.MODEL_LIMITS.get("flash"), flash);
+    assertTrue(tts.requestsPerMinute < flash.requestsPerMinute);
+    assertTrue(flash.requestsPerMinute < lite.requestsPerMinute);
+    assertEquals(GeminiRequestScheduler.DEFAULT_REQUESTS_PER_MINUTE, unknown.requestsPerMinute);
+    assertEquals(GeminiRequestScheduler.DEFAULT_TOKENS_PER_MINUTE, unknown.tokensPerMinute);
+  }
+
+  @Test
+  public void dispatchPending_doesNotLetLowerPriorityTakeBlockedModelBudget() {
+    GeminiRequestScheduler scheduler = newScheduler(100, 1_000);
+
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 900, record("first"));
+    scheduler.submit(
+        MODEL, GeminiRequestScheduler.Priority.INTERACTIVE, 900, record("interactive"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.BACKGROUND, 50, record("small"));
+
+    // "interactive" runs first and drains the budget, then "first" is blocked and "small" must
+    // not jump ahead of it.
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("interactive"), started);
+    assertEquals(2, scheduler.queuedCount());
+  }
+
+  @Test
+  public void cancel_dropsOnlyThatQueuedRequest() {
+    GeminiRequestScheduler scheduler = newScheduler(1, 1_000_000);
+    // Drain the request bucket so everything submitted below stays queued.
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("warm"));
+    scheduler.dispatchPending();
+    started.clear();
+
+    GeminiRequestScheduler.ScheduledRequest feedback =
+        scheduler.submit(
+            MODEL, GeminiRequestScheduler.Priority.INTERACTIVE, 10, record("feedback"));
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("extra"));
+
+    assertTrue(feedback.cancel());
+    assertTrue(feedback.isCancelled());
+    assertEquals(1, scheduler.queuedCount());
+
+    nowMs.addAndGet(60_000L);
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("extra"), started);
+  }
+
+  @Test
+  public void trackerInvalidate_cancelsTrackedQueuedRequest() {
+    GeminiRequestScheduler scheduler = newScheduler(1, 1_000_000);
+    AsyncRequestTracker tracker = new AsyncRequestTracker();
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("warm"));
+    scheduler.dispatchPending();
+    List<String> aborted = new ArrayList<>();
+
+    long requestId = tracker.nextRequestId(AsyncRequestTracker.CHANNEL_SPEAKING);
+    RequestHandle handle =
+        scheduler.submit(
+            MODEL,
+            GeminiRequestScheduler.Priority.INTERACTIVE,
+            10,
+            0L,
+            running -> running.onStarted(() -> aborted.add("call")));
+    tracker.track(AsyncRequestTracker.CHANNEL_SPEAKING, requestId, handle);
+    tracker.clearForTurnBoundary();
+
+    assertEquals(0, scheduler.queuedCount());
+    assertTrue(handle.isCancelled());
+    assertFalse(handle.cancel());
+    assertEquals(1L, tracker.getCancelledRequestCount());
+
+    nowMs.addAndGet(60_000L);
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("warm"), started);
+    assertTrue(aborted.isEmpty());
+  }
+
+  @Test
+  public void submitWithHandle_cancelWhileQueuedDropsRequestAndCountsSavings() {
+    GeminiRequestScheduler scheduler = newScheduler(1, 1_000_000);
+    scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("warm"));
+    scheduler.dispatchPending();
+
+    RequestHandle handle =
+        scheduler.submit(
+            MODEL,
+            GeminiRequestScheduler.Priority.INTERACTIVE,
+            500,
+            3_000L,
+            ignored -> started.add("speaking"));
+
+    assertTrue(handle.cancel());
+    assertEquals(0, scheduler.queuedCount());
+    assertEquals(500, handle.getSavedTokens());
+    assertTrue(handle.getSavedBytes() > 3_000L);
+
+    nowMs.addAndGet(60_000L);
+    scheduler.dispatchPending();
+    assertEquals(Arrays.asList("warm"), started);
+  }
+
+  @Test
+  public void submitWithHandle_cancelAfterFinishIsNoOp() {
+    GeminiRequestScheduler scheduler = newScheduler(10, 1_000_000);
+
+    RequestHandle handle =
+        scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, 0L, ignored -> {});
+    scheduler.dispatchPending();
+
+    assertFalse(handle.cancel());
+    assertEquals(0, handle.getSavedTokens());
+  }
+
+  @Test
+  public void cancel_afterStartReturnsFalse() {
+    GeminiRequestScheduler scheduler = newScheduler(10, 1_000_000);
+
+    GeminiRequestScheduler.ScheduledRequest request =
+        scheduler.submit(MODEL, GeminiRequestScheduler.Priority.NORMAL, 10, record("a"));
+    scheduler.dispatchPending();
+
+    assertTrue(request.isStarted());
+    assertFalse(request.cancel());
+    assertFalse(request.isCancelled());
+  }
+
+  @Test
+  public void tokenBucket_requestLargerThanCapacityWaitsForFullBucketOnly() {
+    GeminiRequestScheduler.TokenBucket bucket = new GeminiRequestScheduler.TokenBucket(60, 0L);
+    bucket.consume(60);
+
+    assertEquals(60_000L, bucket.millisUntilAvailable(500, 0L));
+    assertEquals(0L, bucket.millisUntilAvailable(500, 60_000L));
+  }
+
+  private GeminiRequestScheduler newScheduler(int requestsPerMinute, int tokensPerMinute) {
+    return new GeminiRequestScheduler(
+        Runnable::run, nowMs::get, false, requestsPerMinute, tokensPerMinute);
+  }
+
+  private Runnable record(String name) {
+    return () -> started.add(name);
+  }
+}
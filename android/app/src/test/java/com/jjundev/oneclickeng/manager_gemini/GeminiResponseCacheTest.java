@@ -0,0 +1,88 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeminiResponseCacheTest {
+  private final AtomicLong nowMs = new AtomicLong();
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    nowMs.set(1_000_000L);
+    directory = Files.createTempDirectory("gemini-responses").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void get_returnsStoredResponseAndMissesUnknownKey() {
+    GeminiResponseCache cache = newCache(1_000L);
+    cache.put("a", "{\"grammar\":{}}");
+
+    assertEquals("{\"grammar\":{}}", cache.get("a"));
+    assertNull(cache.get("b"));
+    assertEquals(14L, new File(directory, "a").length());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedOverLimit() {
+    GeminiResponseCache cache = newCache(30L);
+    cache.put("a", "aaaaaaaaaa");
+    cache.put("b", "bbbbbbbbbb");
+    cache.put("c", "cccccccccc");
+    cache.get("a");
+
+    cache.put("d", "dddddddddd");
+
+    assertNull(cache.get("b"));
+    assertEquals("aaaaaaaaaa", cache.get("a"));
+    assertFalse(new File(directory, "b").exists());
+  }
+
+  @Test
+  public void reload_readsEntriesWrittenByPreviousInstance() {
+    newCache(100L).put("a", "응답");
+
+    assertEquals("응답", newCache(100L).get("a"));
+  }
+
+  @Test
+  public void buildKey_separatesPartsAndIsFileNameSafe() {
+    String key = GeminiResponseCache.buildKey("model", "ab", "c");
+
+    assertNotEquals(key, GeminiResponseCache.buildKey("model", "a", "bc"));
+    assertEquals(key, GeminiResponseCache.buildKey("model", "ab", "c"));
+    assertTrue(key.matches("[0-9a-f]{64}"));
+  }
+
+  @Test
+  public void normalizeUserSentence_collapsesWhitespaceOnly() {
+    assertEquals(
+        "I went to School.", SentenceFeedbackManager.normalizeUserSentence("  I went\tto  School. "));
+  }
+
+  private GeminiResponseCache newCache(long maxBytes) {
+    return new GeminiResponseCache(directory, maxBytes, nowMs::get);
+  }
+}
@@ -0,0 +1,154 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import okio.Buffer;
+import org.junit.Test;
+
+public class GeminiSseReaderTest {
+
+  @Test
+  public void nextText_returnsTextPerEvent() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: "
+                + textEvent("{\\\"turns\\\":[")
+                + "\n\n"
+                + "data: "
+                + textEvent("1]}")
+                + "\n\n");
+
+    assertEquals("{\"turns\":[", reader.nextText());
+    assertEquals("1]}", reader.nextText());
+    assertNull(reader.nextText());
+  }
+
+  @Test
+  public void nextText_handlesCrlfFramingAndMissingTrailingBlankLine() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            ": keep-alive\r\n"
+                + "event: message\r\n"
+                + "data: "
+                + textEvent("a")
+                + "\r\n\r\n"
+                + "data:"
+                + textEvent("b"));
+
+    assertEquals("a", reader.nextText());
+    assertEquals("b", reader.nextText());
+    assertNull(reader.nextText());
+  }
+
+  @Test
+  public void nextText_joinsMultiLineDataEvents() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: {\"candidates\":[{\"content\":\n"
+                + "data: {\"parts\":[{\"text\":\"joined\"}]}}]}\n"
+                + "\n");
+
+    assertEquals("joined", reader.nextText());
+    assertNull(reader.nextText());
+  }
+
+  @Test
+  public void nextText_concatenatesPartsAndSkipsThoughts() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: {\"candidates\":[{\"content\":{\"parts\":["
+                + "{\"text\":\"thinking\",\"thought\":true},"
+                + "{\"text\":\"Hello, \"},"
+                + "{\"text\":\"world\"}]}},"
+                + "{\"content\":{\"parts\":[{\"text\":\"second candidate\"}]}}]}\n\n");
+
+    assertEquals("Hello, world", reader.nextText());
+  }
+
+  @Test
+  public void nextText_readsUsageMetadataFromTrailingEvent() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: "
+                + textEvent("done")
+                + "\n\n"
+                + "data: {\"candidates\":[{\"content\":{\"parts\":[]},\"finishReason\":\"STOP\"}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":120,\"cachedContentTokenCount\":100,"
+                + "\"candidatesTokenCount\":30,\"totalTokenCount\":150,"
+                + "\"promptTokensDetails\":[{\"modality\":\"TEXT\",\"tokenCount\":120}]}}\n\n");
+
+    assertEquals("done", reader.nextText());
+    assertNull(reader.nextText());
+    assertEquals(120, reader.getPromptTokenCount());
+    assertEquals(100, reader.getCachedContentTokenCount());
+    assertEquals(30, reader.getCandidatesTokenCount());
+    assertEquals(150, reader.getTotalTokenCount());
+    assertEquals("STOP", reader.getFinishReason());
+  }
+
+  @Test
+  public void nextText_skipsMalformedEventAndKeepsStreaming() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: {\"candidates\":[{\"content\":\n\n"
+                + "data: [DONE]\n\n"
+                + "data: "
+                + textEvent("after")
+                + "\n\n");
+
+    assertEquals("after", reader.nextText());
+    assertNull(reader.nextText());
+    assertEquals(1, reader.getSkippedEventCount());
+  }
+
+  @Test
+  public void nextText_decodesMultiByteUtf8() throws Exception {
+    GeminiSseReader reader = readerOf("data: " + textEvent("안녕하세요 😀 \\u00e9") + "\n\n");
+
+    assertEquals("안녕하세요 😀 é", reader.nextText());
+  }
+
+  @Test
+  public void nextInlineData_decodesAudioPartsInOrderAndSkipsBadPayloads() throws Exception {
+    GeminiSseReader reader =
+        readerOf(
+            "data: "
+                + audioEvent("AAE=")
+                + "\n\n"
+                + "data: "
+                + audioEvent("not base64!")
+                + "\n\n"
+                + "data: {\"candidates\":[{\"content\":{\"parts\":["
+                + "{\"inlineData\":{\"mimeType\":\"audio/L16;rate=24000\",\"data\":\"AgM=\"}},"
+                + "{\"inlineData\":{\"mimeType\":\"audio/L16;rate=24000\",\"data\":\"BAU=\"}}"
+                + "]}}],\"usageMetadata\":{\"candidatesTokenCount\":7}}\n\n");
+
+    GeminiSseReader.InlineData first = reader.nextInlineData();
+    assertEquals("audio/L16;rate=24000", first.getMimeType());
+    assertArrayEquals(new byte[] {0, 1}, first.getData());
+    assertArrayEquals(new byte[] {2, 3}, reader.nextInlineData().getData());
+    assertArrayEquals(new byte[] {4, 5}, reader.nextInlineData().getData());
+    assertNull(reader.nextInlineData());
+    assertEquals(1, reader.getSkippedEventCount());
+    assertEquals(7, reader.getCandidatesTokenCount());
+  }
+
+  private static GeminiSseReader readerOf(String body) {
+    return new GeminiSseReader(new Buffer().writeUtf8(body));
+  }
+
+  private static String textEvent(String escapedText) {
+    return "{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":\""
+        + escapedText
+        + "\"}]}}]}";
+  }
+
+  private static String audioEvent(String base64) {
+    return "{\"candidates\":[{\"content\":{\"parts\":[{\"inlineData\":"
+        + "{\"mimeType\":\"audio/L16;rate=24000\",\"data\":\""
+        + base64
+        + "\"}}]}}]}";
+  }
+}
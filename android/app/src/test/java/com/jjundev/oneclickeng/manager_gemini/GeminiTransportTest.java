@@ -0,0 +1,52 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.Test;
+
+public class GeminiTransportTest {
+
+  @Test
+  public void getInstance_returnsSameTransport() {
+    assertSame(GeminiTransport.getInstance(), GeminiTransport.getInstance());
+  }
+
+  @Test
+  public void clients_shareDispatcherAndConnectionPool() {
+    GeminiTransport transport = GeminiTransport.getInstance();
+    OkHttpClient client = transport.client();
+    OkHttpClient streamingClient = transport.streamingClient();
+
+    assertSame(client.dispatcher(), streamingClient.dispatcher());
+    assertSame(client.connectionPool(), streamingClient.connectionPool());
+  }
+
+  @Test
+  public void client_prefersHttp2() {
+    OkHttpClient client = GeminiTransport.getInstance().client();
+
+    assertEquals(Protocol.HTTP_2, client.protocols().get(0));
+    assertTrue(client.protocols().contains(Protocol.HTTP_1_1));
+  }
+
+  @Test
+  public void streamingClient_hasNoReadTimeout() {
+    OkHttpClient streamingClient = GeminiTransport.getInstance().streamingClient();
+
+    assertEquals(0, streamingClient.readTimeoutMillis());
+  }
+
+  @Test
+  public void webSocketClient_pingsAndSharesConnectionPool() {
+    GeminiTransport transport = GeminiTransport.getInstance();
+    OkHttpClient webSocketClient = transport.webSocketClient();
+
+    assertSame(transport.client().connectionPool(), webSocketClient.connectionPool());
+    assertEquals(0, webSocketClient.readTimeoutMillis());
+    assertTrue(webSocketClient.pingIntervalMillis() > 0);
+  }
+}
@@ -0,0 +1,115 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GeminiTtsAudioCacheTest {
+  private static final int HEADER_BYTES = 8;
+
+  private final AtomicLong nowMs = new AtomicLong();
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    nowMs.set(1_000_000L);
+    directory = Files.createTempDirectory("gemini-tts-audio").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  @Test
+  public void get_returnsStoredPcmAndSampleRate() {
+    GeminiTtsAudioCache cache = newCache(1_000L);
+    cache.put("a", new byte[] {1, 2, 3, 4}, 24000);
+
+    GeminiTtsAudio audio = cache.get("a");
+
+    assertNotNull(audio);
+    assertArrayEquals(new byte[] {1, 2, 3, 4}, audio.getPcmData());
+    assertEquals(24000, audio.getSampleRateHz());
+    assertEquals("audio/L16;rate=24000", audio.getMimeType());
+    assertNull(cache.get("b"));
+    assertEquals(HEADER_BYTES + 4L, new File(directory, "a").length());
+  }
+
+  @Test
+  public void put_evictsLeastRecentlyUsedOverLimit() {
+    GeminiTtsAudioCache cache = newCache(3 * (HEADER_BYTES + 10L));
+    cache.put("a", new byte[10], 24000);
+    cache.put("b", new byte[10], 24000);
+    cache.put("c", new byte[10], 24000);
+    cache.get("a");
+
+    cache.put("d", new byte[10], 24000);
+
+    assertNull(cache.get("b"));
+    assertNotNull(cache.get("a"));
+    assertEquals(3, cache.getStats().getEntryCount());
+    assertFalse(new File(directory, "b").exists());
+  }
+
+  @Test
+  public void reload_readsEntriesWrittenByPreviousInstance() {
+    newCache(1_000L).put("a", new byte[] {9, 8}, 16000);
+
+    GeminiTtsAudio audio = newCache(1_000L).get("a");
+
+    assertNotNull(audio);
+    assertArrayEquals(new byte[] {9, 8}, audio.getPcmData());
+    assertEquals(16000, audio.getSampleRateHz());
+  }
+
+  @Test
+  public void get_dropsEntryWithUnknownHeader() throws IOException {
+    byte[] unknown = {0, 0, 0, 0, 0, 0, 0x5d, (byte) 0xc0, 1};
+    Files.write(new File(directory, "a").toPath(), unknown);
+    GeminiTtsAudioCache cache = newCache(1_000L);
+
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.getStats().getEntryCount());
+    assertFalse(new File(directory, "a").exists());
+  }
+
+  @Test
+  public void getStats_countsHitsAndMisses() {
+    GeminiTtsAudioCache cache = newCache(1_000L);
+    cache.put("a", new byte[4], 24000);
+    cache.get("a");
+    cache.get("a");
+    cache.get("a");
+    cache.get("b");
+
+    GeminiTtsAudioCache.Stats stats = cache.getStats();
+
+    assertEquals(3L, stats.getHits());
+    assertEquals(1L, stats.getMisses());
+    assertEquals(0.75f, stats.getHitRate(), 0.0001f);
+    assertEquals(1, stats.getEntryCount());
+    assertEquals(HEADER_BYTES + 4L, stats.getSizeBytes());
+  }
+
+  private GeminiTtsAudioCache newCache(long maxBytes) {
+    return new GeminiTtsAudioCache(directory, maxBytes, nowMs::get);
+  }
+}
@@ -2,9 +2,26 @@ package com.jjundev.oneclickeng.manager_gemini;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
 
+import androidx.annotation.NonNull;
 import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.GeminiTtsAudio;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IGeminiTtsManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.junit.Test;
 
 public class GeminiTtsManagerTest {
@@ -63,4 +80,127 @@ public class GeminiTtsManagerTest {
     assertThrows(
         IllegalStateException.class, () -> GeminiTtsManager.parseAudioFromResponseBody(body));
   }
+
+  @Test
+  public void buildAudioCacheKey_collapsesWhitespaceAndRoundsRateLikeThePrompt() {
+    String text = "Nice to meet you.";
+    String key = GeminiTtsManager.buildAudioCacheKey(text, "en-US", 1f, "Kore");
+    String spaced = " Nice to  meet\tyou. ";
+
+    assertEquals(key, GeminiTtsManager.buildAudioCacheKey(spaced, null, 1f, "Kore"));
+    assertEquals(key, GeminiTtsManager.buildAudioCacheKey(text, "en-US", 1.001f, "Kore"));
+    assertNotEquals(key, GeminiTtsManager.buildAudioCacheKey(text, "en-GB", 1f, "Kore"));
+    assertNotEquals(key, GeminiTtsManager.buildAudioCacheKey(text, "en-US", 1.1f, "Kore"));
+    assertNotEquals(key, GeminiTtsManager.buildAudioCacheKey(text, "en-US", 1f, "Puck"));
+  }
+
+  @Test
+  public void synthesizeStream_deliversChunksInOrderThenCompletes() throws Exception {
+    GeminiTtsManager manager = managerServing(audioEvent(1, 2) + audioEvent(3) + audioEvent(4, 5));
+    RecordingCallback callback = new RecordingCallback();
+
+    manager.synthesizeStream("Hello there.", "en-US", 1f, null, callback);
+
+    assertTrue(callback.awaitEnd());
+    assertEquals(
+        Arrays.asList("chunk 1,2 @16000", "chunk 3 @16000", "chunk 4,5 @16000", "complete"),
+        callback.events);
+  }
+
+  @Test
+  public void synthesizeStream_stopsDeliveringOnceCancelled() throws Exception {
+    GeminiTtsManager manager = managerServing(audioEvent(1) + audioEvent(2) + audioEvent(3));
+    RecordingCallback cancelled = new RecordingCallback();
+    CountDownLatch firstChunk = new CountDownLatch(1);
+    cancelled.onChunk =
+        chunk -> {
+          manager.cancelActiveRequest();
+          firstChunk.countDown();
+        };
+
+    manager.synthesizeStream("First line.", "en-US", 1f, null, cancelled);
+    assertTrue(firstChunk.await(5, TimeUnit.SECONDS));
+    // A later request runs after the cancel; once it ends, the first has had its chance to leak.
+    RecordingCallback next = new RecordingCallback();
+    manager.synthesizeStream("Second line.", "en-US", 1f, null, next);
+
+    assertTrue(next.awaitEnd());
+    assertEquals(Collections.singletonList("chunk 1 @16000"), cancelled.events);
+  }
+
+  @Test
+  public void synthesizeStream_reportsMissingInlineDataAudio() throws Exception {
+    GeminiTtsManager manager =
+        managerServing(
+            "data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"no audio\"}]}}]}\n\n");
+    RecordingCallback callback = new RecordingCallback();
+
+    manager.synthesizeStream("Hello there.", "en-US", 1f, null, callback);
+
+    assertTrue(callback.awaitEnd());
+    assertEquals(Collections.singletonList("error Missing inlineData audio"), callback.events);
+  }
+
+  /**
+   * Manager whose requests are answered with {@code sseBody} without touching the network.
+   * Callbacks run on the request thread, so each test sees them in a fixed order.
+   */
+  private static GeminiTtsManager managerServing(String sseBody) {
+    OkHttpClient client =
+        new OkHttpClient.Builder()
+            .addInterceptor(
+                chain ->
+                    new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create(sseBody, MediaType.get("text/event-stream")))
+                        .build())
+            .build();
+    return new GeminiTtsManager("test-key", null, client, client, Runnable::run, Runnable::run);
+  }
+
+  private static String audioEvent(int... samples) {
+    byte[] pcm = new byte[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      pcm[i] = (byte) samples[i];
+    }
+    return "data: {\"candidates\":[{\"content\":{\"parts\":[{\"inlineData\":"
+        + "{\"mimeType\":\"audio/L16;rate=16000\",\"data\":\""
+        + Base64.getEncoder().encodeToString(pcm)
+        + "\"}}]}}]}\n\n";
+  }
+
+  private static final class RecordingCallback implements IGeminiTtsManager.StreamCallback {
+    private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch ended = new CountDownLatch(1);
+    private Consumer<byte[]> onChunk = chunk -> {};
+
+    @Override
+    public void onAudioChunk(@NonNull byte[] pcmData, int sampleRateHz) {
+      StringBuilder samples = new StringBuilder();
+      for (byte sample : pcmData) {
+        samples.append(samples.length() == 0 ? "" : ",").append(sample);
+      }
+      events.add("chunk " + samples + " @" + sampleRateHz);
+      onChunk.accept(pcmData);
+    }
+
+    @Override
+    public void onComplete() {
+      events.add("complete");
+      ended.countDown();
+    }
+
+    @Override
+    public void onError(@NonNull String errorMessage) {
+      events.add("error " + errorMessage);
+      ended.countDown();
+    }
+
+    boolean awaitEnd() throws InterruptedException {
+      return ended.await(5, TimeUnit.SECONDS);
+    }
+  }
 }
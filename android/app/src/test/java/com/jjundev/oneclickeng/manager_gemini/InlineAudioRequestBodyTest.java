@@ -0,0 +1,119 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import okio.Buffer;
+import org.junit.Test;
+
+public class InlineAudioRequestBodyTest {
+
+  @Test
+  public void writeTo_streamsEnvelopeWithBase64Wav() throws IOException {
+    // Spans several encoding blocks and ends on a partial one.
+    byte[] pcm = new byte[10_001];
+    for (int i = 0; i < pcm.length; i++) {
+      pcm[i] = (byte) (i * 31);
+    }
+    InlineAudioRequestBody body = new InlineAudioRequestBody(envelope(), pcm);
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+    byte[] written = sink.readByteArray();
+
+    assertEquals(body.contentLength(), written.length);
+    JsonObject root =
+        JsonParser.parseString(new String(written, StandardCharsets.UTF_8)).getAsJsonObject();
+    JsonArray parts =
+        root.getAsJsonArray("contents").get(0).getAsJsonObject().getAsJsonArray("parts");
+    JsonObject inlineData = parts.get(0).getAsJsonObject().getAsJsonObject("inlineData");
+    assertEquals(InlineAudioRequestBody.WAV_MIME_TYPE, inlineData.get("mimeType").getAsString());
+    assertEquals("Analyze", parts.get(1).getAsJsonObject().get("text").getAsString());
+
+    byte[] wav = Base64.getDecoder().decode(inlineData.get("data").getAsString());
+    ByteBuffer header =
+        ByteBuffer.wrap(wav, 0, InlineAudioRequestBody.WAV_HEADER_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals("RIFF", new String(wav, 0, 4, StandardCharsets.US_ASCII));
+    assertEquals(36 + pcm.length, header.getInt(4));
+    assertEquals(16000, header.getInt(24));
+    assertEquals(pcm.length, header.getInt(40));
+    assertArrayEquals(
+        pcm, Arrays.copyOfRange(wav, InlineAudioRequestBody.WAV_HEADER_BYTES, wav.length));
+  }
+
+  @Test
+  public void writeTo_canBeRepeatedForRetries() throws IOException {
+    InlineAudioRequestBody body = new InlineAudioRequestBody(envelope(), new byte[] {1, 2, 3, 4});
+
+    Buffer first = new Buffer();
+    body.writeTo(first);
+    Buffer second = new Buffer();
+    body.writeTo(second);
+
+    assertArrayEquals(first.readByteArray(), second.readByteArray());
+  }
+
+  @Test
+  public void flac_streamsEncodedFileUnchanged() throws IOException {
+    byte[] flac = new byte[5_000];
+    for (int i = 0; i < flac.length; i++) {
+      flac[i] = (byte) (i * 7);
+    }
+    InlineAudioRequestBody body =
+        InlineAudioRequestBody.flac(
+            envelope(InlineAudioRequestBody.inlineAudioPart(InlineAudioRequestBody.FLAC_MIME_TYPE)),
+            flac);
+
+    Buffer sink = new Buffer();
+    body.writeTo(sink);
+    byte[] written = sink.readByteArray();
+
+    assertEquals(body.contentLength(), written.length);
+    JsonObject inlineData =
+        JsonParser.parseString(new String(written, StandardCharsets.UTF_8))
+            .getAsJsonObject()
+            .getAsJsonArray("contents")
+            .get(0)
+            .getAsJsonObject()
+            .getAsJsonArray("parts")
+            .get(0)
+            .getAsJsonObject()
+            .getAsJsonObject("inlineData");
+    assertEquals(InlineAudioRequestBody.FLAC_MIME_TYPE, inlineData.get("mimeType").getAsString());
+    assertArrayEquals(flac, Base64.getDecoder().decode(inlineData.get("data").getAsString()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_rejectsEnvelopeWithoutAudioPart() {
+    new InlineAudioRequestBody("{\"contents\":[]}", new byte[] {1});
+  }
+
+  private static String envelope() {
+    return envelope(InlineAudioRequestBody.inlineWavPart());
+  }
+
+  private static String envelope(JsonObject audioPart) {
+    JsonObject textPart = new JsonObject();
+    textPart.addProperty("text", "Analyze");
+    JsonArray parts = new JsonArray();
+    parts.add(audioPart);
+    parts.add(textPart);
+    JsonObject content = new JsonObject();
+    content.add("parts", parts);
+    JsonArray contents = new JsonArray();
+    contents.add(content);
+    JsonObject root = new JsonObject();
+    root.add("contents", contents);
+    return root.toString();
+  }
+}
@@ -0,0 +1,234 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IDialogueGenerateManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
+import com.jjundev.oneclickeng.tool.StreamingJsonBinder;
+import com.jjundev.oneclickeng.tool.StreamingJsonExtractor;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares binding streamed objects straight from the token stream with the previous approach of
+ * slicing each object out as text and parsing it again into a {@code JsonObject}. Both paths must
+ * produce the same models, and binding must allocate less per object.
+ *
+ * <p>Opt-in, since allocation counts depend on the JVM: run with {@code ./gradlew
+ * testDebugUnitTest -Pbenchmark}. Skipped where per-thread allocation counting is unavailable.
+ */
+public class StreamingBindingBenchmarkTest {
+  private static final String BENCHMARK_PROPERTY = "oneclickeng.benchmark";
+  private static final int OBJECT_COUNT = 200;
+  private static final int CHUNK_SIZE = 24;
+  private static final int ROUNDS = 30;
+
+  @Before
+  public void requireBenchmarkRun() {
+    assumeTrue(Boolean.getBoolean(BENCHMARK_PROPERTY));
+    assumeTrue(allocatedBytes() >= 0L);
+  }
+
+  @Test
+  public void scriptTurns_bindingMatchesSliceAndReparse() throws IOException {
+    List<String> chunks = chunk(buildScript());
+
+    List<String> sliced = turnsToText(sliceTurns(chunks));
+    List<String> bound = turnsToText(bindTurns(chunks));
+    assertEquals(OBJECT_COUNT, bound.size());
+    assertEquals(sliced, bound);
+
+    assertBindAllocatesLess(() -> sliceTurns(chunks), () -> bindTurns(chunks));
+  }
+
+  @Test
+  public void quizQuestions_bindingMatchesSliceAndReparse() throws IOException {
+    List<String> chunks = chunk(buildQuiz());
+
+    List<String> sliced = questionsToText(sliceQuestions(chunks));
+    List<String> bound = questionsToText(bindQuestions(chunks));
+    assertEquals(OBJECT_COUNT, bound.size());
+    assertEquals(sliced, bound);
+
+    assertBindAllocatesLess(() -> sliceQuestions(chunks), () -> bindQuestions(chunks));
+  }
+
+  private static List<IDialogueGenerateManager.ScriptTurnChunk> sliceTurns(List<String> chunks) {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("script[]");
+    List<IDialogueGenerateManager.ScriptTurnChunk> turns = new ArrayList<>();
+    for (String chunk : chunks) {
+      for (StreamingJsonExtractor.Event event : extractor.addChunk(chunk)) {
+        JsonObject item = JsonParser.parseString(event.getJson()).getAsJsonObject();
+        String role = text(item, "role");
+        turns.add(
+            new IDialogueGenerateManager.ScriptTurnChunk(
+                text(item, "ko"),
+                text(item, "en"),
+                role != null ? role : (event.getIndex() % 2 == 0 ? "model" : "user")));
+      }
+    }
+    return turns;
+  }
+
+  private static List<IDialogueGenerateManager.ScriptTurnChunk> bindTurns(List<String> chunks)
+      throws IOException {
+    List<IDialogueGenerateManager.ScriptTurnChunk> turns = new ArrayList<>();
+    new StreamingJsonBinder()
+        .on(
+            "script[]",
+            (reader, index) -> turns.add(DialogueGenerateManager.readTurn(reader, index)))
+        .bind(new StringReader(String.join("", chunks)));
+    return turns;
+  }
+
+  private static List<QuizData.QuizQuestion> sliceQuestions(List<String> chunks) {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("questions[]");
+    List<QuizData.QuizQuestion> questions = new ArrayList<>();
+    for (String chunk : chunks) {
+      for (StreamingJsonExtractor.Event event : extractor.addChunk(chunk)) {
+        JsonObject item = JsonParser.parseString(event.getJson()).getAsJsonObject();
+        List<String> choices = new ArrayList<>();
+        for (JsonElement choice : item.getAsJsonArray("choices")) {
+          choices.add(choice.getAsString().trim());
+        }
+        questions.add(
+            new QuizData.QuizQuestion(
+                text(item, "question_main"),
+                text(item, "question_material"),
+                text(item, "answer"),
+                choices,
+                text(item, "explanation")));
+      }
+    }
+    return questions;
+  }
+
+  private static List<QuizData.QuizQuestion> bindQuestions(List<String> chunks)
+      throws IOException {
+    List<QuizData.QuizQuestion> questions = new ArrayList<>();
+    new StreamingJsonBinder()
+        .on(
+            "questions[]",
+            (reader, index) -> questions.add(QuizGenerateManager.readQuestion(reader)))
+        .bind(new StringReader(String.join("", chunks)));
+    return questions;
+  }
+
+  private interface Parse {
+    List<?> run() throws IOException;
+  }
+
+  private static void assertBindAllocatesLess(Parse slice, Parse bind) throws IOException {
+    for (int i = 0; i < ROUNDS; i++) {
+      slice.run();
+      bind.run();
+    }
+    long sliceBytes = bytesPerObject(slice);
+    long bindBytes = bytesPerObject(bind);
+    assertTrue(
+        "bind " + bindBytes + " B/obj, slice+reparse " + sliceBytes + " B/obj",
+        bindBytes < sliceBytes);
+  }
+
+  /** Bytes allocated on this thread per object, averaged over all rounds. */
+  private static long bytesPerObject(Parse parse) throws IOException {
+    long start = allocatedBytes();
+    for (int i = 0; i < ROUNDS; i++) {
+      parse.run();
+    }
+    return (allocatedBytes() - start) / ((long) ROUNDS * OBJECT_COUNT);
+  }
+
+  /** Returns -1 when the JVM cannot count allocations per thread. */
+  private static long allocatedBytes() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+      if (allocationBean.isThreadAllocatedMemorySupported()
+          && allocationBean.isThreadAllocatedMemoryEnabled()) {
+        return allocationBean.getCurrentThreadAllocatedBytes();
+      }
+    }
+    return -1L;
+  }
+
+  private static String text(JsonObject item, String key) {
+    JsonElement value = item.get(key);
+    return value == null || value.isJsonNull() ? null : value.getAsString().trim();
+  }
+
+  private static List<String> chunk(String json) {
+    List<String> chunks = new ArrayList<>();
+    for (int i = 0; i < json.length(); i += CHUNK_SIZE) {
+      chunks.add(json.substring(i, Math.min(json.length(), i + CHUNK_SIZE)));
+    }
+    return chunks;
+  }
+
+  private static String buildScript() {
+    StringBuilder json = new StringBuilder("{\"topic\":\"Ordering coffee\",\"script\":[");
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"ko\":\"커피 한 잔 주세요 ")
+          .append(i)
+          .append("\",\"en\":\"Could I get a coffee, please? ")
+          .append(i)
+          .append("\",\"role\":\"")
+          .append(i % 2 == 0 ? "model" : "user")
+          .append("\"}");
+    }
+    return json.append("]}").toString();
+  }
+
+  private static String buildQuiz() {
+    StringBuilder json = new StringBuilder("{\"questions\":[");
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"question_main\":\"Choose the natural phrase ")
+          .append(i)
+          .append("\",\"question_material\":\"I ___ to the store yesterday.\",")
+          .append("\"choices\":[\"go\",\"went\",\"gone\",\"going\"],")
+          .append("\"answer\":\"went\",\"explanation\":\"Past tense for yesterday.\"}");
+    }
+    return json.append("]}").toString();
+  }
+
+  private static List<String> turnsToText(List<IDialogueGenerateManager.ScriptTurnChunk> turns) {
+    List<String> text = new ArrayList<>();
+    for (IDialogueGenerateManager.ScriptTurnChunk turn : turns) {
+      text.add(turn.getRole() + "|" + turn.getKorean() + "|" + turn.getEnglish());
+    }
+    return text;
+  }
+
+  private static List<String> questionsToText(List<QuizData.QuizQuestion> questions) {
+    List<String> text = new ArrayList<>();
+    for (QuizData.QuizQuestion question : questions) {
+      text.add(
+          question.getQuestionMain()
+              + "|"
+              + question.getQuestionMaterial()
+              + "|"
+              + question.getChoices()
+              + "|"
+              + question.getAnswer()
+              + "|"
+              + question.getExplanation());
+    }
+    return text;
+  }
+}
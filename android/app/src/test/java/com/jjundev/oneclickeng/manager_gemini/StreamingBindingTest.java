@@ -0,0 +1,253 @@
+package com.jjundev.oneclickeng.manager_gemini;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.jjundev.oneclickeng.learning.dialoguelearning.manager_contracts.IDialogueGenerateManager;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.QuizData;
+import com.jjundev.oneclickeng.tool.StreamingJsonBinder;
+import com.jjundev.oneclickeng.tool.StreamingJsonExtractor;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Feeds streamed script and quiz JSON to the managers' binders one chunk at a time. Every object
+ * must be bound as soon as the chunk holding its closing brace arrives, and must equal the model
+ * built by slicing the object out and parsing it again.
+ */
+public class StreamingBindingTest {
+  private static final int OBJECT_COUNT = 40;
+  private static final int CHUNK_SIZE = 24;
+
+  @Test
+  public void scriptTurns_areBoundAsTheirLastChunkArrives() throws IOException {
+    List<Integer> closingOffsets = new ArrayList<>();
+    List<String> chunks = chunk(buildScript(closingOffsets));
+    ChunkedReader source = new ChunkedReader(chunks);
+    List<IDialogueGenerateManager.ScriptTurnChunk> turns = new ArrayList<>();
+    List<Integer> chunksReadAtBind = new ArrayList<>();
+
+    boolean complete =
+        new StreamingJsonBinder()
+            .on(
+                "script[]",
+                (reader, index) -> {
+                  turns.add(DialogueGenerateManager.readTurn(reader, index));
+                  chunksReadAtBind.add(source.chunksRead);
+                })
+            .bind(source);
+
+    assertTrue(complete);
+    assertEquals(chunksNeededFor(closingOffsets), chunksReadAtBind);
+    assertEquals(turnsToText(sliceTurns(chunks)), turnsToText(turns));
+  }
+
+  @Test
+  public void quizQuestions_areBoundAsTheirLastChunkArrives() throws IOException {
+    List<Integer> closingOffsets = new ArrayList<>();
+    List<String> chunks = chunk(buildQuiz(closingOffsets));
+    ChunkedReader source = new ChunkedReader(chunks);
+    List<QuizData.QuizQuestion> questions = new ArrayList<>();
+    List<Integer> chunksReadAtBind = new ArrayList<>();
+
+    boolean complete =
+        new StreamingJsonBinder()
+            .on(
+                "questions[]",
+                (reader, index) -> {
+                  questions.add(QuizGenerateManager.readQuestion(reader));
+                  chunksReadAtBind.add(source.chunksRead);
+                })
+            .bind(source);
+
+    assertTrue(complete);
+    assertEquals(chunksNeededFor(closingOffsets), chunksReadAtBind);
+    assertEquals(questionsToText(sliceQuestions(chunks)), questionsToText(questions));
+  }
+
+  @Test
+  public void truncatedStream_keepsTheObjectsCompletedSoFar() throws IOException {
+    List<Integer> closingOffsets = new ArrayList<>();
+    String json = buildScript(closingOffsets);
+    String cut = json.substring(0, closingOffsets.get(2) + 5);
+    List<IDialogueGenerateManager.ScriptTurnChunk> turns = new ArrayList<>();
+
+    boolean complete =
+        new StreamingJsonBinder()
+            .on(
+                "script[]",
+                (reader, index) -> turns.add(DialogueGenerateManager.readTurn(reader, index)))
+            .bind(new ChunkedReader(chunk(cut)));
+
+    assertEquals(false, complete);
+    assertEquals(3, turns.size());
+    assertEquals("user", turns.get(1).getRole());
+  }
+
+  /** Hands out at most one chunk per read, like {@link SseTextReader} does for SSE events. */
+  private static final class ChunkedReader extends Reader {
+    private final List<String> chunks;
+    private int chunksRead;
+    private int position;
+
+    ChunkedReader(List<String> chunks) {
+      this.chunks = chunks;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (chunksRead > 0 && position < chunks.get(chunksRead - 1).length()) {
+        return copy(chunks.get(chunksRead - 1), buffer, offset, length);
+      }
+      if (chunksRead >= chunks.size()) {
+        return -1;
+      }
+      chunksRead++;
+      position = 0;
+      return copy(chunks.get(chunksRead - 1), buffer, offset, length);
+    }
+
+    private int copy(String chunk, char[] buffer, int offset, int length) {
+      int count = Math.min(length, chunk.length() - position);
+      chunk.getChars(position, position + count, buffer, offset);
+      position += count;
+      return count;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  private static List<Integer> chunksNeededFor(List<Integer> closingOffsets) {
+    List<Integer> needed = new ArrayList<>();
+    for (int offset : closingOffsets) {
+      needed.add(offset / CHUNK_SIZE + 1);
+    }
+    return needed;
+  }
+
+  private static List<IDialogueGenerateManager.ScriptTurnChunk> sliceTurns(List<String> chunks) {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("script[]");
+    List<IDialogueGenerateManager.ScriptTurnChunk> turns = new ArrayList<>();
+    for (String chunk : chunks) {
+      for (StreamingJsonExtractor.Event event : extractor.addChunk(chunk)) {
+        JsonObject item = JsonParser.parseString(event.getJson()).getAsJsonObject();
+        String role = text(item, "role");
+        turns.add(
+            new IDialogueGenerateManager.ScriptTurnChunk(
+                text(item, "ko"),
+                text(item, "en"),
+                role != null ? role : (event.getIndex() % 2 == 0 ? "model" : "user")));
+      }
+    }
+    return turns;
+  }
+
+  private static List<QuizData.QuizQuestion> sliceQuestions(List<String> chunks) {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("questions[]");
+    List<QuizData.QuizQuestion> questions = new ArrayList<>();
+    for (String chunk : chunks) {
+      for (StreamingJsonExtractor.Event event : extractor.addChunk(chunk)) {
+        JsonObject item = JsonParser.parseString(event.getJson()).getAsJsonObject();
+        List<String> choices = new ArrayList<>();
+        for (JsonElement choice : item.getAsJsonArray("choices")) {
+          choices.add(choice.getAsString().trim());
+        }
+        questions.add(
+            new QuizData.QuizQuestion(
+                text(item, "question_main"),
+                text(item, "question_material"),
+                text(item, "answer"),
+                choices,
+                text(item, "explanation")));
+      }
+    }
+    return questions;
+  }
+
+  private static String text(JsonObject item, String key) {
+    JsonElement value = item.get(key);
+    return value == null || value.isJsonNull() ? null : value.getAsString().trim();
+  }
+
+  private static List<String> chunk(String json) {
+    List<String> chunks = new ArrayList<>();
+    for (int i = 0; i < json.length(); i += CHUNK_SIZE) {
+      chunks.add(json.substring(i, Math.min(json.length(), i + CHUNK_SIZE)));
+    }
+    return chunks;
+  }
+
+  /** @param closingOffsets receives the offset of each turn's closing brace */
+  private static String buildScript(List<Integer> closingOffsets) {
+    StringBuilder json = new StringBuilder("{\"topic\":\"Ordering coffee\",\"script\":[");
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"ko\":\"커피 한 잔 주세요 ")
+          .append(i)
+          .append("\",\"en\":\"Could I get a coffee, please? ")
+          .append(i)
+          .append('"');
+      // Every third turn leaves the role out so the index-based default is exercised.
+      if (i % 3 != 0) {
+        json.append(",\"role\":\"").append(i % 2 == 0 ? "model" : "user").append('"');
+      }
+      json.append('}');
+      closingOffsets.add(json.length() - 1);
+    }
+    return json.append("]}").toString();
+  }
+
+  /** @param closingOffsets receives the offset of each question's closing brace */
+  private static String buildQuiz(List<Integer> closingOffsets) {
+    StringBuilder json = new StringBuilder("```json\n{\"questions\":[");
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"question_main\":\"Choose the natural phrase ")
+          .append(i)
+          .append("\",\"question_material\":\"I ___ to the store {yesterday}.\",")
+          .append("\"choices\":[\" go\",\"went\",\"gone\",\"going\"],")
+          .append("\"answer\":\"went\",\"explanation\":\"Past tense for \\\"yesterday\\\".\"}");
+      closingOffsets.add(json.length() - 1);
+    }
+    return json.append("]}\n```").toString();
+  }
+
+  private static List<String> turnsToText(List<IDialogueGenerateManager.ScriptTurnChunk> turns) {
+    List<String> text = new ArrayList<>();
+    for (IDialogueGenerateManager.ScriptTurnChunk turn : turns) {
+      text.add(turn.getRole() + "|" + turn.getKorean() + "|" + turn.getEnglish());
+    }
+    return text;
+  }
+
+  private static List<String> questionsToText(List<QuizData.QuizQuestion> questions) {
+    List<String> text = new ArrayList<>();
+    for (QuizData.QuizQuestion question : questions) {
+      text.add(
+          question.getQuestionMain()
+              + "|"
+              + question.getQuestionMaterial()
+              + "|"
+              + question.getChoices()
+              + "|"
+              + question.getAnswer()
+              + "|"
+              + question.getExplanation());
+    }
+    return text;
+  }
+}
@@ -0,0 +1,88 @@
+package com.jjundev.oneclickeng.others;
+
+import static org.junit.Assert.assertEquals;
+
+import android.widget.TextView;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.LooperMode;
+import org.robolectric.shadows.ShadowLooper;
+
+@RunWith(RobolectricTestRunner.class)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class PrecomputedSpanRendererTest {
+  private final List<Runnable> tasks = new ArrayList<>();
+  private final Executor queuedExecutor = tasks::add;
+
+  private PrecomputedSpanRenderer renderer;
+  private TextView target;
+
+  @Before
+  public void setUp() {
+    renderer = new PrecomputedSpanRenderer(queuedExecutor, 8);
+    target = new TextView(RuntimeEnvironment.getApplication());
+  }
+
+  @Test
+  public void render_clearsTheOldTextUntilTheNewResultArrives() {
+    target.setText("previous feedback");
+
+    renderer.render(target, "next", () -> "next feedback");
+
+    assertEquals("", target.getText().toString());
+    finishRendering();
+    assertEquals("next feedback", target.getText().toString());
+  }
+
+  @Test
+  public void render_appliesOnlyTheLatestRequestForAView() {
+    renderer.render(target, "first", () -> "first feedback");
+    renderer.render(target, "second", () -> "second feedback");
+
+    finishRendering();
+
+    assertEquals("second feedback", target.getText().toString());
+  }
+
+  @Test
+  public void render_doesNotRebuildAKeyThatIsStillPending() {
+    int[] builds = new int[1];
+    PrecomputedSpanRenderer.SpanBuilder builder =
+        () -> {
+          builds[0]++;
+          return "feedback";
+        };
+
+    renderer.render(target, "same", builder);
+    renderer.render(target, "same", builder);
+
+    assertEquals(1, tasks.size());
+    finishRendering();
+    assertEquals("feedback", target.getText().toString());
+  }
+
+  @Test
+  public void cancelPending_keepsTheViewFromReceivingTheResult() {
+    renderer.render(target, "dropped", () -> "dropped feedback");
+
+    renderer.cancelPending();
+    finishRendering();
+
+    assertEquals("", target.getText().toString());
+  }
+
+  private void finishRendering() {
+    List<Runnable> queued = new ArrayList<>(tasks);
+    tasks.clear();
+    for (Runnable task : queued) {
+      task.run();
+    }
+    ShadowLooper.shadowMainLooper().idle();
+  }
+}
@@ -0,0 +1,78 @@
+package com.jjundev.oneclickeng.others;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.ReasonItem;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.StyledSentence;
+import com.jjundev.oneclickeng.learning.dialoguelearning.model.TextSegment;
+import java.util.Arrays;
+import org.junit.Test;
+
+public class SentenceFeedbackBinderKeyTest {
+
+  @Test
+  public void styledSentenceKey_isStableForEqualContent() {
+    assertEquals(
+        keyOf(segment("I ", TextSegment.TYPE_NORMAL), segment("go", TextSegment.TYPE_INCORRECT)),
+        keyOf(segment("I ", TextSegment.TYPE_NORMAL), segment("go", TextSegment.TYPE_INCORRECT)));
+  }
+
+  @Test
+  public void styledSentenceKey_changesWithSegmentTypeOrBoundaries() {
+    String key =
+        keyOf(segment("I ", TextSegment.TYPE_NORMAL), segment("went", TextSegment.TYPE_HIGHLIGHT));
+
+    // Same text, different styling.
+    assertNotEquals(
+        key,
+        keyOf(
+            segment("I ", TextSegment.TYPE_NORMAL), segment("went", TextSegment.TYPE_CORRECTION)));
+    // Same text and types, split at a different place.
+    assertNotEquals(
+        key,
+        keyOf(segment("I w", TextSegment.TYPE_NORMAL), segment("ent", TextSegment.TYPE_HIGHLIGHT)));
+  }
+
+  @Test
+  public void styledSentenceKey_handlesMissingSegments() {
+    assertEquals("styled", SentenceFeedbackBinder.styledSentenceKey(new StyledSentence()));
+  }
+
+  @Test
+  public void reasonKey_keepsKeywordAndDescriptionApart() {
+    assertEquals(
+        SentenceFeedbackBinder.reasonKey(reason("Tense", "Use the past tense.")),
+        SentenceFeedbackBinder.reasonKey(reason("Tense", "Use the past tense.")));
+    assertNotEquals(
+        SentenceFeedbackBinder.reasonKey(reason("Tense", "Use the past tense.")),
+        SentenceFeedbackBinder.reasonKey(reason("Tense Use", "the past tense.")));
+  }
+
+  @Test
+  public void keys_doNotCollideAcrossSectionKinds() {
+    assertNotEquals(
+        SentenceFeedbackBinder.reasonKey(reason("normal", "text")),
+        keyOf(segment("text", TextSegment.TYPE_NORMAL)));
+  }
+
+  private static String keyOf(TextSegment... segments) {
+    StyledSentence styledSentence = new StyledSentence();
+    styledSentence.setSegments(Arrays.asList(segments));
+    return SentenceFeedbackBinder.styledSentenceKey(styledSentence);
+  }
+
+  private static TextSegment segment(String text, String type) {
+    TextSegment textSegment = new TextSegment();
+    textSegment.setText(text);
+    textSegment.setType(type);
+    return textSegment;
+  }
+
+  private static ReasonItem reason(String keyword, String description) {
+    ReasonItem reason = new ReasonItem();
+    reason.setKeyword(keyword);
+    reason.setDescription(description);
+    return reason;
+  }
+}
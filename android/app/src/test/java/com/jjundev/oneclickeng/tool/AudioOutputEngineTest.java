@@ -0,0 +1,267 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AudioOutputEngineTest {
+  private static final int RATE = AudioOutputEngine.OUTPUT_SAMPLE_RATE_HZ;
+
+  private FakeTrack track;
+  private ManualMainThread mainThread;
+  private AudioOutputEngine engine;
+  private List<String> events;
+
+  @Before
+  public void setUp() {
+    track = new FakeTrack();
+    mainThread = new ManualMainThread();
+    engine = new AudioOutputEngine(() -> track, mainThread, false);
+    events = new ArrayList<>();
+  }
+
+  @Test
+  public void queuedClips_areWrittenBackToBackAndCompleteInOrder() throws Exception {
+    byte[] first = pcm(1, 100);
+    byte[] second = pcm(2, 60);
+    engine.play(first, RATE, listener("first"));
+    engine.play(second, RATE, listener("second"));
+
+    writeAll();
+
+    assertArrayEquals(concat(first, second), track.written.toByteArray());
+    assertEquals(1, track.playCount);
+
+    track.head = 99;
+    engine.pollPosition();
+    assertEquals(List.of(), events);
+
+    track.head = 100;
+    engine.pollPosition();
+    assertEquals(List.of("first:completed"), events);
+
+    track.head = 160;
+    engine.pollPosition();
+    assertEquals(List.of("first:completed", "second:completed"), events);
+  }
+
+  @Test
+  public void clipsWithOtherRates_areResampledToTheOutputRate() throws Exception {
+    engine.play(pcm(3, 160), 16000, listener("recording"));
+
+    writeAll();
+
+    // 160 frames at 16kHz become 239 at 24kHz; the last output would need a following sample.
+    assertEquals(239 * 2, track.written.size());
+  }
+
+  @Test
+  public void streamClipWaitingForData_holdsBackTheClipsBehindIt() throws Exception {
+    AudioOutputEngine.Clip stream = engine.open(RATE, listener("stream"));
+    engine.play(pcm(2, 50), RATE, listener("next"));
+
+    assertFalse(engine.writeNextChunk(false));
+
+    byte[] streamed = pcm(1, 30);
+    assertTrue(stream.write(streamed, 0, streamed.length));
+    writeAll();
+    // The stream is still open, so the next clip must not start yet.
+    assertEquals(30 * 2, track.written.size());
+
+    stream.finish();
+    writeAll();
+
+    assertArrayEquals(concat(streamed, pcm(2, 50)), track.written.toByteArray());
+    assertFalse(stream.write(streamed, 0, streamed.length));
+    track.head = 80;
+    engine.pollPosition();
+    assertEquals(List.of("stream:completed", "next:completed"), events);
+  }
+
+  @Test
+  public void cancellingAWrittenClip_flushesAndRewritesTheUnplayedRest() throws Exception {
+    byte[] first = pcm(1, 100);
+    engine.play(first, RATE, listener("first"));
+    AudioOutputEngine.Clip second = engine.play(pcm(2, 60), RATE, listener("second"));
+    writeAll();
+
+    track.head = 40;
+    second.cancel();
+
+    assertEquals(1, track.flushCount);
+    assertFalse(second.isActive());
+    // The track starts over from frame 0 and gets only the part of the first clip not yet heard.
+    writeAll();
+    assertArrayEquals(Arrays.copyOfRange(first, 40 * 2, first.length), track.written.toByteArray());
+    assertEquals(2, track.playCount);
+
+    track.head = 60;
+    engine.pollPosition();
+    mainThread.runPosted();
+    assertEquals(List.of("first:completed"), events);
+  }
+
+  @Test
+  public void rewindAfterASecondFlush_keepsCountingFromTheEarlierPosition() throws Exception {
+    byte[] first = pcm(1, 100);
+    engine.play(first, RATE, listener("first"));
+    AudioOutputEngine.Clip second = engine.play(pcm(2, 10), RATE, listener("second"));
+    AudioOutputEngine.Clip third = engine.play(pcm(3, 10), RATE, listener("third"));
+    writeAll();
+    track.head = 30;
+    second.cancel();
+    writeAll();
+
+    track.head = 20;
+    third.cancel();
+    writeAll();
+
+    assertArrayEquals(Arrays.copyOfRange(first, 50 * 2, first.length), track.written.toByteArray());
+  }
+
+  @Test
+  public void cancellingAClipNotYetWritten_doesNotFlush() throws Exception {
+    byte[] first = pcm(1, 100);
+    engine.play(first, RATE, listener("first"));
+    AudioOutputEngine.Clip stream = engine.open(RATE, listener("stream"));
+    writeAll();
+
+    stream.cancel();
+
+    assertEquals(0, track.flushCount);
+    track.head = 100;
+    engine.pollPosition();
+    mainThread.runPosted();
+    assertEquals(List.of("first:completed"), events);
+  }
+
+  @Test
+  public void trackWriteError_releasesTheTrackAndFailsQueuedClips() throws Exception {
+    engine.play(pcm(1, 10), RATE, listener("first"));
+    engine.play(pcm(2, 10), RATE, listener("second"));
+    track.writeResult = -6;
+
+    assertTrue(engine.writeNextChunk(false));
+    mainThread.runPosted();
+
+    assertTrue(track.released);
+    assertTrue(events.contains("first:error"));
+    assertTrue(events.contains("second:error"));
+    assertFalse(engine.writeNextChunk(false));
+  }
+
+  private void writeAll() throws InterruptedException {
+    while (engine.writeNextChunk(false)) {
+      // Keep writing until nothing is writable.
+    }
+  }
+
+  private AudioOutputEngine.ClipListener listener(String name) {
+    return new AudioOutputEngine.ClipListener() {
+      @Override
+      public void onCompleted() {
+        events.add(name + ":completed");
+      }
+
+      @Override
+      public void onError(@Nullable String error) {
+        events.add(name + ":error");
+      }
+    };
+  }
+
+  /** {@code frames} samples all set to {@code value}, so each clip is recognizable on the track. */
+  private static byte[] pcm(int value, int frames) {
+    byte[] pcm = new byte[frames * 2];
+    for (int i = 0; i < frames; i++) {
+      pcm[i * 2] = (byte) value;
+    }
+    return pcm;
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    byte[] joined = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, joined, first.length, second.length);
+    return joined;
+  }
+
+  /** Accepts every write at once; the playback head is set by the test. */
+  private static final class FakeTrack implements AudioOutputEngine.OutputTrack {
+    private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+    private long head;
+    private int writeResult;
+    private int playCount;
+    private int flushCount;
+    private boolean released;
+
+    @Override
+    public void play() {
+      playCount++;
+    }
+
+    @Override
+    public void pause() {}
+
+    @Override
+    public void flush() {
+      flushCount++;
+      written.reset();
+      head = 0;
+    }
+
+    @Override
+    public void release() {
+      released = true;
+    }
+
+    @Override
+    public int write(@NonNull byte[] data, int offset, int length) {
+      if (writeResult < 0) {
+        return writeResult;
+      }
+      written.write(data, offset, length);
+      return length;
+    }
+
+    @Override
+    public long getPlaybackHeadFrames() {
+      return head;
+    }
+  }
+
+  /** Keeps posted tasks until the test runs them; delayed tasks are never run. */
+  private static final class ManualMainThread implements AudioOutputEngine.MainThread {
+    private final List<Runnable> posted = new ArrayList<>();
+
+    @Override
+    public void post(@NonNull Runnable task) {
+      posted.add(task);
+    }
+
+    @Override
+    public void postDelayed(@NonNull Runnable task, long delayMs) {}
+
+    @Override
+    public void removeCallbacks(@NonNull Runnable task) {
+      posted.remove(task);
+    }
+
+    void runPosted() {
+      List<Runnable> tasks = new ArrayList<>(posted);
+      posted.clear();
+      for (Runnable task : tasks) {
+        task.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,276 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class FlacEncoderTest {
+  private static final int SAMPLE_RATE = 16000;
+
+  @Test
+  public void encode_roundTripsSpeechLikeAudioLosslessly() {
+    byte[] pcm = speechLike(3000);
+
+    byte[] flac = FlacEncoder.encode(SAMPLE_RATE, pcm);
+
+    Decoded decoded = decode(flac);
+    assertEquals(SAMPLE_RATE, decoded.sampleRate);
+    assertEquals(pcm.length / 2, decoded.totalSamples);
+    assertArrayEquals(pcm, decoded.pcm);
+    assertTrue("ratio " + flac.length / (double) pcm.length, flac.length < pcm.length * 0.7);
+  }
+
+  @Test
+  public void encode_handlesSilenceNoiseAndTinyInputs() {
+    assertArrayEquals(new byte[4000], decode(FlacEncoder.encode(SAMPLE_RATE, new byte[4000])).pcm);
+    byte[] noise = noise(500, 0.9);
+    assertArrayEquals(noise, decode(FlacEncoder.encode(SAMPLE_RATE, noise)).pcm);
+    byte[] tiny = Arrays.copyOf(noise, 10);
+    assertArrayEquals(tiny, decode(FlacEncoder.encode(SAMPLE_RATE, tiny)).pcm);
+    assertEquals(0, decode(FlacEncoder.encode(SAMPLE_RATE, new byte[0])).totalSamples);
+  }
+
+  @Test
+  public void encodeTake_reusesIncrementalBlocksForTrimmedRange() {
+    byte[] pcm = speechLike(2000);
+    FlacEncoder encoder = new FlacEncoder(SAMPLE_RATE, 1024);
+    for (int offset = 0; offset < pcm.length; offset += 333) {
+      encoder.write(pcm, offset, Math.min(333, pcm.length - offset));
+    }
+    assertEquals(pcm.length / 2, encoder.getSamplesWritten());
+
+    // Start a few samples before a block boundary so the head block is merged into the next.
+    int start = 1024 * 3 - 5;
+    int end = pcm.length - 3000;
+    byte[] kept = Arrays.copyOfRange(pcm, start * 2, end);
+    byte[] flac = encoder.encodeTake(start, kept, 0, kept.length);
+
+    assertArrayEquals(kept, decode(flac).pcm);
+    // Reused blocks frame to exactly what encoding the range from scratch produces.
+    assertArrayEquals(
+        new FlacEncoder(SAMPLE_RATE, 1024).encodeTake(start, kept, 0, kept.length), flac);
+  }
+
+  @Test
+  public void encodeTake_reencodesBlocksThatDoNotMatchTheWrittenStream() {
+    byte[] pcm = speechLike(1000);
+    FlacEncoder encoder = new FlacEncoder(SAMPLE_RATE, 1024);
+    encoder.write(pcm, 0, pcm.length);
+
+    byte[] changed = pcm.clone();
+    changed[5000] ^= 0x55;
+
+    assertArrayEquals(changed, decode(encoder.encodeTake(0, changed, 0, changed.length)).pcm);
+  }
+
+  private static byte[] speechLike(int ms) {
+    Random random = new Random(7);
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    double phase = 0;
+    for (int i = 0; i < samples; i++) {
+      double t = i / (double) SAMPLE_RATE;
+      double pitch = 140 + 30 * Math.sin(2 * Math.PI * 3 * t);
+      phase += 2 * Math.PI * pitch / SAMPLE_RATE;
+      double envelope = 0.5 + 0.5 * Math.sin(2 * Math.PI * 4 * t);
+      double voiced =
+          0.25 * Math.sin(phase) + 0.12 * Math.sin(2 * phase) + 0.06 * Math.sin(3 * phase);
+      values[i] = (short) ((voiced * envelope + random.nextGaussian() * 0.002) * 32767);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] noise(int ms, double amplitude) {
+    Random random = new Random(ms);
+    int samples = ms * SAMPLE_RATE / 1000;
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      double value = random.nextGaussian() * amplitude * 32767;
+      values[i] = (short) Math.max(-32768, Math.min(32767, value));
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] toBytes(short[] samples) {
+    byte[] bytes = new byte[samples.length * 2];
+    for (int i = 0; i < samples.length; i++) {
+      bytes[i * 2] = (byte) samples[i];
+      bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+    }
+    return bytes;
+  }
+
+  private static final class Decoded {
+    int sampleRate;
+    long totalSamples;
+    byte[] pcm;
+  }
+
+  /** Minimal decoder for the subset the encoder writes, checking every CRC on the way. */
+  private static Decoded decode(byte[] flac) {
+    BitReader in = new BitReader(flac);
+    assertEquals(0x664C6143, in.read(32)); // "fLaC"
+    assertEquals(0x80, in.read(8));
+    assertEquals(34, in.read(24));
+    in.read(16);
+    in.read(16);
+    in.read(24);
+    in.read(24);
+    Decoded decoded = new Decoded();
+    decoded.sampleRate = (int) in.read(20);
+    assertEquals(0, in.read(3));
+    assertEquals(15, in.read(5));
+    decoded.totalSamples = in.read(4) << 32 | in.read(32);
+    in.skipBytes(16);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    long expectedSample = 0;
+    while (in.position() < flac.length) {
+      int frameStart = in.position();
+      assertEquals(0xFFF9, in.read(16));
+      assertEquals(0x70, in.read(8));
+      assertEquals(0x08, in.read(8));
+      assertEquals(expectedSample, readCodedNumber(in));
+      int blockSize = (int) in.read(16) + 1;
+      assertEquals(crc8(flac, frameStart, in.position() - frameStart), in.read(8));
+
+      int[] samples = decodeSubframe(in, blockSize);
+      in.alignToByte();
+      int crc = crc16(flac, frameStart, in.position() - frameStart);
+      assertEquals(crc, in.read(16));
+      for (int sample : samples) {
+        out.write(sample);
+        out.write(sample >> 8);
+      }
+      expectedSample += blockSize;
+    }
+    assertEquals(decoded.totalSamples, expectedSample);
+    decoded.pcm = out.toByteArray();
+    return decoded;
+  }
+
+  private static int[] decodeSubframe(BitReader in, int blockSize) {
+    assertEquals(0, in.read(1));
+    int type = (int) in.read(6);
+    assertEquals(0, in.read(1));
+    int[] samples = new int[blockSize];
+    if (type == 0) {
+      Arrays.fill(samples, (short) in.read(16));
+      return samples;
+    }
+    if (type == 1) {
+      for (int i = 0; i < blockSize; i++) {
+        samples[i] = (short) in.read(16);
+      }
+      return samples;
+    }
+    assertEquals(0x08, type & 0x38);
+    int order = type & 0x07;
+    for (int i = 0; i < order; i++) {
+      samples[i] = (short) in.read(16);
+    }
+    assertEquals(0, in.read(2));
+    int partitionOrder = (int) in.read(4);
+    int index = order;
+    for (int partition = 0; partition < (1 << partitionOrder); partition++) {
+      int parameter = (int) in.read(4);
+      int end = (partition + 1) * (blockSize >> partitionOrder);
+      for (; index < end; index++) {
+        int quotient = 0;
+        while (in.read(1) == 0) {
+          quotient++;
+        }
+        int value = (quotient << parameter) | (int) in.read(parameter);
+        int residual = (value >>> 1) ^ -(value & 1);
+        samples[index] = residual + predict(samples, index, order);
+      }
+    }
+    return samples;
+  }
+
+  private static int predict(int[] s, int i, int order) {
+    switch (order) {
+      case 0:
+        return 0;
+      case 1:
+        return s[i - 1];
+      case 2:
+        return 2 * s[i - 1] - s[i - 2];
+      case 3:
+        return 3 * s[i - 1] - 3 * s[i - 2] + s[i - 3];
+      default:
+        return 4 * s[i - 1] - 6 * s[i - 2] + 4 * s[i - 3] - s[i - 4];
+    }
+  }
+
+  private static long readCodedNumber(BitReader in) {
+    int lead = (int) in.read(8);
+    if (lead < 0x80) {
+      return lead;
+    }
+    int continuation = Integer.numberOfLeadingZeros(~(lead << 24)) - 1;
+    long value = lead & (0x3F >> continuation);
+    for (int i = 0; i < continuation; i++) {
+      value = value << 6 | (in.read(8) & 0x3F);
+    }
+    return value;
+  }
+
+  private static int crc8(byte[] data, int offset, int length) {
+    int crc = 0;
+    for (int i = offset; i < offset + length; i++) {
+      crc ^= data[i] & 0xFF;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = ((crc & 0x80) != 0 ? (crc << 1) ^ 0x07 : crc << 1) & 0xFF;
+      }
+    }
+    return crc;
+  }
+
+  private static int crc16(byte[] data, int offset, int length) {
+    int crc = 0;
+    for (int i = offset; i < offset + length; i++) {
+      crc ^= (data[i] & 0xFF) << 8;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = ((crc & 0x8000) != 0 ? (crc << 1) ^ 0x8005 : crc << 1) & 0xFFFF;
+      }
+    }
+    return crc;
+  }
+
+  private static final class BitReader {
+    private final byte[] data;
+    private long bitPosition;
+
+    BitReader(byte[] data) {
+      this.data = data;
+    }
+
+    long read(int bits) {
+      long value = 0;
+      for (int i = 0; i < bits; i++) {
+        int bit = (data[(int) (bitPosition >>> 3)] >> (7 - (bitPosition & 7))) & 1;
+        value = value << 1 | bit;
+        bitPosition++;
+      }
+      return value;
+    }
+
+    void alignToByte() {
+      bitPosition = (bitPosition + 7) & ~7L;
+    }
+
+    void skipBytes(int count) {
+      bitPosition += 8L * count;
+    }
+
+    int position() {
+      return (int) (bitPosition >>> 3);
+    }
+  }
+}
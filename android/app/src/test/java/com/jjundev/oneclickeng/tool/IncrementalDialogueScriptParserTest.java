@@ -4,6 +4,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.junit.Test;
 
 public class IncrementalDialogueScriptParserTest {
@@ -79,4 +83,82 @@ public class IncrementalDialogueScriptParserTest {
     IncrementalDialogueScriptParser.ParseUpdate second = parser.addChunk("\"script\":[]}");
     assertNull(second.getMetadata());
   }
+
+  @Test
+  public void addChunk_emitsTurnOnItsClosingBraceWhenFedOneCharAtATime() {
+    IncrementalDialogueScriptParser parser = new IncrementalDialogueScriptParser();
+    String firstTurn = "{\"ko\":\"중괄호 }\",\"en\":\"Say \\\"{hi}\\\"\",\"role\":\"model\"}";
+    String json = "```json\n{\"topic\":\"A\",\"script\":[" + firstTurn + ",{\"ko\":\"b\"}]}\n```";
+
+    List<String> turns = new ArrayList<>();
+    for (int i = 0; i < json.length(); i++) {
+      List<String> completed =
+          parser.addChunk(String.valueOf(json.charAt(i))).getCompletedTurnObjects();
+      if (!completed.isEmpty()) {
+        assertEquals('}', json.charAt(i));
+        turns.addAll(completed);
+      }
+    }
+
+    assertEquals(2, turns.size());
+    assertEquals(firstTurn, turns.get(0));
+    assertEquals("{\"ko\":\"b\"}", turns.get(1));
+  }
+
+  @Test
+  public void addChunk_decodesEscapesInMetadataAndIgnoresTurnFields() {
+    IncrementalDialogueScriptParser parser = new IncrementalDialogueScriptParser();
+
+    IncrementalDialogueScriptParser.ParseUpdate update =
+        parser.addChunk(
+            "{\"script\":[{\"topic\":\"not metadata\"}],"
+                + "\"topic\":\"\\\"Caf\\u00e9\\\" order\",\"opponent_gender\":\"MALE\"}");
+
+    assertNotNull(update.getMetadata());
+    assertEquals("\"Café\" order", update.getMetadata().getTopic());
+    assertEquals("male", update.getMetadata().getOpponentGender());
+    assertEquals(1, update.getCompletedTurnObjects().size());
+  }
+
+  @Test
+  public void resolveMetadata_waitsForTopicThenFillsDefaults() {
+    Map<String, String> values = new HashMap<>();
+    values.put("opponent_name", "Barista");
+    assertNull(IncrementalDialogueScriptParser.resolveMetadata(values, null));
+
+    values.put("topic", " 카페 주문 ");
+
+    assertEquals(
+        new IncrementalDialogueScriptParser.Metadata("카페 주문", "Barista", "female"),
+        IncrementalDialogueScriptParser.resolveMetadata(values, null));
+  }
+
+  @Test
+  public void resolveMetadata_keepsPreviousDetailsAndNormalizesGender() {
+    IncrementalDialogueScriptParser.Metadata previous =
+        new IncrementalDialogueScriptParser.Metadata("미팅", "Manager", "male");
+    Map<String, String> values = new HashMap<>();
+    values.put("opponentGender", "unknown");
+
+    assertEquals(previous, IncrementalDialogueScriptParser.resolveMetadata(values, previous));
+
+    values.put("opponentGender", "FEMALE");
+    assertEquals(
+        new IncrementalDialogueScriptParser.Metadata("미팅", "Manager", "female"),
+        IncrementalDialogueScriptParser.resolveMetadata(values, previous));
+  }
+
+  @Test
+  public void resolveMetadata_prefersTheFirstTopicKeyWithAValue() {
+    Map<String, String> values = new HashMap<>();
+    values.put("topic", " ");
+    values.put("conversationTopic", "Airport");
+
+    IncrementalDialogueScriptParser.Metadata metadata =
+        IncrementalDialogueScriptParser.resolveMetadata(values, null);
+
+    assertNotNull(metadata);
+    assertEquals("Airport", metadata.getTopic());
+    assertEquals("AI Coach", metadata.getOpponentName());
+  }
 }
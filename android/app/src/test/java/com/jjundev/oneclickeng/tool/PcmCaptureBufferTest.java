@@ -0,0 +1,81 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import org.junit.Test;
+
+public class PcmCaptureBufferTest {
+
+  @Test
+  public void chunksAreReadIntoConsecutiveSlots() {
+    PcmCaptureBuffer buffer = new PcmCaptureBuffer(10, 4);
+    byte[] backing = buffer.array();
+
+    assertEquals(8, buffer.capacity());
+    assertEquals(0, buffer.nextChunkOffset());
+    assertEquals(4, buffer.nextChunkSize());
+    assertTrue(buffer.commit(3));
+    assertEquals(3, buffer.nextChunkOffset());
+    assertEquals(4, buffer.nextChunkSize());
+    assertTrue(buffer.commit(4));
+    assertEquals(7, buffer.nextChunkOffset());
+    assertEquals(1, buffer.nextChunkSize());
+    assertSame(backing, buffer.array());
+  }
+
+  @Test
+  public void chunksAfterCapacityGoToOverflowSlotAndAreNotKept() {
+    PcmCaptureBuffer buffer = new PcmCaptureBuffer(4, 4);
+    assertTrue(buffer.commit(4));
+    assertFalse(buffer.isOverflowed());
+
+    assertEquals(4, buffer.nextChunkOffset());
+    assertEquals(4, buffer.nextChunkSize());
+    assertFalse(buffer.commit(4));
+
+    assertTrue(buffer.isOverflowed());
+    assertEquals(4, buffer.length());
+    assertEquals(4, buffer.nextChunkOffset());
+  }
+
+  @Test
+  public void asReadOnlyBuffer_viewsTakeWithoutCopying() {
+    PcmCaptureBuffer buffer = new PcmCaptureBuffer(8, 4);
+    buffer.array()[0] = 7;
+    buffer.commit(2);
+
+    ByteBuffer view = buffer.asReadOnlyBuffer();
+    buffer.array()[1] = 9;
+
+    assertEquals(2, view.remaining());
+    assertEquals(7, view.get(0));
+    assertEquals(9, view.get(1));
+    try {
+      view.put(0, (byte) 1);
+      throw new AssertionError("view must be read-only");
+    } catch (ReadOnlyBufferException expected) {
+      // expected
+    }
+  }
+
+  @Test
+  public void reset_startsNewTakeInSameArray() {
+    PcmCaptureBuffer buffer = new PcmCaptureBuffer(4, 4);
+    byte[] backing = buffer.array();
+    buffer.commit(4);
+    buffer.commit(4);
+
+    buffer.reset();
+
+    assertEquals(0, buffer.length());
+    assertFalse(buffer.isOverflowed());
+    assertEquals(0, buffer.nextChunkOffset());
+    assertEquals(0, buffer.asReadOnlyBuffer().remaining());
+    assertSame(backing, buffer.array());
+  }
+}
@@ -0,0 +1,87 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import org.junit.Test;
+
+public class PcmResamplerTest {
+
+  @Test
+  public void process_passesThroughMatchingRates() {
+    byte[] pcm = sine(16000, 440, 1000);
+
+    assertArrayEquals(pcm, new PcmResampler(24000, 24000).process(pcm, 0, pcm.length));
+  }
+
+  @Test
+  public void process_upsamplesByInterpolatingNeighbours() {
+    byte[] pcm = toBytes(new short[] {0, 300, 600, -900});
+
+    short[] out = toShorts(new PcmResampler(16000, 24000).process(pcm, 0, pcm.length));
+
+    // Output k sits at input position k * 2 / 3; the last sample needs a successor to interpolate.
+    assertArrayEquals(new short[] {0, 200, 400, 600, -400}, out);
+  }
+
+  @Test
+  public void process_givesTheSameOutputForAnyChunking() {
+    byte[] pcm = sine(16000, 220, 2000);
+    byte[] whole = new PcmResampler(16000, 24000).process(pcm, 0, pcm.length);
+
+    PcmResampler chunked = new PcmResampler(16000, 24000);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    // Odd chunk sizes split samples across calls.
+    for (int offset = 0; offset < pcm.length; offset += 333) {
+      int length = Math.min(333, pcm.length - offset);
+      byte[] converted = chunked.process(pcm, offset, length);
+      assertEquals(0, converted.length % 2);
+      out.write(converted, 0, converted.length);
+    }
+
+    assertArrayEquals(whole, out.toByteArray());
+  }
+
+  @Test
+  public void process_keepsDurationAndPitch() {
+    byte[] pcm = sine(16000, 500, 16000);
+
+    short[] out = toShorts(new PcmResampler(16000, 24000).process(pcm, 0, pcm.length));
+
+    assertTrue(Math.abs(out.length - 24000) <= 1);
+    int crossings = 0;
+    for (int i = 1; i < out.length; i++) {
+      if (out[i - 1] < 0 && out[i] >= 0) {
+        crossings++;
+      }
+    }
+    assertTrue("crossings " + crossings, Math.abs(crossings - 500) <= 1);
+  }
+
+  private static byte[] sine(int sampleRate, double frequency, int samples) {
+    short[] values = new short[samples];
+    for (int i = 0; i < samples; i++) {
+      values[i] = (short) (Math.sin(2 * Math.PI * frequency * i / sampleRate) * 12000);
+    }
+    return toBytes(values);
+  }
+
+  private static byte[] toBytes(short[] samples) {
+    byte[] bytes = new byte[samples.length * 2];
+    for (int i = 0; i < samples.length; i++) {
+      bytes[i * 2] = (byte) samples[i];
+      bytes[i * 2 + 1] = (byte) (samples[i] >> 8);
+    }
+    return bytes;
+  }
+
+  private static short[] toShorts(byte[] bytes) {
+    short[] samples = new short[bytes.length / 2];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = (short) ((bytes[i * 2] & 0xFF) | (bytes[i * 2 + 1] << 8));
+    }
+    return samples;
+  }
+}
@@ -0,0 +1,100 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class StreamingJsonBinderTest {
+
+  @Test
+  public void bind_readsKeyAndElementPathsAndSkipsTheRest() throws IOException {
+    List<String> values = new ArrayList<>();
+    StreamingJsonBinder binder =
+        new StreamingJsonBinder()
+            .on("topic", (reader, index) -> values.add("topic=" + reader.nextString()))
+            .on("script[]", (reader, index) -> values.add(index + "=" + readText(reader)));
+
+    boolean complete =
+        binder.bind(
+            new StringReader(
+                "```json\n{\"meta\":{\"topic\":\"nested\"},\"topic\":\"Cafe\","
+                    + "\"script\":[{\"text\":\"hi\"},{\"text\":\"bye\"}]}\n```"));
+
+    assertTrue(complete);
+    assertEquals(List.of("topic=Cafe", "0=hi", "1=bye"), values);
+  }
+
+  @Test
+  public void bind_readsRootArrayElements() throws IOException {
+    List<String> values = new ArrayList<>();
+    new StreamingJsonBinder()
+        .on(
+            StreamingJsonExtractor.ROOT_ARRAY,
+            (reader, index) -> values.add(StreamingJsonBinder.nextStringOrNull(reader)))
+        .bind(new StringReader("[\"a\", 2, true, null, {\"x\":1}]"));
+
+    assertEquals(5, values.size());
+    assertEquals("a", values.get(0));
+    assertEquals("2", values.get(1));
+    assertEquals("true", values.get(2));
+    assertNull(values.get(3));
+    assertNull(values.get(4));
+  }
+
+  @Test
+  public void bind_keepsValuesBoundBeforeTruncation() throws IOException {
+    List<String> values = new ArrayList<>();
+    StreamingJsonBinder binder =
+        new StreamingJsonBinder().on("items[]", (reader, index) -> values.add(readText(reader)));
+
+    boolean complete =
+        binder.bind(new StringReader("{\"items\":[{\"text\":\"one\"},{\"text\":\"tw"));
+
+    assertFalse(complete);
+    assertEquals(List.of("one"), values);
+  }
+
+  @Test
+  public void stop_endsBindingAfterCurrentValue() throws IOException {
+    List<String> values = new ArrayList<>();
+    StreamingJsonBinder binder = new StreamingJsonBinder();
+    binder.on(
+        "items[]",
+        (reader, index) -> {
+          values.add(readText(reader));
+          if (values.size() == 2) {
+            binder.stop();
+          }
+        });
+
+    boolean complete =
+        binder.bind(
+            new StringReader(
+                "{\"items\":[{\"text\":\"a\"},{\"text\":\"b\"},{\"text\":\"c\"}]}"));
+
+    assertFalse(complete);
+    assertEquals(List.of("a", "b"), values);
+  }
+
+  private static String readText(JsonReader reader) throws IOException {
+    String text = null;
+    reader.beginObject();
+    while (reader.hasNext()) {
+      if ("text".equals(reader.nextName())) {
+        text = StreamingJsonBinder.nextStringOrNull(reader);
+      } else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+    return text;
+  }
+}
@@ -0,0 +1,80 @@
+package com.jjundev.oneclickeng.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+public class StreamingJsonExtractorTest {
+
+  @Test
+  public void addChunk_emitsTopLevelSectionsAsTheyComplete() {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("writingScore", "grammar");
+
+    List<StreamingJsonExtractor.Event> first =
+        extractor.addChunk("{\"writingScore\":{\"score\":85},\"grammar\":{\"note\":\"a");
+    List<StreamingJsonExtractor.Event> second = extractor.addChunk("b\"},\"other\":{\"x\":1}}");
+
+    assertEquals(1, first.size());
+    assertEquals("writingScore", first.get(0).getPath());
+    assertEquals(-1, first.get(0).getIndex());
+    assertEquals("{\"score\":85}", first.get(0).getJson());
+    assertEquals(1, second.size());
+    assertEquals("{\"note\":\"ab\"}", second.get(0).getJson());
+  }
+
+  @Test
+  public void addChunk_handlesEscapedBackslashBeforeClosingQuote() {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("grammar");
+
+    // The value ends in an escaped backslash, so the following quote closes the string.
+    String grammar = "{\"path\":\"C:\\\\\",\"brace\":\"}\"}";
+    List<StreamingJsonExtractor.Event> events =
+        extractor.addChunk("{\"grammar\":" + grammar + ",\"tail\":1}");
+
+    assertEquals(1, events.size());
+    assertEquals(grammar, events.get(0).getJson());
+  }
+
+  @Test
+  public void addChunk_emitsArrayElementsOneCharAtATime() {
+    StreamingJsonExtractor extractor = new StreamingJsonExtractor("questions[]");
+    String json =
+        "```json\n{\"meta\":{\"questions\":[{\"q\":0}]},"
+            + "\"questions\":[{\"q\":\"[1]\"}, {\"q\":2} ,\"three\", 4]}\n```";
+
+    List<StreamingJsonExtractor.Event> events = new ArrayList<>();
+    for (int i = 0; i < json.length(); i++) {
+      events.addAll(extractor.addChunk(String.valueOf(json.charAt(i))));
+    }
+
+    assertEquals(4, events.size());
+    assertEquals("{\"q\":\"[1]\"}", events.get(0).getJson());
+    assertEquals("{\"q\":2}", events.get(1).getJson());
+    assertEquals("\"three\"", events.get(2).getJson());
+    assertEquals("4", events.get(3).getJson());
+    for (int i = 0; i < events.size(); i++) {
+      assertEquals("questions[]", events.get(i).getPath());
+      assertEquals(i, events.get(i).getIndex());
+    }
+  }
+
+  @Test
+  public void addChunk_supportsRootArrayAndScalarKeys() {
+    StreamingJsonExtractor rootArray =
+        new StreamingJsonExtractor("expressions[]", StreamingJsonExtractor.ROOT_ARRAY);
+    List<StreamingJsonExtractor.Event> elements = rootArray.addChunk("[{\"a\":1},{\"b\":2}]");
+    assertEquals(2, elements.size());
+    assertEquals(StreamingJsonExtractor.ROOT_ARRAY, elements.get(1).getPath());
+
+    StreamingJsonExtractor scalars = new StreamingJsonExtractor("score", "done");
+    List<StreamingJsonExtractor.Event> values = scalars.addChunk("{\"score\": 9");
+    assertTrue(values.isEmpty());
+    values = scalars.addChunk("5 ,\"done\":true}");
+    assertEquals(2, values.size());
+    assertEquals("95", values.get(0).getJson());
+    assertEquals("true", values.get(1).getJson());
+  }
+}
@@ -0,0 +1,68 @@
+package com.jjundev.oneclickeng.view;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AmplitudeRingTest {
+
+  @Test
+  public void drainPeak_returnsTheLoudestValueSinceTheLastDrain() {
+    AmplitudeRing ring = new AmplitudeRing(8);
+    assertEquals(AmplitudeRing.NONE, ring.drainPeak(), 0f);
+
+    ring.push(0.2f);
+    ring.push(0.7f);
+    ring.push(0.4f);
+
+    assertEquals(0.7f, ring.drainPeak(), 0f);
+    assertEquals(AmplitudeRing.NONE, ring.drainPeak(), 0f);
+    ring.push(0.1f);
+    assertEquals(0.1f, ring.drainPeak(), 0f);
+  }
+
+  @Test
+  public void drainPeak_onlySeesTheNewestValuesWhenTheReaderFallsBehind() {
+    AmplitudeRing ring = new AmplitudeRing(4);
+    ring.push(0.9f);
+    for (int i = 0; i < 4; i++) {
+      ring.push(0.3f);
+    }
+
+    assertEquals(0.3f, ring.drainPeak(), 0f);
+  }
+
+  @Test
+  public void clear_dropsUnreadValues() {
+    AmplitudeRing ring = new AmplitudeRing(4);
+    ring.push(0.5f);
+    ring.clear();
+
+    assertEquals(AmplitudeRing.NONE, ring.drainPeak(), 0f);
+  }
+
+  @Test
+  public void concurrentProducer_neverYieldsValuesItDidNotWrite() throws Exception {
+    AmplitudeRing ring = new AmplitudeRing(16);
+    Thread producer =
+        new Thread(
+            () -> {
+              for (int i = 1; i <= 200_000; i++) {
+                ring.push((i % 100) / 100f);
+              }
+            });
+    producer.start();
+    while (producer.isAlive()) {
+      float peak = ring.drainPeak();
+      if (peak != AmplitudeRing.NONE) {
+        assertTrue("peak " + peak, peak >= 0f && peak < 1f);
+      }
+    }
+    producer.join();
+
+    ring.drainPeak();
+    ring.push(0.25f);
+    assertEquals(0.25f, ring.drainPeak(), 0f);
+  }
+}